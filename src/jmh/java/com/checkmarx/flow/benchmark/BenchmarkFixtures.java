@@ -0,0 +1,152 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.flow.service.SastReportReader;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark inputs built from the Cucumber sample results (cucumber/data/sample-*-results) on the test classpath,
+ * scaled up by copying the findings of a sample under distinct file names, finding ids and commit ids.
+ */
+public final class BenchmarkFixtures {
+    public static final String DATA_DIR = "cucumber/data/";
+    public static final String SAST_REPORT = DATA_DIR + "sample-sast-results/11-findings.xml";
+    public static final String AST_RESULTS = DATA_DIR + "sample-ast-results/5-findings-2-high-3-medium.json";
+    public static final String SCA_RESULTS = DATA_DIR + "sample-sca-results/8-findings-2-high-6-medium.json";
+    public static final String PUSH_EVENT = DATA_DIR + "sample-webhook-requests/github-push.json";
+    public static final String SOURCE_FILE = DATA_DIR + "input-code-samples/DOS_Login.java";
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private BenchmarkFixtures() {
+    }
+
+    public static byte[] readResource(String path) {
+        try (InputStream stream = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(path)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing benchmark resource " + path);
+            }
+            return IOUtils.toByteArray(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * SAST issues of the sample report, repeated copies times, each copy under its own source folder.
+     *
+     * @return scan details of the report with the issues of all the copies
+     */
+    public static ScanResults sastResults(int copies) {
+        byte[] report = readResource(SAST_REPORT);
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        ScanResults results = null;
+        try {
+            for (int copy = 0; copy < copies; copy++) {
+                String folder = "src/module" + copy + "/";
+                SastReportReader reader = new SastReportReader(FilterConfiguration.builder().build());
+                results = reader.read(new ByteArrayInputStream(report), new SastReportReader.Listener() {
+                    @Override
+                    public void start(ScanResults header) {
+                        // Scan details are the same for every copy.
+                    }
+
+                    @Override
+                    public void issue(ScanResults.XIssue issue) {
+                        issue.setFilename(folder + issue.getFilename());
+                        issues.add(issue);
+                    }
+                });
+            }
+        } catch (MachinaException e) {
+            throw new IllegalStateException(e);
+        }
+        results.setXIssues(issues);
+        return results;
+    }
+
+    /**
+     * AST results with the findings of the sample repeated copies times, under distinct file names and ids.
+     */
+    public static ScanResults astResults(int copies) {
+        ObjectNode root = readTree(AST_RESULTS);
+        ArrayNode findings = (ArrayNode) root.path("astResults").path("results").path("findings");
+        scale(findings, copies, (finding, copy) -> {
+            finding.put("similarityID", finding.path("similarityID").asLong() + copy);
+            finding.put("uniqueID", finding.path("uniqueID").asLong() + copy);
+            for (JsonNode node : finding.path("nodes")) {
+                ((ObjectNode) node).put("fileName", "/module" + copy + node.path("fileName").asText());
+            }
+        });
+        return toScanResults(root);
+    }
+
+    /**
+     * SCA results with the findings of the sample repeated copies times, under distinct finding ids.
+     */
+    public static ScanResults scaResults(int copies) {
+        ObjectNode root = readTree(SCA_RESULTS);
+        ArrayNode findings = (ArrayNode) root.path("scaResults").path("findings");
+        scale(findings, copies, (finding, copy) -> finding.put("id", finding.path("id").asText() + "-" + copy));
+        return toScanResults(root);
+    }
+
+    /**
+     * GitHub push event body with the commit of the sample repeated commitCount times.
+     */
+    public static String pushEvent(int commitCount) {
+        ObjectNode root = readTree(PUSH_EVENT);
+        scale((ArrayNode) root.path("commits"), commitCount, (commit, copy) ->
+                commit.put("id", String.format("%040x", copy)));
+        return root.toString();
+    }
+
+    private static void scale(ArrayNode items, int copies, Customizer customizer) {
+        List<JsonNode> originals = new ArrayList<>();
+        items.forEach(originals::add);
+        items.removeAll();
+        for (int copy = 0; copy < copies; copy++) {
+            for (JsonNode original : originals) {
+                ObjectNode item = original.deepCopy();
+                customizer.customize(item, copy);
+                items.add(item);
+            }
+        }
+    }
+
+    private static ObjectNode readTree(String path) {
+        try {
+            return (ObjectNode) mapper.readTree(readResource(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ScanResults toScanResults(JsonNode root) {
+        try {
+            return mapper.treeToValue(root, ScanResults.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Customizer {
+        void customize(ObjectNode item, int copy);
+    }
+}
@@ -0,0 +1,77 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.flow.utils.ScanUtils;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.cx.CxScanSummary;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issue bodies for every issue of a scan: Markdown (GitHub, GitLab) and HTML (ADO, Rally), plus the Markdown
+ * pull request comment of the whole scan. The input is the SAST sample report scaled to copies x 11 findings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IssueBodyBenchmark {
+
+    @Param({"100"})
+    public int copies;
+
+    private ScanResults results;
+    private ScanRequest request;
+    private FlowProperties flowProperties;
+    private GitHubProperties gitHubProperties;
+
+    @Setup
+    public void setUp() {
+        results = BenchmarkFixtures.sastResults(copies);
+        CxScanSummary summary = new CxScanSummary();
+        summary.setHighSeverity(results.getXIssues().size());
+        summary.setMediumSeverity(0);
+        summary.setLowSeverity(0);
+        summary.setInfoSeverity(0);
+        results.setScanSummary(summary);
+        request = ScanRequest.builder()
+                .namespace("checkmarx")
+                .repoName("cx-flow")
+                .repoUrl("https://github.com/checkmarx/cx-flow.git")
+                .branch("develop")
+                .product(ScanRequest.Product.CX)
+                .bugTracker(BugTracker.builder().type(BugTracker.Type.GITHUBPULL).build())
+                .build();
+        flowProperties = new FlowProperties();
+        gitHubProperties = new GitHubProperties();
+        gitHubProperties.setCxSummary(true);
+    }
+
+    @Benchmark
+    public void markdownBodies(Blackhole blackhole) {
+        for (ScanResults.XIssue issue : results.getXIssues()) {
+            String fileUrl = ScanUtils.getFileUrl(request, issue.getFilename());
+            blackhole.consume(HTMLHelper.getMDBody(issue, request.getBranch(), fileUrl, flowProperties));
+        }
+    }
+
+    @Benchmark
+    public void htmlBodies(Blackhole blackhole) {
+        for (ScanResults.XIssue issue : results.getXIssues()) {
+            blackhole.consume(HTMLHelper.getHTMLBody(issue, request, flowProperties));
+        }
+    }
+
+    @Benchmark
+    public String mergeCommentMarkdown() {
+        return HTMLHelper.getMergeCommentMD(request, results, gitHubProperties);
+    }
+}
@@ -0,0 +1,46 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.utils.ScanUtils;
+import com.checkmarx.sdk.dto.ScanResults;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of AST findings and SCA findings into XIssues ({@link ScanUtils}), for the AST and SCA samples
+ * scaled to findingCopies copies of their findings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultsConversionBenchmark {
+
+    @Param({"200", "2000"})
+    public int findingCopies;
+
+    private ScanResults astResults;
+    private ScanResults scaResults;
+
+    @Setup
+    public void setUp() {
+        astResults = BenchmarkFixtures.astResults(findingCopies);
+        scaResults = BenchmarkFixtures.scaResults(findingCopies);
+    }
+
+    /**
+     * The conversion replaces the issues, summary and details of the results, so repeated calls do the same work.
+     */
+    @Benchmark
+    public List<ScanResults.XIssue> astToXIssues() {
+        return ScanUtils.setASTXIssuesInScanResults(astResults);
+    }
+
+    @Benchmark
+    public List<ScanResults.XIssue> scaToXIssues() {
+        return ScanUtils.scaToXIssues(scaResults.getScaResults());
+    }
+}
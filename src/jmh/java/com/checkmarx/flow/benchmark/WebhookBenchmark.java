@@ -0,0 +1,83 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.ScmConfigOverrider;
+import com.checkmarx.flow.controller.GitHubController;
+import com.checkmarx.flow.dto.github.PushEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request work of a GitHub push webhook before the scan is queued: signature verification and JSON binding of
+ * the sample push event scaled to commitCount commits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WebhookBenchmark {
+    private static final String WEBHOOK_TOKEN = "benchmark-webhook-token";
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+
+    @Param({"1", "100"})
+    public int commitCount;
+
+    private String body;
+    private String signature;
+    private GitHubController controller;
+    private ObjectMapper sharedMapper;
+    private Mac initializedMac;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        body = BenchmarkFixtures.pushEvent(commitCount);
+        initializedMac = Mac.getInstance(HMAC_ALGORITHM);
+        initializedMac.init(new SecretKeySpec(WEBHOOK_TOKEN.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+        signature = "sha1=" + DatatypeConverter.printHexBinary(initializedMac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+
+        GitHubProperties properties = new GitHubProperties();
+        properties.setWebhookToken(WEBHOOK_TOKEN);
+        controller = new GitHubController(properties, null, null, null, null, null, null, null, null, null,
+                new ScmConfigOverrider());
+        sharedMapper = new ObjectMapper();
+    }
+
+    /**
+     * As the controller does it, with a new ObjectMapper per request.
+     */
+    @Benchmark
+    public PushEvent bindPushEvent() throws IOException {
+        return new ObjectMapper().readValue(body, PushEvent.class);
+    }
+
+    @Benchmark
+    public PushEvent bindPushEventSharedMapper() throws IOException {
+        return sharedMapper.readValue(body, PushEvent.class);
+    }
+
+    /**
+     * Includes the key setup the controller repeats for every request.
+     */
+    @Benchmark
+    public void verifySignature() {
+        controller.verifyHmacSignature(body, signature, null);
+    }
+
+    /**
+     * Baseline: the digest alone, with a key set up once.
+     */
+    @Benchmark
+    public byte[] hmacDigest() {
+        return initializedMac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.service.WorkQueueService;
+import com.checkmarx.flow.utils.HTMLHelper;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic backlog of 10k queued webhook events with push payloads, as held by the work queue while scans run.
+ * Reports the heap retained by the backlog (heapRetainedMb) for a budget that never spills and for the default
+ * per-job memory budget, plus the time to admit the backlog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class WorkQueueBacklogBenchmark {
+    private static final String[] TEAMS = {"/CxServer/SP/Company/TeamA", "/CxServer/SP/Company/TeamB"};
+    private static final String[] BRANCHES = {"master", "develop", "release/1.0"};
+
+    @Param({"10000"})
+    public int eventCount;
+
+    @Param({"64"})
+    public int payloadKb;
+
+    /**
+     * Integer.MAX_VALUE keeps every payload on the heap, as before spilling was introduced.
+     */
+    @Param({"2147483647", "16"})
+    public int jobMemoryBudgetKb;
+
+    private WorkQueueService queue;
+    private List<ScanRequest> backlog;
+    private List<Long> jobIds;
+    private long baselineHeap;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HeapCounters {
+        public long heapRetainedMb;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.getWorkQueue().setCapacity(eventCount);
+        flowProperties.getWorkQueue().setJobMemoryBudgetKb(jobMemoryBudgetKb);
+        queue = new WorkQueueService(flowProperties);
+        baselineHeap = usedHeap();
+        backlog = new ArrayList<>(eventCount);
+        jobIds = new ArrayList<>(eventCount);
+        String payloadTemplate = RandomStringUtils.randomAlphanumeric(payloadKb * 1024);
+        for (int i = 0; i < eventCount; i++) {
+            ScanRequest request = ScanRequest.builder()
+                    .id(String.valueOf(i))
+                    // Distinct copies, like strings deserialized from separate webhook calls.
+                    .team(new String(TEAMS[i % TEAMS.length]))
+                    .branch(new String(BRANCHES[i % BRANCHES.length]))
+                    .repoName(new String("repo-" + i % 100))
+                    .bugTracker(BugTracker.builder().type(BugTracker.Type.JIRA).build())
+                    .build();
+            request.putAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD, i + payloadTemplate);
+            backlog.add(request);
+        }
+    }
+
+    @Benchmark
+    public void admitBacklog(HeapCounters counters) {
+        for (ScanRequest request : backlog) {
+            jobIds.add(queue.enqueue(request));
+        }
+        counters.heapRetainedMb = Math.max(0, (usedHeap() - baselineHeap) / (1024 * 1024));
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        jobIds.forEach(queue::complete);
+        queue.close();
+    }
+}
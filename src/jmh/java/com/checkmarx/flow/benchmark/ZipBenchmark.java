@@ -0,0 +1,61 @@
+package com.checkmarx.flow.benchmark;
+
+import com.checkmarx.flow.utils.ZipUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packaging of a source tree for a scan ({@link ZipUtils#zipFile}): fileCount copies of the Java input sample
+ * spread over 10 folders, with and without exclude patterns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZipBenchmark {
+    private static final int FOLDER_COUNT = 10;
+    private static final String EXCLUDE_PATTERNS = ".*/test/.*,.*\\.min\\.js";
+
+    @Param({"2000"})
+    public int fileCount;
+
+    private Path sourceDir;
+    private Path zipFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] source = BenchmarkFixtures.readResource(BenchmarkFixtures.SOURCE_FILE);
+        sourceDir = Files.createTempDirectory("cx-flow-zip-benchmark");
+        for (int i = 0; i < fileCount; i++) {
+            Path folder = sourceDir.resolve("src/module" + i % FOLDER_COUNT);
+            Files.createDirectories(folder);
+            Files.write(folder.resolve("DOS_Login" + i + ".java"), source);
+        }
+        zipFile = Files.createTempFile("cx-flow-zip-benchmark", ".zip");
+    }
+
+    @Benchmark
+    public long zipSources() throws IOException {
+        ZipUtils.zipFile(sourceDir.toString(), zipFile.toString(), null);
+        return Files.size(zipFile);
+    }
+
+    @Benchmark
+    public long zipSourcesWithExcludes() throws IOException {
+        ZipUtils.zipFile(sourceDir.toString(), zipFile.toString(), EXCLUDE_PATTERNS);
+        return Files.size(zipFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(sourceDir);
+        Files.deleteIfExists(zipFile);
+    }
+}
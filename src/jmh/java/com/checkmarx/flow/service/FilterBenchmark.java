@@ -0,0 +1,134 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.checkmarx.sdk.dto.filtering.ScriptedFilter;
+import groovy.lang.GroovyShell;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter evaluation over a synthetic 100k-finding result set: list-based matching (one walk over the filter list
+ * per finding and type) against {@link CompiledFilter}, plus the cost of compiling a filter script. In the service
+ * package because the compiled filter is internal to the streaming report reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark {
+    private static final String[] SEVERITIES = {"High", "Medium", "Low", "Information"};
+    private static final String[] STATUSES = {"New", "Recurrent", "ReOccured"};
+    private static final String[] STATES = {"To Verify", "Confirmed", "Urgent", "Not Exploitable"};
+    private static final String SCRIPT =
+            "finding.severity == 'HIGH' || (finding.severity == 'MEDIUM' && finding.state == 'URGENT')";
+
+    @Param({"100000"})
+    public int findingCount;
+
+    private String[][] findings;
+    private FilterConfiguration simpleConfiguration;
+    private FilterConfiguration scriptedConfiguration;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        findings = new String[findingCount][];
+        for (int i = 0; i < findingCount; i++) {
+            findings[i] = new String[]{
+                    SEVERITIES[random.nextInt(SEVERITIES.length)],
+                    String.valueOf(random.nextInt(1000)),
+                    "Query_" + random.nextInt(200),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    STATES[random.nextInt(STATES.length)]
+            };
+        }
+
+        List<Filter> filters = new ArrayList<>();
+        filters.add(filter(Filter.Type.SEVERITY, "High"));
+        filters.add(filter(Filter.Type.SEVERITY, "Medium"));
+        for (int cwe = 0; cwe < 500; cwe += 5) {
+            filters.add(filter(Filter.Type.CWE, String.valueOf(cwe)));
+        }
+        for (int query = 0; query < 200; query += 3) {
+            filters.add(filter(Filter.Type.TYPE, "Query_" + query));
+        }
+        filters.add(filter(Filter.Type.STATUS, "New"));
+        simpleConfiguration = FilterConfiguration.builder()
+                .simpleFilters(filters)
+                .scriptedFilter(ScriptedFilter.builder().build())
+                .build();
+
+        scriptedConfiguration = FilterConfiguration.builder()
+                .simpleFilters(Collections.emptyList())
+                .scriptedFilter(ScriptedFilter.builder()
+                        .script(FilterFactory.parseScriptText(SCRIPT))
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public void simpleFiltersListMatching(Blackhole blackhole) {
+        List<Filter> filters = simpleConfiguration.getSimpleFilters();
+        for (String[] finding : findings) {
+            blackhole.consume(matchesType(filters, Filter.Type.SEVERITY, finding[0])
+                    && matchesType(filters, Filter.Type.CWE, finding[1])
+                    && matchesType(filters, Filter.Type.TYPE, finding[2])
+                    && matchesType(filters, Filter.Type.STATUS, finding[3])
+                    && matchesType(filters, Filter.Type.STATE, finding[4]));
+        }
+    }
+
+    @Benchmark
+    public void simpleFiltersCompiled(Blackhole blackhole) {
+        CompiledFilter compiled = CompiledFilter.compile(simpleConfiguration);
+        for (String[] finding : findings) {
+            blackhole.consume(compiled.accepts(finding[0], finding[1], finding[2], finding[3], finding[4]));
+        }
+    }
+
+    @Benchmark
+    public void scriptedFilterCompiled(Blackhole blackhole) {
+        CompiledFilter compiled = CompiledFilter.compile(scriptedConfiguration);
+        for (String[] finding : findings) {
+            blackhole.consume(compiled.accepts(finding[0], finding[1], finding[2], finding[3], finding[4]));
+        }
+    }
+
+    /**
+     * Cost paid per request before compiled script classes were cached.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object scriptParsingUncached() {
+        return new GroovyShell().parse(SCRIPT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object scriptParsingCached() {
+        return FilterFactory.parseScriptText(SCRIPT);
+    }
+
+    private static boolean matchesType(List<Filter> filters, Filter.Type type, String value) {
+        boolean typePresent = false;
+        for (Filter filter : filters) {
+            if (filter.getType() == type) {
+                typePresent = true;
+                if (filter.getValue().equalsIgnoreCase(value)) {
+                    return true;
+                }
+            }
+        }
+        return !typePresent;
+    }
+
+    private static Filter filter(Filter.Type type, String value) {
+        return Filter.builder().type(type).value(value).build();
+    }
+}
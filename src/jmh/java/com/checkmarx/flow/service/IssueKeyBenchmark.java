@@ -0,0 +1,66 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.benchmark.BenchmarkFixtures;
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.JiraProperties;
+import com.checkmarx.flow.custom.GitHubIssueTracker;
+import com.checkmarx.flow.custom.IssueTracker;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.ScanResults;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key generation for the issues of a scan, as done before every bug tracker update: the generic map built by
+ * {@link IssueService} (keys from the GitHub tracker) and the Jira map built by {@link JiraService}.
+ * The input is the SAST sample report scaled to copies x 11 findings, plus the scaled SCA sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IssueKeyBenchmark {
+
+    @Param({"1000"})
+    public int copies;
+
+    private ScanResults results;
+    private ScanRequest request;
+    private IssueService issueService;
+    private IssueTracker gitHubTracker;
+    private JiraService jiraService;
+
+    @Setup
+    public void setUp() {
+        results = BenchmarkFixtures.scaResults(copies);
+        results.setXIssues(BenchmarkFixtures.sastResults(copies).getXIssues());
+        request = ScanRequest.builder()
+                .namespace("checkmarx")
+                .repoName("cx-flow")
+                .branch("develop")
+                .product(ScanRequest.Product.CX)
+                .bugTracker(BugTracker.builder().type(BugTracker.Type.JIRA).build())
+                .build();
+
+        FlowProperties flowProperties = new FlowProperties();
+        issueService = new IssueService(flowProperties);
+        gitHubTracker = new GitHubIssueTracker(null, new GitHubProperties(), flowProperties, null, null);
+        jiraService = new JiraService(new JiraProperties(), flowProperties);
+    }
+
+    @Benchmark
+    public Map<String, ScanResults.XIssue> xIssueMap() {
+        return issueService.getXIssueMap(gitHubTracker, results, request);
+    }
+
+    @Benchmark
+    public Map<String, ScanResults.XIssue> jiraIssueMap() {
+        return jiraService.getIssueMap(results, request);
+    }
+}
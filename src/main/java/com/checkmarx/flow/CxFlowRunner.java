@@ -9,7 +9,6 @@ import com.checkmarx.sdk.config.Constants;
 import com.checkmarx.sdk.config.CxProperties;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,12 +16,13 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.MDC;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
@@ -50,11 +50,12 @@ public class CxFlowRunner implements ApplicationRunner {
     private final GitLabProperties gitLabProperties;
     private final ADOProperties adoProperties;
     private final HelperService helperService;
-    private final List<ThreadPoolTaskExecutor> executors;
+    private final List<AsyncListenableTaskExecutor> executors;
     private final ResultsService resultsService;
     private final OsaScannerService osaScannerService;
     private final FilterFactory filterFactory;
     private final ConfigurationOverrider configOverrider;
+    private final FlowOverrideResolver overrideResolver;
     private final List<VulnerabilityScanner> scanners;
     private static final String ERROR_BREAK_MSG = "Exiting with Error code 10 due to issues present";
 
@@ -76,7 +77,7 @@ public class CxFlowRunner implements ApplicationRunner {
                 System.exit(ee.getExitCode());
             } finally {
                 if (executors != null && (args.containsOption("scan") || args.containsOption(PARSE_OPTION) || args.containsOption(BATCH_OPTION))) {
-                    executors.forEach(ThreadPoolTaskExecutor::shutdown);
+                    executors.forEach(FlowAsyncConfig::shutdown);
                 }
             }
         }
@@ -112,7 +113,6 @@ public class CxFlowRunner implements ApplicationRunner {
         boolean osa;
         boolean force;
         FlowOverride o = null;
-        ObjectMapper mapper = new ObjectMapper();
         String uid = helperService.getShortUid();
         MDC.put("cx", uid);
 
@@ -132,7 +132,7 @@ public class CxFlowRunner implements ApplicationRunner {
         if (args.containsOption("config")) {
             config = args.getOptionValues("config").get(0);
             try {
-                o = mapper.readValue(new File(config), FlowOverride.class);
+                o = overrideResolver.resolve(new File(config));
             } catch (IOException e) {
                 log.error("Error reading config file, ignoring...", e);
             }
@@ -187,6 +187,17 @@ public class CxFlowRunner implements ApplicationRunner {
         if (ScanUtils.empty(bugTracker)) {
             bugTracker = flowProperties.getBugTracker();
         }
+        /*Comma separated bug trackers: the results are also published to the ones after the first*/
+        List<BugTracker> additionalBugTrackers = null;
+        if (bugTracker.contains(",")) {
+            String[] bugTrackers = bugTracker.split(",");
+            bugTracker = bugTrackers[0].trim();
+            additionalBugTrackers = new ArrayList<>();
+            for (int i = 1; i < bugTrackers.length; i++) {
+                String additional = bugTrackers[i].trim();
+                additionalBugTrackers.add(ScanUtils.getBugTracker(assignee, getBugTrackerType(additional), jiraProperties, additional));
+            }
+        }
         BugTracker.Type bugType = getBugTrackerType(bugTracker);
         ScanRequest.Product product;
         if (osa) {
@@ -306,6 +317,7 @@ public class CxFlowRunner implements ApplicationRunner {
                 .excludeFolders(excludeFolders)
                 .excludeFiles(excludeFiles)
                 .bugTracker(bt)
+                .additionalBugTrackers(additionalBugTrackers)
                 .filter(filter)
                 .altProject(altProject)
                 .altFields(altFields)
@@ -0,0 +1,59 @@
+package com.checkmarx.flow.config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of concurrent requests to each configured host (cx-flow.downstream-concurrency).
+ * <p>
+ * With virtual threads the executors no longer cap concurrency, so without a limit thousands of queued requests
+ * could hit an SCM or bug tracker at once. Requests to hosts that are not configured are not limited.
+ * The permit is held until the response is received, not while the body is being read.
+ * <p>
+ * Applied by {@link RateLimitInterceptor} to every attempt of a request, so that no permit is held while waiting
+ * for a rate limit reset.
+ */
+public class DownstreamConcurrencyInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Map<String, Semaphore> semaphores = new HashMap<>();
+
+    public DownstreamConcurrencyInterceptor(Map<String, Integer> limitsByHost) {
+        if (limitsByHost != null) {
+            limitsByHost.forEach((host, limit) -> {
+                if (limit != null && limit > 0) {
+                    semaphores.put(host.toLowerCase(Locale.ROOT), new Semaphore(limit, true));
+                }
+            });
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = request.getURI().getHost();
+        Semaphore semaphore = host == null ? null : semaphores.get(host.toLowerCase(Locale.ROOT));
+        if (semaphore == null) {
+            return execution.execute(request, body);
+        }
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection slot to " + host);
+        }
+        try {
+            return execution.execute(request, body);
+        } finally {
+            semaphore.release();
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.checkmarx.flow.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.beans.ConstructorProperties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class FlowAsyncConfig implements AsyncConfigurer {
@@ -23,32 +32,141 @@ public class FlowAsyncConfig implements AsyncConfigurer {
     }
 
     @Bean("scanRequest")
-    public ThreadPoolTaskExecutor scanRequestTaskExecutor() {
+    public AsyncListenableTaskExecutor scanRequestTaskExecutor() {
         int capacity = QUEUE_CAPACITY;
         if(properties.getScanResultQueue() != null){
             capacity = properties.getScanResultQueue();
         }
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(capacity);
-        executor.setQueueCapacity(QUEUE_CAPACITY);
-        executor.setThreadNamePrefix("scan-results");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.initialize();
-        return executor;
+        return newExecutor("scan-results", capacity, true);
     }
 
     @Bean("webHook")
-    public ThreadPoolTaskExecutor webHookTaskExecutor() {
+    public AsyncListenableTaskExecutor webHookTaskExecutor() {
         int capacity = QUEUE_CAPACITY;
         if(properties.getWebHookQueue() != null){
             capacity = properties.getWebHookQueue();
         }
+        return newExecutor("flow-web", capacity, false);
+    }
+
+    /**
+     * Runs the result retrieval of each engine (SAST, OSA, SCA...) of a request, see ConcurrentEngines. Bounded by
+     * cx-flow.engine-threads; when all threads are busy the engine runs on the requesting thread, so that engines
+     * started from another engine never wait for a free thread.
+     */
+    @Bean("engineResults")
+    public AsyncListenableTaskExecutor engineResultsTaskExecutor() {
+        AsyncListenableTaskExecutor virtualThreadExecutor = newVirtualThreadExecutor("engine-results", false);
+        if (virtualThreadExecutor != null) {
+            return virtualThreadExecutor;
+        }
+        int threads = Math.max(properties.getEngineThreads(), 1);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("engine-results-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Stops an executor created here, e.g. once a command line run is done.
+     */
+    public static void shutdown(Executor executor) {
+        if (executor instanceof ExecutorConfigurationSupport) {
+            ((ExecutorConfigurationSupport) executor).shutdown();
+        }
+    }
+
+    /**
+     * Exposes queue depth and busy threads of the webHook, scanRequest and engineResults executors through actuator
+     * metrics.
+     */
+    @Bean
+    public MeterBinder flowExecutorMetrics(@Qualifier("webHook") AsyncListenableTaskExecutor webHookExecutor,
+                                           @Qualifier("scanRequest") AsyncListenableTaskExecutor scanRequestExecutor,
+                                           @Qualifier("engineResults") AsyncListenableTaskExecutor engineExecutor) {
+        return registry -> {
+            bindExecutor(registry, "webHook", webHookExecutor);
+            bindExecutor(registry, "scanRequest", scanRequestExecutor);
+            bindExecutor(registry, "engineResults", engineExecutor);
+        };
+    }
+
+    private static void bindExecutor(MeterRegistry registry, String name, AsyncListenableTaskExecutor executor) {
+        Tags tags = Tags.of("executor", name);
+        Gauge.builder("cxflow.executor.active", executor, FlowAsyncConfig::getActiveCount)
+                .tags(tags).description("Threads running a task").register(registry);
+        Gauge.builder("cxflow.executor.queued", executor, FlowAsyncConfig::getQueueSize)
+                .tags(tags).description("Tasks waiting for a thread").register(registry);
+        Gauge.builder("cxflow.executor.pool.size", executor, FlowAsyncConfig::getPoolSize)
+                .tags(tags).description("Threads of the executor").register(registry);
+    }
+
+    private static int getActiveCount(AsyncListenableTaskExecutor executor) {
+        if (executor instanceof VirtualThreadTaskExecutor) {
+            return ((VirtualThreadTaskExecutor) executor).getActiveCount();
+        }
+        return ((ThreadPoolTaskExecutor) executor).getActiveCount();
+    }
+
+    private static int getQueueSize(AsyncListenableTaskExecutor executor) {
+        // A virtual thread executor starts every task at once.
+        if (executor instanceof VirtualThreadTaskExecutor) {
+            return 0;
+        }
+        return ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().getQueue().size();
+    }
+
+    private static int getPoolSize(AsyncListenableTaskExecutor executor) {
+        // Every running task has a virtual thread of its own.
+        if (executor instanceof VirtualThreadTaskExecutor) {
+            return ((VirtualThreadTaskExecutor) executor).getActiveCount();
+        }
+        return ((ThreadPoolTaskExecutor) executor).getPoolSize();
+    }
+
+    /**
+     * With cx-flow.virtual-threads enabled on JDK 21+, tasks run on a virtual thread each and the pool settings
+     * are ignored.
+     */
+    private AsyncListenableTaskExecutor newExecutor(String threadNamePrefix, int maxPoolSize,
+                                                    boolean waitForTasksToCompleteOnShutdown) {
+        AsyncListenableTaskExecutor virtualThreadExecutor =
+                newVirtualThreadExecutor(threadNamePrefix, waitForTasksToCompleteOnShutdown);
+        if (virtualThreadExecutor != null) {
+            return virtualThreadExecutor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(capacity);
+        executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(QUEUE_CAPACITY);
-        executor.setThreadNamePrefix("flow-web");
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(waitForTasksToCompleteOnShutdown);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * @return executor starting a virtual thread per task, or null if cx-flow.virtual-threads is disabled or the JVM
+     * doesn't support virtual threads
+     */
+    private AsyncListenableTaskExecutor newVirtualThreadExecutor(String threadNamePrefix,
+                                                                 boolean waitForTasksToCompleteOnShutdown) {
+        if (!properties.getVirtualThreads()) {
+            return null;
+        }
+        if (!VirtualThreadTaskExecutor.isSupported()) {
+            log.warn("cx-flow.virtual-threads is enabled, but virtual threads require Java 21 or later. Using a thread pool.");
+            return null;
+        }
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(waitForTasksToCompleteOnShutdown);
         executor.initialize();
         return executor;
     }
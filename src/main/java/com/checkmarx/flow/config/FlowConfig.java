@@ -2,11 +2,30 @@ package com.checkmarx.flow.config;
 
 import com.checkmarx.flow.filter.CaseTransformingFilter;
 import com.checkmarx.flow.utils.ScanUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -18,8 +37,11 @@ import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.templateresolver.FileTemplateResolver;
 
 import java.beans.ConstructorProperties;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class FlowConfig {
@@ -34,21 +56,106 @@ public class FlowConfig {
         this.properties = properties;
     }
 
+    /**
+     * Pooled client behind flowRestTemplate, created only when no flowHttpRequestFactory bean replaces it. Closing
+     * the client shuts its connection pool down.
+     */
+    @Bean(name = "flowHttpClient", destroyMethod = "close")
+    @Lazy
+    public CloseableHttpClient getHttpClient() {
+        FlowProperties.HttpPool pool = properties.getHttpPool();
+        PoolingHttpClientConnectionManager connectionManager = newConnectionManager(pool);
+        bindPoolMetrics(Metrics.globalRegistry, connectionManager);
+
+        long defaultKeepAliveMs = TimeUnit.SECONDS.toMillis(pool.getKeepAliveSeconds());
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, defaultKeepAliveMs) : defaultKeepAliveMs;
+        };
+        // Response compression (Accept-Encoding: gzip, deflate) is enabled by default in HttpClientBuilder.
+        return HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleEvictionSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * A bean named 'flowHttpRequestFactory' replaces the pooled Apache HttpClient, e.g. to use an HTTP/2 capable
+     * client such as OkHttp3ClientHttpRequestFactory.
+     */
     @Bean(name = "flowRestTemplate")
-    public RestTemplate getRestTemplate() {
+    public RestTemplate getRestTemplate(
+            @Qualifier("flowHttpRequestFactory") Optional<ClientHttpRequestFactory> customRequestFactory,
+            @Qualifier("flowHttpClient") ObjectProvider<CloseableHttpClient> httpClient,
+            RateLimitInterceptor rateLimitInterceptor) {
         RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setRequestFactory(customRequestFactory.orElseGet(() -> getPooledRequestFactory(httpClient.getObject())));
 
-        HttpComponentsClientHttpRequestFactory requestFactory = new
-                HttpComponentsClientHttpRequestFactory(HttpClientBuilder.create().useSystemProperties().build());
-        requestFactory.setConnectTimeout(properties.getHttpConnectionTimeout());
-        requestFactory.setReadTimeout(properties.getHttpReadTimeout());
-        restTemplate.setRequestFactory(requestFactory);
+        FlowProperties.HttpPool pool = properties.getHttpPool();
+        if (pool.getGzipRequests()) {
+            restTemplate.getInterceptors().add(new GzipRequestInterceptor(pool.getGzipRequestMinBytes()));
+        }
+        // Retries skip the interceptors that follow, so the rate limit interceptor goes last. It also applies the
+        // cx-flow.downstream-concurrency limits to every attempt.
+        restTemplate.getInterceptors().add(rateLimitInterceptor);
 
         restTemplate.getMessageConverters()
                 .add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         return restTemplate;
     }
 
+    private HttpComponentsClientHttpRequestFactory getPooledRequestFactory(CloseableHttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(properties.getHttpConnectionTimeout());
+        requestFactory.setReadTimeout(properties.getHttpReadTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * Connection pool shared by every SCM and bug tracker call made through flowRestTemplate.
+     * Without it HttpClient allows only 2 connections per host, which serializes parallel publishing.
+     */
+    static PoolingHttpClientConnectionManager newConnectionManager(FlowProperties.HttpPool pool) {
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+        connectionManager.setMaxTotal(pool.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(pool.getValidateAfterInactivityMs());
+        if (pool.getMaxPerHost() != null) {
+            pool.getMaxPerHost().forEach((baseUrl, max) ->
+                    connectionManager.setMaxPerRoute(toRoute(baseUrl), max));
+        }
+        return connectionManager;
+    }
+
+    /**
+     * Exposes flowRestTemplate connection pool usage through actuator metrics.
+     */
+    private static void bindPoolMetrics(MeterRegistry registry, PoolingHttpClientConnectionManager connectionManager) {
+        Tags tags = Tags.of("pool", "flowRestTemplate");
+        Gauge.builder("httpclient.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .tags(tags).description("Connections in use").register(registry);
+        Gauge.builder("httpclient.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .tags(tags).description("Requests waiting for a connection").register(registry);
+        Gauge.builder("httpclient.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .tags(tags).description("Idle connections kept alive").register(registry);
+        Gauge.builder("httpclient.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .tags(tags).description("Maximal number of connections").register(registry);
+    }
+
+    static HttpRoute toRoute(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, secure ? "https" : "http"), null, secure);
+    }
+
     @Bean
     public JavaMailSender getJavaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -18,6 +18,19 @@ public class FlowProperties {
     @NotNull @NotBlank
     private String bugTracker;
     private List<String> bugTrackerImpl;
+    /**
+     * Bug trackers the results are also published to, besides the bug tracker of the request: JIRA or custom bean
+     * names from bug-tracker-impl. Used for requests that don't name additional bug trackers themselves.
+     */
+    private List<String> additionalBugTrackers;
+    /**
+     * Publishes running at the same time for each bug tracker, when results go to more than one bug tracker.
+     */
+    private int publishConcurrency = 4;
+    /**
+     * Publishes waiting for a thread of each bug tracker; beyond it, a publish runs on the requesting thread.
+     */
+    private int publishQueueSize = 100;
     private List<String> branches;
     private List<String> filterSeverity;
     private List<String> filterCwe;
@@ -44,6 +57,32 @@ public class FlowProperties {
     private Integer httpReadTimeout = 120000;
     private boolean listFalsePositives = false;
     private boolean scanResubmit = false;
+    private Integer overrideCacheSize = 256;
+    private WorkQueue workQueue = new WorkQueue();
+    private boolean virtualThreads = false;
+    private Map<String, Integer> downstreamConcurrency;
+    /**
+     * Seconds allowed for the report retrieval of an engine, keyed by engine: sast, osa. No timeout by default.
+     */
+    private Map<String, Integer> reportTimeoutSeconds;
+    /**
+     * Threads retrieving engine results next to each other. When all are busy, an engine runs on the requesting thread.
+     */
+    private Integer engineThreads = 16;
+    private HttpPool httpPool = new HttpPool();
+    private String issueIndexDir;
+    private RateLimit rateLimit = new RateLimit();
+    private Batch batch = new Batch();
+    private ResultsCache resultsCache = new ResultsCache();
+    private CommitIndex commitIndex = new CommitIndex();
+    private IncrementalSelection incrementalSelection = new IncrementalSelection();
+    private ScaReuse scaReuse = new ScaReuse();
+    private Admission admission = new Admission();
+    /**
+     * In --parse mode, read SAST XML reports incrementally and feed streaming bug trackers (Csv, Json, Sarif)
+     * issue by issue instead of loading the whole report.
+     */
+    private boolean streamingParse = false;
     private Mail mail;
     private Map<FindingSeverity,Integer> thresholds;
 
@@ -298,6 +337,158 @@ public class FlowProperties {
 
     public void setScanResubmit(boolean scanResubmit) {this.scanResubmit = scanResubmit;}
 
+    public Integer getOverrideCacheSize() {
+        return overrideCacheSize;
+    }
+
+    public void setOverrideCacheSize(Integer overrideCacheSize) {
+        this.overrideCacheSize = overrideCacheSize;
+    }
+
+    public WorkQueue getWorkQueue() {
+        return workQueue;
+    }
+
+    public void setWorkQueue(WorkQueue workQueue) {
+        this.workQueue = workQueue;
+    }
+
+    public boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public Map<String, Integer> getReportTimeoutSeconds() {
+        return reportTimeoutSeconds;
+    }
+
+    public void setReportTimeoutSeconds(Map<String, Integer> reportTimeoutSeconds) {
+        this.reportTimeoutSeconds = reportTimeoutSeconds;
+    }
+
+    public Integer getEngineThreads() {
+        return engineThreads;
+    }
+
+    public void setEngineThreads(Integer engineThreads) {
+        this.engineThreads = engineThreads;
+    }
+
+    public Map<String, Integer> getDownstreamConcurrency() {
+        return downstreamConcurrency;
+    }
+
+    public void setDownstreamConcurrency(Map<String, Integer> downstreamConcurrency) {
+        this.downstreamConcurrency = downstreamConcurrency;
+    }
+
+    public List<String> getAdditionalBugTrackers() {
+        return additionalBugTrackers;
+    }
+
+    public void setAdditionalBugTrackers(List<String> additionalBugTrackers) {
+        this.additionalBugTrackers = additionalBugTrackers;
+    }
+
+    public int getPublishConcurrency() {
+        return publishConcurrency;
+    }
+
+    public void setPublishConcurrency(int publishConcurrency) {
+        this.publishConcurrency = publishConcurrency;
+    }
+
+    public int getPublishQueueSize() {
+        return publishQueueSize;
+    }
+
+    public void setPublishQueueSize(int publishQueueSize) {
+        this.publishQueueSize = publishQueueSize;
+    }
+
+    public HttpPool getHttpPool() {
+        return httpPool;
+    }
+
+    public void setHttpPool(HttpPool httpPool) {
+        this.httpPool = httpPool;
+    }
+
+    public String getIssueIndexDir() {
+        return issueIndexDir;
+    }
+
+    public void setIssueIndexDir(String issueIndexDir) {
+        this.issueIndexDir = issueIndexDir;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public ResultsCache getResultsCache() {
+        return resultsCache;
+    }
+
+    public void setResultsCache(ResultsCache resultsCache) {
+        this.resultsCache = resultsCache;
+    }
+
+    public CommitIndex getCommitIndex() {
+        return commitIndex;
+    }
+
+    public void setCommitIndex(CommitIndex commitIndex) {
+        this.commitIndex = commitIndex;
+    }
+
+    public IncrementalSelection getIncrementalSelection() {
+        return incrementalSelection;
+    }
+
+    public void setIncrementalSelection(IncrementalSelection incrementalSelection) {
+        this.incrementalSelection = incrementalSelection;
+    }
+
+    public ScaReuse getScaReuse() {
+        return scaReuse;
+    }
+
+    public void setScaReuse(ScaReuse scaReuse) {
+        this.scaReuse = scaReuse;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public boolean getStreamingParse() {
+        return streamingParse;
+    }
+
+    public void setStreamingParse(boolean streamingParse) {
+        this.streamingParse = streamingParse;
+    }
+
     public Map<FindingSeverity, Integer> getThresholds() {
         return thresholds;
     }
@@ -373,4 +564,510 @@ public class FlowProperties {
         public void setTemplate(String template) { this.template = template; }
     }
 
-}
\ No newline at end of file
+    /**
+     * Queue of webhook scan requests waiting for or going through automation.
+     */
+    public static class WorkQueue {
+        /**
+         * Directory of the on-disk journal. Queued requests are kept in memory only if not set.
+         */
+        private String journalDir;
+        /**
+         * Maximal number of unfinished requests. Webhooks are rejected with 503 when it is reached.
+         */
+        private Integer capacity = 10000;
+        private Integer journalSizeMb = 64;
+        private Integer retryAfterSeconds = 60;
+        /**
+         * Directory for large metadata values of queued requests. Defaults to 'metadata' in journalDir,
+         * or to a temporary directory if the queue is not journaled.
+         */
+        private String metadataDir;
+        /**
+         * Approximate heap size allowed per queued request. Larger metadata values (e.g. webhook payloads)
+         * are moved to metadataDir until the request fits.
+         */
+        private Integer jobMemoryBudgetKb = 16;
+
+        public String getJournalDir() {
+            return journalDir;
+        }
+
+        public void setJournalDir(String journalDir) {
+            this.journalDir = journalDir;
+        }
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Integer getJournalSizeMb() {
+            return journalSizeMb;
+        }
+
+        public void setJournalSizeMb(Integer journalSizeMb) {
+            this.journalSizeMb = journalSizeMb;
+        }
+
+        public Integer getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(Integer retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public String getMetadataDir() {
+            return metadataDir;
+        }
+
+        public void setMetadataDir(String metadataDir) {
+            this.metadataDir = metadataDir;
+        }
+
+        public Integer getJobMemoryBudgetKb() {
+            return jobMemoryBudgetKb;
+        }
+
+        public void setJobMemoryBudgetKb(Integer jobMemoryBudgetKb) {
+            this.jobMemoryBudgetKb = jobMemoryBudgetKb;
+        }
+    }
+
+    /**
+     * Connection pool of the HTTP client behind flowRestTemplate.
+     */
+    public static class HttpPool {
+        private Integer maxTotal = 200;
+        private Integer maxPerRoute = 20;
+        /**
+         * Overrides maxPerRoute for single hosts, keyed by base URL, e.g. https://api.github.com
+         */
+        private Map<String, Integer> maxPerHost;
+        /**
+         * Used when the server doesn't send a Keep-Alive timeout.
+         */
+        private Integer keepAliveSeconds = 30;
+        private Integer idleEvictionSeconds = 60;
+        private Integer validateAfterInactivityMs = 2000;
+        /**
+         * Compress request bodies larger than gzipRequestMinBytes. Only for servers that accept gzip encoded requests.
+         */
+        private boolean gzipRequests = false;
+        private Integer gzipRequestMinBytes = 8192;
+
+        public Integer getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(Integer maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public Integer getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public void setMaxPerRoute(Integer maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+        }
+
+        public Map<String, Integer> getMaxPerHost() {
+            return maxPerHost;
+        }
+
+        public void setMaxPerHost(Map<String, Integer> maxPerHost) {
+            this.maxPerHost = maxPerHost;
+        }
+
+        public Integer getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(Integer keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+
+        public Integer getIdleEvictionSeconds() {
+            return idleEvictionSeconds;
+        }
+
+        public void setIdleEvictionSeconds(Integer idleEvictionSeconds) {
+            this.idleEvictionSeconds = idleEvictionSeconds;
+        }
+
+        public Integer getValidateAfterInactivityMs() {
+            return validateAfterInactivityMs;
+        }
+
+        public void setValidateAfterInactivityMs(Integer validateAfterInactivityMs) {
+            this.validateAfterInactivityMs = validateAfterInactivityMs;
+        }
+
+        public boolean getGzipRequests() {
+            return gzipRequests;
+        }
+
+        public void setGzipRequests(boolean gzipRequests) {
+            this.gzipRequests = gzipRequests;
+        }
+
+        public Integer getGzipRequestMinBytes() {
+            return gzipRequestMinBytes;
+        }
+
+        public void setGzipRequestMinBytes(Integer gzipRequestMinBytes) {
+            this.gzipRequestMinBytes = gzipRequestMinBytes;
+        }
+    }
+
+    /**
+     * Client-side handling of SCM and bug tracker rate limits for flowRestTemplate.
+     */
+    public static class RateLimit {
+        private boolean enabled = true;
+        /**
+         * Share of the rate limit kept for pull request statuses and comments, in percent.
+         */
+        private Integer reservePercent = 10;
+        /**
+         * Longest time a request waits for the rate limit to reset, longer waits fail immediately.
+         */
+        private Integer maxWaitSeconds = 300;
+        private Integer maxRetries = 3;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getReservePercent() {
+            return reservePercent;
+        }
+
+        public void setReservePercent(Integer reservePercent) {
+            this.reservePercent = reservePercent;
+        }
+
+        public Integer getMaxWaitSeconds() {
+            return maxWaitSeconds;
+        }
+
+        public void setMaxWaitSeconds(Integer maxWaitSeconds) {
+            this.maxWaitSeconds = maxWaitSeconds;
+        }
+
+        public Integer getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * Batch mode (--batch): publishing the latest results of every Checkmarx project.
+     */
+    public static class Batch {
+        /**
+         * Projects processed at the same time.
+         */
+        private Integer concurrency = 4;
+        /**
+         * Projects started per minute, by downstream: 'checkmarx' for report generation, or a bug tracker type
+         * (e.g. JIRA) for publishing. Not limited if not set.
+         */
+        private Map<String, Integer> rateLimits;
+        /**
+         * File that records completed project and scan IDs. A rerun after a failed or interrupted batch skips
+         * projects already published with their latest scan.
+         */
+        private String checkpointFile;
+        /**
+         * Also skip projects whose latest scan was published by the previous complete batch.
+         * Requires checkpointFile.
+         */
+        private boolean changedOnly = false;
+        private Integer progressIntervalSeconds = 30;
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Map<String, Integer> getRateLimits() {
+            return rateLimits;
+        }
+
+        public void setRateLimits(Map<String, Integer> rateLimits) {
+            this.rateLimits = rateLimits;
+        }
+
+        public String getCheckpointFile() {
+            return checkpointFile;
+        }
+
+        public void setCheckpointFile(String checkpointFile) {
+            this.checkpointFile = checkpointFile;
+        }
+
+        public boolean isChangedOnly() {
+            return changedOnly;
+        }
+
+        public void setChangedOnly(boolean changedOnly) {
+            this.changedOnly = changedOnly;
+        }
+
+        public Integer getProgressIntervalSeconds() {
+            return progressIntervalSeconds;
+        }
+
+        public void setProgressIntervalSeconds(Integer progressIntervalSeconds) {
+            this.progressIntervalSeconds = progressIntervalSeconds;
+        }
+    }
+
+    /**
+     * Results of finished scans served by the /scanresults API without building the Checkmarx report again.
+     */
+    public static class ResultsCache {
+        /**
+         * Entries kept in memory, 0 disables the memory cache.
+         */
+        private Integer size = 64;
+        /**
+         * If set, entries are also written to this directory and survive restarts.
+         */
+        private String dir;
+        /**
+         * Files kept in dir, the least recently used ones are deleted first.
+         */
+        private Integer diskSize = 1024;
+
+        public Integer getSize() {
+            return size;
+        }
+
+        public void setSize(Integer size) {
+            this.size = size;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public Integer getDiskSize() {
+            return diskSize;
+        }
+
+        public void setDiskSize(Integer diskSize) {
+            this.diskSize = diskSize;
+        }
+    }
+
+    /**
+     * Completed SAST scans by commit, reused when the same commit is scanned again with the same configuration.
+     */
+    public static class CommitIndex {
+        /**
+         * Minutes a completed scan is reused for, 0 disables the index.
+         */
+        private Integer maxAgeMinutes = 0;
+        /**
+         * Entries kept in memory.
+         */
+        private Integer size = 1024;
+        /**
+         * If set, entries are also written to this directory and survive restarts.
+         */
+        private String dir;
+
+        public Integer getMaxAgeMinutes() {
+            return maxAgeMinutes;
+        }
+
+        public void setMaxAgeMinutes(Integer maxAgeMinutes) {
+            this.maxAgeMinutes = maxAgeMinutes;
+        }
+
+        public Integer getSize() {
+            return size;
+        }
+
+        public void setSize(Integer size) {
+            this.size = size;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * Choice between incremental and full SAST scans from the files changed since the last full scan. When enabled,
+     * it replaces the configured incremental setting.
+     */
+    public static class IncrementalSelection {
+        private boolean enabled = false;
+        /**
+         * Highest share of changed files, from 0 to 1, scanned incrementally.
+         */
+        private Double maxChangedRatio = 0.1;
+        /**
+         * Highest number of changed files scanned incrementally, when the size of the repository is unknown.
+         */
+        private Integer maxChangedFiles = 50;
+        /**
+         * Incremental scans in a row after which a full scan is forced.
+         */
+        private Integer fullScanEvery = 10;
+        /**
+         * If set, the last full scan of every branch is also written to this directory and survives restarts.
+         */
+        private String dir;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Double getMaxChangedRatio() {
+            return maxChangedRatio;
+        }
+
+        public void setMaxChangedRatio(Double maxChangedRatio) {
+            this.maxChangedRatio = maxChangedRatio;
+        }
+
+        public Integer getMaxChangedFiles() {
+            return maxChangedFiles;
+        }
+
+        public void setMaxChangedFiles(Integer maxChangedFiles) {
+            this.maxChangedFiles = maxChangedFiles;
+        }
+
+        public Integer getFullScanEvery() {
+            return fullScanEvery;
+        }
+
+        public void setFullScanEvery(Integer fullScanEvery) {
+            this.fullScanEvery = fullScanEvery;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * SCA results reused while the dependency manifests of the repository don't change.
+     */
+    public static class ScaReuse {
+        /**
+         * Minutes SCA results are reused for, 0 disables the reuse.
+         */
+        private Integer maxAgeMinutes = 0;
+        /**
+         * Results kept in memory.
+         */
+        private Integer size = 64;
+        /**
+         * If set, results are also written to this directory and survive restarts.
+         */
+        private String dir;
+
+        public Integer getMaxAgeMinutes() {
+            return maxAgeMinutes;
+        }
+
+        public void setMaxAgeMinutes(Integer maxAgeMinutes) {
+            this.maxAgeMinutes = maxAgeMinutes;
+        }
+
+        public Integer getSize() {
+            return size;
+        }
+
+        public void setSize(Integer size) {
+            this.size = size;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * SAST scan submissions held while the Checkmarx scan queue is full, pull request scans first.
+     */
+    public static class Admission {
+        /**
+         * Unfinished scans in the Checkmarx queue from which submissions are held, 0 disables the admission control.
+         */
+        private Integer highWaterMark = 0;
+        /**
+         * Seconds between two reads of the Checkmarx queue.
+         */
+        private Integer pollSeconds = 15;
+        /**
+         * Minutes after which a held submission is submitted anyway, 0 to hold it until there is capacity.
+         */
+        private Integer maxWaitMinutes = 60;
+
+        public Integer getHighWaterMark() {
+            return highWaterMark;
+        }
+
+        public void setHighWaterMark(Integer highWaterMark) {
+            this.highWaterMark = highWaterMark;
+        }
+
+        public Integer getPollSeconds() {
+            return pollSeconds;
+        }
+
+        public void setPollSeconds(Integer pollSeconds) {
+            this.pollSeconds = pollSeconds;
+        }
+
+        public Integer getMaxWaitMinutes() {
+            return maxWaitMinutes;
+        }
+
+        public void setMaxWaitMinutes(Integer maxWaitMinutes) {
+            this.maxWaitMinutes = maxWaitMinutes;
+        }
+    }
+}
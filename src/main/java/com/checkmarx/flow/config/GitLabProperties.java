@@ -11,6 +11,32 @@ public class GitLabProperties extends RepoProperties {
 
     private static final String MERGE_NOTE = "%s/projects/%s/merge_requests/%s/notes";
 
+    /**
+     * How long a resolved namespace/path to project ID mapping is reused.
+     */
+    private Integer projectIdCacheTtlMinutes = 1440;
+    /**
+     * File that keeps resolved project IDs between command line runs, in a directory only CxFlow's user can write to.
+     * Not persisted if empty.
+     */
+    private String projectIdCacheFile;
+
+    public Integer getProjectIdCacheTtlMinutes() {
+        return projectIdCacheTtlMinutes;
+    }
+
+    public void setProjectIdCacheTtlMinutes(Integer projectIdCacheTtlMinutes) {
+        this.projectIdCacheTtlMinutes = projectIdCacheTtlMinutes;
+    }
+
+    public String getProjectIdCacheFile() {
+        return projectIdCacheFile;
+    }
+
+    public void setProjectIdCacheFile(String projectIdCacheFile) {
+        this.projectIdCacheFile = projectIdCacheFile;
+    }
+
     public String getGitUri(String namespace, String repo){
         String format = "%s/%s/%s.git";
         return String.format(format, getUrl(), namespace, repo);
@@ -14,6 +14,14 @@ public class RallyProperties extends RepoProperties {
     private String ownerLabelPrefix = "owner";
     private String repoLabelPrefix = "repo";
     private String branchLabelPrefix = "branch";
+    /**
+     * Defect pages read at the same time once the first page gave the total number of defects.
+     */
+    private int pageConcurrency = 4;
+    /**
+     * Defects created or closed per call of the Rally batch endpoint.
+     */
+    private int batchSize = 25;
 
     public String getRallyWorkspaceId() {
         return rallyWorkspaceId;
@@ -37,6 +45,14 @@ public class RallyProperties extends RepoProperties {
         return this.appLabelPrefix;
     }
 
+    public int getPageConcurrency() {
+        return pageConcurrency;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     public void setRallyWorkspaceId(String rallyWorkspaceId) {
         this.rallyWorkspaceId = rallyWorkspaceId;
     }
@@ -60,4 +76,12 @@ public class RallyProperties extends RepoProperties {
     public void setAppLabelPrefix(String appLabelPrefix) {
         this.appLabelPrefix = appLabelPrefix;
     }
+
+    public void setPageConcurrency(int pageConcurrency) {
+        this.pageConcurrency = pageConcurrency;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
 }
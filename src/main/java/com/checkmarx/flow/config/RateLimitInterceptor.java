@@ -0,0 +1,239 @@
+package com.checkmarx.flow.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side scheduler for rate limited SCM and bug tracker APIs called through flowRestTemplate.
+ * <p>
+ * A token bucket is kept per host and credential and seeded from the rate limit headers of every response:
+ * X-RateLimit-* (GitHub, Azure DevOps) and RateLimit-* (GitLab); all of them send the reset time as epoch seconds.
+ * When a bucket runs low, bulk requests (e.g. issue sync) wait for the reset, while pull request statuses and
+ * comments may use the reserved share of the limit. Responses 429, and 403 caused by a rate limit, are retried after
+ * Retry-After or the reset time.
+ * <p>
+ * Every attempt takes a permit of the {@link DownstreamConcurrencyInterceptor} only while it is sent, so that a
+ * request waiting for a reset doesn't block the other requests to the host.
+ * <p>
+ * Remaining and total budget of every bucket are exposed as scm.ratelimit.* gauges tagged with the host.
+ * Must be the last interceptor of a RestTemplate, because a retry skips the interceptors that follow it.
+ */
+@Component
+@Slf4j
+public class RateLimitInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+
+    private static final Pattern PRIORITY_PATH = Pattern.compile(
+            "/(statuses|check-runs|comments|notes|pulls|merge_requests|pullRequests|threads)(/|$)",
+            Pattern.CASE_INSENSITIVE);
+    private static final String[] REMAINING_HEADERS = {"X-RateLimit-Remaining", "RateLimit-Remaining"};
+    private static final String[] LIMIT_HEADERS = {"X-RateLimit-Limit", "RateLimit-Limit"};
+    private static final String[] RESET_HEADERS = {"X-RateLimit-Reset", "RateLimit-Reset"};
+    private static final long DEFAULT_RETRY_MS = 1000;
+
+    private final FlowProperties.RateLimit properties;
+    private final DownstreamConcurrencyInterceptor concurrencyLimiter;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public RateLimitInterceptor(FlowProperties flowProperties) {
+        this.properties = flowProperties.getRateLimit();
+        this.concurrencyLimiter = new DownstreamConcurrencyInterceptor(flowProperties.getDownstreamConcurrency());
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!properties.getEnabled() || request.getURI().getHost() == null) {
+            return concurrencyLimiter.intercept(request, body, execution);
+        }
+        Bucket bucket = getBucket(request);
+        boolean priority = PRIORITY_PATH.matcher(request.getURI().getPath()).find();
+        long maxWaitMs = TimeUnit.SECONDS.toMillis(properties.getMaxWaitSeconds());
+
+        for (int attempt = 0; ; attempt++) {
+            acquire(bucket, priority, maxWaitMs);
+            ClientHttpResponse response = concurrencyLimiter.intercept(request, body, execution);
+            HttpHeaders headers = response.getHeaders();
+            bucket.update(headers, System.currentTimeMillis());
+
+            long retryAfterMs = getRetryDelay(response.getRawStatusCode(), headers, bucket, attempt);
+            if (retryAfterMs < 0 || attempt >= properties.getMaxRetries() || retryAfterMs > maxWaitMs) {
+                return response;
+            }
+            response.close();
+            log.warn("Rate limit reached for {} ({}), retrying in {} ms", bucket.host, request.getURI().getPath(), retryAfterMs);
+            sleep(retryAfterMs);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        this.registry = meterRegistry;
+        buckets.values().forEach(this::registerGauges);
+    }
+
+    private Bucket getBucket(HttpRequest request) {
+        String credential = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (credential == null) {
+            credential = request.getHeaders().getFirst("PRIVATE-TOKEN");
+        }
+        String host = request.getURI().getHost().toLowerCase();
+        String credentialId = credential == null ? "anonymous" : DigestUtils.sha256Hex(credential).substring(0, 8);
+        return buckets.computeIfAbsent(host + "|" + credentialId, key -> {
+            Bucket bucket = new Bucket(host, credentialId);
+            registerGauges(bucket);
+            return bucket;
+        });
+    }
+
+    private void registerGauges(Bucket bucket) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("scm.ratelimit.remaining", bucket, b -> b.remaining)
+                .tag("host", bucket.host).tag("credential", bucket.credentialId)
+                .description("Requests left in the current rate limit window")
+                .register(meterRegistry);
+        Gauge.builder("scm.ratelimit.limit", bucket, b -> b.limit)
+                .tag("host", bucket.host).tag("credential", bucket.credentialId)
+                .description("Requests allowed per rate limit window")
+                .register(meterRegistry);
+    }
+
+    private void acquire(Bucket bucket, boolean priority, long maxWaitMs) throws IOException {
+        while (true) {
+            long waitMs = bucket.tryAcquire(priority, properties.getReservePercent(), System.currentTimeMillis());
+            if (waitMs <= 0) {
+                return;
+            }
+            if (waitMs > maxWaitMs) {
+                log.warn("Rate limit of {} resets in {} s, sending the request anyway", bucket.host,
+                        TimeUnit.MILLISECONDS.toSeconds(waitMs));
+                return;
+            }
+            log.info("Rate limit of {} is low, waiting {} ms", bucket.host, waitMs);
+            sleep(waitMs);
+        }
+    }
+
+    /**
+     * @return delay before a retry, or -1 if the response was not caused by a rate limit
+     */
+    private static long getRetryDelay(int status, HttpHeaders headers, Bucket bucket, int attempt) {
+        boolean tooManyRequests = status == HttpStatus.TOO_MANY_REQUESTS.value();
+        boolean rateLimitedForbidden = status == HttpStatus.FORBIDDEN.value()
+                && (headers.containsKey(HttpHeaders.RETRY_AFTER) || bucket.isExhausted());
+        if (!tooManyRequests && !rateLimitedForbidden) {
+            return -1;
+        }
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (StringUtils.isNumeric(retryAfter)) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter));
+        }
+        if (retryAfter != null) {
+            try {
+                return Math.max(headers.getFirstDate(HttpHeaders.RETRY_AFTER) - System.currentTimeMillis(), 0);
+            } catch (IllegalArgumentException e) {
+                log.debug("Unsupported Retry-After value: {}", retryAfter);
+            }
+        }
+        long untilReset = bucket.getResetAtMs() - System.currentTimeMillis();
+        return untilReset > 0 ? untilReset : DEFAULT_RETRY_MS << attempt;
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rate limit reset");
+        }
+    }
+
+    private static Long firstLong(HttpHeaders headers, String[] names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (StringUtils.isNumeric(value)) {
+                return Long.parseLong(value);
+            }
+        }
+        return null;
+    }
+
+    static class Bucket {
+        private final String host;
+        private final String credentialId;
+        private volatile long limit = -1;
+        private volatile long remaining = -1;
+        private volatile long resetAtMs;
+
+        Bucket(String host, String credentialId) {
+            this.host = host;
+            this.credentialId = credentialId;
+        }
+
+        /**
+         * Takes a token if one is available to the caller.
+         *
+         * @return 0 if a token was taken (or the limit is unknown), otherwise milliseconds until the reset
+         */
+        synchronized long tryAcquire(boolean priority, int reservePercent, long now) {
+            if (remaining < 0) {
+                return 0;
+            }
+            if (now >= resetAtMs) {
+                remaining = -1;
+                return 0;
+            }
+            long reserve = priority ? 0 : limit * reservePercent / 100;
+            if (remaining > reserve) {
+                remaining--;
+                return 0;
+            }
+            return resetAtMs - now;
+        }
+
+        synchronized void update(HttpHeaders headers, long now) {
+            Long newRemaining = firstLong(headers, REMAINING_HEADERS);
+            if (newRemaining == null) {
+                return;
+            }
+            remaining = newRemaining;
+            Long newLimit = firstLong(headers, LIMIT_HEADERS);
+            limit = newLimit != null ? newLimit : Math.max(limit, newRemaining);
+            Long reset = firstLong(headers, RESET_HEADERS);
+            if (reset != null) {
+                resetAtMs = TimeUnit.SECONDS.toMillis(reset);
+            } else if (resetAtMs <= now) {
+                resetAtMs = now + TimeUnit.MINUTES.toMillis(1);
+            }
+        }
+
+        boolean isExhausted() {
+            return remaining == 0;
+        }
+
+        long getResetAtMs() {
+            return resetAtMs;
+        }
+    }
+}
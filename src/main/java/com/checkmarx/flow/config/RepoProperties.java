@@ -12,6 +12,10 @@ public class RepoProperties {
     private String url;
     private String apiUrl;
     private String falsePositiveLabel = "false-positive";
+    /**
+     * Label added to issues created by CxFlow and used to filter issue listings on the server side.
+     */
+    private String issueLabel;
     private String configAsCode = "cx.config";
 
     private String openTransition = "open";
@@ -43,6 +47,14 @@ public class RepoProperties {
         this.enabled = enabled;
     }
 
+    public String getIssueLabel() {
+        return issueLabel;
+    }
+
+    public void setIssueLabel(String issueLabel) {
+        this.issueLabel = issueLabel;
+    }
+
     public String getWebhookToken() {
         return webhookToken;
     }
@@ -0,0 +1,122 @@
+package com.checkmarx.flow.config;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task executor that starts a new virtual thread for every task (JDK 21+).
+ * <p>
+ * CxFlow tasks spend nearly all their time waiting on HTTP calls, so a virtual thread per task removes the need to
+ * size a pool: waiting tasks don't hold carrier threads. Concurrency towards a single service is limited by
+ * {@link DownstreamConcurrencyInterceptor} instead.
+ * <p>
+ * Shares the lifecycle of the pooled executors through {@link ExecutorConfigurationSupport} (thread name prefix,
+ * shutdown, waiting for tasks on shutdown) and, like them, applies the configured {@link TaskDecorator}.
+ * The JDK 21 API is called reflectively, because CxFlow is still compiled for Java 8.
+ */
+public class VirtualThreadTaskExecutor extends ExecutorConfigurationSupport implements AsyncListenableTaskExecutor {
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private TaskDecorator taskDecorator;
+    private ExecutorService executor;
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                                                 RejectedExecutionHandler rejectedExecutionHandler) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, getThreadNamePrefix(), 0L);
+            ThreadFactory virtualThreadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            executor = (ExecutorService) newThreadPerTaskExecutor.invoke(null, virtualThreadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM", e);
+        }
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (executor == null) {
+            throw new IllegalStateException("VirtualThreadTaskExecutor not initialized");
+        }
+        Runnable decorated = taskDecorator == null ? task : taskDecorator.decorate(task);
+        try {
+            executor.execute(() -> {
+                activeCount.incrementAndGet();
+                try {
+                    decorated.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, e);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * @return tasks running, each on its own virtual thread
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+}
@@ -13,4 +13,5 @@ public class JiraConstants {
     public static final String JIRA_ISSUE_TITLE_KEY = "%s%s @ %s%s";
     public static final String JIRA_ISSUE_BODY_WITH_BRANCH = "*%s* issue exists @ *%s* in branch *%s*";
     public static final String JIRA_ISSUE_BODY = "*%s* issue exists @ *%s*";
+    public static final String JIRA_DIGEST_LABEL_PREFIX = "cx-flow-digest:";
 }
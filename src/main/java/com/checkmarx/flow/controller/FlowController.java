@@ -6,6 +6,7 @@ import com.checkmarx.flow.dto.*;
 import com.checkmarx.flow.exception.InvalidTokenException;
 import com.checkmarx.flow.service.*;
 import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.flow.utils.ResultsLogUtils;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.config.Constants;
 import com.checkmarx.sdk.config.CxProperties;
@@ -15,7 +16,6 @@ import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
 import com.checkmarx.sdk.dto.filtering.ScriptedFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import groovy.lang.GroovyShell;
 import groovy.lang.Script;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections.CollectionUtils;
@@ -53,6 +53,7 @@ public class FlowController {
     private final JiraProperties jiraProperties;
     private final FilterFactory filterFactory;
     private final ConfigurationOverrider configOverrider;
+    private final FlowOverrideResolver overrideResolver;
     private final SastScanner sastScanner;
 
     @GetMapping(value = "/scanresults", produces = "application/json")
@@ -96,7 +97,7 @@ public class FlowController {
         scanRequest.setId(uid);
         // If an override blob/file is provided, substitute these values
         if (!ScanUtils.empty(override)) {
-            FlowOverride ovr = ScanUtils.getMachinaOverride(override);
+            FlowOverride ovr = overrideResolver.resolve(override);
             scanRequest = configOverrider.overrideScanRequestProperties(ovr, scanRequest);
         }
 
@@ -104,7 +105,8 @@ public class FlowController {
         // The cxProject parameter is null because the required project metadata
         // is already contained in the scanRequest parameter.
         ScanResults scanResults = sastScanner.getLatestScanResults(scanRequest);
-        log.debug("ScanResults {}", scanResults);
+        log.debug("ScanResults {}", ResultsLogUtils.summarize(scanResults));
+        ResultsLogUtils.trace(log, "ScanResults (full) {}", () -> String.valueOf(scanResults));
 
         return scanResults;
     }
@@ -236,8 +238,7 @@ public class FlowController {
         if (hasSimpleFilters || hasFilterScript) {
             Script parsedScript = null;
             if (hasFilterScript) {
-                GroovyShell groovyShell = new GroovyShell();
-                parsedScript = groovyShell.parse(scanRequest.getFilterScript());
+                parsedScript = FilterFactory.parseScriptText(scanRequest.getFilterScript());
             }
             filter = FilterConfiguration.builder()
                     .simpleFilters(scanRequest.getFilters())
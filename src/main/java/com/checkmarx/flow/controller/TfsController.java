@@ -13,6 +13,7 @@ import com.checkmarx.flow.dto.azure.Resource;
 import com.checkmarx.flow.exception.InvalidTokenException;
 import com.checkmarx.flow.service.ConfigurationOverrider;
 import com.checkmarx.flow.service.FilterFactory;
+import com.checkmarx.flow.service.FlowOverrideResolver;
 import com.checkmarx.flow.service.FlowService;
 import com.checkmarx.flow.service.HelperService;
 import com.checkmarx.flow.utils.HTMLHelper;
@@ -49,6 +50,7 @@ public class TfsController extends AdoControllerBase {
     private final HelperService helperService;
     private final FilterFactory filterFactory;
     private final ConfigurationOverrider configOverrider;
+    private final FlowOverrideResolver overrideResolver;
 
     @PostMapping(value = {"/{product}/tfs/pull", "/tfs/pull", "/{product}/tfs/push", "/tfs/push"})
     public ResponseEntity<EventResponse> pullPushRequest(
@@ -79,8 +81,7 @@ public class TfsController extends AdoControllerBase {
                     .build());
         }
 
-        FlowOverride o = ScanUtils.getMachinaOverride(Optional.ofNullable(controllerRequest.getOverride())
-                .orElse(null));
+        FlowOverride o = overrideResolver.resolve(controllerRequest.getOverride());
 
         Repository repository = resource.getRepository();
         String app = repository.getName();
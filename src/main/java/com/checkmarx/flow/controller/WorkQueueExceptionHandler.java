@@ -0,0 +1,36 @@
+package com.checkmarx.flow.controller;
+
+import com.checkmarx.flow.dto.EventResponse;
+import com.checkmarx.flow.exception.WorkQueueFullException;
+import com.checkmarx.flow.service.WorkQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns work queue backpressure into 503 Service Unavailable with a Retry-After header, so that webhook deliveries
+ * are retried by the SCM provider instead of being lost.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+@Slf4j
+public class WorkQueueExceptionHandler {
+
+    private final WorkQueueService workQueue;
+
+    @ExceptionHandler({WorkQueueFullException.class, TaskRejectedException.class})
+    public ResponseEntity<EventResponse> handleQueueFull(RuntimeException e) {
+        log.warn("Scan request rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(workQueue.getRetryAfterSeconds()))
+                .body(EventResponse.builder()
+                        .message("CxFlow is busy, retry later")
+                        .success(false)
+                        .build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.sdk.dto.ScanResults;
+
+import java.util.List;
+
+/**
+ * Custom issue tracker that can create and close many issues in a few calls. {@link com.checkmarx.flow.service.IssueService}
+ * collects the issues to create and to close while it reconciles the results, and hands them over at once in place
+ * of {@link IssueTracker#createIssue} and {@link IssueTracker#closeIssue}.
+ * <p>
+ * An issue that could not be created or closed is left out of the returned list. A failure of the whole operation is
+ * thrown.
+ */
+public interface BatchIssueTracker {
+
+    /**
+     * @return issues that were created
+     */
+    List<Issue> createIssues(List<ScanResults.XIssue> resultIssues, ScanRequest request) throws MachinaException;
+
+    /**
+     * @return issues that were closed
+     */
+    List<Issue> closeIssues(List<Issue> issues, ScanRequest request) throws MachinaException;
+}
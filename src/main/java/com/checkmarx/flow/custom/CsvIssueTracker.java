@@ -13,7 +13,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
@@ -26,7 +28,7 @@ import java.util.stream.Stream;
 
 @Service("Csv")
 @RequiredArgsConstructor
-public class CsvIssueTracker extends ImmutableIssueTracker {
+public class CsvIssueTracker extends ImmutableIssueTracker implements StreamingIssueTracker {
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(CsvIssueTracker.class);
     private final CsvProperties properties;
     private final FlowProperties flowProperties;
@@ -68,6 +70,61 @@ public class CsvIssueTracker extends ImmutableIssueTracker {
 
     @Override
     public Issue createIssue(ScanResults.XIssue issue, ScanRequest request) throws MachinaException {
+        String csv = toCsvLine(issue, request);
+
+        try {
+            Files.write(Paths.get(request.getFilename()), csv.getBytes(), StandardOpenOption.APPEND);
+        }catch (IOException e){
+            log.error("Error writing to file {}, value {}", request.getFilename(), csv, e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes one line per issue that is not all false positive, through a single open writer.
+     */
+    @Override
+    public IssueStream openStream(ScanRequest request, ScanResults header) throws MachinaException {
+        init(request, header);
+        BufferedWriter writer;
+        try {
+            writer = Files.newBufferedWriter(Paths.get(request.getFilename()), Charset.defaultCharset(), StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Error opening file {}", request.getFilename(), e);
+            throw new MachinaException();
+        }
+        return new IssueStream() {
+            @Override
+            public void add(ScanResults.XIssue issue) throws MachinaException {
+                if (issue.isAllFalsePositive()) {
+                    return;
+                }
+                String csv = toCsvLine(issue, request);
+                try {
+                    writer.write(csv);
+                } catch (IOException e) {
+                    log.error("Error writing to file {}, value {}", request.getFilename(), csv, e);
+                }
+            }
+
+            @Override
+            public void complete(ScanResults summary) throws MachinaException {
+                close();
+                CsvIssueTracker.this.complete(request, summary);
+            }
+
+            @Override
+            public void close() {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.error("Error closing file {}", request.getFilename(), e);
+                }
+            }
+        };
+    }
+
+    private String toCsvLine(ScanResults.XIssue issue, ScanRequest request) {
         List<String> values = new ArrayList<>();
         for(CsvProperties.Field f: properties.getFields()) {
             String value;
@@ -197,14 +254,7 @@ public class CsvIssueTracker extends ImmutableIssueTracker {
             }
             values.add(value);
         }
-        String csv = convertToCSV(values).concat(HTMLHelper.CRLF);
-
-        try {
-            Files.write(Paths.get(request.getFilename()), csv.getBytes(), StandardOpenOption.APPEND);
-        }catch (IOException e){
-            log.error("Error writing to file {}, value {}", request.getFilename(), csv, e);
-        }
-        return null;
+        return convertToCSV(values).concat(HTMLHelper.CRLF);
     }
 
     private String escapeSpecialCharacters(String data) {
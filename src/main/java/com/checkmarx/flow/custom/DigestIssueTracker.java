@@ -0,0 +1,24 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.ScanResults;
+
+/**
+ * Custom issue tracker that stores a digest of the written content with each issue, see
+ * {@link com.checkmarx.flow.utils.IssueDigest}. {@link com.checkmarx.flow.service.IssueService} skips the
+ * {@link IssueTracker#updateIssue} of an open issue whose stored digest matches the finding, so that unchanged
+ * findings cost no calls and add no comments.
+ */
+public interface DigestIssueTracker {
+
+    /**
+     * @return digest of the content {@link IssueTracker#updateIssue} would write for the finding
+     */
+    String getXIssueDigest(ScanResults.XIssue resultIssue, ScanRequest request);
+
+    /**
+     * @return digest stored with the issue, or null if the issue has none
+     */
+    String getIssueDigest(Issue issue);
+}
@@ -10,8 +10,10 @@ import com.checkmarx.flow.dto.github.LabelsItem;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
 import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.flow.utils.IssueDigest;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.dto.ScanResults;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -22,12 +24,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @Service("GitHub")
-public class GitHubIssueTracker implements IssueTracker {
+public class GitHubIssueTracker implements IssueTracker, DigestIssueTracker {
 
     private static final String TRANSITION_CLOSE = "closed";
     private static final String TRANSITION_OPEN = "open";
@@ -38,14 +41,16 @@ public class GitHubIssueTracker implements IssueTracker {
     private final GitHubProperties properties;
     private final FlowProperties flowProperties;
     private final ScmConfigOverrider scmConfigOverrider;
+    private final IssueIndex issueIndex;
 
 
     public GitHubIssueTracker(@Qualifier("flowRestTemplate") RestTemplate restTemplate, GitHubProperties properties, FlowProperties flowProperties,
-                              ScmConfigOverrider scmConfigOverrider) {
+                              ScmConfigOverrider scmConfigOverrider, IssueIndex issueIndex) {
         this.restTemplate = restTemplate;
         this.properties = properties;
         this.flowProperties = flowProperties;
         this.scmConfigOverrider = scmConfigOverrider;
+        this.issueIndex = issueIndex;
     }
 
     @Override
@@ -63,7 +68,8 @@ public class GitHubIssueTracker implements IssueTracker {
     }
 
     /**
-     * Get all issues for a GitHub repository
+     * Get all issues created by CxFlow for a GitHub repository, from the incrementally synced {@link IssueIndex}.
+     * Pull requests are skipped.
      *
      * @return List of GitHub Issues
      * @ full name (owner/repo format)
@@ -75,43 +81,26 @@ public class GitHubIssueTracker implements IssueTracker {
                 request.getNamespace(),
                 request.getRepoName(),
                 ISSUES_PER_PAGE);
-
-        log.info("Executing getIssues GitHub API call: {}", apiUrl);
-        List<Issue> issues = new ArrayList<>();
-        HttpEntity<?> httpEntity = new HttpEntity<>(createAuthHeaders(request));
-
-        ResponseEntity<com.checkmarx.flow.dto.github.Issue[]> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, httpEntity, com.checkmarx.flow.dto.github.Issue[].class);
-
-        if (response.getBody() == null) {
-            log.info("No issues found.");
-            return new ArrayList<>();
-        }
-
-        for (com.checkmarx.flow.dto.github.Issue issue : response.getBody()) {
-            Issue i = mapToIssue(issue);
-            if (i != null && i.getTitle().startsWith(request.getProduct().getProduct())) {
-                issues.add(i);
-            }
+        if (!ScanUtils.empty(properties.getIssueLabel())) {
+            apiUrl = apiUrl.concat("&labels=").concat(IssueIndex.encodeQueryValue(properties.getIssueLabel()));
         }
+        String product = request.getProduct().getProduct();
 
-        String next = getNextURIFromHeaders(response.getHeaders(), "link", "next");
-        while (next != null) {
-            log.debug("Getting issue from {}", next);
-            ResponseEntity<com.checkmarx.flow.dto.github.Issue[]> responsePage = restTemplate.exchange(next, HttpMethod.GET,
-                    httpEntity, com.checkmarx.flow.dto.github.Issue[].class);
-
-            if (responsePage.getBody() != null) {
-                for (com.checkmarx.flow.dto.github.Issue issue : responsePage.getBody()) {
-                    Issue i = mapToIssue(issue);
-                    if (i != null && i.getTitle().startsWith(request.getProduct().getProduct())) {
-                        issues.add(i);
+        log.info("Executing getIssues GitHub API call: {}", apiUrl);
+        HttpHeaders authHeaders = createAuthHeaders(request);
+        return issueIndex.sync("GitHub|" + product + "|" + apiUrl, apiUrl, "since",
+                (url, etag) -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.putAll(authHeaders);
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
                     }
-                }
-            }
-            next = getNextURIFromHeaders(responsePage.getHeaders(), "link", "next");
-        }
-        return issues;
+                    // The URL is encoded already: the label above, or the next link sent by GitHub
+                    return restTemplate.exchange(URI.create(url), HttpMethod.GET, new HttpEntity<>(headers),
+                            com.checkmarx.flow.dto.github.Issue[].class);
+                },
+                issue -> issue.getPullRequest() == null ? mapToIssue(issue) : null,
+                issue -> issue.getTitle() != null && issue.getTitle().startsWith(product));
     }
 
 
@@ -191,6 +180,10 @@ public class GitHubIssueTracker implements IssueTracker {
     @Override
     public Issue updateIssue(Issue issue, ScanResults.XIssue resultIssue, ScanRequest request) throws MachinaException {
         log.info("Executing updateIssue GitHub API call");
+        if (issue.getBody() == null) {
+            // Issues listed from the index have no body, the comment below compares it with the new one
+            issue = getIssue(issue.getUrl(), request);
+        }
         HttpEntity<String> httpEntity = new HttpEntity<>(getJSONUpdateIssue(resultIssue, request).toString(), createAuthHeaders(request));
         ResponseEntity<com.checkmarx.flow.dto.github.Issue> response;
         try {
@@ -239,9 +232,9 @@ public class GitHubIssueTracker implements IssueTracker {
      */
     private JSONObject getJSONUpdateIssue(ScanResults.XIssue resultIssue, ScanRequest request) {
         JSONObject requestBody = new JSONObject();
-        String fileUrl = ScanUtils.getFileUrl(request, resultIssue.getFilename());
-        String body = HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
         String title = getXIssueKey(resultIssue, request);
+        String body = getBody(resultIssue, request);
+        body = IssueDigest.mark(body, getDigest(title, body));
 
         try {
             requestBody.put("title", title);
@@ -260,19 +253,44 @@ public class GitHubIssueTracker implements IssueTracker {
      */
     private JSONObject getJSONCreateIssue(ScanResults.XIssue resultIssue, ScanRequest request) {
         JSONObject requestBody = new JSONObject();
-        String fileUrl = ScanUtils.getFileUrl(request, resultIssue.getFilename());
-        String body = HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
         String title = getXIssueKey(resultIssue, request);
+        String body = getBody(resultIssue, request);
+        body = IssueDigest.mark(body, getDigest(title, body));
 
         try {
             requestBody.put("title", title);
             requestBody.put("body", body);
+            if (!ScanUtils.empty(properties.getIssueLabel())) {
+                requestBody.put("labels", new JSONArray().put(properties.getIssueLabel()));
+            }
         } catch (JSONException e) {
             log.error("Error creating JSON Create Issue Object - JSON Object will be empty", e);
         }
         return requestBody;
     }
 
+    private String getBody(ScanResults.XIssue resultIssue, ScanRequest request) {
+        String fileUrl = ScanUtils.getFileUrl(request, resultIssue.getFilename());
+        return HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
+    }
+
+    /**
+     * Digest of the title and body, together with the configured label and the open state that every write sets.
+     */
+    private String getDigest(String title, String body) {
+        return IssueDigest.of(title, body, properties.getIssueLabel(), TRANSITION_OPEN);
+    }
+
+    @Override
+    public String getXIssueDigest(ScanResults.XIssue resultIssue, ScanRequest request) {
+        return getDigest(getXIssueKey(resultIssue, request), getBody(resultIssue, request));
+    }
+
+    @Override
+    public String getIssueDigest(Issue issue) {
+        return IssueIndex.getDigest(issue);
+    }
+
     @Override
     public String getFalsePositiveLabel() throws MachinaException {
         return properties.getFalsePositiveLabel();
@@ -351,32 +369,4 @@ public class GitHubIssueTracker implements IssueTracker {
         httpHeaders.set(HttpHeaders.AUTHORIZATION, "token ".concat(scmConfigOverrider.determineConfigToken(properties, scanRequest.getScmInstance())));
         return httpHeaders;
     }
-
-    private static String getNextURIFromHeaders(HttpHeaders headers, final String headerName, final String rel) {
-        if (headerName == null) {
-            return null;
-        }
-        if (headers == null || headers.get(headerName) == null) {
-            return null;
-        }
-        String linkHeader = Objects.requireNonNull(headers.get(headerName)).get(0);
-        String uriWithSpecifiedRel = null;
-        final String[] links = linkHeader.split(", ");
-        String linkRelation;
-        for (final String link : links) {
-            final int positionOfSeparator = link.indexOf(';');
-            linkRelation = link.substring(positionOfSeparator + 1, link.length()).trim();
-            if (extractTypeOfRelation(linkRelation).equals(rel)) {
-                uriWithSpecifiedRel = link.substring(1, positionOfSeparator - 1);
-                break;
-            }
-        }
-
-        return uriWithSpecifiedRel;
-    }
-
-    private static String extractTypeOfRelation(final String linkRelation) {
-        int positionOfEquals = linkRelation.indexOf('=');
-        return linkRelation.substring(positionOfEquals + 2, linkRelation.length() - 1).trim();
-    }
-}
\ No newline at end of file
+}
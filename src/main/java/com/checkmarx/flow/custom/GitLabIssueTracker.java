@@ -7,9 +7,12 @@ import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.dto.gitlab.Note;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.flow.utils.IssueDigest;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.dto.ScanResults;
-import org.json.JSONArray;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -20,21 +23,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 @Service("GitLab")
-public class GitLabIssueTracker implements IssueTracker {
+public class GitLabIssueTracker implements IssueTracker, DigestIssueTracker {
 
     private static final String TRANSITION_CLOSE = "close";
     private static final String TRANSITION_OPEN = "reopen";
     private static final String OPEN_STATE = "opened";
     private static final String ISSUES_PER_PAGE = "100";
-    private static final String PROJECT = "/projects?search={repo}";
+    private static final String PROJECT = "/projects/{path}";
     private static final String ISSUES_PATH = "/projects/{id}/issues?per_page=".concat(ISSUES_PER_PAGE);
     private static final String NEW_ISSUE_PATH = "/projects/{id}/issues";
     private static final String ISSUE_PATH = "/projects/{id}/issues/{iid}";
@@ -44,11 +47,17 @@ public class GitLabIssueTracker implements IssueTracker {
     private final RestTemplate restTemplate;
     private final GitLabProperties properties;
     private final FlowProperties flowProperties;
+    private final IssueIndex issueIndex;
+    private final GitLabProjectIdCache projectIdCache;
+    private final JsonFactory jsonFactory = new JsonFactory();
 
-    public GitLabIssueTracker(@Qualifier("flowRestTemplate") RestTemplate restTemplate, GitLabProperties properties, FlowProperties flowProperties) {
+    public GitLabIssueTracker(@Qualifier("flowRestTemplate") RestTemplate restTemplate, GitLabProperties properties, FlowProperties flowProperties,
+                              IssueIndex issueIndex, GitLabProjectIdCache projectIdCache) {
         this.restTemplate = restTemplate;
         this.properties = properties;
         this.flowProperties = flowProperties;
+        this.issueIndex = issueIndex;
+        this.projectIdCache = projectIdCache;
     }
 
     @Override
@@ -73,89 +82,80 @@ public class GitLabIssueTracker implements IssueTracker {
     }
 
     private Integer getProjectId(String targetNamespace, String targetRepoName) {
+        String projectPath = targetNamespace + "/" + targetRepoName;
+        Integer projectId = projectIdCache.get(properties.getApiUrl(), projectPath);
+        if (projectId != null) {
+            log.debug("Using cached GitLab project ID: {}", projectId);
+            return projectId;
+        }
         try {
-            int projectId = 0;
-            JSONArray candidateProjects = getProjectSearchResults(targetRepoName);
-            log.debug("Projects found: {}. Looking for exact match.", candidateProjects.length());
-            // The search is fuzzy, so we need to additionally filter search results here for strict match.
-            for (Object project : candidateProjects) {
-                JSONObject projectJson = (JSONObject) project;
-                if (isTargetProject(projectJson, targetNamespace, targetRepoName)) {
-                    projectId = projectJson.getInt("id");
-                    log.debug("Using GitLab project ID: {}", projectId);
-                    break;
-                }
+            projectId = getProjectIdByPath(projectPath);
+            if (projectId != null) {
+                log.debug("Using GitLab project ID: {}", projectId);
+                projectIdCache.put(properties.getApiUrl(), projectPath, projectId);
+                return projectId;
             }
-            return projectId;
-        } catch(HttpClientErrorException e) {
+        } catch (HttpClientErrorException e) {
             log.error("Error calling gitlab project api {}", e.getResponseBodyAsString(), e);
-        } catch(JSONException e) {
-            log.error("Error parsing gitlab project response.", e);
-        } catch(URISyntaxException e) {
+        } catch (UnsupportedEncodingException e) {
             log.error("Incorrect URI", e);
         }
         return UNKNOWN_INT;
     }
 
-    private static boolean isTargetProject(JSONObject projectJson, String targetNamespace, String targetRepo) {
-        // Using paths, because they are more well-defined (this is what appears in browser's address bar).
-        String repoPath = projectJson.getString("path");
-
-        // Namespace name may look like: "My Good Old Namespace", whereas its path cannot contain spaces
-        // and may look like: "my-good-old-namespace".
-        String namespacePath = projectJson.getJSONObject("namespace")
-                .getString("path");
-
-        boolean result = repoPath.equals(targetRepo) && namespacePath.equals(targetNamespace);
-        log.debug("Checking {}/{}... {}", namespacePath, repoPath, result ? "match!" : "no match.");
-        return result;
-    }
-
-    private JSONArray getProjectSearchResults(String targetRepoName) throws URISyntaxException {
-        log.debug("Searching repo by query: {}", targetRepoName);
-        String url = properties.getApiUrl()
+    /**
+     * Looks the project up by its full path (GET /projects/:url-encoded-path) and reads only the top-level 'id'
+     * field from the response stream.
+     */
+    private Integer getProjectIdByPath(String projectPath) throws UnsupportedEncodingException {
+        URI uri = URI.create(properties.getApiUrl()
                 .concat(PROJECT)
-                .replace("{repo}", targetRepoName);
-        URI uri = new URI(url);
-        HttpEntity<Void> httpEntity = new HttpEntity<>(createAuthHeaders());
-        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, httpEntity, String.class);
-        return new JSONArray(response.getBody());
+                .replace("{path}", URLEncoder.encode(projectPath, StandardCharsets.UTF_8.name())));
+        log.debug("Getting GitLab project by path: {}", projectPath);
+        return restTemplate.execute(uri, HttpMethod.GET,
+                request -> request.getHeaders().putAll(createAuthHeaders()),
+                response -> {
+                    try (JsonParser parser = jsonFactory.createParser(response.getBody())) {
+                        if (parser.nextToken() != JsonToken.START_OBJECT) {
+                            return null;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String field = parser.getCurrentName();
+                            parser.nextToken();
+                            if ("id".equals(field)) {
+                                return parser.getIntValue();
+                            }
+                            parser.skipChildren();
+                        }
+                        return null;
+                    }
+                });
     }
 
     /**
-     * Get list of issues associated with the project in GitLab
+     * Get list of issues created by CxFlow in the GitLab project, from the incrementally synced {@link IssueIndex}.
      */
     @Override
     public List<Issue> getIssues(ScanRequest request) {
         log.info("Executing getIssues GitLab API call");
-        List<Issue> issues = new ArrayList<>();
-        HttpEntity<Void> httpEntity = new HttpEntity<>(createAuthHeaders());
-        String endpoint = properties.getApiUrl().concat(ISSUES_PATH);
-        ResponseEntity<com.checkmarx.flow.dto.gitlab.Issue[]> response = restTemplate.exchange(endpoint,
-                HttpMethod.GET, httpEntity, com.checkmarx.flow.dto.gitlab.Issue[].class, request.getRepoProjectId());
-        if(response.getBody() == null) {
-            return issues;
-        }
-        for(com.checkmarx.flow.dto.gitlab.Issue issue: response.getBody()){
-            Issue i = mapToIssue(issue);
-            if (i != null) {
-                issues.add(i);
-            }
+        String endpoint = properties.getApiUrl().concat(ISSUES_PATH)
+                .replace("{id}", String.valueOf(request.getRepoProjectId()));
+        if (!ScanUtils.empty(properties.getIssueLabel())) {
+            endpoint = endpoint.concat("&labels=").concat(IssueIndex.encodeQueryValue(properties.getIssueLabel()));
         }
-        String next = getNextURIFromHeaders(response.getHeaders(), "link", "next");
-        while (next != null) {
-            ResponseEntity<com.checkmarx.flow.dto.gitlab.Issue[]> responsePage = restTemplate.exchange(next, HttpMethod.GET, httpEntity, com.checkmarx.flow.dto.gitlab.Issue[].class);
-            if(responsePage.getBody() != null) {
-                for(com.checkmarx.flow.dto.gitlab.Issue issue: responsePage.getBody()){
-                    Issue i = mapToIssue(issue);
-                    if(i != null && i.getTitle().startsWith(request.getProduct().getProduct())){
-                        issues.add(i);
+        String product = request.getProduct().getProduct();
+        return issueIndex.sync("GitLab|" + product + "|" + endpoint, endpoint, "updated_after",
+                (url, etag) -> {
+                    HttpHeaders headers = createAuthHeaders();
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
                     }
-                }
-            }
-            next = getNextURIFromHeaders(responsePage.getHeaders(), "link", "next");
-        }
-        return issues;
+                    // The URL is encoded already: the label above, or the next link sent by GitLab
+                    return restTemplate.exchange(URI.create(url), HttpMethod.GET, new HttpEntity<Void>(headers),
+                            com.checkmarx.flow.dto.gitlab.Issue[].class);
+                },
+                this::mapToIssue,
+                issue -> issue.getTitle() != null && issue.getTitle().startsWith(product));
     }
 
     private Issue mapToIssue(com.checkmarx.flow.dto.gitlab.Issue issue){
@@ -292,9 +292,9 @@ public class GitLabIssueTracker implements IssueTracker {
      */
     private JSONObject getJSONUpdateIssue(ScanResults.XIssue resultIssue, ScanRequest request) {
         JSONObject requestBody = new JSONObject();
-        String fileUrl = getFileUrl(request, resultIssue.getFilename());
-        String body = HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
         String title = getXIssueKey(resultIssue, request);
+        String body = getBody(resultIssue, request);
+        body = IssueDigest.mark(body, getDigest(title, body));
 
         try {
             requestBody.put("title", title);
@@ -313,19 +313,44 @@ public class GitLabIssueTracker implements IssueTracker {
      */
     private JSONObject getJSONCreateIssue(ScanResults.XIssue resultIssue, ScanRequest request) {
         JSONObject requestBody = new JSONObject();
-        String fileUrl = getFileUrl(request, resultIssue.getFilename());
-        String body = HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
         String title = getXIssueKey(resultIssue, request);
+        String body = getBody(resultIssue, request);
+        body = IssueDigest.mark(body, getDigest(title, body));
 
         try {
             requestBody.put("title", title);
             requestBody.put("description", body);
+            if (!ScanUtils.empty(properties.getIssueLabel())) {
+                requestBody.put("labels", properties.getIssueLabel());
+            }
         } catch (JSONException e) {
             log.error("Error creating JSON Create Issue Object - JSON Object will be empty", e);
         }
         return requestBody;
     }
 
+    private String getBody(ScanResults.XIssue resultIssue, ScanRequest request) {
+        String fileUrl = getFileUrl(request, resultIssue.getFilename());
+        return HTMLHelper.getMDBody(resultIssue, request.getBranch(), fileUrl, flowProperties);
+    }
+
+    /**
+     * Digest of the title and description, together with the configured label and the open state that every write sets.
+     */
+    private String getDigest(String title, String body) {
+        return IssueDigest.of(title, body, properties.getIssueLabel(), OPEN_STATE);
+    }
+
+    @Override
+    public String getXIssueDigest(ScanResults.XIssue resultIssue, ScanRequest request) {
+        return getDigest(getXIssueKey(resultIssue, request), getBody(resultIssue, request));
+    }
+
+    @Override
+    public String getIssueDigest(Issue issue) {
+        return IssueIndex.getDigest(issue);
+    }
+
     @Override
     public String getFalsePositiveLabel() throws MachinaException {
         return properties.getFalsePositiveLabel();
@@ -385,32 +410,4 @@ public class GitLabIssueTracker implements IssueTracker {
         return httpHeaders;
     }
 
-    private static String getNextURIFromHeaders(HttpHeaders headers, final String headerName, final String rel) {
-        if (headerName == null) {
-            return null;
-        }
-        if (headers == null || headers.get(headerName) == null) {
-            return null;
-        }
-        String linkHeader = Objects.requireNonNull(headers.get(headerName)).get(0);
-        String uriWithSpecifiedRel = null;
-        final String[] links = linkHeader.split(", ");
-        String linkRelation;
-        for (final String link : links) {
-            final int positionOfSeparator = link.indexOf(';');
-            linkRelation = link.substring(positionOfSeparator + 1).trim();
-            if (extractTypeOfRelation(linkRelation).equals(rel)) {
-                uriWithSpecifiedRel = link.substring(1, positionOfSeparator - 1);
-                break;
-            }
-        }
-
-        return uriWithSpecifiedRel;
-    }
-
-    private static String extractTypeOfRelation(final String linkRelation) {
-        int positionOfEquals = linkRelation.indexOf('=');
-        return linkRelation.substring(positionOfEquals + 2, linkRelation.length() - 1).trim();
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.config.GitLabProperties;
+import com.checkmarx.flow.utils.JsonFileStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of GitLab project IDs keyed by API URL and 'namespace/path', with a TTL.
+ * <p>
+ * Command line runs start with an empty memory, so entries can also be kept in a small JSON file
+ * (gitlab.project-id-cache-file, off by default) that is re-read when a key is missing in memory.
+ * A file owned by another user is ignored, so that nobody else can redirect CxFlow to their project IDs.
+ */
+@Component
+public class GitLabProjectIdCache {
+    private static final Logger log = LoggerFactory.getLogger(GitLabProjectIdCache.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final TypeReference<Map<String, CachedId>> FILE_TYPE = new TypeReference<Map<String, CachedId>>() {
+    };
+
+    private final GitLabProperties properties;
+    private final Map<String, CachedId> ids = new HashMap<>();
+
+    public GitLabProjectIdCache(GitLabProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return project ID, or null if not cached or expired
+     */
+    public synchronized Integer get(String apiUrl, String projectPath) {
+        String key = key(apiUrl, projectPath);
+        CachedId cached = ids.get(key);
+        if (cached == null) {
+            ids.putAll(readFile());
+            cached = ids.get(key);
+        }
+        if (cached == null || cached.getExpiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return cached.getId();
+    }
+
+    public synchronized void put(String apiUrl, String projectPath, int projectId) {
+        long ttl = TimeUnit.MINUTES.toMillis(properties.getProjectIdCacheTtlMinutes());
+        long now = System.currentTimeMillis();
+        Map<String, CachedId> fileIds = readFile();
+        ids.putAll(fileIds);
+        ids.put(key(apiUrl, projectPath), new CachedId(projectId, now + ttl));
+        ids.values().removeIf(cached -> cached.getExpiresAt() < now);
+        writeFile();
+    }
+
+    private static String key(String apiUrl, String projectPath) {
+        return apiUrl + "|" + projectPath;
+    }
+
+    private Map<String, CachedId> readFile() {
+        Path file = getFile();
+        if (file == null || !Files.exists(file)) {
+            return new HashMap<>();
+        }
+        try {
+            if (!isOwnedByCurrentUser(file)) {
+                log.warn("Ignoring GitLab project ID cache {}, it is not owned by {}", file,
+                        System.getProperty("user.name"));
+                return new HashMap<>();
+            }
+            return mapper.readValue(file.toFile(), FILE_TYPE);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable GitLab project ID cache {}", file, e);
+            return new HashMap<>();
+        }
+    }
+
+    private void writeFile() {
+        Path file = getFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            JsonFileStore.writeAtomically(file, mapper.writeValueAsBytes(ids));
+        } catch (IOException e) {
+            log.warn("Unable to write GitLab project ID cache {}", file, e);
+        }
+    }
+
+    private static boolean isOwnedByCurrentUser(Path file) throws IOException {
+        if (Files.getFileAttributeView(file, PosixFileAttributeView.class) == null) {
+            return true;
+        }
+        return Files.getOwner(file).getName().equals(System.getProperty("user.name"));
+    }
+
+    private Path getFile() {
+        String fileName = properties.getProjectIdCacheFile();
+        return StringUtils.isEmpty(fileName) ? null : Paths.get(fileName);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedId {
+        private int id;
+        private long expiresAt;
+    }
+}
@@ -0,0 +1,234 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.utils.IssueDigest;
+import com.checkmarx.flow.utils.JsonFileStore;
+import com.google.common.util.concurrent.Striped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Per-repository index of issues created by CxFlow, refreshed incrementally.
+ * <p>
+ * The first sync of a repository lists all its issues. Later syncs only ask for issues updated since the previous
+ * sync (GitHub 'since', GitLab 'updated_after') and send the ETag of the previous response in If-None-Match, so for
+ * an unchanged repository a sync costs a single request answered with 304 Not Modified. The 'since' value only
+ * moves forward when changes were received, which keeps the request URL, and therefore the ETag, stable.
+ * <p>
+ * Entries are kept in a bounded LRU map and, if cx-flow.issue-index-dir is set, in one JSON file per repository.
+ * Only what is needed to match and compare issues is kept: title, state, labels and the content digest of the body
+ * (see {@link IssueDigest}), which is returned as the {@link #DIGEST} metadata of issues without a body. Issues
+ * deleted on the server stay in the index until it is rebuilt (remove the file or restart without a directory).
+ * <p>
+ * Syncs of the same repository run one at a time, so that concurrent scans don't fetch the same changes twice or
+ * overwrite each other's entry.
+ */
+@Component
+public class IssueIndex {
+    private static final Logger log = LoggerFactory.getLogger(IssueIndex.class);
+    private static final int MAX_ENTRIES = 64;
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Metadata key of the content digest of an indexed issue.
+     */
+    public static final String DIGEST = "cx-flow-digest";
+
+    private final JsonFileStore entries;
+    private final Striped<Lock> repositoryLocks = Striped.lock(LOCK_STRIPES);
+
+    public IssueIndex(FlowProperties flowProperties) {
+        this.entries = new JsonFileStore("issue index", MAX_ENTRIES, flowProperties.getIssueIndexDir());
+    }
+
+    /**
+     * @param key          identifies the repository and the issue filter
+     * @param listUrl      URL of the first page of the full listing, must already contain a query string
+     * @param sinceParam   name of the 'updated since' query parameter
+     * @param fetchPage    fetches a page by URL, the second argument is the If-None-Match value or null
+     * @param toIssue      maps a tracker issue to {@link Issue}
+     * @param isTracked    tells whether an issue belongs in the index (was created by CxFlow)
+     * @return all tracked issues of the repository, without a body
+     */
+    public <T> List<Issue> sync(String key, String listUrl, String sinceParam,
+                                BiFunction<String, String, ResponseEntity<T[]>> fetchPage,
+                                Function<T, Issue> toIssue,
+                                Predicate<Issue> isTracked) {
+        Lock lock = repositoryLocks.get(key);
+        lock.lock();
+        try {
+            return syncLocked(key, listUrl, sinceParam, fetchPage, toIssue, isTracked);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return digest of the content CxFlow wrote to the issue: the indexed digest, or the one in the issue body
+     */
+    public static String getDigest(Issue issue) {
+        if (issue.getBody() == null && issue.getMetadata() != null) {
+            return issue.getMetadata().get(DIGEST);
+        }
+        return IssueDigest.read(issue.getBody());
+    }
+
+    private <T> List<Issue> syncLocked(String key, String listUrl, String sinceParam,
+                                       BiFunction<String, String, ResponseEntity<T[]>> fetchPage,
+                                       Function<T, Issue> toIssue,
+                                       Predicate<Issue> isTracked) {
+        Entry entry = get(key);
+        String url = listUrl;
+        if (entry != null) {
+            url = String.format("%s&%s=%s", listUrl, sinceParam, encodeQueryValue(entry.getSince()));
+        }
+        ResponseEntity<T[]> response = fetchPage.apply(url, entry == null ? null : entry.getEtag());
+        if (entry != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            log.debug("Issues of {} not modified since {}", key, entry.getSince());
+            return toIssues(entry.getIssues().values());
+        }
+
+        String syncStart = serverTime(response.getHeaders());
+        Map<String, IndexedIssue> issues = entry == null ? new LinkedHashMap<>() : new LinkedHashMap<>(entry.getIssues());
+        int received = 0;
+        while (true) {
+            if (response.getBody() != null) {
+                for (T trackerIssue : response.getBody()) {
+                    Issue issue = toIssue.apply(trackerIssue);
+                    if (issue == null) {
+                        continue;
+                    }
+                    received++;
+                    if (isTracked.test(issue)) {
+                        issues.put(issue.getId(), IndexedIssue.of(issue));
+                    } else {
+                        issues.remove(issue.getId());
+                    }
+                }
+            }
+            String next = getNextURIFromHeaders(response.getHeaders());
+            if (next == null) {
+                break;
+            }
+            log.debug("Getting issues from {}", next);
+            response = fetchPage.apply(next, null);
+        }
+
+        Entry updated = new Entry();
+        updated.setIssues(issues);
+        if (entry == null || received > 0) {
+            // The next sync uses a new 'since', so there is no ETag to match yet.
+            updated.setSince(syncStart);
+        } else {
+            updated.setSince(entry.getSince());
+            updated.setEtag(response.getHeaders().getETag());
+        }
+        put(key, updated);
+        log.debug("Issue index of {} updated: {} changed, {} tracked", key, received, issues.size());
+        return toIssues(issues.values());
+    }
+
+    /**
+     * Entries are stored by the hash of the key, which is used as the file name.
+     */
+    private Entry get(String key) {
+        return entries.read(DigestUtils.sha256Hex(key), Entry.class);
+    }
+
+    private void put(String key, Entry entry) {
+        entries.write(DigestUtils.sha256Hex(key), entry);
+    }
+
+    private static List<Issue> toIssues(Collection<IndexedIssue> indexedIssues) {
+        List<Issue> result = new ArrayList<>(indexedIssues.size());
+        for (IndexedIssue indexed : indexedIssues) {
+            Map<String, String> metadata = new HashMap<>();
+            if (indexed.getDigest() != null) {
+                metadata.put(DIGEST, indexed.getDigest());
+            }
+            result.add(new Issue(indexed.getId(), indexed.getUrl(), indexed.getTitle(), null, indexed.getState(),
+                    indexed.getLabels() == null ? null : new ArrayList<>(indexed.getLabels()), metadata));
+        }
+        return result;
+    }
+
+    /**
+     * @return value encoded for a query string, e.g. a label list or a timestamp
+     */
+    static String encodeQueryValue(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Server clock is used so that local clock skew cannot make the next incremental sync miss updates.
+     */
+    private static String serverTime(HttpHeaders headers) {
+        long date = headers.getDate();
+        Instant time = date > 0 ? Instant.ofEpochMilli(date) : Instant.now();
+        // Date has a resolution of one second.
+        return time.minusSeconds(1).toString();
+    }
+
+    private static String getNextURIFromHeaders(HttpHeaders headers) {
+        List<String> linkHeaders = headers.get(HttpHeaders.LINK);
+        if (linkHeaders == null || linkHeaders.isEmpty()) {
+            return null;
+        }
+        for (String link : linkHeaders.get(0).split(",")) {
+            String[] parts = link.split(";");
+            if (parts.length > 1 && parts[1].trim().equals("rel=\"next\"")) {
+                String uri = parts[0].trim();
+                return uri.substring(1, uri.length() - 1);
+            }
+        }
+        return null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class Entry {
+        private String etag;
+        private String since;
+        private Map<String, IndexedIssue> issues = new LinkedHashMap<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class IndexedIssue {
+        private String id;
+        private String url;
+        private String title;
+        private String state;
+        private List<String> labels;
+        private String digest;
+
+        static IndexedIssue of(Issue issue) {
+            return new IndexedIssue(issue.getId(), issue.getUrl(), issue.getTitle(), issue.getState(),
+                    issue.getLabels(), getDigest(issue));
+        }
+    }
+}
@@ -6,7 +6,12 @@ import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.service.FilenameFormatter;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
@@ -15,12 +20,21 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @Service("Json")
 @RequiredArgsConstructor
-public class JsonIssueTracker implements IssueTracker {
+public class JsonIssueTracker implements IssueTracker, StreamingIssueTracker {
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(JsonIssueTracker.class);
+    /**
+     * Name of the issue list in the serialized ScanResults.
+     */
+    private static final String ISSUES_FIELD = "xissues";
+    private static final ObjectMapper streamMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     private final JsonProperties properties;
     private final FilenameFormatter filenameFormatter;
 
@@ -66,6 +80,64 @@ public class JsonIssueTracker implements IssueTracker {
         }
     }
 
+    /**
+     * Writes the same document as {@link #complete(ScanRequest, ScanResults)}: the issue list first, then the other
+     * fields of the scan results, which are only final once the whole report was read.
+     */
+    @Override
+    public IssueStream openStream(ScanRequest request, ScanResults header) throws MachinaException {
+        init(request, header);
+        JsonGenerator generator;
+        try {
+            generator = streamMapper.getFactory().createGenerator(new File(request.getFilename()), JsonEncoding.UTF8);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(ISSUES_FIELD);
+        } catch (IOException e) {
+            log.error("Issue occurred while writing file {}", request.getFilename(), e);
+            throw new MachinaException();
+        }
+        return new IssueStream() {
+            @Override
+            public void add(ScanResults.XIssue issue) throws MachinaException {
+                try {
+                    streamMapper.writeValue(generator, issue);
+                } catch (IOException e) {
+                    log.error("Issue occurred while writing file {}", request.getFilename(), e);
+                    throw new MachinaException();
+                }
+            }
+
+            @Override
+            public void complete(ScanResults summary) throws MachinaException {
+                try {
+                    generator.writeEndArray();
+                    ObjectNode fields = streamMapper.valueToTree(summary);
+                    fields.remove(ISSUES_FIELD);
+                    Iterator<Map.Entry<String, JsonNode>> iterator = fields.fields();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, JsonNode> field = iterator.next();
+                        generator.writeFieldName(field.getKey());
+                        generator.writeTree(field.getValue());
+                    }
+                    generator.writeEndObject();
+                    generator.close();
+                } catch (IOException e) {
+                    log.error("Issue occurred while writing file {}", request.getFilename(), e);
+                    throw new MachinaException();
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    generator.close();
+                } catch (IOException e) {
+                    log.warn("Unable to close {}", request.getFilename(), e);
+                }
+            }
+        };
+    }
+
     @Override
     public String getFalsePositiveLabel() throws MachinaException {
         return null;
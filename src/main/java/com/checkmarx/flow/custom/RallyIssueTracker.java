@@ -6,6 +6,7 @@ import com.checkmarx.flow.dto.Issue;
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.dto.rally.CreateResultAction;
 import com.checkmarx.flow.dto.rally.QueryResult;
+import com.checkmarx.flow.dto.rally.QueryResult_;
 import com.checkmarx.flow.dto.rally.Result;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
@@ -20,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
@@ -27,14 +29,19 @@ import org.springframework.web.client.RestTemplate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service("Rally")
-public class RallyIssueTracker implements IssueTracker {
+public class RallyIssueTracker implements IssueTracker, BatchIssueTracker {
 
     private static final long MAX_RESULTS_ALLOWED = 1000000L;
     private static final String TRANSITION_CLOSE = "Closed";
     private static final String TRANSITION_OPEN = "Open";
-    private static final String ISSUES_PER_PAGE = "100";
+    private static final int ISSUES_PER_PAGE = 200;
+    private static final String ISSUE_FIELDS = "Name,State";
     private static final Logger log = LoggerFactory.getLogger(RallyIssueTracker.class);
     private static final String REQUEST_STATE_FIELD = "State";
     private static final String RALLY_DEFECT_STATE_FIELD = "State";
@@ -46,10 +53,11 @@ public class RallyIssueTracker implements IssueTracker {
     //
     /// RestAPI Endpoints
     //
-    private static final String GET_ISSUES = "/defect?query={query}&fetch=true&start={page_index}&pagesize={issues_per_page}";
+    private static final String GET_ISSUES = "/defect?query={query}&fetch={fields}&order=ObjectID&start={start}&pagesize={issues_per_page}";
     private static final String CREATE_ISSUE = "/defect/create";
     private static final String CREATE_DISCUSSION = "/conversationpost/create";
     private static final String CREATE_TAG = "/tag/create";
+    private static final String BATCH = "/batch";
 
     //
     /// Tracks the list of Rally tags to append to new Issues
@@ -77,77 +85,105 @@ public class RallyIssueTracker implements IssueTracker {
     }
 
     /**
-     * Get all issues for a Rally repository
+     * Get all issues for a Rally repository. The first page gives the total number of defects, the remaining pages
+     * are then read rally.page-concurrency at a time. Only the fields used for reconciliation are fetched.
      *
      * @return List of Rally Issues
-     * @ full name (owner/repo format)
+     * @throws MachinaException if a page could not be read, as an incomplete list would duplicate defects
      */
     @Override
-    public List<Issue> getIssues(ScanRequest request) {
+    public List<Issue> getIssues(ScanRequest request) throws MachinaException {
         log.info("Executing getIssues Rally API call");
+        String query = createRallyTagQuery(request);
+        QueryResult_ firstPage = getIssuePage(query, 0);
+        long totalResultCount = getTotalResultCount(firstPage);
+        int pageCount = (int) ((totalResultCount + ISSUES_PER_PAGE - 1) / ISSUES_PER_PAGE);
         List<Issue> issues = new ArrayList<>();
+        addIssues(issues, firstPage);
+        if (pageCount > 1) {
+            for (QueryResult_ page : getIssuePages(query, pageCount)) {
+                addIssues(issues, page);
+            }
+        }
+        log.debug("Read {} Rally defect(s) in {} page(s)", issues.size(), Math.max(pageCount, 1));
+        return issues;
+    }
+
+    /**
+     * Reads pages 1 to pageCount - 1 with a bounded number of requests in flight.
+     */
+    private List<QueryResult_> getIssuePages(String query, int pageCount) throws MachinaException {
+        int concurrency = Math.max(1, Math.min(properties.getPageConcurrency(), pageCount - 1));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rally-page-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+        try {
+            List<Future<QueryResult_>> pages = new ArrayList<>();
+            for (int pageIndex = 1; pageIndex < pageCount; pageIndex++) {
+                int page = pageIndex;
+                pages.add(executor.submit(() -> getIssuePage(query, page)));
+            }
+            List<QueryResult_> results = new ArrayList<>();
+            for (Future<QueryResult_> page : pages) {
+                results.add(page.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MachinaException("Interrupted while reading Rally defects", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MachinaException) {
+                throw (MachinaException) e.getCause();
+            }
+            throw new MachinaException("Error reading Rally defects", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private QueryResult_ getIssuePage(String query, int pageIndex) throws MachinaException {
         HttpEntity httpEntity = new HttpEntity(createAuthHeaders());
+        QueryResult rallyQuery;
         try {
-            int pageIndex = 0;
-            QueryResult rallyQuery;
-            ResponseEntity<QueryResult> response;
-            //
-            /// Read the first list of defects from Rally, it will contain the totalResultCount we can use
-            /// to figure out how many more pages of data needs to be pulled.
-            //
-            String query = createRallyTagQuery(request);
-            response = restTemplate.exchange(
+            // Rally start indexes are 1-based item positions, not page numbers
+            ResponseEntity<QueryResult> response = restTemplate.exchange(
                     properties.getApiUrl().concat(GET_ISSUES),
                     HttpMethod.GET,
                     httpEntity,
                     QueryResult.class,
                     query,
-                    pageIndex,
+                    ISSUE_FIELDS,
+                    1 + pageIndex * ISSUES_PER_PAGE,
                     ISSUES_PER_PAGE
             );
             rallyQuery = response.getBody();
-            //
-            /// Now decode the CxFlow defects and continue reading lists of defects until we've found the
-            // totalResultCount
-            //
-            long totalResultCount = getTotalResultCount(rallyQuery);
-            int resultsFound = 0;
-            while(resultsFound < totalResultCount) {
-                resultsFound += rallyQuery.getQueryResult().getPageSize();
-                // Create CxFlow issues from Rally issues
-                for(Result issue: rallyQuery.getQueryResult().getResults()){
-                    Issue i = mapToIssue(issue);
-                    issues.add(i);
-                }
-                // If there are more issues on the server, fetch them
-                if(resultsFound < rallyQuery.getQueryResult().getTotalResultCount()) {
-                    pageIndex++;
-                    response = restTemplate.exchange(
-                            properties.getApiUrl().concat(GET_ISSUES),
-                            HttpMethod.GET,
-                            httpEntity,
-                            QueryResult.class,
-                            query,
-                            pageIndex,
-                            ISSUES_PER_PAGE
-                    );
-                    rallyQuery = response.getBody();
-                }
-            }
-            return issues;
-        } catch(RestClientException e) {
-            return new ArrayList<>();
+        } catch (RestClientException e) {
+            throw new MachinaException("Error reading Rally defects", e);
+        }
+        if (rallyQuery == null || rallyQuery.getQueryResult() == null) {
+            throw new MachinaException("Rally returned no defect query result");
         }
+        QueryResult_ page = rallyQuery.getQueryResult();
+        if (page.getErrors() != null && !page.getErrors().isEmpty()) {
+            throw new MachinaException("Rally defect query failed: " + page.getErrors());
+        }
+        return page;
     }
 
-    private long getTotalResultCount(QueryResult rallyQuery) {
-        long totalResultCount = 0;
-        if (rallyQuery.getQueryResult().getTotalResultCount() != null && rallyQuery.getQueryResult().getTotalResultCount() > MAX_RESULTS_ALLOWED) {
-            totalResultCount = MAX_RESULTS_ALLOWED;
-        } else {
-            totalResultCount = rallyQuery.getQueryResult().getTotalResultCount();
+    private void addIssues(List<Issue> issues, QueryResult_ page) {
+        if (page.getResults() == null) {
+            return;
+        }
+        for (Result issue : page.getResults()) {
+            issues.add(mapToIssue(issue));
         }
-        return totalResultCount;
+    }
+
+    private long getTotalResultCount(QueryResult_ rallyQuery) {
+        if (rallyQuery.getTotalResultCount() == null) {
+            return 0;
+        }
+        return Math.min(rallyQuery.getTotalResultCount(), MAX_RESULTS_ALLOWED);
     }
 
     /**
@@ -387,6 +423,126 @@ public class RallyIssueTracker implements IssueTracker {
                 Issue.class);
     }
 
+    /**
+     * Creates new Rally defects through the batch endpoint, rally.batch-size defects per call.
+     */
+    @Override
+    public List<Issue> createIssues(List<ScanResults.XIssue> resultIssues, ScanRequest request) throws MachinaException {
+        log.info("Executing batch createIssue Rally API call for {} defect(s)", resultIssues.size());
+        List<JSONObject> entries = new ArrayList<>();
+        for (ScanResults.XIssue resultIssue : resultIssues) {
+            entries.add(getJSONBatchEntry(CREATE_ISSUE, getJSONCreateIssue(resultIssue, request)));
+        }
+        List<Issue> created = new ArrayList<>();
+        for (JSONObject defect : executeBatch(entries)) {
+            if (defect != null) {
+                created.add(mapHashManToIssue(defect.toMap()));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Closes open Rally defects through the batch endpoint, rally.batch-size defects per call.
+     */
+    @Override
+    public List<Issue> closeIssues(List<Issue> issues, ScanRequest request) throws MachinaException {
+        log.info("Executing batch closeIssue Rally API call for {} defect(s)", issues.size());
+        String json = getJSONCloseIssue();
+        List<JSONObject> entries = new ArrayList<>();
+        for (Issue issue : issues) {
+            entries.add(getJSONBatchEntry(getDefectPath(issue.getUrl()), json));
+        }
+        List<JSONObject> results = executeBatch(entries);
+        List<Issue> closed = new ArrayList<>();
+        for (int i = 0; i < issues.size(); i++) {
+            if (results.get(i) != null) {
+                closed.add(issues.get(i));
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Posts the entries to the Rally batch endpoint in chunks of rally.batch-size.
+     *
+     * @return the object returned for each entry, in the order of the entries, or null for a failed entry
+     * @throws MachinaException if a whole batch call failed
+     */
+    private List<JSONObject> executeBatch(List<JSONObject> entries) throws MachinaException {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<JSONObject> objects = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<JSONObject> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            JSONObject batchResult = postBatch(chunk);
+            JSONArray results = batchResult.optJSONArray("Results");
+            for (int i = 0; i < chunk.size(); i++) {
+                JSONObject result = results == null ? null : results.optJSONObject(i);
+                JSONObject object = result == null ? null : result.optJSONObject("Object");
+                if (object == null) {
+                    log.error("Rally batch operation on {} failed: {}",
+                            chunk.get(i).getJSONObject("Entry").getString("Path"),
+                            result == null ? "no result" : result.optJSONArray("Errors"));
+                }
+                objects.add(object);
+            }
+        }
+        return objects;
+    }
+
+    private JSONObject postBatch(List<JSONObject> entries) throws MachinaException {
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("Batch", new JSONArray(entries));
+        HttpEntity httpEntity = new HttpEntity(requestBody.toString(), createAuthHeaders());
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(
+                    properties.getApiUrl().concat(BATCH),
+                    HttpMethod.POST,
+                    httpEntity,
+                    String.class);
+        } catch (RestClientException e) {
+            throw new MachinaException("Error calling the Rally batch endpoint", e);
+        }
+        JSONObject batchResult;
+        try {
+            batchResult = new JSONObject(response.getBody()).getJSONObject("BatchResult");
+        } catch (JSONException | NullPointerException e) {
+            throw new MachinaException("Unexpected response from the Rally batch endpoint", e);
+        }
+        JSONArray errors = batchResult.optJSONArray("Errors");
+        if (errors != null && errors.length() > 0) {
+            throw new MachinaException("Rally batch call failed: " + errors);
+        }
+        return batchResult;
+    }
+
+    /**
+     * @param path endpoint relative to the API URL, e.g. /defect/create
+     * @param body JSON body of the single request
+     * @return JSON object of one batch entry
+     */
+    private JSONObject getJSONBatchEntry(String path, String body) {
+        JSONObject entry = new JSONObject();
+        entry.put("Path", path);
+        entry.put("Method", "POST");
+        entry.put("Body", new JSONObject(body));
+        JSONObject batchEntry = new JSONObject();
+        batchEntry.put("Entry", entry);
+        return batchEntry;
+    }
+
+    /**
+     * @return path of a defect relative to the API URL, e.g. /defect/12345
+     */
+    private String getDefectPath(String defectUrl) {
+        String apiUrl = properties.getApiUrl();
+        if (defectUrl.startsWith(apiUrl)) {
+            return defectUrl.substring(apiUrl.length());
+        }
+        return "/defect/".concat(defectUrl.substring(defectUrl.lastIndexOf('/') + 1));
+    }
+
     /**
      *
      * @param issue
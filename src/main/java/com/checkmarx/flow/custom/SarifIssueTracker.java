@@ -5,13 +5,21 @@ import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.service.FilenameFormatter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.Lists;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,10 +30,13 @@ import java.util.stream.Collectors;
 @Service("Sarif")
 @RequiredArgsConstructor
 @Slf4j
-public class SarifIssueTracker extends ImmutableIssueTracker {
+public class SarifIssueTracker extends ImmutableIssueTracker implements StreamingIssueTracker {
+    private static final String DEFAULT_LEVEL = "error";
+    private static final ObjectMapper streamMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     private final SarifProperties properties;
     private final FilenameFormatter filenameFormatter;
-    private static final String DEFAULT_LEVEL = "error";
 
     @Override
     public void init(ScanRequest request, ScanResults results) throws MachinaException {
@@ -52,7 +63,100 @@ public class SarifIssueTracker extends ImmutableIssueTracker {
                         .filter(x -> !x.isAllFalsePositive())
                         .collect(Collectors.toList());
         // Build the collection of the rules objects (Vulnerabilities)
-        List<Rule> rules = filteredByVulns.stream().map(i -> Rule.builder()
+        List<Rule> rules = filteredByVulns.stream().map(this::toRule).collect(Collectors.toList());
+        //All issues to create the results/locations that are not all false positive
+        List<Result> resultList = filteredXIssues.stream().map(this::toResult).collect(Collectors.toList());
+
+        // Build the run object
+        SarifVulnerability run =
+                SarifVulnerability
+                        .builder()
+                        .tool(toTool(rules))
+                        .results(resultList)
+                        .build();
+
+        // Build the report
+        SarifReport report = SarifReport.builder()
+                .schema(properties.getSarifSchema())
+                .version(properties.getSarifVersion())
+                .runs(Collections.singletonList(run))
+                .build();
+
+        writeJsonOutput(request, report, log);
+    }
+
+    /**
+     * Writes results while the report is read, the rules (one per vulnerability type) are written at the end.
+     */
+    @Override
+    public IssueStream openStream(ScanRequest request, ScanResults header) throws MachinaException {
+        fileInit(request, header, properties.getFilePath(), filenameFormatter, log);
+        JsonGenerator generator;
+        try {
+            generator = streamMapper.getFactory().createGenerator(new File(request.getFilename()), JsonEncoding.UTF8);
+            generator.writeStartObject();
+            generator.writeStringField("$schema", properties.getSarifSchema());
+            generator.writeStringField("version", properties.getSarifVersion());
+            generator.writeArrayFieldStart("runs");
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("results");
+        } catch (IOException e) {
+            log.error("Issue occurred while writing file {}", request.getFilename(), e);
+            throw new MachinaException();
+        }
+        return new IssueStream() {
+            // Same selection as in complete(): the first issue of each vulnerability type, if not all false positive
+            private final Map<String, Rule> rulesByVulnerability = new TreeMap<>();
+
+            @Override
+            public void add(ScanResults.XIssue issue) throws MachinaException {
+                if (!rulesByVulnerability.containsKey(issue.getVulnerability())) {
+                    rulesByVulnerability.put(issue.getVulnerability(), issue.isAllFalsePositive() ? null : toRule(issue));
+                }
+                if (!issue.isAllFalsePositive()) {
+                    write(() -> streamMapper.writeValue(generator, toResult(issue)));
+                }
+            }
+
+            @Override
+            public void complete(ScanResults summary) throws MachinaException {
+                log.info("Finalizing SARIF output");
+                List<Rule> rules = rulesByVulnerability.values().stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+                write(() -> {
+                    generator.writeEndArray();
+                    generator.writeFieldName("tool");
+                    streamMapper.writeValue(generator, toTool(rules));
+                    generator.writeEndObject();
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                    generator.close();
+                });
+            }
+
+            @Override
+            public void close() {
+                try {
+                    generator.close();
+                } catch (IOException e) {
+                    log.warn("Unable to close {}", request.getFilename(), e);
+                }
+            }
+
+            private void write(JsonWrite write) throws MachinaException {
+                try {
+                    write.run();
+                } catch (IOException e) {
+                    log.error("Issue occurred while writing file {}", request.getFilename(), e);
+                    throw new MachinaException();
+                }
+            }
+        };
+    }
+
+    private Rule toRule(ScanResults.XIssue i) {
+        return Rule.builder()
                 .id(i.getVulnerability())
                 .name(i.getVulnerability())
                 .shortDescription(ShortDescription.builder().text(i.getVulnerability()).build())
@@ -66,66 +170,51 @@ public class SarifIssueTracker extends ImmutableIssueTracker {
                 .properties(Properties.builder()
                         .tags(Arrays.asList("security", "external/cwe/cwe-".concat(i.getCwe())))
                         .build())
-                .build()).collect(Collectors.toList());
-        //All issues to create the results/locations that are not all false positive
-        List<Result> resultList = Lists.newArrayList();
-        filteredXIssues.forEach(
-                issue -> {
-                    List<Location> locations = Lists.newArrayList();
-                    issue.getDetails().forEach((k, v) -> {
-                        if(!v.isFalsePositive()) {
-                            locations.add(Location.builder()
-                                    .physicalLocation(PhysicalLocation.builder()
-                                            .artifactLocation(ArtifactLocation.builder()
-                                                    .uri(issue.getFilename())
-                                                    .build())
-                                            .region(Region.builder()
-                                                    .startLine(k)
-                                                    .endLine(k)
-                                                    .build())
-                                            .build())
-                                    .build());
-
-                        }
-                    });
-                    // Build collection of the results -> locations
-                    resultList.add(
-                            Result.builder()
-                            .level(properties.getSeverityMap().get(issue.getSeverity()) != null ? properties.getSeverityMap().get(issue.getSeverity()) : DEFAULT_LEVEL)
-                            .locations(locations)
-                            .message(Message.builder()
-                                    .text(issue.getDescription())
-                                    .build())
-                            .ruleId(issue.getVulnerability())
-                            .build()
-                    );
-
-                }
-        );
+                .build();
+    }
 
-        // Build the run object
-        SarifVulnerability run =
-                SarifVulnerability
-                        .builder()
-                        .tool(Tool.builder()
-                                .driver(Driver.builder()
-                                    .name(properties.getScannerName())
-                                    .organization(properties.getOrganization())
-                                    .semanticVersion(properties.getSemanticVersion())
-                                    .rules(rules)
-                                    .build())
+    private Result toResult(ScanResults.XIssue issue) {
+        List<Location> locations = Lists.newArrayList();
+        issue.getDetails().forEach((k, v) -> {
+            if(!v.isFalsePositive()) {
+                locations.add(Location.builder()
+                        .physicalLocation(PhysicalLocation.builder()
+                                .artifactLocation(ArtifactLocation.builder()
+                                        .uri(issue.getFilename())
+                                        .build())
+                                .region(Region.builder()
+                                        .startLine(k)
+                                        .endLine(k)
+                                        .build())
                                 .build())
-                        .results(resultList)
-                        .build();
+                        .build());
 
-        // Build the report
-        SarifReport report = SarifReport.builder()
-                .schema(properties.getSarifSchema())
-                .version(properties.getSarifVersion())
-                .runs(Collections.singletonList(run))
+            }
+        });
+        // Build collection of the results -> locations
+        return Result.builder()
+                .level(properties.getSeverityMap().get(issue.getSeverity()) != null ? properties.getSeverityMap().get(issue.getSeverity()) : DEFAULT_LEVEL)
+                .locations(locations)
+                .message(Message.builder()
+                        .text(issue.getDescription())
+                        .build())
+                .ruleId(issue.getVulnerability())
                 .build();
+    }
 
-        writeJsonOutput(request, report, log);
+    private Tool toTool(List<Rule> rules) {
+        return Tool.builder()
+                .driver(Driver.builder()
+                        .name(properties.getScannerName())
+                        .organization(properties.getOrganization())
+                        .semanticVersion(properties.getSemanticVersion())
+                        .rules(rules)
+                        .build())
+                .build();
+    }
+
+    private interface JsonWrite {
+        void run() throws IOException;
     }
 
     @Data
@@ -0,0 +1,37 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.sdk.dto.ScanResults;
+
+/**
+ * File based issue tracker that can write results issue by issue, while the report is still being read.
+ * Used in --parse mode (cx-flow.streaming-parse), so that large reports are never held in memory as a whole.
+ */
+public interface StreamingIssueTracker {
+
+    /**
+     * Creates the output of a request, in place of {@link IssueTracker#init(ScanRequest, ScanResults)}.
+     *
+     * @param header scan details, without issues
+     */
+    IssueStream openStream(ScanRequest request, ScanResults header) throws MachinaException;
+
+    interface IssueStream extends AutoCloseable {
+        /**
+         * Receives every issue of the report, including the ones where all findings are false positives.
+         */
+        void add(ScanResults.XIssue issue) throws MachinaException;
+
+        /**
+         * @param summary scan details (with the flow summary) known once the whole report was read, without issues
+         */
+        void complete(ScanResults summary) throws MachinaException;
+
+        /**
+         * Releases the output, also if the stream was not completed.
+         */
+        @Override
+        void close();
+    }
+}
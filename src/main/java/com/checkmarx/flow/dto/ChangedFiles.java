@@ -0,0 +1,32 @@
+package com.checkmarx.flow.dto;
+
+/**
+ * Files changed in a repository between two commits.
+ */
+public class ChangedFiles {
+    public static final int UNKNOWN_TOTAL = -1;
+
+    private final int changed;
+    private final int total;
+
+    /**
+     * @param changed files added, modified or deleted between the commits
+     * @param total   files of the repository at the later commit, {@link #UNKNOWN_TOTAL} if not known
+     */
+    public ChangedFiles(int changed, int total) {
+        this.changed = changed;
+        this.total = total;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isTotalKnown() {
+        return total > 0;
+    }
+}
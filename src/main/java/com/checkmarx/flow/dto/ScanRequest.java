@@ -10,6 +10,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Object containing all applicable information about the scan request details
@@ -73,6 +74,11 @@ public class ScanRequest {
     private Repository repoType;
     private Product product;
     private BugTracker bugTracker;
+    /**
+     * Bug trackers the results are also published to, at the same time as {@link #bugTracker}. When null, the
+     * cx-flow.additional-bug-trackers configuration is used.
+     */
+    private List<BugTracker> additionalBugTrackers;
     private Type type;
     private List<String> activeBranches;
     private FilterConfiguration filter;
@@ -109,6 +115,11 @@ public class ScanRequest {
         this.repoType = other.repoType;
         this.product = other.product;
         this.bugTracker = new BugTracker(other.getBugTracker());
+        if (other.additionalBugTrackers != null) {
+            this.additionalBugTrackers = other.additionalBugTrackers.stream()
+                    .map(BugTracker::new)
+                    .collect(Collectors.toList());
+        }
         this.type = other.type;
         this.activeBranches = other.activeBranches;
         this.filter = other.filter;
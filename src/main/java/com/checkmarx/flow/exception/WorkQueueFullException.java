@@ -0,0 +1,16 @@
+package com.checkmarx.flow.exception;
+
+/**
+ * Thrown when a scan request cannot be accepted into the work queue. Webhook controllers answer it with
+ * 503 Service Unavailable, so that the SCM provider redelivers the event later.
+ */
+public class WorkQueueFullException extends RuntimeException {
+
+    public WorkQueueFullException(String message) {
+        super(message);
+    }
+
+    public WorkQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,251 @@
+package com.checkmarx.flow.sastscanning;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ChangedFiles;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.service.GitHubService;
+import com.checkmarx.flow.service.GitLabService;
+import com.checkmarx.flow.service.RepoService;
+import com.checkmarx.flow.utils.JsonFileStore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Chooses between an incremental and a full SAST scan from the files changed since the last full scan of the branch.
+ * A scan is incremental if at most cx-flow.incremental-selection.max-changed-ratio of the files changed, and full
+ * otherwise, if the changes can't be determined, or after cx-flow.incremental-selection.full-scan-every incremental
+ * scans in a row.
+ * <p>
+ * Changes are read with JGit for local sources and with the compare API of GitHub and GitLab for remote
+ * repositories; other repositories always get a full scan. The last full scans of the most recently scanned branches
+ * are kept in memory and, with cx-flow.incremental-selection.dir set, the one of every branch in one file per branch.
+ */
+@Component
+@Slf4j
+public class IncrementalScanSelector {
+    private static final int MAX_ENTRIES = 1024;
+
+    private final FlowProperties.IncrementalSelection properties;
+    private final GitHubService gitService;
+    private final GitLabService gitLabService;
+    private final JsonFileStore baselines;
+
+    public IncrementalScanSelector(FlowProperties flowProperties, GitHubService gitService, GitLabService gitLabService) {
+        this.properties = flowProperties.getIncrementalSelection();
+        this.gitService = gitService;
+        this.gitLabService = gitLabService;
+        this.baselines = new JsonFileStore("last full scan", MAX_ENTRIES, properties.getDir());
+    }
+
+    /**
+     * Sets the request to an incremental or a full scan.
+     *
+     * @param sources local sources of the request, null for a remote repository
+     * @return the choice, to be passed to {@link #record(Selection)} once the scan completed; null if the
+     * configured scan type is kept
+     */
+    public Selection select(ScanRequest request, File sources) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Repository repository = sources == null ? null : openRepository(sources);
+        try {
+            String commit = repository == null ? request.getHash() : resolveHead(repository);
+            String key = getKey(request, repository);
+            if (StringUtils.isEmpty(commit) || key == null) {
+                log.debug("Commit or repository of the request is unknown, keeping the configured scan type");
+                return null;
+            }
+            Baseline baseline = baselines.read(key, Baseline.class);
+            boolean incremental;
+            if (baseline == null) {
+                log.info("No full scan of the branch is known, selecting a full scan");
+                incremental = false;
+            } else if (baseline.getIncrementalScans() >= properties.getFullScanEvery()) {
+                log.info("{} incremental scans since the last full scan, selecting a full scan",
+                        baseline.getIncrementalScans());
+                incremental = false;
+            } else {
+                ChangedFiles changes = repository == null
+                        ? getRemoteChangedFiles(request, baseline.getCommit())
+                        : getLocalChangedFiles(repository, baseline.getCommit(), commit);
+                incremental = isIncremental(changes, properties);
+                log.info("{} file(s) changed since the last full scan of commit {}, selecting {} scan",
+                        changes == null ? "Unknown number of" : changes.getChanged(), baseline.getCommit(),
+                        incremental ? "an incremental" : "a full");
+            }
+            request.setIncremental(incremental);
+            return new Selection(key, commit, incremental);
+        } finally {
+            if (repository != null) {
+                repository.close();
+            }
+        }
+    }
+
+    /**
+     * Records a completed scan: a full scan becomes the baseline of the branch, an incremental one counts towards
+     * the next forced full scan. A scan that failed or was cancelled must not be recorded.
+     */
+    public void record(Selection selection) {
+        if (selection == null) {
+            return;
+        }
+        baselines.compute(selection.key, Baseline.class, baseline -> !selection.incremental || baseline == null
+                ? new Baseline(selection.commit, 0)
+                : new Baseline(baseline.getCommit(), baseline.getIncrementalScans() + 1));
+    }
+
+    static boolean isIncremental(ChangedFiles changes, FlowProperties.IncrementalSelection properties) {
+        if (changes == null) {
+            return false;
+        }
+        if (changes.isTotalKnown()) {
+            return changes.getChanged() <= properties.getMaxChangedRatio() * changes.getTotal();
+        }
+        return changes.getChanged() <= properties.getMaxChangedFiles();
+    }
+
+    /**
+     * @return changes between the commits of a local git repository, or null if the base commit is not in it
+     */
+    static ChangedFiles getLocalChangedFiles(Repository repository, String baseCommit, String commit) {
+        try (RevWalk walk = new RevWalk(repository);
+             DiffFormatter diff = new DiffFormatter(DisabledOutputStream.INSTANCE);
+             TreeWalk files = new TreeWalk(repository)) {
+            ObjectId base = repository.resolve(baseCommit);
+            ObjectId head = repository.resolve(commit);
+            if (base == null || head == null) {
+                return null;
+            }
+            RevTree baseTree = walk.parseCommit(base).getTree();
+            RevTree headTree = walk.parseCommit(head).getTree();
+            diff.setRepository(repository);
+            int changed = diff.scan(baseTree, headTree).size();
+            files.addTree(headTree);
+            files.setRecursive(true);
+            int total = 0;
+            while (files.next()) {
+                total++;
+            }
+            return new ChangedFiles(changed, total);
+        } catch (IOException e) {
+            log.warn("Unable to compare commits {} and {} of {}", baseCommit, commit, repository.getDirectory(), e);
+            return null;
+        }
+    }
+
+    private ChangedFiles getRemoteChangedFiles(ScanRequest request, String baseCommit) {
+        RepoService repoService = getRepoService(request);
+        return repoService == null ? null : repoService.getChangedFiles(request, baseCommit);
+    }
+
+    private RepoService getRepoService(ScanRequest request) {
+        if (request.getRepoType() == null) {
+            return null;
+        }
+        switch (request.getRepoType()) {
+            case GITHUB:
+                return gitService;
+            case GITLAB:
+                return gitLabService;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return key of the request's branch: the repository (local directory or remote URL) and the branch
+     */
+    private static String getKey(ScanRequest request, Repository repository) {
+        String location;
+        String branch = request.getBranch();
+        if (repository != null) {
+            location = repository.getDirectory().getAbsolutePath();
+            if (StringUtils.isEmpty(branch)) {
+                try {
+                    branch = repository.getBranch();
+                } catch (IOException e) {
+                    log.debug("Unable to read the current branch of {}", location, e);
+                }
+            }
+        } else if (StringUtils.isNotEmpty(request.getRepoUrl())) {
+            location = request.getRepoUrl();
+        } else if (StringUtils.isNotEmpty(request.getRepoName())) {
+            location = request.getNamespace() + "/" + request.getRepoName();
+        } else {
+            return null;
+        }
+        return DigestUtils.sha256Hex(location + "\n" + branch);
+    }
+
+    private static Repository openRepository(File sources) {
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(sources);
+        if (builder.getGitDir() == null) {
+            log.debug("{} is not in a git repository", sources);
+            return null;
+        }
+        try {
+            return builder.build();
+        } catch (IOException e) {
+            log.warn("Unable to open the git repository of {}", sources, e);
+            return null;
+        }
+    }
+
+    private static String resolveHead(Repository repository) {
+        try {
+            ObjectId head = repository.resolve("HEAD");
+            return head == null ? null : head.getName();
+        } catch (IOException e) {
+            log.warn("Unable to resolve HEAD of {}", repository.getDirectory(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Scan type chosen for a request.
+     */
+    public static final class Selection {
+        private final String key;
+        private final String commit;
+        private final boolean incremental;
+
+        private Selection(String key, String commit, boolean incremental) {
+            this.key = key;
+            this.commit = commit;
+            this.incremental = incremental;
+        }
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+    }
+
+    /**
+     * Last full scan of a branch.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Baseline {
+        private String commit;
+        private int incrementalScans;
+    }
+}
@@ -0,0 +1,129 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.utils.JsonFileStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text file of the projects published by a batch run, one "projectId scanId" line per project, appended as soon
+ * as the project is published. A run that published every project ends the file with a completion marker.
+ * <p>
+ * When the file is opened, the entries of an unfinished run are kept, so that the rerun skips projects that were
+ * already published with their latest scan. The entries of a complete run are kept only in changed-only mode,
+ * otherwise the new run starts from an empty file. Later lines override earlier lines of the same project.
+ * <p>
+ * Not thread-safe, callers must synchronize.
+ */
+@Slf4j
+class BatchCheckpoint implements Closeable {
+    private static final String HEADER = "# CxFlow batch checkpoint: projectId scanId";
+    private static final String COMPLETE = "# complete";
+
+    private final Map<Integer, Integer> publishedScans;
+    private final BufferedWriter writer;
+
+    private BatchCheckpoint(Map<Integer, Integer> publishedScans, BufferedWriter writer) {
+        this.publishedScans = publishedScans;
+        this.writer = writer;
+    }
+
+    /**
+     * @return checkpoint that keeps nothing, for batch runs without a checkpoint file
+     */
+    static BatchCheckpoint none() {
+        return new BatchCheckpoint(new HashMap<>(), null);
+    }
+
+    static BatchCheckpoint open(Path file, boolean changedOnly) throws IOException {
+        Map<Integer, Integer> publishedScans = new HashMap<>();
+        boolean complete = false;
+        if (Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                line = line.trim();
+                if (line.equals(COMPLETE)) {
+                    complete = true;
+                } else if (!line.isEmpty() && !line.startsWith("#")) {
+                    complete = false;
+                    putEntry(publishedScans, line);
+                }
+            }
+        }
+        if (!publishedScans.isEmpty() && !complete) {
+            log.info("Resuming the unfinished batch recorded in {}: {} project(s) already published",
+                    file, publishedScans.size());
+        } else if (changedOnly) {
+            log.info("Publishing projects changed since the batch recorded in {}: {} project(s) known",
+                    file, publishedScans.size());
+        } else {
+            publishedScans.clear();
+        }
+        rewrite(file, publishedScans);
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        return new BatchCheckpoint(publishedScans, writer);
+    }
+
+    /**
+     * @return true if the project was already published with this scan
+     */
+    boolean isPublished(Integer projectId, Integer scanId) {
+        return scanId.equals(publishedScans.get(projectId));
+    }
+
+    void recordPublished(Integer projectId, Integer scanId) throws IOException {
+        publishedScans.put(projectId, scanId);
+        if (writer != null) {
+            writer.write(projectId + " " + scanId);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Marks the run as complete: the next run starts over, or publishes changed projects only.
+     */
+    void complete() throws IOException {
+        if (writer != null) {
+            writer.write(COMPLETE);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private static void putEntry(Map<Integer, Integer> publishedScans, String line) {
+        String[] ids = line.split("\\s+");
+        try {
+            publishedScans.put(Integer.valueOf(ids[0]), Integer.valueOf(ids[1]));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            log.warn("Ignoring invalid batch checkpoint line: {}", line);
+        }
+    }
+
+    /**
+     * Compacts the file to one line per project, without the completion marker.
+     */
+    private static void rewrite(Path file, Map<Integer, Integer> publishedScans) throws IOException {
+        StringBuilder content = new StringBuilder(HEADER).append(System.lineSeparator());
+        for (Map.Entry<Integer, Integer> entry : publishedScans.entrySet()) {
+            content.append(entry.getKey()).append(' ').append(entry.getValue()).append(System.lineSeparator());
+        }
+        JsonFileStore.writeAtomically(file, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
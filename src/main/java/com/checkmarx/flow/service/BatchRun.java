@@ -0,0 +1,224 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.exception.MachinaRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the latest scans of many projects in batch mode with a bounded number of projects in flight.
+ * <p>
+ * Projects are started from a single thread: {@link #submit} waits for a free slot of the concurrency window and
+ * for the rate limits of the downstreams the project uses, then starts the asynchronous processing. Published
+ * projects are recorded in the {@link BatchCheckpoint}, failed ones are listed when the run ends. Progress and
+ * the estimated remaining time are logged every cx-flow.batch.progress-interval-seconds.
+ */
+@Slf4j
+class BatchRun implements Closeable {
+    static final String CHECKMARX = "checkmarx";
+
+    private final BatchCheckpoint checkpoint;
+    private final int concurrency;
+    private final Semaphore window;
+    private final Map<String, Long> rateLimitIntervals = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Long> nextStarts = new HashMap<>();
+    private final long progressIntervalNanos;
+    private final int projectCount;
+    private final long startedAt = System.nanoTime();
+    private final List<Integer> failedProjects = Collections.synchronizedList(new ArrayList<>());
+    private int published;
+    private int skipped;
+    private long lastProgressAt = startedAt;
+
+    BatchRun(FlowProperties.Batch properties, BatchCheckpoint checkpoint, int projectCount) {
+        this.checkpoint = checkpoint;
+        this.concurrency = Math.max(1, properties.getConcurrency());
+        this.window = new Semaphore(concurrency);
+        this.progressIntervalNanos = TimeUnit.SECONDS.toNanos(properties.getProgressIntervalSeconds());
+        this.projectCount = projectCount;
+        if (properties.getRateLimits() != null) {
+            properties.getRateLimits().forEach((downstream, perMinute) -> {
+                if (perMinute != null && perMinute > 0) {
+                    rateLimitIntervals.put(downstream, TimeUnit.MINUTES.toNanos(1) / perMinute);
+                }
+            });
+        }
+        log.info("Processing {} project(s), {} at a time", projectCount, concurrency);
+    }
+
+    /**
+     * @return true if the project was already published with this scan; it is counted as skipped
+     */
+    boolean isPublished(Integer projectId, Integer scanId) {
+        synchronized (checkpoint) {
+            if (!checkpoint.isPublished(projectId, scanId)) {
+                return false;
+            }
+        }
+        skip();
+        return true;
+    }
+
+    /**
+     * Counts a project that has nothing to publish.
+     */
+    synchronized void skip() {
+        skipped++;
+        logProgressIfDue();
+    }
+
+    /**
+     * Starts processing of a project once the window and the rate limits allow it.
+     *
+     * @param downstreams downstreams the project calls, rate limited by cx-flow.batch.rate-limits
+     * @param task        starts the processing and returns its completion
+     */
+    void submit(Integer projectId, Integer scanId, List<String> downstreams, Supplier<CompletableFuture<?>> task) {
+        try {
+            window.acquire();
+            for (String downstream : downstreams) {
+                waitForRateLimit(downstream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MachinaRuntimeException("Batch interrupted");
+        }
+        CompletableFuture<?> processing;
+        try {
+            processing = task.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            processing = failed;
+        }
+        processing.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    recordPublished(projectId, scanId);
+                } else {
+                    log.error("Batch processing of project {} failed", projectId, error);
+                    failedProjects.add(projectId);
+                }
+                synchronized (this) {
+                    logProgressIfDue();
+                }
+            } finally {
+                window.release();
+            }
+        });
+    }
+
+    /**
+     * Waits for the projects in flight. The checkpoint is marked complete if no project failed.
+     *
+     * @return IDs of the projects that failed
+     */
+    List<Integer> awaitCompletion() throws IOException {
+        try {
+            window.acquire(concurrency);
+            window.release(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MachinaRuntimeException("Batch interrupted");
+        }
+        synchronized (this) {
+            logProgress();
+        }
+        List<Integer> failed;
+        synchronized (failedProjects) {
+            failed = new ArrayList<>(failedProjects);
+        }
+        if (failed.isEmpty()) {
+            synchronized (checkpoint) {
+                checkpoint.complete();
+            }
+        } else {
+            log.error("Batch processing failed for {} project(s): {}. Rerun to retry them.", failed.size(), failed);
+        }
+        return failed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (checkpoint) {
+            checkpoint.close();
+        }
+    }
+
+    private void recordPublished(Integer projectId, Integer scanId) {
+        synchronized (checkpoint) {
+            try {
+                checkpoint.recordPublished(projectId, scanId);
+            } catch (IOException e) {
+                log.warn("Unable to record project {} in the batch checkpoint, it will be published again on rerun",
+                        projectId, e);
+            }
+        }
+        synchronized (this) {
+            published++;
+        }
+    }
+
+    /**
+     * Spaces project starts of a downstream evenly. Only called from the submitting thread.
+     */
+    private void waitForRateLimit(String downstream) throws InterruptedException {
+        Long interval = rateLimitIntervals.get(downstream);
+        if (interval == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long start = Math.max(now, nextStarts.getOrDefault(downstream, now));
+        nextStarts.put(downstream, start + interval);
+        TimeUnit.NANOSECONDS.sleep(start - now);
+    }
+
+    private void logProgressIfDue() {
+        if (System.nanoTime() - lastProgressAt >= progressIntervalNanos) {
+            logProgress();
+        }
+    }
+
+    private void logProgress() {
+        long now = System.nanoTime();
+        lastProgressAt = now;
+        int failed = failedProjects.size();
+        int done = published + skipped + failed;
+        int processed = published + failed;
+        long elapsed = now - startedAt;
+        Duration remaining = estimateRemaining(elapsed, processed, projectCount - done);
+        String eta = remaining == null ? "unknown" : format(remaining);
+        log.info("Batch progress: {}/{} project(s) done ({} published, {} skipped, {} failed), elapsed {}, remaining about {}",
+                done, projectCount, published, skipped, failed, format(Duration.ofNanos(elapsed)), eta);
+    }
+
+    /**
+     * Skipped projects take no time, so the average time per processed project is applied to the remaining ones.
+     *
+     * @return estimated remaining time, or null before the first project is processed
+     */
+    static Duration estimateRemaining(long elapsedNanos, int processed, int remaining) {
+        if (processed <= 0) {
+            return null;
+        }
+        return Duration.ofNanos(elapsedNanos / processed * Math.max(0, remaining));
+    }
+
+    static String format(Duration duration) {
+        long seconds = duration.getSeconds();
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds % 3600 / 60, seconds % 60);
+    }
+}
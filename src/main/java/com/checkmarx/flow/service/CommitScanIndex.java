@@ -0,0 +1,115 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.utils.JsonFileStore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.checkmarx.sdk.config.Constants.UNKNOWN_INT;
+
+/**
+ * Completed SAST scans by commit, so that a commit scanned again with the same configuration (a push followed by a
+ * pull request of the same head, a re-delivered webhook) reuses the results of the first scan instead of submitting
+ * a new one. Entries older than cx-flow.commit-index.max-age-minutes are ignored; a max age of 0 disables the index.
+ * <p>
+ * With cx-flow.commit-index.dir set, entries are also written to one file per key and survive restarts.
+ */
+@Service
+public class CommitScanIndex {
+    private final long maxAgeMillis;
+    private final JsonFileStore store;
+
+    public CommitScanIndex(FlowProperties flowProperties) {
+        FlowProperties.CommitIndex properties = flowProperties.getCommitIndex();
+        this.maxAgeMillis = Math.max(properties.getMaxAgeMinutes(), 0) * 60_000L;
+        this.store = new JsonFileStore("commit index entry", properties.getSize(), properties.getDir(),
+                0, maxAgeMillis);
+    }
+
+    public boolean isEnabled() {
+        return maxAgeMillis > 0 && store.isEnabled();
+    }
+
+    /**
+     * The key covers everything that decides what a scan finds: the repository, the commit, the Checkmarx project
+     * (triage is kept per project) and the effective scan settings. Filters are not part of it, they are applied
+     * when the report of the reused scan is retrieved. Neither is the incremental flag: an incremental scan reports
+     * the whole project, like a full one.
+     *
+     * @return key of the commit scanned by the request, or null if the request has no commit hash or the project
+     * doesn't exist yet
+     */
+    static String getKey(ScanRequest request, Integer projectId) {
+        if (StringUtils.isEmpty(request.getHash()) || projectId == null || projectId == UNKNOWN_INT) {
+            return null;
+        }
+        String repository = StringUtils.isNotEmpty(request.getRepoUrl())
+                ? request.getRepoUrl()
+                : request.getNamespace() + "/" + request.getRepoName();
+        return DigestUtils.sha256Hex(String.join("\n",
+                repository,
+                request.getHash(),
+                String.valueOf(projectId),
+                String.valueOf(request.getScanPreset()),
+                String.valueOf(request.getScanConfiguration()),
+                join(request.getExcludeFiles()),
+                join(request.getExcludeFolders()),
+                String.valueOf(request.getProduct())));
+    }
+
+    /**
+     * @return ID of the completed scan of the commit, or null if there is none within the max age
+     */
+    public Integer find(String key) {
+        if (key == null || !isEnabled()) {
+            return null;
+        }
+        Entry entry = store.read(key, Entry.class);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            remove(key);
+            return null;
+        }
+        return entry.getScanId();
+    }
+
+    public void record(String key, Integer scanId, Integer projectId) {
+        if (key == null || scanId == null || !isEnabled()) {
+            return;
+        }
+        store.write(key, new Entry(scanId, projectId, System.currentTimeMillis()));
+    }
+
+    /**
+     * Forgets the scan of a commit, e.g. when its results are no longer available.
+     */
+    public void remove(String key) {
+        store.remove(key);
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.getCompletedAt() > maxAgeMillis;
+    }
+
+    private static String join(List<String> values) {
+        return values == null ? "" : String.join(",", values);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Entry {
+        private Integer scanId;
+        private Integer projectId;
+        private long completedAt;
+    }
+}
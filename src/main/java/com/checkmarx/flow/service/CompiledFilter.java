@@ -0,0 +1,155 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.checkmarx.sdk.exception.CheckmarxRuntimeException;
+import groovy.lang.Binding;
+import groovy.lang.Script;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.util.*;
+
+/**
+ * A {@link FilterConfiguration} compiled into a single predicate over finding attributes.
+ * <p>
+ * Simple filters of the same type are OR-ed and different types are AND-ed, as in the SDK. Severity is kept in an
+ * EnumSet and the other types in hash sets of upper-cased values, so each check is a single lookup instead of a walk
+ * over the filter list. The scripted filter reuses the class compiled by {@link FilterFactory}.
+ * <p>
+ * Instances are request-scoped: the script instance and its binding are reused between calls, so a compiled filter
+ * must not be shared between threads.
+ * <p>
+ * This is the matcher of the opt-in streaming parse ({@link SastReportReader}) only. The default results path, by
+ * scan ID or report file, is downloaded, parsed and filtered by the SDK in one call and keeps the SDK filtering.
+ */
+final class CompiledFilter {
+    private static final String FINDING_VARIABLE = "finding";
+
+    private final EnumSet<Filter.Severity> severities;
+    private final Set<String> cwes;
+    private final Set<String> categories;
+    private final Set<String> statuses;
+    private final Set<String> states;
+    private final Script script;
+    private final Map<String, Object> finding = new HashMap<>();
+
+    private CompiledFilter(FilterConfiguration configuration) {
+        Map<Filter.Type, Set<String>> valuesByType = new EnumMap<>(Filter.Type.class);
+        if (configuration != null && CollectionUtils.isNotEmpty(configuration.getSimpleFilters())) {
+            for (Filter filter : configuration.getSimpleFilters()) {
+                if (filter.getType() != null && StringUtils.isNotEmpty(filter.getValue())) {
+                    valuesByType.computeIfAbsent(filter.getType(), type -> new HashSet<>())
+                            .add(normalize(filter.getValue()));
+                }
+            }
+        }
+        Set<String> severityNames = valuesByType.get(Filter.Type.SEVERITY);
+        if (severityNames == null) {
+            severities = null;
+        } else {
+            severities = EnumSet.noneOf(Filter.Severity.class);
+            severityNames.stream()
+                    .map(CompiledFilter::toSeverity)
+                    .filter(Objects::nonNull)
+                    .forEach(severities::add);
+        }
+        cwes = valuesByType.get(Filter.Type.CWE);
+        categories = valuesByType.get(Filter.Type.TYPE);
+        statuses = valuesByType.get(Filter.Type.STATUS);
+        states = valuesByType.get(Filter.Type.STATE);
+        script = newScriptInstance(configuration);
+    }
+
+    /**
+     * @param configuration filter configuration, may be null (everything passes)
+     */
+    static CompiledFilter compile(FilterConfiguration configuration) {
+        return new CompiledFilter(configuration);
+    }
+
+    /**
+     * Query-level check, allows a caller to skip all results of a query at once.
+     * The scripted filter is not evaluated here, because it may depend on result attributes.
+     */
+    boolean acceptsQuery(String severity, String cwe, String category) {
+        return (severities == null || severities.contains(toSeverity(severity)))
+                && matches(cwes, cwe)
+                && matches(categories, category);
+    }
+
+    /**
+     * Full check of a single result (finding).
+     */
+    boolean accepts(String severity, String cwe, String category, String status, String state) {
+        return acceptsQuery(severity, cwe, category)
+                && matches(statuses, status)
+                && matches(states, state)
+                && passesScript(severity, cwe, category, status, state);
+    }
+
+    /**
+     * @return true if status or state filters (or a script) are configured, i.e. result-level evaluation is needed
+     */
+    boolean hasResultLevelFilters() {
+        return statuses != null || states != null || script != null;
+    }
+
+    private boolean passesScript(String severity, String cwe, String category, String status, String state) {
+        if (script == null) {
+            return true;
+        }
+        finding.put("severity", normalize(severity));
+        finding.put("cwe", normalize(cwe));
+        finding.put("category", normalize(category));
+        finding.put("status", normalize(status));
+        finding.put("state", normalize(state));
+
+        Object result;
+        try {
+            result = script.run();
+        } catch (Exception e) {
+            throw new CheckmarxRuntimeException("An error has occurred while running the filter script.", e);
+        }
+        if (!(result instanceof Boolean)) {
+            throw new CheckmarxRuntimeException("Filtering script must return a boolean value.");
+        }
+        return (Boolean) result;
+    }
+
+    private Script newScriptInstance(FilterConfiguration configuration) {
+        if (configuration == null
+                || configuration.getScriptedFilter() == null
+                || configuration.getScriptedFilter().getScript() == null) {
+            return null;
+        }
+        Binding binding = new Binding();
+        binding.setVariable(FINDING_VARIABLE, finding);
+        return InvokerHelper.createScript(configuration.getScriptedFilter().getScript().getClass(), binding);
+    }
+
+    private static boolean matches(Set<String> allowedValues, String value) {
+        return allowedValues == null || (value != null && allowedValues.contains(normalize(value)));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Filter.Severity toSeverity(String value) {
+        String normalized = normalize(value);
+        if (normalized == null) {
+            return null;
+        }
+        if (normalized.startsWith("INFO")) {
+            return Filter.Severity.INFO;
+        }
+        for (Filter.Severity severity : Filter.Severity.values()) {
+            if (severity.name().equals(normalized)) {
+                return severity;
+            }
+        }
+        return null;
+    }
+}
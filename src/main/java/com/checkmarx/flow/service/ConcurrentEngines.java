@@ -0,0 +1,128 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.exception.MachinaException;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Retrieves the results of several engines (SAST and OSA) at the same time, each on a thread of the engineResults
+ * executor, so that a request waits for the slowest engine instead of the sum of all of them. The caller joins the
+ * engines one by one and merges their results.
+ * <p>
+ * An engine that fails or exceeds its timeout fails the whole request and the other engines are cancelled: publishing
+ * the results of the remaining engines alone would close the issues of the missing engine in the bug tracker.
+ * <p>
+ * Not thread-safe, an instance belongs to a single request.
+ */
+@Slf4j
+final class ConcurrentEngines {
+    private final Executor executor;
+    private final Map<String, Integer> timeoutSeconds;
+    private final List<Engine<?>> engines = new ArrayList<>();
+
+    /**
+     * @param executor       runs the engines; an engine it runs on the calling thread can't be timed out
+     * @param timeoutSeconds seconds allowed for each engine, keyed by engine name. Engines without a positive value
+     *                       have no timeout. May be null.
+     */
+    ConcurrentEngines(Executor executor, Map<String, Integer> timeoutSeconds) {
+        this.executor = executor;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Starts an engine on the executor; the logging context of the caller is kept.
+     */
+    <T> Engine<T> start(String name, Callable<T> task) {
+        long startedAt = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                return task.call();
+            } finally {
+                // The engine may run on the calling thread, whose context must be kept.
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        });
+        executor.execute(future);
+        Integer timeout = timeoutSeconds == null ? null : timeoutSeconds.get(name);
+        long timeoutNanos = timeout == null || timeout <= 0 ? 0 : TimeUnit.SECONDS.toNanos(timeout);
+        Engine<T> engine = new Engine<>(name, future, startedAt, timeoutNanos);
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * Waits for the result of an engine, at most until the engine's timeout counted from its start.
+     *
+     * @throws MachinaException if the engine timed out or failed with a checked exception; runtime exceptions of the
+     *                          engine are rethrown unchanged
+     */
+    <T> T await(Engine<T> engine) throws MachinaException {
+        try {
+            if (engine.timeoutNanos == 0) {
+                return engine.future.get();
+            }
+            long remaining = engine.startedAt + engine.timeoutNanos - System.nanoTime();
+            return engine.future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancelAll();
+            throw new MachinaException(String.format("%s results were not available within %d seconds",
+                    engine.name, TimeUnit.NANOSECONDS.toSeconds(engine.timeoutNanos)));
+        } catch (ExecutionException e) {
+            cancelAll();
+            Throwable cause = e.getCause();
+            if (cause instanceof MachinaException) {
+                throw (MachinaException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MachinaException(String.format("Unable to retrieve %s results", engine.name), cause);
+        } catch (CancellationException e) {
+            throw new MachinaException(String.format("Retrieval of %s results was cancelled", engine.name));
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new MachinaException(String.format("Interrupted while waiting for %s results", engine.name), e);
+        }
+    }
+
+    private void cancelAll() {
+        for (Engine<?> engine : engines) {
+            if (engine.future.cancel(true)) {
+                log.info("Cancelled retrieval of {} results", engine.name);
+            }
+        }
+    }
+
+    static final class Engine<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long startedAt;
+        private final long timeoutNanos;
+
+        private Engine(String name, Future<T> future, long startedAt, long timeoutNanos) {
+            this.name = name;
+            this.future = future;
+            this.startedAt = startedAt;
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
+}
@@ -6,20 +6,37 @@ import com.checkmarx.sdk.dto.Filter;
 import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
 import com.checkmarx.sdk.dto.filtering.ScriptedFilter;
 import com.checkmarx.sdk.exception.CheckmarxRuntimeException;
+import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
 import groovy.lang.Script;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class FilterFactory {
+    private static final int MAX_COMPILED_SCRIPTS = 64;
+
+    private static final Map<String, Class<? extends Script>> compiledScripts =
+            new LinkedHashMap<String, Class<? extends Script>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Class<? extends Script>> eldest) {
+                    return size() > MAX_COMPILED_SCRIPTS;
+                }
+            };
+
+    /**
+     * Source text of every compiled script class, so that a filter configuration can be persisted and rebuilt.
+     * Weak keys let classes evicted from the cache above be unloaded.
+     */
+    private static final Map<Class<? extends Script>, String> scriptSources =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     public FilterConfiguration getFilter(ControllerRequest request,
                                          @Nullable FlowProperties flowProperties) {
         FilterConfiguration result;
@@ -87,22 +104,50 @@ public class FilterFactory {
                 .build();
     }
 
-    private static Script parseScriptText(String filterScript) {
+    /**
+     * Compiling a Groovy script is expensive and defines a new class on every call, while the script text
+     * normally comes from the CxFlow configuration and is the same for every request.
+     * Compiled classes are cached by script text; each filter configuration still gets its own script instance,
+     * because Groovy scripts keep per-run state in their binding.
+     */
+    public static Script parseScriptText(String filterScript) {
         Script result = null;
         if (StringUtils.isNotEmpty(filterScript)) {
-            GroovyShell groovyShell = new GroovyShell();
-            try {
-                result = groovyShell.parse(filterScript);
-            } catch (CompilationFailedException e) {
-                throw new CheckmarxRuntimeException("An error has occurred while parsing the filter script. " +
-                        "Please make sure the script syntax is correct.", e);
-            } catch (Exception e) {
-                throw new CheckmarxRuntimeException("An unexpected error has occurred while parsing the filter script.", e);
+            Class<? extends Script> scriptClass;
+            synchronized (compiledScripts) {
+                scriptClass = compiledScripts.get(filterScript);
+            }
+            if (scriptClass == null) {
+                scriptClass = compileScript(filterScript);
+                scriptSources.put(scriptClass, filterScript);
+                synchronized (compiledScripts) {
+                    compiledScripts.put(filterScript, scriptClass);
+                }
             }
+            result = InvokerHelper.createScript(scriptClass, new Binding());
         }
         return result;
     }
 
+    /**
+     * @return text of a script created by {@link #parseScriptText(String)}, or null if the script is unknown
+     */
+    public static String getScriptText(@Nullable Script script) {
+        return script == null ? null : scriptSources.get(script.getClass());
+    }
+
+    private static Class<? extends Script> compileScript(String filterScript) {
+        GroovyShell groovyShell = new GroovyShell();
+        try {
+            return groovyShell.parse(filterScript).getClass();
+        } catch (CompilationFailedException e) {
+            throw new CheckmarxRuntimeException("An error has occurred while parsing the filter script. " +
+                    "Please make sure the script syntax is correct.", e);
+        } catch (Exception e) {
+            throw new CheckmarxRuntimeException("An unexpected error has occurred while parsing the filter script.", e);
+        }
+    }
+
     private static List<Filter> getListByFilterType(List<String> stringFilters, Filter.Type type) {
         List<Filter> filterList = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(stringFilters)) {
@@ -0,0 +1,111 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.FlowOverride;
+import com.checkmarx.flow.exception.MachinaRuntimeException;
+import com.checkmarx.flow.utils.ScanUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves {@link FlowOverride} objects from the Base64 encoded 'override' query parameter and from --config files.
+ * <p>
+ * Parsed overrides are kept in a bounded LRU cache keyed by the SHA-256 of the raw content, so the same blob sent by
+ * a CI pipeline over and over is decoded and parsed only once. The cache holds the validated JSON tree, which is never
+ * exposed; every caller gets its own {@link FlowOverride} bound from that tree, because
+ * {@link ConfigurationOverrider} hands the override lists and maps directly to the scan request.
+ */
+@Service
+@Slf4j
+public class FlowOverrideResolver {
+
+    /**
+     * An override parameter longer than this is treated as Base64 encoded JSON; shorter values are ignored.
+     */
+    private static final int MIN_ENCODED_LENGTH = 20;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader overrideReader = mapper.readerFor(FlowOverride.class);
+
+    private final Map<String, JsonNode> cache;
+
+    public FlowOverrideResolver(FlowProperties flowProperties) {
+        int maxEntries = Math.max(flowProperties.getOverrideCacheSize(), 0);
+        this.cache = new LinkedHashMap<String, JsonNode>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonNode> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param override value of the 'override' request parameter
+     * @return override object, or null if no Base64 encoded override was provided
+     * @throws MachinaRuntimeException if the override cannot be decoded or parsed
+     */
+    public FlowOverride resolve(String override) {
+        if (ScanUtils.empty(override) || override.length() <= MIN_ENCODED_LENGTH) {
+            return null;
+        }
+        try {
+            String key = DigestUtils.sha256Hex(override);
+            JsonNode tree = getCached(key);
+            if (tree == null) {
+                byte[] json = Base64.getDecoder().decode(override.getBytes(StandardCharsets.US_ASCII));
+                tree = parseAndCache(key, json);
+            }
+            log.info("Overriding attributes with Base64 encoded String");
+            return overrideReader.readValue(tree);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error occurred", e);
+            throw new MachinaRuntimeException();
+        }
+    }
+
+    /**
+     * @param configFile JSON file provided with the --config command line option
+     * @return override object read from the file
+     * @throws IOException if the file cannot be read or does not contain a valid override
+     */
+    public FlowOverride resolve(File configFile) throws IOException {
+        byte[] json = Files.readAllBytes(configFile.toPath());
+        String key = DigestUtils.sha256Hex(json);
+        JsonNode tree = getCached(key);
+        if (tree == null) {
+            tree = parseAndCache(key, json);
+        }
+        return overrideReader.readValue(tree);
+    }
+
+    private JsonNode parseAndCache(String key, byte[] json) throws IOException {
+        JsonNode tree = mapper.readTree(json);
+        if (tree == null || !tree.isObject()) {
+            throw new IOException("Override must be a JSON object");
+        }
+        // Bind once before caching, so that only overrides that map to FlowOverride are ever served from the cache.
+        overrideReader.readValue(tree);
+        synchronized (cache) {
+            cache.put(key, tree);
+        }
+        return tree;
+    }
+
+    private JsonNode getCached(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+}
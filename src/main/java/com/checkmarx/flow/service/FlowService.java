@@ -2,41 +2,135 @@ package com.checkmarx.flow.service;
 
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
+import com.checkmarx.flow.utils.FlowMetrics;
 import com.checkmarx.sdk.dto.ScanResults;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * High level business logic for CxFlow automation.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FlowService {
 
     private final List<VulnerabilityScanner> scanners;
     private final ProjectNameGenerator projectNameGenerator;
     private final ResultsService resultsService;
+    private final WorkQueueService workQueue;
+    private final ScanAdmission scanAdmission;
+    private final GitAuthUrlBuilder gitAuthUrlBuilder;
+    private final TaskExecutor webHookExecutor;
+
+    @Autowired
+    public FlowService(List<VulnerabilityScanner> scanners,
+                       ProjectNameGenerator projectNameGenerator,
+                       ResultsService resultsService,
+                       WorkQueueService workQueue,
+                       ScanAdmission scanAdmission,
+                       GitAuthUrlBuilder gitAuthUrlBuilder,
+                       @Qualifier("webHook") TaskExecutor webHookExecutor) {
+        this.scanners = scanners;
+        this.projectNameGenerator = projectNameGenerator;
+        this.resultsService = resultsService;
+        this.workQueue = workQueue;
+        this.scanAdmission = scanAdmission;
+        this.gitAuthUrlBuilder = gitAuthUrlBuilder;
+        this.webHookExecutor = webHookExecutor;
+    }
 
     /**
      * Main entry point for the automation process initiated by webhooks.
-     * Marked as async, because we don't wait for scan completion in webhooks handler: otherwise version control
-     * provider will fail the webhook request by timeout.
+     * The request is admitted to the work queue synchronously and then processed on the webHook executor, because
+     * we don't wait for scan completion in webhooks handler: otherwise version control provider will fail the webhook
+     * request by timeout. A request that submits a SAST scan is held by {@link ScanAdmission} before it takes an
+     * executor thread.
+     *
+     * @throws com.checkmarx.flow.exception.WorkQueueFullException if the work queue is at capacity
      */
-    @Async("webHook")
     public void initiateAutomation(ScanRequest scanRequest) {
+        FlowMetrics.timeVoid(FlowMetrics.WEBHOOK_ADMISSION, Tags.empty(), () -> {
+            long jobId = workQueue.enqueue(scanRequest);
+            submit(jobId, scanRequest, false, null);
+        });
+    }
+
+    /**
+     * Resumes requests that were left unfinished when CxFlow stopped. A request whose scan had already finished is
+     * published from the results of the journaled SAST scan (and the latest results of the other scanners) instead
+     * of being scanned again. SCM credentials are not journaled, the clone URL is rebuilt from the configured token.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingRequests() {
+        List<WorkQueueService.PendingJob> jobs = workQueue.takeRecoveredJobs(scanners);
+        if (!jobs.isEmpty()) {
+            log.info("Resuming {} unfinished scan request(s)", jobs.size());
+        }
+        for (WorkQueueService.PendingJob job : jobs) {
+            job.getRequest().setRepoUrlWithAuth(gitAuthUrlBuilder.build(job.getRequest()));
+            try {
+                submit(job.getId(), job.getRequest(), job.isPublishing(), job.getScanId());
+            } catch (TaskRejectedException e) {
+                log.error("Unable to resume scan request {}", job.getRequest().getId(), e);
+            }
+        }
+    }
+
+    private void submit(long jobId, ScanRequest scanRequest, boolean publishOnly, Integer scanId) {
+        long submittedAt = System.nanoTime();
+        Runnable execute = () -> {
+            try {
+                webHookExecutor.execute(() -> {
+                    FlowMetrics.record(FlowMetrics.JOB_QUEUED, Tags.empty(), System.nanoTime() - submittedAt);
+                    runJob(jobId, scanRequest, publishOnly, scanId);
+                });
+            } catch (TaskRejectedException e) {
+                workQueue.complete(jobId);
+                throw e;
+            }
+        };
+        if (!publishOnly && getEnabledScanners(scanRequest).stream().anyMatch(SastScanner.class::isInstance)) {
+            scanAdmission.submit(ScanAdmission.priorityOf(scanRequest), execute);
+        } else {
+            execute.run();
+        }
+    }
+
+    private void runJob(long jobId, ScanRequest scanRequest, boolean publishOnly, Integer scanId) {
+        MDC.put("cx", scanRequest.getId());
+        try {
+            if (publishOnly) {
+                publishResults(jobId, scanRequest, scanId);
+            } else {
+                runAutomation(jobId, scanRequest);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error occurred while processing the scan request", e);
+        } finally {
+            workQueue.complete(jobId);
+        }
+    }
+
+    private void runAutomation(long jobId, ScanRequest scanRequest) {
         String effectiveProjectName = projectNameGenerator.determineProjectName(scanRequest);
         scanRequest.setProject(effectiveProjectName);
         List<VulnerabilityScanner> enabledScanners = getEnabledScanners(scanRequest);
         validateEnabledScanners(enabledScanners);
-        runScanRequest(scanRequest, enabledScanners);
+        runScanRequest(jobId, scanRequest, enabledScanners);
     }
 
     private void validateEnabledScanners(List<VulnerabilityScanner> enabledScanners) {
@@ -47,16 +141,54 @@ public class FlowService {
         }
     }
 
-    private void runScanRequest(ScanRequest scanRequest, List<VulnerabilityScanner> scanners) {
+    private void runScanRequest(long jobId, ScanRequest scanRequest, List<VulnerabilityScanner> scanners) {
         ScanResults combinedResults = new ScanResults();
 
-        scanners.forEach(scanner -> {
-            ScanResults scanResults = scanner.scan(scanRequest);
-            combinedResults.mergeWith(scanResults);
-        });
+        List<ScanResults> results = runScanners(scanners, scanner -> FlowMetrics.time(FlowMetrics.SCAN,
+                FlowMetrics.engineOf(scanner), () -> scanner.scan(scanRequest)));
+        results.forEach(combinedResults::mergeWith);
+        workQueue.markPublishing(jobId, getSastScanId(results));
+        resultsService.publishCombinedResults(scanRequest, combinedResults);
+    }
+
+    /**
+     * @param scanId SAST scan to publish, the latest scan of the project if null
+     */
+    private void publishResults(long jobId, ScanRequest scanRequest, Integer scanId) {
+        ScanResults combinedResults = new ScanResults();
+
+        List<ScanResults> results = runScanners(getEnabledScanners(scanRequest),
+                scanner -> scanId != null && scanner instanceof SastScanner
+                        ? ((SastScanner) scanner).getScanResults(scanRequest, scanId)
+                        : scanner.getLatestScanResults(scanRequest));
+        results.forEach(combinedResults::mergeWith);
+        workQueue.markPublishing(jobId, getSastScanId(results));
         resultsService.publishCombinedResults(scanRequest, combinedResults);
     }
 
+    private static Integer getSastScanId(List<ScanResults> results) {
+        return results.stream()
+                .filter(Objects::nonNull)
+                .map(ScanResults::getSastScanId)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Scanners share and modify the request (e.g. the project name), so they run one after the other.
+     *
+     * @return results in the order of the scanners, to be merged by the caller
+     */
+    private static List<ScanResults> runScanners(List<VulnerabilityScanner> scanners,
+                                                 Function<VulnerabilityScanner, ScanResults> scan) {
+        List<ScanResults> results = new ArrayList<>();
+        for (VulnerabilityScanner scanner : scanners) {
+            results.add(scan.apply(scanner));
+        }
+        return results;
+    }
+
     private List<VulnerabilityScanner> getEnabledScanners(ScanRequest scanRequest) {
         List<VulnerabilityScanner> enabledScanners = new ArrayList<>();
 
@@ -0,0 +1,77 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.ADOProperties;
+import com.checkmarx.flow.config.BitBucketProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.GitLabProperties;
+import com.checkmarx.flow.config.ScmConfigOverrider;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.utils.ScanUtils;
+import com.checkmarx.sdk.config.Constants;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the clone URL with credentials of a scan request from the repository URL and the configured SCM token,
+ * the same way the webhook controllers do. Used for requests restored from the work queue journal, which doesn't
+ * store tokens.
+ */
+@Service
+@RequiredArgsConstructor
+public class GitAuthUrlBuilder {
+    private static final String CREDENTIAL_SEPARATOR = ":";
+
+    private final GitHubProperties gitHubProperties;
+    private final GitLabProperties gitLabProperties;
+    private final BitBucketProperties bitBucketProperties;
+    private final ADOProperties adoProperties;
+    private final ScmConfigOverrider scmConfigOverrider;
+
+    /**
+     * @return the repository URL with the token of its SCM, or the repository URL as is if the request has no
+     * repository type (URLs passed to the scan API carry their own credentials) or the SCM has no token
+     */
+    public String build(ScanRequest request) {
+        String repoUrl = request.getRepoUrl();
+        if (StringUtils.isEmpty(repoUrl) || request.getRepoType() == null) {
+            return repoUrl;
+        }
+        switch (request.getRepoType()) {
+            case GITHUB:
+                return withCredentials(repoUrl, Constants.HTTPS, Constants.HTTP,
+                        scmConfigOverrider.determineConfigToken(gitHubProperties, request.getScmInstance()));
+            case GITLAB:
+                return withCredentials(repoUrl, Constants.HTTPS_OAUTH2, Constants.HTTP_OAUTH2,
+                        gitLabProperties.getToken());
+            case BITBUCKET:
+                return withCredentials(repoUrl, Constants.HTTPS, Constants.HTTP, bitBucketProperties.getToken());
+            case BITBUCKETSERVER:
+                return withCredentials(repoUrl, Constants.HTTPS, Constants.HTTP,
+                        encodeServerToken(bitBucketProperties.getToken()));
+            case ADO:
+                return withCredentials(repoUrl, Constants.HTTPS, Constants.HTTP, adoProperties.getToken());
+            default:
+                return repoUrl;
+        }
+    }
+
+    private static String withCredentials(String repoUrl, String httpsPrefix, String httpPrefix, String token) {
+        if (StringUtils.isEmpty(token)) {
+            return repoUrl;
+        }
+        return repoUrl.replace(Constants.HTTPS, httpsPrefix.concat(token).concat("@"))
+                .replace(Constants.HTTP, httpPrefix.concat(token).concat("@"));
+    }
+
+    /**
+     * Bitbucket Server tokens are user:password, with the password URL-encoded.
+     */
+    private static String encodeServerToken(String token) {
+        if (StringUtils.isEmpty(token) || !token.contains(CREDENTIAL_SEPARATOR)) {
+            return token;
+        }
+        String[] credentials = token.split(CREDENTIAL_SEPARATOR, 2);
+        return credentials[0].concat(CREDENTIAL_SEPARATOR).concat(ScanUtils.getStringWithEncodedCharacter(credentials[1]));
+    }
+}
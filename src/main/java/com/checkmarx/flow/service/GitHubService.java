@@ -16,6 +16,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
@@ -55,6 +57,9 @@ public class GitHubService extends RepoService {
     private static final String FILE_CONTENT = "/{namespace}/{repo}/contents/{config}?ref={branch}";
     private static final String LANGUAGE_TYPES = "/{namespace}/{repo}/languages";
     private static final String REPO_CONTENT = "/{namespace}/{repo}/contents?ref={branch}";
+    private static final String COMPARE = "/{namespace}/{repo}/compare/{base}...{head}";
+    private static final String TREE = "/{namespace}/{repo}/git/trees/{sha}?recursive=1";
+    private static final int MAX_COMPARE_FILES = 300;
 
     private static final String API_REQUEST = "API request: {}";
     private static final String API_RESPONSE = "API response: {}";
@@ -437,6 +442,89 @@ public class GitHubService extends RepoService {
         return result;
     }
 
+    /**
+     * Compares the commits with the compare API and counts the files of the request's commit in its git tree.
+     * GitHub lists at most {@value #MAX_COMPARE_FILES} files of a comparison, so a larger change is reported as
+     * unknown rather than as {@value #MAX_COMPARE_FILES} changed files.
+     */
+    @Override
+    public ChangedFiles getChangedFiles(ScanRequest request, String baseCommit) {
+        if (ScanUtils.anyEmpty(request.getNamespace(), request.getRepoName(), request.getHash(), baseCommit)) {
+            return null;
+        }
+        HttpEntity<?> httpEntity = new HttpEntity<>(createAuthHeaders(request));
+        String apiUrl = scmConfigOverrider.determineConfigApiUrl(properties, request);
+        try {
+            ResponseEntity<String> compare = restTemplate.exchange(apiUrl.concat(COMPARE), HttpMethod.GET, httpEntity,
+                    String.class, request.getNamespace(), request.getRepoName(), baseCommit, request.getHash());
+            if (compare.getBody() == null) {
+                log.warn(HTTP_BODY_IS_NULL);
+                return null;
+            }
+            int changed = new JSONObject(compare.getBody()).getJSONArray("files").length();
+            if (changed >= MAX_COMPARE_FILES) {
+                log.debug("{} or more files changed since commit {}, the exact number is unknown", changed, baseCommit);
+                return null;
+            }
+            ResponseEntity<String> tree = restTemplate.exchange(apiUrl.concat(TREE), HttpMethod.GET, httpEntity,
+                    String.class, request.getNamespace(), request.getRepoName(), request.getHash());
+            if (tree.getBody() == null) {
+                log.warn(HTTP_BODY_IS_NULL);
+                return null;
+            }
+            Map<String, String> files = getBlobs(new JSONObject(tree.getBody()));
+            return new ChangedFiles(changed, files == null ? ChangedFiles.UNKNOWN_TOTAL : files.size());
+        } catch (RestClientException | JSONException e) {
+            log.warn("Unable to compare commits {} and {} of {}/{}: {}", baseCommit, request.getHash(),
+                    request.getNamespace(), request.getRepoName(), ExceptionUtils.getRootCauseMessage(e));
+            return null;
+        }
+    }
+
+    /**
+     * Lists the files of the request's commit, or of its branch without a commit, from the recursive git tree.
+     */
+    @Override
+    public Map<String, String> getFileIds(ScanRequest request) {
+        String ref = StringUtils.isNotEmpty(request.getHash()) ? request.getHash() : request.getBranch();
+        if (ScanUtils.anyEmpty(request.getNamespace(), request.getRepoName(), ref)) {
+            return null;
+        }
+        String apiUrl = scmConfigOverrider.determineConfigApiUrl(properties, request);
+        try {
+            ResponseEntity<String> tree = restTemplate.exchange(apiUrl.concat(TREE), HttpMethod.GET,
+                    new HttpEntity<>(createAuthHeaders(request)), String.class,
+                    request.getNamespace(), request.getRepoName(), ref);
+            if (tree.getBody() == null) {
+                log.warn(HTTP_BODY_IS_NULL);
+                return null;
+            }
+            return getBlobs(new JSONObject(tree.getBody()));
+        } catch (RestClientException | JSONException e) {
+            log.warn("Unable to list the files of {}/{} at {}: {}", request.getNamespace(), request.getRepoName(), ref,
+                    ExceptionUtils.getRootCauseMessage(e));
+            return null;
+        }
+    }
+
+    /**
+     * @return object ID of every file in a recursive tree by path, or null if GitHub truncated the tree
+     */
+    private static Map<String, String> getBlobs(JSONObject tree) {
+        if (tree.optBoolean("truncated")) {
+            return null;
+        }
+        Map<String, String> blobs = new HashMap<>();
+        JSONArray entries = tree.getJSONArray("tree");
+        for (int i = 0; i < entries.length(); i++) {
+            JSONObject entry = entries.getJSONObject(i);
+            if ("blob".equals(entry.optString("type"))) {
+                blobs.put(entry.getString("path"), entry.getString("sha"));
+            }
+        }
+        return blobs;
+    }
+
     private CxConfig loadConfigAsCode(String filename, ScanRequest request) {
         CxConfig result = null;
 
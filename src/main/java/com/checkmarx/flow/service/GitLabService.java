@@ -2,6 +2,7 @@ package com.checkmarx.flow.service;
 
 import com.checkmarx.flow.config.FlowProperties;
 import com.checkmarx.flow.config.GitLabProperties;
+import com.checkmarx.flow.dto.ChangedFiles;
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.dto.Sources;
 import com.checkmarx.flow.dto.gitlab.Note;
@@ -20,6 +21,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import java.beans.ConstructorProperties;
 import java.net.URI;
@@ -39,6 +41,9 @@ public class GitLabService extends RepoService {
     private static final String FILE_CONTENT = "/projects/{id}/repository/files/{config}?ref={branch}";
     private static final String LANGUAGE_TYPES = "/projects/{id}/languages";
     private static final String REPO_CONTENT = "/projects/{id}/repository/tree?ref={branch}";
+    private static final String COMPARE = "/projects/{id}/repository/compare?from={from}&to={to}";
+    private static final String TREE_SIZE = "/projects/{id}/repository/tree?ref={ref}&recursive=true&per_page=1";
+    private static final String TOTAL_HEADER = "X-Total";
     private static final int UNKNOWN_INT = -1;
     private static final Logger log = LoggerFactory.getLogger(GitLabService.class);
     private static final String MERGE_ID = "merge_id";
@@ -291,4 +296,40 @@ public class GitLabService extends RepoService {
         return null;
     }
 
+    /**
+     * Compares the commits with the compare API. The files of the request's commit are the size of its recursive
+     * tree, which GitLab omits for very large trees. A comparison beyond the diff limits of GitLab (overflow) lists
+     * only part of the changes and is reported as unknown.
+     */
+    @Override
+    public ChangedFiles getChangedFiles(ScanRequest request, String baseCommit) {
+        if (request.getRepoProjectId() == null || ScanUtils.anyEmpty(request.getHash(), baseCommit)) {
+            return null;
+        }
+        HttpEntity<?> httpEntity = new HttpEntity<>(createAuthHeaders());
+        try {
+            ResponseEntity<String> compare = restTemplate.exchange(properties.getApiUrl().concat(COMPARE),
+                    HttpMethod.GET, httpEntity, String.class, request.getRepoProjectId(), baseCommit, request.getHash());
+            if (compare.getBody() == null) {
+                log.warn(HTTP_BODY_WARN_MESSAGE);
+                return null;
+            }
+            JSONObject comparison = new JSONObject(compare.getBody());
+            if (comparison.optBoolean("overflow")) {
+                log.debug("Comparison with commit {} exceeds the diff limits, the number of changes is unknown",
+                        baseCommit);
+                return null;
+            }
+            int changed = comparison.getJSONArray("diffs").length();
+            ResponseEntity<String> tree = restTemplate.exchange(properties.getApiUrl().concat(TREE_SIZE),
+                    HttpMethod.GET, httpEntity, String.class, request.getRepoProjectId(), request.getHash());
+            String total = tree.getHeaders().getFirst(TOTAL_HEADER);
+            return new ChangedFiles(changed, ScanUtils.empty(total) ? ChangedFiles.UNKNOWN_TOTAL : Integer.parseInt(total));
+        } catch (RestClientException | JSONException | NumberFormatException e) {
+            log.warn("Unable to compare commits {} and {} of project {}: {}", baseCommit, request.getHash(),
+                    request.getRepoProjectId(), e.getMessage());
+            return null;
+        }
+    }
+
 }
@@ -1,12 +1,16 @@
 package com.checkmarx.flow.service;
 
 import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.custom.BatchIssueTracker;
+import com.checkmarx.flow.custom.DigestIssueTracker;
 import com.checkmarx.flow.custom.IssueTracker;
+import com.checkmarx.flow.custom.StreamingIssueTracker;
 import com.checkmarx.flow.dto.BugTracker;
 import com.checkmarx.flow.dto.Issue;
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
+import com.checkmarx.flow.utils.FlowMetrics;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.dto.ScanResults;
 import org.slf4j.Logger;
@@ -56,7 +60,7 @@ public class IssueService implements ApplicationContextAware {
     /**
      * Create a map of Checkmarx Issues
      */
-    private Map<String, ScanResults.XIssue> getXIssueMap(IssueTracker tracker, ScanResults results, ScanRequest request) {
+    Map<String, ScanResults.XIssue> getXIssueMap(IssueTracker tracker, ScanResults results, ScanRequest request) {
         List<ScanResults.XIssue> issues = new ArrayList<>();
 
         Optional.ofNullable(results.getScaResults()).ifPresent( s -> {
@@ -81,6 +85,23 @@ public class IssueService implements ApplicationContextAware {
         return xMap;
     }
 
+    /**
+     * @return custom bug tracker of the request if it can write results issue by issue, otherwise null
+     */
+    StreamingIssueTracker getStreamingTracker(ScanRequest request) {
+        BugTracker bugTracker = request.getBugTracker();
+        if (bugTracker == null || bugTracker.getType() != BugTracker.Type.CUSTOM || ScanUtils.empty(bugTracker.getCustomBean())) {
+            return null;
+        }
+        try {
+            Object tracker = context.getBean(bugTracker.getCustomBean());
+            return tracker instanceof StreamingIssueTracker ? (StreamingIssueTracker) tracker : null;
+        } catch (BeansException e) {
+            log.debug("Bug tracker bean {} not found", bugTracker.getCustomBean(), e);
+            return null;
+        }
+    }
+
     Map<String, List<String>> process(ScanResults results, ScanRequest request) throws MachinaException {
         Map<String, ScanResults.XIssue> xMap;
         Map<String, Issue> iMap;
@@ -100,12 +121,19 @@ public class IssueService implements ApplicationContextAware {
 
             log.info("Processing Issues with custom bean {}", customBean);
 
-            List<Issue> issues = tracker.getIssues(request);
+            List<Issue> issues = FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_GET_ISSUES,
+                    () -> tracker.getIssues(request));
             if(issues == null){
                 issues = Collections.emptyList();
             }
             xMap = this.getXIssueMap(tracker, results, request);
             iMap = this.getIssueMap(tracker, issues, request);
+            /*Creates and closes are collected and sent at once if the tracker supports it*/
+            BatchIssueTracker batchTracker = tracker instanceof BatchIssueTracker ? (BatchIssueTracker) tracker : null;
+            /*Updates of unchanged findings are skipped if the tracker stores a digest of the content*/
+            DigestIssueTracker digestTracker = tracker instanceof DigestIssueTracker ? (DigestIssueTracker) tracker : null;
+            List<ScanResults.XIssue> issuesToCreate = new ArrayList<>();
+            List<Issue> issuesToClose = new ArrayList<>();
 
             for (Map.Entry<String, ScanResults.XIssue> xIssue : xMap.entrySet()) {
                 try {
@@ -121,24 +149,41 @@ public class IssueService implements ApplicationContextAware {
                             log.debug("All issues are false positives");
 
                             if(properties.isListFalsePositives()) { //Update the ticket if flag is set
-                                log.debug("Issue is being updated to reflect false positive references.  Updating issue with key {}", xIssue.getKey());
-                                tracker.updateIssue(i, currentIssue, request);
+                                if (isUnchanged(tracker, digestTracker, i, currentIssue, request)) {
+                                    log.debug("False positive references are current for issue with key {}", xIssue.getKey());
+                                } else {
+                                    log.debug("Issue is being updated to reflect false positive references.  Updating issue with key {}", xIssue.getKey());
+                                    FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_UPDATE,
+                                            () -> tracker.updateIssue(i, currentIssue, request));
+                                }
                             }
                             if (tracker.isIssueOpened(i, request)) {
                                 /*Close the issue if in an open state*/
-                                tracker.closeIssue(i, request);
-                                closedIssues.add(i.getId());
+                                if (batchTracker != null) {
+                                    issuesToClose.add(i);
+                                } else {
+                                    FlowMetrics.timeTrackerVoid(customBean, FlowMetrics.OPERATION_CLOSE,
+                                            () -> tracker.closeIssue(i, request));
+                                    closedIssues.add(i.getId());
+                                }
                             }
 
                         }
                         else if (!i.getLabels().contains(fpLabel)) { /*Ignore any with label indicating false positive*/
-                            log.info("Issue still exists.  Updating issue with key {}", xIssue.getKey());
                             fileUrl = ScanUtils.getFileUrl(request, currentIssue.getFilename());
                             currentIssue.setGitUrl(fileUrl);
-                            Issue updatedIssue = tracker.updateIssue(i, currentIssue, request);
-                            if (updatedIssue != null) {
-                                updatedIssues.add(updatedIssue.getId());
-                                log.debug("Update completed for issue #{}", updatedIssue.getId());
+                            if (isUnchanged(tracker, digestTracker, i, currentIssue, request)) {
+                                /*Still reported as updated, the issue is current*/
+                                log.info("Issue still exists and is unchanged.  Skipping update of issue with key {}", xIssue.getKey());
+                                updatedIssues.add(i.getId());
+                            } else {
+                                log.info("Issue still exists.  Updating issue with key {}", xIssue.getKey());
+                                Issue updatedIssue = FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_UPDATE,
+                                        () -> tracker.updateIssue(i, currentIssue, request));
+                                if (updatedIssue != null) {
+                                    updatedIssues.add(updatedIssue.getId());
+                                    log.debug("Update completed for issue #{}", updatedIssue.getId());
+                                }
                             }
                         } else {
                             log.info("Skipping issue marked as false positive with key {}", xIssue.getKey());
@@ -149,10 +194,15 @@ public class IssueService implements ApplicationContextAware {
                             fileUrl = ScanUtils.getFileUrl(request, currentIssue.getFilename());
                             xIssue.getValue().setGitUrl(fileUrl);
                             log.info("Creating new issue with key {}", xIssue.getKey());
-                            Issue newIssue = tracker.createIssue(xIssue.getValue(), request);
-                            if (newIssue != null) {
-                                newIssues.add(newIssue.getId());
-                                log.info("New issue created. #{}", newIssue.getId());
+                            if (batchTracker != null) {
+                                issuesToCreate.add(currentIssue);
+                            } else {
+                                Issue newIssue = FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_CREATE,
+                                        () -> tracker.createIssue(currentIssue, request));
+                                if (newIssue != null) {
+                                    newIssues.add(newIssue.getId());
+                                    log.info("New issue created. #{}", newIssue.getId());
+                                }
                             }
                         }
                     }
@@ -168,15 +218,24 @@ public class IssueService implements ApplicationContextAware {
                 try {
                     if (!xMap.containsKey(key) && tracker.isIssueOpened(issue, request)) {
                         /*Close the issue*/
-                        tracker.closeIssue(issue, request);
-                        closedIssues.add(issue.getId());
                         log.info("Closing issue #{} with key {}", issue.getId(), key);
+                        if (batchTracker != null) {
+                            issuesToClose.add(issue);
+                        } else {
+                            FlowMetrics.timeTrackerVoid(customBean, FlowMetrics.OPERATION_CLOSE,
+                                    () -> tracker.closeIssue(issue, request));
+                            closedIssues.add(issue.getId());
+                        }
                     }
                 } catch (HttpClientErrorException e) {
                     log.error("Error occurred while processing issue with key {}", key, e);
                 }
             }
 
+            if (batchTracker != null) {
+                processBatch(batchTracker, customBean, issuesToCreate, issuesToClose, request, newIssues, closedIssues);
+            }
+
             Map<String, List<String>> issuesMap = new HashMap<>();
             issuesMap.put("new", newIssues);
             issuesMap.put("updated", updatedIssues);
@@ -193,4 +252,42 @@ public class IssueService implements ApplicationContextAware {
             throw new MachinaRuntimeException();
         }
     }
+
+    /**
+     * @return true if the tracker stores a digest with its issues and the open issue already holds the content of
+     * the finding
+     */
+    private static boolean isUnchanged(IssueTracker tracker, DigestIssueTracker digestTracker, Issue issue,
+                                       ScanResults.XIssue resultIssue, ScanRequest request) {
+        if (digestTracker == null || !tracker.isIssueOpened(issue, request)) {
+            return false;
+        }
+        String digest = digestTracker.getIssueDigest(issue);
+        return digest != null && digest.equals(digestTracker.getXIssueDigest(resultIssue, request));
+    }
+
+    /**
+     * Sends the collected creates and closes to a {@link BatchIssueTracker}. The tracker operation timers measure
+     * the whole batch.
+     */
+    private void processBatch(BatchIssueTracker tracker, String customBean, List<ScanResults.XIssue> issuesToCreate,
+                              List<Issue> issuesToClose, ScanRequest request,
+                              List<String> newIssues, List<String> closedIssues) throws MachinaException {
+        if (!issuesToCreate.isEmpty()) {
+            List<Issue> created = FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_CREATE,
+                    () -> tracker.createIssues(issuesToCreate, request));
+            for (Issue issue : created) {
+                newIssues.add(issue.getId());
+            }
+            log.info("{} of {} new issue(s) created", created.size(), issuesToCreate.size());
+        }
+        if (!issuesToClose.isEmpty()) {
+            List<Issue> closed = FlowMetrics.timeTracker(customBean, FlowMetrics.OPERATION_CLOSE,
+                    () -> tracker.closeIssues(issuesToClose, request));
+            for (Issue issue : closed) {
+                closedIssues.add(issue.getId());
+            }
+            log.info("{} of {} issue(s) closed", closed.size(), issuesToClose.size());
+        }
+    }
 }
@@ -41,6 +41,7 @@ import com.atlassian.jira.rest.client.api.domain.Transition;
 import com.atlassian.jira.rest.client.api.domain.User;
 import com.atlassian.jira.rest.client.api.domain.input.ComplexIssueInputFieldValue;
 import com.atlassian.jira.rest.client.api.domain.input.FieldInput;
+import com.atlassian.jira.rest.client.api.domain.input.IssueInput;
 import com.atlassian.jira.rest.client.api.domain.input.IssueInputBuilder;
 import com.atlassian.jira.rest.client.api.domain.input.TransitionInput;
 import com.atlassian.jira.rest.client.internal.async.CustomAsynchronousJiraRestClientFactory;
@@ -55,7 +56,10 @@ import com.checkmarx.flow.dto.report.JiraTicketsReport;
 import com.checkmarx.flow.exception.JiraClientException;
 import com.checkmarx.flow.exception.JiraClientRunTimeException;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
+import com.checkmarx.flow.utils.FlowMetrics;
 import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.flow.utils.IssueBodyMemo;
+import com.checkmarx.flow.utils.IssueDigest;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.google.common.collect.ImmutableMap;
@@ -95,6 +99,7 @@ public class JiraService {
     private static final String CHILD_FIELD_TYPE = "child";
     private static final String CASCADE_PARENT_CHILD_DELIMITER  = ";";
     private static final int MAX_RESULTS_ALLOWED = 1000000;
+    private static final String METRICS_TRACKER = BugTracker.Type.JIRA.toString();
 
     @ConstructorProperties({"jiraProperties", "flowProperties"})
     public JiraService(JiraProperties jiraProperties, FlowProperties flowProperties) {
@@ -345,10 +350,17 @@ public class JiraService {
                 labels.add(jiraProperties.getAppLabelPrefix().concat(":").concat(application));
             }
             log.debug("Adding tracker labels: {} - {}", jiraProperties.getLabelTracker(), labels);
+            String digestLabel = getDigestLabel(getUpdateIssueBuilder(issue, request).build());
             if (!jiraProperties.getLabelTracker().equals(LABEL_FIELD_TYPE)) {
                 String customField = getCustomFieldByName(projectKey, bugTracker.getIssueType(), jiraProperties.getLabelTracker());
                 issueBuilder.setFieldValue(customField, labels);
+                if (digestLabel != null) {
+                    issueBuilder.setFieldValue(LABEL_FIELD_TYPE, Collections.singletonList(digestLabel));
+                }
             } else {
+                if (digestLabel != null) {
+                    labels.add(digestLabel);
+                }
                 issueBuilder.setFieldValue(LABEL_FIELD_TYPE, labels);
             }
 
@@ -385,23 +397,25 @@ public class JiraService {
 
     private Issue updateIssue(String bugId, ScanResults.XIssue issue, ScanRequest request) throws JiraClientException {
         BugTracker bugTracker = request.getBugTracker();
-        String severity = issue.getSeverity();
         Issue jiraIssue = this.getIssue(bugId);
         if (bugTracker.getClosedStatus().contains(jiraIssue.getStatus().getName())) {
             this.transitionIssue(bugId, bugTracker.getOpenTransition());
         }
-        IssueInputBuilder issueBuilder = new IssueInputBuilder();
-        String fileUrl = ScanUtils.getFileUrl(request, issue.getFilename());
-        issueBuilder.setDescription(this.getBody(issue, request, fileUrl));
-
-        if (bugTracker.getPriorities().containsKey(severity)) {
-            issueBuilder.setFieldValue("priority", ComplexIssueInputFieldValue.with("name",
-                    bugTracker.getPriorities().get(severity)));
-        }
-
         log.info("Updating JIRA issue #{}", bugId);
+        IssueInputBuilder issueBuilder = getUpdateIssueBuilder(issue, request);
 
-        mapCustomFields(request, issue, issueBuilder, true);
+        /*Replace the digest label, keeping the other labels of the issue*/
+        String digestLabel = getDigestLabel(issueBuilder.build());
+        if (digestLabel != null) {
+            List<String> labels = new ArrayList<>();
+            if (jiraIssue.getLabels() != null) {
+                jiraIssue.getLabels().stream()
+                        .filter(label -> !label.startsWith(JiraConstants.JIRA_DIGEST_LABEL_PREFIX))
+                        .forEach(labels::add);
+            }
+            labels.add(digestLabel);
+            issueBuilder.setFieldValue(LABEL_FIELD_TYPE, labels);
+        }
 
         log.debug("Updating JIRA issue");
         log.debug(issueBuilder.toString());
@@ -415,6 +429,57 @@ public class JiraService {
         return this.getIssue(bugId);
     }
 
+    /**
+     * Fields written by an update: description, priority and custom fields
+     */
+    private IssueInputBuilder getUpdateIssueBuilder(ScanResults.XIssue issue, ScanRequest request) {
+        BugTracker bugTracker = request.getBugTracker();
+        String severity = issue.getSeverity();
+        IssueInputBuilder issueBuilder = new IssueInputBuilder();
+        String fileUrl = ScanUtils.getFileUrl(request, issue.getFilename());
+        issueBuilder.setDescription(this.getBody(issue, request, fileUrl));
+
+        if (bugTracker.getPriorities().containsKey(severity)) {
+            issueBuilder.setFieldValue("priority", ComplexIssueInputFieldValue.with("name",
+                    bugTracker.getPriorities().get(severity)));
+        }
+
+        mapCustomFields(request, issue, issueBuilder, true);
+        return issueBuilder;
+    }
+
+    /**
+     * Label holding the digest of the fields written by an update, so that the next scan can skip the update of an
+     * unchanged finding. The input values are described by their toString, which the Jira client implements for
+     * every field value type.
+     *
+     * @return digest label, or null if the update writes the labels field itself
+     */
+    private static String getDigestLabel(IssueInput input) {
+        Object fields = input.getValuesMap().get("fields");
+        if (!(fields instanceof Map) || ((Map<?, ?>) fields).containsKey(LABEL_FIELD_TYPE)) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        for (Object field : ((Map<?, ?>) fields).values()) {
+            values.add(String.valueOf(field));
+        }
+        Collections.sort(values);
+        return JiraConstants.JIRA_DIGEST_LABEL_PREFIX.concat(IssueDigest.of(values.toArray(new String[0])));
+    }
+
+    /**
+     * @return true if the open issue already holds the fields an update would write for the finding
+     */
+    private boolean isUnchanged(Issue issue, ScanResults.XIssue currentIssue, ScanRequest request) {
+        if (issue.getLabels() == null || issue.getStatus() == null
+                || !request.getBugTracker().getOpenStatus().contains(issue.getStatus().getName())) {
+            return false;
+        }
+        String digestLabel = getDigestLabel(getUpdateIssueBuilder(currentIssue, request).build());
+        return digestLabel != null && issue.getLabels().contains(digestLabel);
+    }
+
     /**
      * Map custom JIRA fields to specific values (Custom Cx fields, Issue result
      * fields, static fields
@@ -878,7 +943,7 @@ public class JiraService {
         return jiraMap;
     }
 
-    private Map<String, ScanResults.XIssue> getIssueMap(ScanResults results, ScanRequest request) {
+    Map<String, ScanResults.XIssue> getIssueMap(ScanResults results, ScanRequest request) {
         List<ScanResults.XIssue> issues = new ArrayList<>();
 
 
@@ -937,6 +1002,15 @@ public class JiraService {
     }
 
     private String getBody(ScanResults.XIssue issue, ScanRequest request, String fileUrl) {
+        return IssueBodyMemo.get(issue, request, IssueBodyMemo.FORMAT_JIRA, fileUrl,
+                () -> renderBody(issue, request, fileUrl));
+    }
+
+    /**
+     * Renders the description, truncated to {@link JiraConstants#JIRA_MAX_DESCRIPTION}. Lines and code snippets are
+     * no longer rendered once the limit is reached, as they would be truncated anyway.
+     */
+    private String renderBody(ScanResults.XIssue issue, ScanRequest request, String fileUrl) {
         StringBuilder body = new StringBuilder();
         Optional.ofNullable(jiraProperties.getDescriptionPrefix())
                 .ifPresent(body::append);
@@ -1012,12 +1086,16 @@ public class JiraService {
                 body.append("Lines: ");
             }
             String lines = "#lines-";
-            issue.getDetails().entrySet().stream()
+            List<Map.Entry<Integer, ScanResults.IssueDetails>> trueIssues = issue.getDetails().entrySet().stream()
                     .filter(x -> x.getKey() != null && x.getValue() != null && !x.getValue().isFalsePositive())
                     .sorted(Map.Entry.comparingByKey())
-                    .forEach(entry ->
-                            isFileUrlEmpty(request, fileUrl, body, lines, entry)
-                    );
+                    .collect(Collectors.toList());
+            for (Map.Entry<Integer, ScanResults.IssueDetails> entry : trueIssues) {
+                if (isDescriptionFull(body)) {
+                    break;
+                }
+                isFileUrlEmpty(request, fileUrl, body, lines, entry);
+            }
 
             if (flowProperties.isListFalsePositives()) {//List the false positives / not exploitable
                 body.append(HTMLHelper.CRLF);
@@ -1027,39 +1105,43 @@ public class JiraService {
                 issue.getDetails().entrySet().stream()
                         .filter(x -> x.getKey() != null && x.getValue() != null && x.getValue().isFalsePositive())
                         .sorted(Map.Entry.comparingByKey())
+                        .filter(entry -> !isDescriptionFull(body))
                         .forEach(entry ->
                                 isFileUrlEmpty(request, fileUrl, body, lines, entry)
                         );
             }
             body.append(HTMLHelper.CRLF).append(HTMLHelper.CRLF);
-            issue.getDetails().entrySet().stream()
-                    .filter(x -> x.getKey() != null && x.getValue() != null && !x.getValue().isFalsePositive())
-                    .sorted(Map.Entry.comparingByKey())
-                    .forEach(entry -> {
-                        if (!ScanUtils.empty(entry.getValue().getCodeSnippet())) {
-                            body.append("----").append(HTMLHelper.CRLF);
-                            if (!ScanUtils.empty(fileUrl)) {
-                                String line = "[Line #";
-                                if (request.getRepoType().equals(ScanRequest.Repository.BITBUCKETSERVER)) {
-                                    body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append("#").append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
-                                } else if (request.getRepoType().equals(ScanRequest.Repository.BITBUCKET)) { //BB Cloud
-                                    body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append(lines).append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
-                                } else {
-                                    body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append("#L").append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
-                                }
-                            } else {
-                                body.append("Line #").append(entry.getKey()).append(HTMLHelper.CRLF);
-                            }
-                            body.append("{code}").append(HTMLHelper.CRLF);
-                            body.append(entry.getValue().getCodeSnippet()).append(HTMLHelper.CRLF);
-                            body.append("{code}").append(HTMLHelper.CRLF);
+            for (Map.Entry<Integer, ScanResults.IssueDetails> entry : trueIssues) {
+                if (isDescriptionFull(body)) {
+                    break;
+                }
+                if (!ScanUtils.empty(entry.getValue().getCodeSnippet())) {
+                    body.append("----").append(HTMLHelper.CRLF);
+                    if (!ScanUtils.empty(fileUrl)) {
+                        String line = "[Line #";
+                        if (request.getRepoType().equals(ScanRequest.Repository.BITBUCKETSERVER)) {
+                            body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append("#").append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
+                        } else if (request.getRepoType().equals(ScanRequest.Repository.BITBUCKET)) { //BB Cloud
+                            body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append(lines).append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
+                        } else {
+                            body.append(line).append(entry.getKey()).append(":|").append(fileUrl).append("#L").append(entry.getKey()).append("]").append(HTMLHelper.CRLF);
                         }
-                    });
+                    } else {
+                        body.append("Line #").append(entry.getKey()).append(HTMLHelper.CRLF);
+                    }
+                    body.append("{code}").append(HTMLHelper.CRLF);
+                    body.append(entry.getValue().getCodeSnippet()).append(HTMLHelper.CRLF);
+                    body.append("{code}").append(HTMLHelper.CRLF);
+                }
+            }
             body.append("----").append(HTMLHelper.CRLF);
         }
 
         if (issue.getOsaDetails() != null) {
             for (ScanResults.OsaDetails o : issue.getOsaDetails()) {
+                if (isDescriptionFull(body)) {
+                    break;
+                }
                 body.append(HTMLHelper.CRLF);
                 if (!ScanUtils.empty(o.getCve())) {
                     body.append("h3.").append(o.getCve()).append(HTMLHelper.CRLF);
@@ -1118,6 +1200,10 @@ public class JiraService {
         return StringUtils.truncate(body.toString(), JiraConstants.JIRA_MAX_DESCRIPTION);
     }
 
+    private static boolean isDescriptionFull(StringBuilder body) {
+        return body.length() >= JiraConstants.JIRA_MAX_DESCRIPTION;
+    }
+
     private void isFileUrlEmpty(ScanRequest request, String fileUrl, StringBuilder body, String lines, Map.Entry<Integer, ScanResults.IssueDetails> entry) {
         if (!ScanUtils.empty(fileUrl)) {
             if (request.getRepoType().equals(ScanRequest.Repository.BITBUCKETSERVER)) {
@@ -1150,7 +1236,8 @@ public class JiraService {
             bugTracker = parent.getBugTracker();
             bugTracker.setProjectKey(parentUrl);
             parent.setBugTracker(bugTracker);
-            issuesParent = this.getIssues(parent);
+            issuesParent = FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_GET_ISSUES,
+                    () -> getIssues(parent));
             if (grandParentUrl.length() == 0) {
                  log.info("Grandparent field is empty");
                 issuesGrandParent = null;
@@ -1159,7 +1246,8 @@ public class JiraService {
                 bugTrackerGrandParenet = grandparent.getBugTracker();
                 bugTrackerGrandParenet.setProjectKey(grandParentUrl);
                 grandparent.setBugTracker(bugTrackerGrandParenet);
-                issuesGrandParent = this.getIssues(grandparent);
+                issuesGrandParent = FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_GET_ISSUES,
+                        () -> getIssues(grandparent));
             }
         } else {
             issuesParent = null;
@@ -1170,7 +1258,8 @@ public class JiraService {
 
         map = this.getIssueMap(results, request);
         setMapWithScanResults(map, nonPublishedScanResultsMap);
-        jiraMap = this.getJiraIssueMap(this.getIssues(request));
+        jiraMap = this.getJiraIssueMap(FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_GET_ISSUES,
+                () -> getIssues(request)));
 
         for (Map.Entry<String, ScanResults.XIssue> xIssue : map.entrySet()) {
             String issueCurrentKey = xIssue.getKey();
@@ -1188,7 +1277,13 @@ public class JiraService {
                         closeIssueInCaseOfIssueIsInOpenState(request, closedIssues, fpIssue);
                     }/*Ignore any with label indicating false positive*/
                     else if (!issue.getLabels().contains(jiraProperties.getFalsePositiveLabel())) {
-                        updateIssueAndAddToNewIssuesList(request, updatedIssues, xIssue, currentIssue, issue);
+                        if (isUnchanged(issue, currentIssue, request)) {
+                            /*Still reported as updated, the issue is current*/
+                            log.debug("Issue still exists and is unchanged.  Skipping update of issue with key {}", issueCurrentKey);
+                            updatedIssues.add(issue.getKey());
+                        } else {
+                            updateIssueAndAddToNewIssuesList(request, updatedIssues, xIssue, currentIssue, issue);
+                        }
                     } else {
                         log.info("Skipping issue marked as false-positive or has False Positive state with key {}", issueCurrentKey);
                     }
@@ -1254,8 +1349,9 @@ public class JiraService {
                 if (!map.containsKey(jiraIssue.getKey()) && (request.getBugTracker().getOpenStatus().contains(jiraIssue.getValue().getStatus().getName()))) {
                     /*Close the issue*/
                     log.info("Closing issue {} with key {}",jiraIssue.getValue().getKey(), jiraIssue.getKey());
-                    this.transitionCloseIssue(jiraIssue.getValue().getKey(),
-                            request.getBugTracker().getCloseTransition(), request.getBugTracker(), false); //No false positives
+                    FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_CLOSE,
+                            () -> transitionCloseIssue(jiraIssue.getValue().getKey(),
+                                    request.getBugTracker().getCloseTransition(), request.getBugTracker(), false)); //No false positives
                     closedIssues.add(jiraIssue.getValue().getKey());
 
                 }
@@ -1267,14 +1363,16 @@ public class JiraService {
 
     private void createIssueAndAddToNewIssuesList(ScanRequest request, List<String> newIssues, Map.Entry<String, ScanResults.XIssue> xIssue, ScanResults.XIssue currentIssue) throws JiraClientException {
         log.debug("Creating new issue with key {}", xIssue.getKey());
-        String newIssue = this.createIssue(currentIssue, request);
+        String newIssue = FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_CREATE,
+                () -> createIssue(currentIssue, request));
         newIssues.add(newIssue);
         log.info("New issue created. #{}", newIssue);
     }
 
     private void updateIssueAndAddToNewIssuesList(ScanRequest request, List<String> updatedIssues, Map.Entry<String, ScanResults.XIssue> xIssue, ScanResults.XIssue currentIssue, Issue issue) throws JiraClientException {
         log.debug("Issue still exists.  Updating issue with key {}", xIssue.getKey());
-        Issue updatedIssue = this.updateIssue(issue.getKey(), currentIssue, request);
+        Issue updatedIssue = FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_UPDATE,
+                () -> updateIssue(issue.getKey(), currentIssue, request));
         if (updatedIssue != null) {
             log.debug("Update completed for issue #{}", updatedIssue.getKey());
             updatedIssues.add(updatedIssue.getKey());
@@ -1288,16 +1386,21 @@ public class JiraService {
         if (request.getBugTracker().getOpenStatus().contains(fpIssue.getStatus().getName())) { //If the status is of open state, close it
             /*Close the issue*/
             log.info("Closing issue with key {}", fpIssue.getKey());
-            this.transitionCloseIssue(fpIssue.getKey(), request.getBugTracker().getCloseTransition(), request.getBugTracker(), true);
+            FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_CLOSE, () -> transitionCloseIssue(fpIssue.getKey(),
+                    request.getBugTracker().getCloseTransition(), request.getBugTracker(), true));
             closedIssues.add(fpIssue.getKey());
         }
     }
 
     private Issue checkForFalsePositiveIssuesInList(ScanRequest request, Map.Entry<String, ScanResults.XIssue> xIssue, ScanResults.XIssue currentIssue, Issue issue) throws JiraClientException {
         Issue fpIssue;
-        if (flowProperties.isListFalsePositives()) { //Update the ticket if flag is set
+        if (flowProperties.isListFalsePositives() && isUnchanged(issue, currentIssue, request)) {
+            log.debug("False positive references are current for issue with key {}", xIssue.getKey());
+            fpIssue = issue;
+        } else if (flowProperties.isListFalsePositives()) { //Update the ticket if flag is set
             log.debug("Issue is being updated to reflect false positive references.  Updating issue with key {}", xIssue.getKey());
-            fpIssue = this.updateIssue(issue.getKey(), currentIssue, request);
+            fpIssue = FlowMetrics.timeTracker(METRICS_TRACKER, FlowMetrics.OPERATION_UPDATE,
+                    () -> updateIssue(issue.getKey(), currentIssue, request));
         } else { //otherwise simply get a reference to the issue
             fpIssue = this.getIssue(issue.getKey());
         }
@@ -1342,6 +1445,10 @@ public class JiraService {
         return false;
     }
 
+    public JiraProperties getJiraProperties() {
+        return jiraProperties;
+    }
+
     public URI getJiraURI() {
         return jiraURI;
     }
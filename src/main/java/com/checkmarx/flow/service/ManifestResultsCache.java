@@ -0,0 +1,120 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.utils.JsonFileStore;
+import com.checkmarx.flow.utils.ManifestFingerprint;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Results of completed SCA scans by project and dependency manifest fingerprint (see {@link ManifestFingerprint}).
+ * A push that doesn't change any manifest gets the results of the previous SCA scan instead of a new scan, until
+ * the results are older than cx-flow.sca-reuse.max-age-minutes; a max age of 0 disables the reuse.
+ * <p>
+ * The fingerprint of local sources is computed from the files; the one of a remote repository from the git object
+ * IDs listed by the repository API, which only GitHub supports for now. With cx-flow.sca-reuse.dir set, results are
+ * also written to one file per key and survive restarts.
+ */
+@Service
+@Slf4j
+public class ManifestResultsCache {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final GitHubService gitService;
+    private final long maxAgeMillis;
+    private final JsonFileStore store;
+
+    public ManifestResultsCache(FlowProperties flowProperties, GitHubService gitService) {
+        FlowProperties.ScaReuse properties = flowProperties.getScaReuse();
+        this.gitService = gitService;
+        this.maxAgeMillis = Math.max(properties.getMaxAgeMinutes(), 0) * 60_000L;
+        this.store = new JsonFileStore("SCA results", properties.getSize(), properties.getDir(), 0, maxAgeMillis);
+    }
+
+    public boolean isEnabled() {
+        return maxAgeMillis > 0 && store.isEnabled();
+    }
+
+    /**
+     * The key doesn't include the location of local sources, which are often a new temporary clone for every run.
+     *
+     * @param path local sources of the request, null for a remote repository
+     * @return key of the request's project and repository, SCA configuration and manifests, or null if the manifests
+     * are unknown
+     */
+    public String getKey(ScanRequest request, String path) {
+        if (!isEnabled()) {
+            return null;
+        }
+        try {
+            String fingerprint = path == null ? getRemoteFingerprint(request) : ManifestFingerprint.of(Paths.get(path));
+            if (fingerprint == null) {
+                return null;
+            }
+            String repository = StringUtils.isNotEmpty(request.getRepoUrl())
+                    ? request.getRepoUrl()
+                    : request.getNamespace() + "/" + request.getRepoName();
+            return DigestUtils.sha256Hex(String.join("\n",
+                    String.valueOf(request.getProject()),
+                    repository,
+                    mapper.writeValueAsString(request.getScaConfig()),
+                    fingerprint));
+        } catch (IOException e) {
+            log.warn("Unable to fingerprint the dependency manifests, not reusing SCA results", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return copy of the results stored for the key, or null if there are none within the max age
+     */
+    public ScanResults find(String key) {
+        if (key == null) {
+            return null;
+        }
+        Entry entry = store.read(key, Entry.class);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.getCompletedAt() > maxAgeMillis) {
+            store.remove(key);
+            return null;
+        }
+        return entry.getResults();
+    }
+
+    public void record(String key, ScanResults results) {
+        if (key == null || results == null) {
+            return;
+        }
+        store.write(key, new Entry(System.currentTimeMillis(), results));
+    }
+
+    private String getRemoteFingerprint(ScanRequest request) {
+        if (request.getRepoType() != ScanRequest.Repository.GITHUB) {
+            return null;
+        }
+        Map<String, String> fileIds = gitService.getFileIds(request);
+        return fileIds == null ? null : ManifestFingerprint.of(fileIds);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Entry {
+        private long completedAt;
+        private ScanResults results;
+    }
+}
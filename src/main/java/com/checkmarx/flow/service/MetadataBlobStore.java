@@ -0,0 +1,81 @@
+package com.checkmarx.flow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Directory of large scan request metadata values (e.g. webhook payloads) moved out of the heap while a request
+ * waits in the work queue. Each value is a UTF-8 file named by a random blob id.
+ */
+@Slf4j
+class MetadataBlobStore implements Closeable {
+    private static final String EXTENSION = ".blob";
+
+    private final boolean temporary;
+    private Path directory;
+
+    /**
+     * @param directory created on first use. If null, a temporary directory is used and deleted on close.
+     */
+    MetadataBlobStore(Path directory) {
+        this.directory = directory;
+        this.temporary = directory == null;
+    }
+
+    /**
+     * @return blob id for {@link #load(String)}
+     */
+    synchronized String store(String value) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("cx-flow-metadata");
+        } else {
+            Files.createDirectories(directory);
+        }
+        String id = UUID.randomUUID().toString();
+        Files.write(directory.resolve(id + EXTENSION), value.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    /**
+     * @return stored value, or null if the blob was deleted or cannot be read
+     */
+    synchronized String load(String id) {
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(directory.resolve(id + EXTENSION)), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            log.debug("Metadata blob {} no longer exists", id);
+        } catch (IOException e) {
+            log.warn("Unable to read metadata blob {}", id, e);
+        }
+        return null;
+    }
+
+    synchronized void delete(String id) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(id + EXTENSION));
+        } catch (IOException e) {
+            log.warn("Unable to delete metadata blob {}", id, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (temporary && directory != null) {
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+}
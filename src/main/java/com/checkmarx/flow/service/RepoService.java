@@ -1,13 +1,31 @@
 package com.checkmarx.flow.service;
 
+import com.checkmarx.flow.dto.ChangedFiles;
 import com.checkmarx.flow.dto.ScanRequest;
 import com.checkmarx.flow.dto.Sources;
 import com.checkmarx.sdk.dto.CxConfig;
 
+import java.util.Map;
+
 public abstract class RepoService {
     public abstract Sources getRepoContent(ScanRequest request);
 
     public CxConfig getCxConfigOverride(ScanRequest request) {
         return null;
     }
+
+    /**
+     * @param baseCommit commit the request's commit is compared to
+     * @return files changed since baseCommit, or null if the repository doesn't support the comparison
+     */
+    public ChangedFiles getChangedFiles(ScanRequest request, String baseCommit) {
+        return null;
+    }
+
+    /**
+     * @return git object ID of every file of the request's commit by path, or null if the repository doesn't list them
+     */
+    public Map<String, String> getFileIds(ScanRequest request) {
+        return null;
+    }
 }
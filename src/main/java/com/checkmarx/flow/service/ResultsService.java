@@ -1,6 +1,9 @@
 package com.checkmarx.flow.service;
 
 import com.atlassian.jira.rest.client.api.RestClientException;
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.custom.StreamingIssueTracker;
+import com.checkmarx.flow.dto.BugTracker;
 import com.checkmarx.flow.dto.Field;
 import com.checkmarx.flow.dto.ScanDetails;
 import com.checkmarx.flow.dto.ScanRequest;
@@ -11,33 +14,35 @@ import com.checkmarx.flow.exception.JiraClientException;
 import com.checkmarx.flow.exception.JiraClientRunTimeException;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.exception.MachinaRuntimeException;
+import com.checkmarx.flow.utils.FlowMetrics;
+import com.checkmarx.flow.utils.IssueBodyMemo;
+import com.checkmarx.flow.utils.ResultsLogUtils;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.sdk.config.Constants;
 import com.checkmarx.sdk.config.CxProperties;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.sdk.dto.cx.CxProject;
 import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
-import com.checkmarx.sdk.exception.CheckmarxException;
 import com.checkmarx.sdk.service.CxClient;
 import com.checkmarx.sdk.service.CxOsaClient;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 import static com.checkmarx.sdk.config.Constants.UNKNOWN_INT;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ResultsService {
 
     private final CxClient cxService;
@@ -50,16 +55,48 @@ public class ResultsService {
     private final ADOService adoService;
     private final EmailService emailService;
     private final CxProperties cxProperties;
+    private final FlowProperties flowProperties;
+    private final TaskExecutor engineExecutor;
+    private final TrackerDispatcher trackerDispatcher;
+
+    public ResultsService(CxClient cxService, CxOsaClient osaService, JiraService jiraService,
+                          IssueService issueService, GitHubService gitService, GitLabService gitLabService,
+                          BitBucketService bbService, ADOService adoService, EmailService emailService,
+                          CxProperties cxProperties, FlowProperties flowProperties,
+                          @Qualifier("engineResults") TaskExecutor engineExecutor,
+                          TrackerDispatcher trackerDispatcher) {
+        this.cxService = cxService;
+        this.osaService = osaService;
+        this.jiraService = jiraService;
+        this.issueService = issueService;
+        this.gitService = gitService;
+        this.gitLabService = gitLabService;
+        this.bbService = bbService;
+        this.adoService = adoService;
+        this.emailService = emailService;
+        this.cxProperties = cxProperties;
+        this.flowProperties = flowProperties;
+        this.engineExecutor = engineExecutor;
+        this.trackerDispatcher = trackerDispatcher;
+    }
 
     @Async("scanRequest")
     public CompletableFuture<ScanResults> processScanResultsAsync(ScanRequest request, Integer projectId,
                                                                   Integer scanId, String osaScanId, FilterConfiguration filterConfiguration) throws MachinaException {
         try {
             CompletableFuture<ScanResults> future = new CompletableFuture<>();
-            //TODO async these, and join and merge after
-            ScanResults results = cxService.getReportContentByScanId(scanId, filterConfiguration);
+            ConcurrentEngines engines = new ConcurrentEngines(engineExecutor, flowProperties.getReportTimeoutSeconds());
+            ConcurrentEngines.Engine<ScanResults> sast = engines.start(FlowMetrics.ENGINE_SAST,
+                    () -> FlowMetrics.time(FlowMetrics.REPORT_FETCH, FlowMetrics.engine(FlowMetrics.ENGINE_SAST),
+                            () -> cxService.getReportContentByScanId(scanId, filterConfiguration)));
+            ConcurrentEngines.Engine<ScanResults> osa = startOsaScan(engines, projectId, osaScanId, filterConfiguration);
+
+            ScanResults results = engines.await(sast);
             logGetResultsJsonLogger(request, scanId, results);
-            results = getOSAScan(request, projectId, osaScanId, filterConfiguration, results);
+            if (osa != null) {
+                mergeOsaResults(results, engines.await(osa));
+                new ScanResultsReport(osaScanId, request, results).log();
+            }
 
             sendEmailNotification(request, results);
             processResults(request, results, new ScanDetails(projectId, scanId, osaScanId));
@@ -121,10 +158,118 @@ public class ResultsService {
 
 
     public void processResults(ScanRequest request, ScanResults results, ScanDetails scanDetails) throws MachinaException {
-        scanDetails = Optional.ofNullable(scanDetails).orElseGet(ScanDetails::new);
+        long start = System.currentTimeMillis();
+        ScanDetails details = Optional.ofNullable(scanDetails).orElseGet(ScanDetails::new);
         if (!cxProperties.getOffline()) {
             getCxFields(request, results);
         }
+        List<BugTracker> additionalBugTrackers = getAdditionalBugTrackers(request);
+        if (additionalBugTrackers.isEmpty()) {
+            publishTimed(request, results, details);
+        } else {
+            publishToAll(request, additionalBugTrackers, results, details);
+        }
+        if (results != null && results.getScanSummary() != null) {
+            log.info("####Checkmarx Scan Results Summary####");
+            log.info("Team: {}, Project: {}, Scan-Id: {}", request.getTeam(), request.getProject(), results.getAdditionalDetails().get("scanId"));
+            log.info("The vulnerabilities found for the scan are: {}", results.getScanSummary());
+            log.info("To view results use following link: {}", results.getLink());
+            log.info("######################################");
+        }
+        log.info("Results published to {} in {} ms", request.getBugTracker().getType(), System.currentTimeMillis() - start);
+    }
+
+    private void publishTimed(ScanRequest request, ScanResults results, ScanDetails scanDetails) throws MachinaException {
+        Tags tags = Tags.of(FlowMetrics.TAG_TRACKER, String.valueOf(request.getBugTracker().getType()));
+        try (IssueBodyMemo.Scope ignored = IssueBodyMemo.open()) {
+            FlowMetrics.timeVoid(FlowMetrics.PUBLISH, tags, () -> publishResults(request, results, scanDetails));
+        }
+    }
+
+    /**
+     * Publishes the results to the bug tracker of the request and to the additional bug trackers at the same time.
+     * Each additional bug tracker gets its own copy of the request and results, as bug trackers modify them. A failure
+     * of an additional bug tracker is logged; a failure of the bug tracker of the request is thrown once all
+     * publishes are done.
+     */
+    private void publishToAll(ScanRequest request, List<BugTracker> additionalBugTrackers, ScanResults results,
+                              ScanDetails scanDetails) throws MachinaException {
+        Map<String, TrackerDispatcher.Publish> publishes = new LinkedHashMap<>();
+        String primary = getTrackerName(request.getBugTracker());
+        for (BugTracker bugTracker : additionalBugTrackers) {
+            String name = getTrackerName(bugTracker);
+            if (name.equals(primary) || publishes.containsKey(name)) {
+                continue;
+            }
+            ScanRequest additionalRequest = new ScanRequest(request);
+            additionalRequest.setBugTracker(new BugTracker(bugTracker));
+            ScanResults additionalResults = copy(results);
+            publishes.put(name, () -> publishTimed(additionalRequest, additionalResults, scanDetails));
+        }
+        Map<String, TrackerDispatcher.Publish> all = new LinkedHashMap<>();
+        all.put(primary, () -> publishTimed(request, results, scanDetails));
+        all.putAll(publishes);
+        log.info("Publishing results to {} bug trackers: {}", all.size(), all.keySet());
+
+        Map<String, TrackerDispatcher.Outcome> outcomes = trackerDispatcher.publish(all);
+        outcomes.forEach((name, outcome) -> {
+            if (outcome.isSuccess()) {
+                log.info("Results published to {}", name);
+            } else if (!name.equals(primary)) {
+                log.error("Results could not be published to {}", name, outcome.getError());
+            }
+        });
+        Throwable error = outcomes.get(primary).getError();
+        if (error instanceof MachinaException) {
+            throw (MachinaException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new MachinaException("Results could not be published to " + primary, error);
+        }
+    }
+
+    /**
+     * @return additional bug trackers of the request, otherwise of the configuration
+     */
+    private List<BugTracker> getAdditionalBugTrackers(ScanRequest request) throws MachinaException {
+        if (request.getAdditionalBugTrackers() != null) {
+            return request.getAdditionalBugTrackers();
+        }
+        List<String> names = flowProperties.getAdditionalBugTrackers();
+        if (ScanUtils.empty(names)) {
+            return Collections.emptyList();
+        }
+        List<BugTracker> bugTrackers = new ArrayList<>();
+        for (String name : names) {
+            try {
+                BugTracker.Type type = ScanUtils.getBugTypeEnum(name, flowProperties.getBugTrackerImpl());
+                bugTrackers.add(ScanUtils.getBugTracker(request.getBugTracker().getAssignee(), type,
+                        jiraService.getJiraProperties(), name));
+            } catch (IllegalArgumentException e) {
+                throw new MachinaException("Unknown additional bug tracker " + name, e);
+            }
+        }
+        return bugTrackers;
+    }
+
+    private static String getTrackerName(BugTracker bugTracker) {
+        return bugTracker.getType() == BugTracker.Type.CUSTOM
+                ? bugTracker.getCustomBean()
+                : String.valueOf(bugTracker.getType());
+    }
+
+    private static ScanResults copy(ScanResults results) throws MachinaException {
+        try {
+            return ScanResultsCache.copy(results);
+        } catch (IOException e) {
+            throw new MachinaException("Unable to copy the results for the additional bug trackers", e);
+        }
+    }
+
+    private void publishResults(ScanRequest request, ScanResults results, ScanDetails scanDetails) throws MachinaException {
         switch (request.getBugTracker().getType()) {
             case NONE:
             case wait:
@@ -133,7 +278,8 @@ public class ResultsService {
                 break;
             case JIRA:
                 handleJiraCase(request, results, scanDetails);
-                log.info("Results Service case JIRA : request =:  {}  results = {}  scanDetails= {}", request.toString(), results.toString(), scanDetails.toString());
+                log.info("Results Service case JIRA : request = [{}] results = [{}] scanDetails = [{}]",
+                        ResultsLogUtils.summarize(request), ResultsLogUtils.summarize(results), ResultsLogUtils.summarize(scanDetails));
                 break;
             case GITHUBPULL:
                 gitService.processPull(request, results);
@@ -169,36 +315,130 @@ public class ResultsService {
             default:
                 log.warn("No valid bug type was provided");
         }
-        if (results != null && results.getScanSummary() != null) {
+    }
+
+    /**
+     * Streaming publishes to a single bug tracker, the results of a request with additional bug trackers are loaded.
+     */
+    boolean supportsStreaming(ScanRequest request) throws MachinaException {
+        return issueService.getStreamingTracker(request) != null && getAdditionalBugTrackers(request).isEmpty();
+    }
+
+    /**
+     * Publishes a SAST XML report to a streaming bug tracker while the report is read, so that only one query of
+     * the report is in memory at a time. See {@link SastReportReader}.
+     *
+     * @return number of issues in the report, after filtering
+     */
+    int processStreamedResults(ScanRequest request, File report) throws MachinaException {
+        long start = System.currentTimeMillis();
+        StreamingIssueTracker tracker = issueService.getStreamingTracker(request);
+        if (tracker == null) {
+            throw new MachinaException("Bug tracker " + request.getBugTracker().getCustomBean() + " does not support streaming");
+        }
+        log.info("Processing results with streaming bug tracker {}", request.getBugTracker().getCustomBean());
+        SastReportReader reader = new SastReportReader(request.getFilter());
+        StreamPublisher publisher = new StreamPublisher(request, tracker);
+        try {
+            ScanResults summary = reader.read(report.toPath(), publisher);
+            publisher.stream.complete(summary);
             log.info("####Checkmarx Scan Results Summary####");
-            log.info("Team: {}, Project: {}, Scan-Id: {}", request.getTeam(), request.getProject(), results.getAdditionalDetails().get("scanId"));
-            log.info(String.format("The vulnerabilities found for the scan are: %s", results.getScanSummary()));
-            log.info("To view results use following link: {}", results.getLink());
+            log.info("Team: {}, Project: {}, Scan-Id: {}", request.getTeam(), request.getProject(), summary.getAdditionalDetails().get("scanId"));
+            log.info("The vulnerabilities found for the scan are: {}", summary.getAdditionalDetails().get(Constants.SUMMARY_KEY));
+            log.info("To view results use following link: {}", summary.getLink());
             log.info("######################################");
+        } finally {
+            publisher.close();
+        }
+        log.info("{} issue(s) published in {} ms", reader.getIssueCount(), System.currentTimeMillis() - start);
+        return reader.getIssueCount();
+    }
+
+    /**
+     * Opens the tracker output once the scan details are read, then hands over the issues.
+     */
+    private class StreamPublisher implements SastReportReader.Listener {
+        private final ScanRequest request;
+        private final StreamingIssueTracker tracker;
+        private StreamingIssueTracker.IssueStream stream;
+
+        StreamPublisher(ScanRequest request, StreamingIssueTracker tracker) {
+            this.request = request;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public void start(ScanResults header) throws MachinaException {
+            if (!cxProperties.getOffline()) {
+                getCxFields(request, header);
+            }
+            stream = tracker.openStream(request, header);
+        }
+
+        @Override
+        public void issue(ScanResults.XIssue issue) throws MachinaException {
+            if (!issue.isAllFalsePositive()) {
+                issue.setGitUrl(ScanUtils.getFileUrl(request, issue.getFilename()));
+            }
+            stream.add(issue);
+        }
+
+        void close() {
+            if (stream != null) {
+                stream.close();
+            }
         }
     }
 
     void logScanDetails(ScanRequest request, Integer projectId, ScanResults results) {
         if (log.isInfoEnabled()) {
-            log.info(String.format("request : %s", request));
-            log.info(String.format("results : %s", results));
-            log.info(String.format("projectId : %s", projectId));
+            log.info("request : {}", ResultsLogUtils.summarize(request));
+            log.info("results : {}", ResultsLogUtils.summarize(results));
+            log.info("projectId : {}", projectId);
             log.info("Process completed Succesfully");
         }
+        ResultsLogUtils.trace(log, "request (full) : {}", () -> String.valueOf(request));
+        ResultsLogUtils.trace(log, "results (full) : {}", () -> String.valueOf(results));
     }
 
     void sendEmailNotification(ScanRequest request, ScanResults results) {
         emailService.sendScanCompletedEmail(request, results);
     }
 
-    ScanResults getOSAScan(ScanRequest request, Integer projectId, String osaScanId, FilterConfiguration filter, ScanResults results) throws CheckmarxException {
-        if (cxProperties.getEnableOsa() && !ScanUtils.empty(osaScanId)) {
-            log.info("Waiting for OSA Scan results for scan id {}", osaScanId);
-            results = osaService.waitForOsaScan(osaScanId, projectId, results, filter.getSimpleFilters());
+    /**
+     * Starts waiting for the OSA scan once the SAST results are available. The OSA client adds its results to the
+     * SAST results, as it did before the engines were retrieved separately.
+     *
+     * @return the OSA engine, or null if there is no OSA scan
+     */
+    /**
+     * Starts waiting for the OSA results while the SAST report is retrieved. The OSA results are collected into
+     * their own (empty) results, see {@link #mergeOsaResults(ScanResults, ScanResults)}.
+     */
+    private ConcurrentEngines.Engine<ScanResults> startOsaScan(ConcurrentEngines engines, Integer projectId,
+                                                               String osaScanId, FilterConfiguration filter) {
+        if (!cxProperties.getEnableOsa() || ScanUtils.empty(osaScanId)) {
+            return null;
+        }
+        log.info("Waiting for OSA Scan results for scan id {}", osaScanId);
+        return engines.start(FlowMetrics.ENGINE_OSA,
+                () -> FlowMetrics.time(FlowMetrics.REPORT_FETCH, FlowMetrics.engine(FlowMetrics.ENGINE_OSA),
+                        () -> osaService.waitForOsaScan(osaScanId, projectId,
+                                ScanResults.builder().xIssues(new ArrayList<>()).build(), filter.getSimpleFilters())));
+    }
 
-            new ScanResultsReport(osaScanId, request, results).log();
+    /**
+     * Adds the OSA issues to the SAST results, once both engines are done.
+     */
+    private static void mergeOsaResults(ScanResults sastResults, ScanResults osaResults) {
+        if (osaResults == null) {
+            return;
         }
-        return results;
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        Optional.ofNullable(sastResults.getXIssues()).ifPresent(issues::addAll);
+        Optional.ofNullable(osaResults.getXIssues()).ifPresent(issues::addAll);
+        sastResults.setXIssues(issues);
+        sastResults.setOsa(osaResults.getOsa());
     }
 
 
@@ -1,6 +1,8 @@
 package com.checkmarx.flow.service;
 
 import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.ExitThrowable;
 import com.checkmarx.sdk.config.ScaProperties;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.sdk.dto.ast.ASTResultsWrapper;
@@ -14,8 +16,55 @@ import java.util.Optional;
 @Service
 @Slf4j
 public class SCAScanner extends AbstractASTScanner {
-    public SCAScanner(ScaClientImpl scaClient, FlowProperties flowProperties) {
+    private final ManifestResultsCache manifestResultsCache;
+
+    public SCAScanner(ScaClientImpl scaClient, FlowProperties flowProperties, ManifestResultsCache manifestResultsCache) {
         super(scaClient, flowProperties, ScaProperties.CONFIG_PREFIX);
+        this.manifestResultsCache = manifestResultsCache;
+    }
+
+    /**
+     * Scans the remote repository, unless none of its dependency manifests changed since the last SCA scan.
+     */
+    @Override
+    public ScanResults scan(ScanRequest scanRequest) {
+        String key = manifestResultsCache.getKey(scanRequest, null);
+        ScanResults results = findReusableResults(scanRequest, key);
+        if (results == null) {
+            results = super.scan(scanRequest);
+            manifestResultsCache.record(key, results);
+        }
+        return results;
+    }
+
+    /**
+     * Scans the local sources, unless none of their dependency manifests changed since the last SCA scan.
+     */
+    @Override
+    public ScanResults scan(ScanRequest scanRequest, String path) throws ExitThrowable {
+        String key = manifestResultsCache.getKey(scanRequest, path);
+        ScanResults results = findReusableResults(scanRequest, key);
+        if (results == null) {
+            results = super.scan(scanRequest, path);
+            manifestResultsCache.record(key, results);
+        }
+        return results;
+    }
+
+    /**
+     * @return stored results for the key, or null if there are none or a new scan is forced; a forced scan
+     * replaces the stored results
+     */
+    private ScanResults findReusableResults(ScanRequest scanRequest, String key) {
+        if (scanRequest.isForceScan()) {
+            return null;
+        }
+        ScanResults results = manifestResultsCache.find(key);
+        if (results != null) {
+            log.info("Dependency manifests of {} are unchanged, reusing the results of SCA scan {}",
+                    scanRequest.getProject(), results.getScaResults() == null ? "" : results.getScaResults().getScanId());
+        }
+        return results;
     }
 
     @Override
@@ -0,0 +1,363 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.sdk.config.Constants;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Streaming reader of CxSAST XML reports (CxXMLResults).
+ * <p>
+ * Query, Result and Path elements are pulled with StAX and the filter configuration is applied while reading, so a
+ * rejected query or result is skipped without being materialized. Results of a query are grouped into XIssues by
+ * file name and handed to the {@link Listener} when the query element ends: memory use is bounded by the largest
+ * query, not by the report.
+ * <p>
+ * XIssues and scan details have the same shape as the ones built by the SDK for a report file. Findings of the same
+ * vulnerability and file are merged only within a query element.
+ */
+@Slf4j
+public class SastReportReader {
+
+    public interface Listener {
+        /**
+         * Called once, before any issue, with the scan details from the report root element.
+         */
+        void start(ScanResults header) throws MachinaException;
+
+        void issue(ScanResults.XIssue issue) throws MachinaException;
+    }
+
+    private static final String[] STATES = {"TO VERIFY", "NOT EXPLOITABLE", "CONFIRMED", "URGENT", "PROPOSED NOT EXPLOITABLE"};
+    private static final String RECOMMENDED_FIX_FORMAT =
+            "%s/CxWebClient/ScanQueryDescription.aspx?queryID=%s&queryVersionCode=%s&queryTitle=%s";
+    private static final String WEB_CLIENT_PATH = "/CxWebClient";
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private final CompiledFilter filter;
+    private final Map<String, Integer> summary = new LinkedHashMap<>();
+    private ScanResults header;
+    private String webClientUrl;
+    private int issueCount;
+
+    public SastReportReader(FilterConfiguration filterConfiguration) {
+        this.filter = CompiledFilter.compile(filterConfiguration);
+    }
+
+    /**
+     * @return scan details with the per-severity count of accepted findings (flow-summary), without issues
+     */
+    public ScanResults read(Path report, Listener listener) throws MachinaException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(report))) {
+            return read(stream, listener);
+        } catch (IOException e) {
+            throw new MachinaException("Unable to read SAST report " + report + ": " + e.getMessage());
+        }
+    }
+
+    public ScanResults read(InputStream report, Listener listener) throws MachinaException {
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(report);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ("CxXMLResults".equals(element)) {
+                    header = readHeader(reader);
+                    listener.start(header);
+                } else if ("Query".equals(element)) {
+                    readQuery(reader, listener);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new MachinaException("Invalid SAST report: " + e.getMessage());
+        } finally {
+            close(reader);
+        }
+        if (header == null) {
+            throw new MachinaException("SAST report has no CxXMLResults element");
+        }
+        header.getAdditionalDetails().put(Constants.SUMMARY_KEY, summary);
+        return header;
+    }
+
+    /**
+     * @return number of issues passed to the listener so far
+     */
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    private ScanResults readHeader(XMLStreamReader reader) {
+        String link = attribute(reader, "DeepLink");
+        int webClient = link == null ? -1 : link.indexOf(WEB_CLIENT_PATH);
+        webClientUrl = webClient < 0 ? "" : link.substring(0, webClient);
+
+        Map<String, Object> additionalDetails = new HashMap<>();
+        additionalDetails.put("scanId", attribute(reader, "ScanId"));
+        additionalDetails.put("scanStartDate", attribute(reader, "ScanStart"));
+        String team = attribute(reader, "TeamFullPathOnReportDate");
+        return ScanResults.builder()
+                .projectId(attribute(reader, "ProjectId"))
+                .team(team != null ? team : attribute(reader, "Team"))
+                .project(attribute(reader, "ProjectName"))
+                .link(link)
+                .files(attribute(reader, "FilesScanned"))
+                .loc(attribute(reader, "LinesOfCodeScanned"))
+                .scanType(attribute(reader, "ScanType"))
+                .additionalDetails(additionalDetails)
+                .build();
+    }
+
+    private void readQuery(XMLStreamReader reader, Listener listener) throws XMLStreamException, MachinaException {
+        Query query = new Query(reader);
+        if (!filter.acceptsQuery(query.severity, query.cwe, query.name)) {
+            skipElement(reader);
+            return;
+        }
+        Map<String, ScanResults.XIssue> issuesByFile = new LinkedHashMap<>();
+        while (nextChild(reader)) {
+            if ("Result".equals(reader.getLocalName())) {
+                readResult(reader, query, issuesByFile);
+            } else {
+                skipElement(reader);
+            }
+        }
+        for (ScanResults.XIssue issue : issuesByFile.values()) {
+            issueCount++;
+            listener.issue(issue);
+        }
+    }
+
+    private void readResult(XMLStreamReader reader, Query query, Map<String, ScanResults.XIssue> issuesByFile)
+            throws XMLStreamException {
+        String state = attribute(reader, "state");
+        String stateName = toStateName(state);
+        if (!filter.accepts(query.severity, query.cwe, query.name, attribute(reader, "Status"), stateName)) {
+            skipElement(reader);
+            return;
+        }
+        String fileName = attribute(reader, "FileName");
+        String line = attribute(reader, "Line");
+        String remark = attribute(reader, "Remark");
+        String link = attribute(reader, "DeepLink");
+        String resultSeverity = attribute(reader, "Severity");
+        boolean falsePositive = "true".equalsIgnoreCase(attribute(reader, "FalsePositive"));
+
+        PathSummary path = new PathSummary();
+        while (nextChild(reader)) {
+            if ("Path".equals(reader.getLocalName())) {
+                readPath(reader, path);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        ScanResults.XIssue issue = issuesByFile.get(fileName);
+        if (issue == null) {
+            Map<String, Object> additionalDetails = new HashMap<>();
+            additionalDetails.put("recommendedFix", String.format(RECOMMENDED_FIX_FORMAT,
+                    webClientUrl, query.id, query.versionCode, query.name));
+            additionalDetails.put("categories", query.categories);
+            additionalDetails.put("results", new ArrayList<Map<String, Object>>());
+            issue = ScanResults.XIssue.builder()
+                    .vulnerability(query.name)
+                    .vulnerabilityStatus(stateName)
+                    .similarityId(path.similarityId)
+                    .cwe(query.cwe)
+                    .description("")
+                    .language(query.language)
+                    .severity(query.severity)
+                    .link(link)
+                    .file(fileName)
+                    .details(new HashMap<>())
+                    .additionalDetails(additionalDetails)
+                    .build();
+            issuesByFile.put(fileName, issue);
+        }
+        if (StringUtils.isNumeric(line)) {
+            issue.getDetails().put(Integer.valueOf(line), new ScanResults.IssueDetails()
+                    .codeSnippet(path.snippet)
+                    .comment(remark)
+                    .falsePositive(falsePositive));
+        }
+        if (falsePositive) {
+            issue.setFalsePositiveCount(issue.getFalsePositiveCount() + 1);
+        } else {
+            // The summary counts the current severity of each finding, which may differ from the query severity.
+            summary.merge(resultSeverity != null ? resultSeverity : query.severity, 1, Integer::sum);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("state", state);
+        result.put("source", path.source);
+        result.put("sink", path.sink);
+        getResults(issue).add(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> getResults(ScanResults.XIssue issue) {
+        return (List<Map<String, Object>>) issue.getAdditionalDetails().get("results");
+    }
+
+    /**
+     * Keeps the first and the last node of the path only.
+     */
+    private static void readPath(XMLStreamReader reader, PathSummary path) throws XMLStreamException {
+        path.similarityId = attribute(reader, "SimilarityId");
+        while (nextChild(reader)) {
+            if (!"PathNode".equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            Map<String, String> node = new LinkedHashMap<>();
+            String snippet = null;
+            while (nextChild(reader)) {
+                switch (reader.getLocalName()) {
+                    case "FileName":
+                        node.put("file", reader.getElementText());
+                        break;
+                    case "Line":
+                        node.put("line", reader.getElementText());
+                        break;
+                    case "Column":
+                        node.put("column", reader.getElementText());
+                        break;
+                    case "Name":
+                        node.put("object", reader.getElementText());
+                        break;
+                    case "Snippet":
+                        snippet = readSnippet(reader);
+                        break;
+                    default:
+                        skipElement(reader);
+                }
+            }
+            if (path.source == null) {
+                path.source = node;
+                path.snippet = snippet;
+            }
+            path.sink = node;
+        }
+    }
+
+    private static String readSnippet(XMLStreamReader reader) throws XMLStreamException {
+        String code = null;
+        while (nextChild(reader)) {
+            if (!"Line".equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+            while (nextChild(reader)) {
+                if ("Code".equals(reader.getLocalName()) && code == null) {
+                    code = reader.getElementText();
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return false when the end of the current element is reached instead
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips the current element with its children, leaving the reader at its end.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    private static String toStateName(String state) {
+        if (StringUtils.isNumeric(state) && Integer.parseInt(state) < STATES.length) {
+            return STATES[Integer.parseInt(state)];
+        }
+        return state;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                log.debug("Unable to close the SAST report reader", e);
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static class Query {
+        private final String id;
+        private final String name;
+        private final String cwe;
+        private final String categories;
+        private final String severity;
+        private final String language;
+        private final String versionCode;
+
+        Query(XMLStreamReader reader) {
+            id = attribute(reader, "id");
+            name = attribute(reader, "name");
+            cwe = attribute(reader, "cweId");
+            categories = attribute(reader, "categories");
+            severity = attribute(reader, "Severity");
+            language = attribute(reader, "Language");
+            versionCode = attribute(reader, "QueryVersionCode");
+        }
+    }
+
+    private static class PathSummary {
+        private String similarityId;
+        private Map<String, String> source;
+        private Map<String, String> sink;
+        private String snippet;
+    }
+}
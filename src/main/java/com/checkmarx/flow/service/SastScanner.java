@@ -4,7 +4,9 @@ import com.checkmarx.flow.config.FlowProperties;
 import com.checkmarx.flow.dto.*;
 import com.checkmarx.flow.dto.report.ScanReport;
 import com.checkmarx.flow.exception.*;
+import com.checkmarx.flow.sastscanning.IncrementalScanSelector;
 import com.checkmarx.flow.sastscanning.ScanRequestConverter;
+import com.checkmarx.flow.utils.FlowMetrics;
 import com.checkmarx.flow.utils.ScanUtils;
 import com.checkmarx.flow.utils.ZipUtils;
 import com.checkmarx.sdk.config.Constants;
@@ -12,9 +14,11 @@ import com.checkmarx.sdk.config.CxProperties;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.sdk.dto.cx.CxProject;
 import com.checkmarx.sdk.dto.cx.CxScanParams;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
 import com.checkmarx.sdk.exception.CheckmarxException;
 import com.checkmarx.sdk.service.CxClient;
 import com.checkmarx.sdk.service.CxOsaClient;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -26,8 +30,10 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.checkmarx.flow.exception.ExitThrowable.exit;
 import static com.checkmarx.sdk.config.Constants.UNKNOWN;
@@ -40,6 +46,7 @@ public class SastScanner implements VulnerabilityScanner {
     private static final String SCAN_TYPE = CxProperties.CONFIG_PREFIX;
     private static final String ERROR_BREAK_MSG = "Exiting with Error code 10 due to issues present";
     private static final String CXFLOW_SCAN_MSG = "CxFlow Automated Scan";
+    private static final Tags METRIC_TAGS = FlowMetrics.engine(FlowMetrics.ENGINE_SAST);
 
     private final ResultsService resultsService;
     private final CxClient cxService;
@@ -51,6 +58,10 @@ public class SastScanner implements VulnerabilityScanner {
     private final ScanRequestConverter scanRequestConverter;
     private final BugTrackerEventTrigger bugTrackerEventTrigger;
     private final ProjectNameGenerator projectNameGenerator;
+    private final ScanResultsCache scanResultsCache;
+    private final CommitScanIndex commitScanIndex;
+    private final IncrementalScanSelector incrementalScanSelector;
+    private final ScanAdmission scanAdmission;
 
     private ScanDetails scanDetails = null;
     private String sourcesPath = null;
@@ -66,6 +77,18 @@ public class SastScanner implements VulnerabilityScanner {
             CxScanParams cxScanParams = scanRequestConverter.toScanParams(scanRequest);
             Integer projectId = cxScanParams.getProjectId();
 
+            if (!scanRequest.isForceScan()) {
+                ScanResults reused = getCommitScanResults(scanRequest, projectId);
+                if (reused != null) {
+                    return reused;
+                }
+            }
+
+            IncrementalScanSelector.Selection selection = incrementalScanSelector.select(scanRequest, null);
+            if (selection != null) {
+                cxScanParams.withIncremental(selection.isIncremental());
+            }
+
             log.info("Checking if there is any existing scan for Project: {}", projectId);
             Integer existingScanId = cxService.getScanIdOfExistingScanIfExists(projectId);
 
@@ -75,27 +98,30 @@ public class SastScanner implements VulnerabilityScanner {
                     log.info("Aborting the ongoing scan with id {} for Project: {}", existingScanId, projectId);
                     cxService.cancelScan(existingScanId);
                     log.info("Resubmitting the scan for Project: {}", projectId);
-                    scanId = cxService.createScan(cxScanParams, CXFLOW_SCAN_MSG);
+                    scanId = createScan(cxScanParams);
                 } else {
                     log.warn("Property scan-resubmit set to {} : New scan not submitted, due to existing ongoing scan for the same Project id {}", flowProperties.getScanResubmit(), projectId);
                     bugTrackerEventTrigger.triggerScanNotSubmittedBugTrackerEvent(scanRequest, getEmptyScanResults());
                     throw new CheckmarxException(String.format("Active Scan with Id %d already exists for Project: %d", existingScanId, projectId));
                 }
             } else {
-                scanId = cxService.createScan(cxScanParams, CXFLOW_SCAN_MSG);
+                scanId = createScan(cxScanParams);
             }
 
             BugTracker.Type bugTrackerType = bugTrackerEventTrigger.triggerBugTrackerEvent(scanRequest);
             if (bugTrackerType.equals(BugTracker.Type.NONE)) {
                 scanDetails = handleNoneBugTrackerCase(scanRequest, null, scanId, projectId);
             } else {
-                cxService.waitForScanCompletion(scanId);
+                waitForScanCompletion(scanId);
+                incrementalScanSelector.record(selection);
                 projectId = handleUnKnownProjectId(cxScanParams.getProjectId(), cxScanParams.getTeamId(), cxScanParams.getProjectName());
                 scanDetails = new ScanDetails(projectId, scanId, null);
+                // A project created by this scan has an ID only now
+                commitScanIndex.record(CommitScanIndex.getKey(scanRequest, projectId), scanId, projectId);
             }
             logRequest(scanRequest, scanId, null, OperationResult.successful());
 
-            scanResults = cxService.getReportContentByScanId(scanId, scanRequest.getFilter());
+            scanResults = getReportContent(scanId, scanRequest.getFilter());
             scanResults.setSastScanId(scanId);
             return scanResults;
 
@@ -144,9 +170,72 @@ public class SastScanner implements VulnerabilityScanner {
         return scanResults;
     }
 
+    /**
+     * Results of the last scan of the request's project. Without a bug tracker to publish to, results are served from
+     * the {@link ScanResultsCache} as long as no newer scan exists, so the report is built only once per scan.
+     */
     @Override
     public ScanResults getLatestScanResults(ScanRequest request) {
-        return getLatestScanResultsAsync(request, null).join();
+        BugTracker bugTracker = request.getBugTracker();
+        if (bugTracker != null && bugTracker.getType() != BugTracker.Type.NONE) {
+            return getLatestScanResultsAsync(request, null).join();
+        }
+        try {
+            LastScan lastScan = findLastScan(request, null);
+            if (lastScan == null) {
+                return null;
+            }
+            return scanResultsCache.get(lastScan.scanId, request.getFilter(),
+                    () -> processLatestScanResultsAsync(request, lastScan.project, lastScan.scanId).join());
+        } catch (CheckmarxException e) {
+            log.error("Error occurred while processing results for {}{}", request.getTeam(), request.getProject(), e);
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Results of a given scan of the request's project, e.g. of a scan whose results were not yet published when
+     * CxFlow stopped. Falls back to the latest scan of the project if the scan's report is not available.
+     */
+    public ScanResults getScanResults(ScanRequest request, Integer scanId) {
+        try {
+            ScanResults scanResults = getReportContent(scanId, request.getFilter());
+            scanResults.setSastScanId(scanId);
+            return scanResults;
+        } catch (CheckmarxException e) {
+            log.warn("Results of scan {} are not available, using the latest scan of the project", scanId, e);
+            return getLatestScanResults(request);
+        }
+    }
+
+    /**
+     * @return results of the completed scan of the request's commit, or null if the commit must be scanned
+     */
+    private ScanResults getCommitScanResults(ScanRequest scanRequest, Integer projectId) {
+        String commitKey = CommitScanIndex.getKey(scanRequest, projectId);
+        Integer scanId = commitScanIndex.find(commitKey);
+        if (scanId == null) {
+            return null;
+        }
+        log.info("Commit {} was already scanned with the same configuration by scan {}, not submitting a new scan",
+                scanRequest.getHash(), scanId);
+        try {
+            ScanResults scanResults = getReportContent(scanId, scanRequest.getFilter());
+            scanResults.setSastScanId(scanId);
+            // Same events as for a new scan, so that a re-delivered pull request still gets its statuses and comments
+            BugTracker.Type bugTrackerType = bugTrackerEventTrigger.triggerBugTrackerEvent(scanRequest);
+            if (bugTrackerType.equals(BugTracker.Type.NONE)) {
+                scanDetails = handleNoneBugTrackerCase(scanRequest, null, scanId, projectId);
+            } else {
+                scanDetails = new ScanDetails(projectId, scanId, null);
+                logRequest(scanRequest, scanId, null, OperationResult.successful());
+            }
+            return scanResults;
+        } catch (CheckmarxException e) {
+            log.warn("Results of scan {} are no longer available, submitting a new scan", scanId, e);
+            commitScanIndex.remove(commitKey);
+            return null;
+        }
     }
 
     private ScanResults getEmptyScanResults() {
@@ -172,6 +261,13 @@ public class SastScanner implements VulnerabilityScanner {
     }
 
     public ScanDetails executeCxScan(ScanRequest request, File cxFile) throws MachinaException {
+        return executeCxScan(request, cxFile, null);
+    }
+
+    /**
+     * @param sources local sources zipped to cxFile, used to choose between an incremental and a full scan
+     */
+    private ScanDetails executeCxScan(ScanRequest request, File cxFile, File sources) throws MachinaException {
 
         String osaScanId;
         Integer scanId = null;
@@ -184,15 +280,18 @@ public class SastScanner implements VulnerabilityScanner {
             log.debug("Auto profiling is enabled");
             projectId = scanRequestConverter.determinePresetAndProjectId(request, ownerId);
 
+            IncrementalScanSelector.Selection selection = incrementalScanSelector.select(request, sources);
             CxScanParams params = scanRequestConverter.prepareScanParamsObject(request, cxFile, ownerId, projectId);
 
-            scanId = cxService.createScan(params, CXFLOW_SCAN_MSG);
+            scanAdmission.admit(ScanAdmission.Priority.OTHER);
+            scanId = createScan(params);
 
             BugTracker.Type bugTrackerType = bugTrackerEventTrigger.triggerBugTrackerEvent(request);
             if (bugTrackerType.equals(BugTracker.Type.NONE)) {
                 return handleNoneBugTrackerCase(request, cxFile, scanId, projectId);
             } else {
-                cxService.waitForScanCompletion(scanId);
+                waitForScanCompletion(scanId);
+                incrementalScanSelector.record(selection);
                 projectId = handleUnKnownProjectId(projectId, ownerId, request.getProject());
                 osaScanId = createOsaScan(request, projectId);
 
@@ -217,6 +316,22 @@ public class SastScanner implements VulnerabilityScanner {
         return scanDetails;
     }
 
+    /**
+     * Submits the scan. The caller must have been admitted by {@link ScanAdmission} already: webhook requests are
+     * admitted before they are run, see {@link FlowService}.
+     */
+    private Integer createScan(CxScanParams params) throws CheckmarxException {
+        return FlowMetrics.time(FlowMetrics.SCAN_SUBMIT, METRIC_TAGS, () -> cxService.createScan(params, CXFLOW_SCAN_MSG));
+    }
+
+    private void waitForScanCompletion(Integer scanId) throws CheckmarxException {
+        FlowMetrics.timeVoid(FlowMetrics.SCAN_WAIT, METRIC_TAGS, () -> cxService.waitForScanCompletion(scanId));
+    }
+
+    private ScanResults getReportContent(Integer scanId, FilterConfiguration filter) throws CheckmarxException {
+        return FlowMetrics.time(FlowMetrics.REPORT_FETCH, METRIC_TAGS, () -> cxService.getReportContentByScanId(scanId, filter));
+    }
+
     private ScanResults scanLocalPath(ScanRequest request, String path) throws ExitThrowable {
         ScanResults results = null;
         try {
@@ -224,8 +339,8 @@ public class SastScanner implements VulnerabilityScanner {
             request.setProject(effectiveProjectName);
 
             File zipFile = ZipUtils.zipToTempFile(path, flowProperties.getZipExclude());
-            ScanDetails details = executeCxScan(request, zipFile);
-            results = cxService.getReportContentByScanId(details.getScanId(), request.getFilter());
+            ScanDetails details = executeCxScan(request, zipFile, new File(path));
+            results = getReportContent(details.getScanId(), request.getFilter());
 
             log.debug("Deleting temp file {}", zipFile.getPath());
             Files.deleteIfExists(zipFile.toPath());
@@ -245,7 +360,7 @@ public class SastScanner implements VulnerabilityScanner {
             String effectiveProjectName = projectNameGenerator.determineProjectName(request);
             request.setProject(effectiveProjectName);
             ScanDetails details = executeCxScan(request, null);
-            results = cxService.getReportContentByScanId(details.getScanId(), request.getFilter());
+            results = getReportContent(details.getScanId(), request.getFilter());
         } catch (MachinaException | CheckmarxException e) {
             log.error("Error occurred", e);
             exit(3);
@@ -255,6 +370,14 @@ public class SastScanner implements VulnerabilityScanner {
 
     public void cxParseResults(ScanRequest request, File file) throws ExitThrowable {
         try {
+            if (flowProperties.getStreamingParse() && resultsService.supportsStreaming(request)) {
+                int issueCount = resultsService.processStreamedResults(request, file);
+                if (flowProperties.isBreakBuild() && issueCount > 0) {
+                    log.error(ERROR_BREAK_MSG);
+                    exit(ExitCode.BUILD_INTERRUPTED);
+                }
+                return;
+            }
             ScanResults results = cxService.getReportContent(file, request.getFilter());
             resultsService.processResults(request, results, scanDetails);
             if (flowProperties.isBreakBuild() && results != null && results.getXIssues() != null && !results.getXIssues().isEmpty()) {
@@ -269,11 +392,14 @@ public class SastScanner implements VulnerabilityScanner {
 
     /**
      * Process Projects in batch mode - JIRA ONLY
+     * <p>
+     * Projects are published with a bounded concurrency and optional rate limits, and recorded in a checkpoint
+     * file if configured, see {@link FlowProperties.Batch}.
      */
     public void cxBatch(ScanRequest originalRequest) throws ExitThrowable {
+        List<Integer> failedProjects;
         try {
             List<CxProject> projects;
-            List<CompletableFuture<ScanResults>> processes = new ArrayList<>();
             //Get all projects
             if (ScanUtils.empty(originalRequest.getTeam())) {
                 projects = cxService.getProjects();
@@ -285,24 +411,57 @@ public class SastScanner implements VulnerabilityScanner {
                 String teamId = cxService.getTeamId(team);
                 projects = cxService.getProjects(teamId);
             }
-            for (CxProject project : projects) {
-                ScanRequest request = new ScanRequest(originalRequest);
-                String name = project.getName().replaceAll("[^a-zA-Z0-9-_]+", "_");
-                //TODO set team when entire instance batch mode
-                helperService.getShortUid(request); //update new request object with a unique id for thread log monitoring
-                request.setProject(name);
-                request.setApplication(name);
-                processes.add(getLatestScanResultsAsync(request, project));
+            FlowProperties.Batch batch = flowProperties.getBatch();
+            List<String> downstreams = new ArrayList<>(Collections.singletonList(BatchRun.CHECKMARX));
+            if (originalRequest.getBugTracker() != null) {
+                downstreams.add(originalRequest.getBugTracker().getType().toString());
+            }
+            try (BatchRun run = new BatchRun(batch, openCheckpoint(batch), projects.size())) {
+                for (CxProject project : projects) {
+                    Integer scanId = cxService.getLastScanId(project.getId());
+                    if (scanId.equals(UNKNOWN_INT)) {
+                        log.warn("No Scan Results to process for project {}", project.getName());
+                        run.skip();
+                    } else if (run.isPublished(project.getId(), scanId)) {
+                        log.debug("Scan {} of project {} is already published", scanId, project.getName());
+                    } else {
+                        ScanRequest request = new ScanRequest(originalRequest);
+                        String name = project.getName().replaceAll("[^a-zA-Z0-9-_]+", "_");
+                        //TODO set team when entire instance batch mode
+                        helperService.getShortUid(request); //update new request object with a unique id for thread log monitoring
+                        request.setProject(name);
+                        request.setApplication(name);
+                        run.submit(project.getId(), scanId, downstreams,
+                                () -> processLatestScanResultsAsync(request, project, scanId));
+                    }
+                }
+                log.info("Waiting for processing to complete");
+                failedProjects = run.awaitCompletion();
             }
-            log.info("Waiting for processing to complete");
-            processes.forEach(CompletableFuture::join);
-
         } catch (CheckmarxException e) {
             log.error("Error occurred while processing projects in batch mode", e);
             exit(3);
+            return;
+        } catch (IOException e) {
+            log.error("Unable to use the batch checkpoint file", e);
+            exit(3);
+            return;
+        }
+        if (!failedProjects.isEmpty()) {
+            exit(3);
         }
     }
 
+    private static BatchCheckpoint openCheckpoint(FlowProperties.Batch batch) throws IOException {
+        if (ScanUtils.empty(batch.getCheckpointFile())) {
+            if (batch.isChangedOnly()) {
+                log.warn("cx-flow.batch.changed-only requires cx-flow.batch.checkpoint-file, all projects are published");
+            }
+            return BatchCheckpoint.none();
+        }
+        return BatchCheckpoint.open(Paths.get(batch.getCheckpointFile()), batch.isChangedOnly());
+    }
+
     public void deleteProject(ScanRequest request) {
         try {
             String ownerId = scanRequestConverter.determineTeamAndOwnerID(request);
@@ -413,30 +572,48 @@ public class SastScanner implements VulnerabilityScanner {
 
     public CompletableFuture<ScanResults> getLatestScanResultsAsync(ScanRequest request, CxProject cxProject) {
         try {
-            CxProject project;
-            if (cxProject == null) {
-                Integer projectId = getProjectId(request);
-                if (projectId.equals(UNKNOWN_INT)) {
-                    log.warn("No project found for {}", request.getProject());
-                    return CompletableFuture.completedFuture(null);
-                }
-                project = cxService.getProject(projectId);
-
-            } else {
-                project = cxProject;
+            LastScan lastScan = findLastScan(request, cxProject);
+            if (lastScan == null) {
+                return CompletableFuture.completedFuture(null);
             }
-            Integer scanId = cxService.getLastScanId(project.getId());
-            if (scanId.equals(UNKNOWN_INT)) {
-                log.warn("No Scan Results to process for project {}", project.getName());
-                CompletableFuture<ScanResults> x = new CompletableFuture<>();
-                x.complete(null);
-                return x;
+            return processLatestScanResultsAsync(request, lastScan.project, lastScan.scanId);
+
+        } catch (CheckmarxException e) {
+            log.error("Error occurred while processing results for {}{}", request.getTeam(), request.getProject(), e);
+            CompletableFuture<ScanResults> x = new CompletableFuture<>();
+            x.completeExceptionally(e);
+            return x;
+        }
+    }
+
+    /**
+     * @param cxProject project of the request if already known, otherwise it is looked up by team and name
+     * @return project and its last scan, or null if there is no such project or scan
+     */
+    private LastScan findLastScan(ScanRequest request, CxProject cxProject) throws CheckmarxException {
+        CxProject project = cxProject;
+        if (project == null) {
+            Integer projectId = getProjectId(request);
+            if (projectId.equals(UNKNOWN_INT)) {
+                log.warn("No project found for {}", request.getProject());
+                return null;
             }
+            project = cxService.getProject(projectId);
+        }
+        Integer scanId = cxService.getLastScanId(project.getId());
+        if (scanId.equals(UNKNOWN_INT)) {
+            log.warn("No Scan Results to process for project {}", project.getName());
+            return null;
+        }
+        return new LastScan(project, scanId);
+    }
+
+    private CompletableFuture<ScanResults> processLatestScanResultsAsync(ScanRequest request, CxProject project, Integer scanId) {
+        try {
             setCxFields(project, request);
             //null is passed for osaScanId as it is not applicable here and will be ignored
             return resultsService.processScanResultsAsync(request, project.getId(), scanId, null, request.getFilter());
-
-        } catch (MachinaException | CheckmarxException e) {
+        } catch (MachinaException e) {
             log.error("Error occurred while processing results for {}{}", request.getTeam(), request.getProject(), e);
             CompletableFuture<ScanResults> x = new CompletableFuture<>();
             x.completeExceptionally(e);
@@ -497,4 +674,14 @@ public class SastScanner implements VulnerabilityScanner {
 
         request.setCxFields(fields);
     }
-}
\ No newline at end of file
+
+    private static class LastScan {
+        private final CxProject project;
+        private final Integer scanId;
+
+        private LastScan(CxProject project, Integer scanId) {
+            this.project = project;
+            this.scanId = scanId;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.config.CxProperties;
+import com.checkmarx.sdk.service.CxAuthClient;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Holds SAST scan submissions while the Checkmarx scan queue is at cx-flow.admission.high-water-mark, so that a burst
+ * of webhooks or CLI scans doesn't flood the engines. Held submissions wait in a local priority queue: pull request
+ * scans are released first, then push scans, then other (CLI) scans, each in arrival order.
+ * <p>
+ * Webhook requests are held before they take a webHook executor thread: {@link #submit} queues a callback that a
+ * single release thread runs once there is capacity. CLI scans wait in {@link #admit} instead.
+ * <p>
+ * The queue depth counts the scans Checkmarx has not finished, read at most every cx-flow.admission.poll-seconds,
+ * plus the scans released since. A submission held for cx-flow.admission.max-wait-minutes is released anyway.
+ * A high-water mark of 0 disables the admission control. If the queue can't be read, the last depth read is kept;
+ * until the first successful read the queue counts as empty.
+ */
+@Service
+@Slf4j
+public class ScanAdmission {
+    private static final String SCANS_QUEUE = "/sast/scansQueue";
+    private static final Set<String> FINISHED_STAGES = new HashSet<>(Arrays.asList("Finished", "Failed", "Canceled"));
+    private static final Set<BugTracker.Type> PULL_REQUEST_TRACKERS = EnumSet.of(
+            BugTracker.Type.ADOPULL,
+            BugTracker.Type.BITBUCKETPULL,
+            BugTracker.Type.BITBUCKETSERVERPULL,
+            BugTracker.Type.GITHUBPULL,
+            BugTracker.Type.GITLABMERGE);
+    /**
+     * Queue depth returned when the Checkmarx queue can't be read.
+     */
+    static final int UNKNOWN_DEPTH = -1;
+
+    public enum Priority {
+        PULL_REQUEST,
+        PUSH,
+        OTHER
+    }
+
+    private final FlowProperties.Admission properties;
+    private final IntSupplier queueDepth;
+    private final long pollMillis;
+    private final PriorityQueue<Ticket> held = new PriorityQueue<>();
+    private final ScheduledExecutorService releaser;
+    private long sequence = 0;
+    private int cachedDepth = 0;
+    private long depthReadAt = 0;
+    private int submittedSinceRead = 0;
+
+    @Autowired
+    public ScanAdmission(FlowProperties flowProperties, CxProperties cxProperties, CxAuthClient authClient,
+                         @Qualifier("cxRestTemplate") RestTemplate restTemplate) {
+        this(flowProperties.getAdmission(), () -> readQueueDepth(cxProperties, authClient, restTemplate));
+    }
+
+    ScanAdmission(FlowProperties.Admission properties, IntSupplier queueDepth) {
+        this.properties = properties;
+        this.queueDepth = queueDepth;
+        this.pollMillis = TimeUnit.SECONDS.toMillis(Math.max(properties.getPollSeconds(), 1));
+        if (isEnabled()) {
+            this.releaser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cx-admission");
+                thread.setDaemon(true);
+                return thread;
+            });
+            releaser.scheduleWithFixedDelay(this::release, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.releaser = null;
+        }
+    }
+
+    public static Priority priorityOf(ScanRequest request) {
+        BugTracker bugTracker = request.getBugTracker();
+        if (bugTracker != null && PULL_REQUEST_TRACKERS.contains(bugTracker.getType())) {
+            return Priority.PULL_REQUEST;
+        }
+        return Priority.PUSH;
+    }
+
+    /**
+     * Runs the callback once a scan of the given priority may be submitted, and counts it as submitted. Without
+     * admission control the callback runs in the calling thread, otherwise always in the release thread, which
+     * logs the exceptions it throws.
+     */
+    public void submit(Priority priority, Runnable callback) {
+        if (!isEnabled()) {
+            callback.run();
+            return;
+        }
+        enqueue(priority, callback);
+        releaser.execute(this::release);
+    }
+
+    /**
+     * Waits until a scan of the given priority may be submitted and counts it as submitted.
+     */
+    public void admit(Priority priority) {
+        if (!isEnabled()) {
+            return;
+        }
+        CountDownLatch released = new CountDownLatch(1);
+        Ticket ticket = enqueue(priority, released::countDown);
+        releaser.execute(this::release);
+        try {
+            released.await();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for Checkmarx capacity, submitting the scan");
+            synchronized (held) {
+                if (held.remove(ticket)) {
+                    submittedSinceRead++;
+                }
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (releaser != null) {
+            releaser.shutdownNow();
+        }
+    }
+
+    /**
+     * @return submissions currently held
+     */
+    int getHeld() {
+        synchronized (held) {
+            return held.size();
+        }
+    }
+
+    private boolean isEnabled() {
+        return properties.getHighWaterMark() > 0;
+    }
+
+    private Ticket enqueue(Priority priority, Runnable callback) {
+        long deadline = properties.getMaxWaitMinutes() > 0
+                ? System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(properties.getMaxWaitMinutes())
+                : Long.MAX_VALUE;
+        synchronized (held) {
+            Ticket ticket = new Ticket(priority, sequence++, deadline, callback);
+            held.add(ticket);
+            return ticket;
+        }
+    }
+
+    /**
+     * Releases the held submissions that fit below the high-water mark, highest priority first, and the ones held
+     * for too long. Runs in the release thread only.
+     */
+    private void release() {
+        synchronized (held) {
+            if (held.isEmpty()) {
+                return;
+            }
+        }
+        refreshDepth();
+        List<Ticket> released = new ArrayList<>();
+        synchronized (held) {
+            long now = System.currentTimeMillis();
+            for (Iterator<Ticket> tickets = held.iterator(); tickets.hasNext(); ) {
+                Ticket ticket = tickets.next();
+                if (now >= ticket.deadline) {
+                    log.warn("{} scan held for {} minutes, submitting it with {} scan(s) in the Checkmarx queue",
+                            ticket.priority, properties.getMaxWaitMinutes(), cachedDepth + submittedSinceRead);
+                    tickets.remove();
+                    submittedSinceRead++;
+                    released.add(ticket);
+                }
+            }
+            while (!held.isEmpty() && cachedDepth + submittedSinceRead < properties.getHighWaterMark()) {
+                Ticket ticket = held.poll();
+                if (ticket.logged) {
+                    log.info("Releasing {} scan, {} scan(s) in the Checkmarx queue", ticket.priority,
+                            cachedDepth + submittedSinceRead);
+                }
+                submittedSinceRead++;
+                released.add(ticket);
+            }
+            for (Ticket ticket : held) {
+                if (!ticket.logged) {
+                    log.info("Checkmarx queue at {} of {} scans, holding {} scan ({} held)",
+                            cachedDepth + submittedSinceRead, properties.getHighWaterMark(), ticket.priority,
+                            held.size());
+                    ticket.logged = true;
+                }
+            }
+        }
+        for (Ticket ticket : released) {
+            try {
+                ticket.callback.run();
+            } catch (RuntimeException e) {
+                log.error("Unable to start the released {} scan", ticket.priority, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the queue depth again once it is older than the poll interval. An unreadable queue keeps the last depth.
+     */
+    private void refreshDepth() {
+        if (depthReadAt > 0 && System.currentTimeMillis() - depthReadAt < pollMillis) {
+            return;
+        }
+        int depth = queueDepth.getAsInt();
+        synchronized (held) {
+            depthReadAt = System.currentTimeMillis();
+            if (depth != UNKNOWN_DEPTH) {
+                cachedDepth = depth;
+                submittedSinceRead = 0;
+            }
+        }
+    }
+
+    /**
+     * @return scans in the Checkmarx queue that are not finished, or {@link #UNKNOWN_DEPTH} if the queue can't be read
+     */
+    private static int readQueueDepth(CxProperties cxProperties, CxAuthClient authClient, RestTemplate restTemplate) {
+        try {
+            HttpEntity<?> httpEntity = new HttpEntity<>(authClient.createAuthHeaders());
+            ResponseEntity<String> response = restTemplate.exchange(cxProperties.getUrl().concat(SCANS_QUEUE),
+                    HttpMethod.GET, httpEntity, String.class);
+            if (response.getBody() == null) {
+                return UNKNOWN_DEPTH;
+            }
+            JSONArray scans = new JSONArray(response.getBody());
+            int depth = 0;
+            for (int i = 0; i < scans.length(); i++) {
+                JSONObject stage = scans.getJSONObject(i).optJSONObject("stage");
+                if (stage == null || !FINISHED_STAGES.contains(stage.optString("value"))) {
+                    depth++;
+                }
+            }
+            return depth;
+        } catch (RestClientException | JSONException e) {
+            log.warn("Unable to read the Checkmarx scan queue, keeping the last depth read: {}", e.getMessage());
+            return UNKNOWN_DEPTH;
+        }
+    }
+
+    private static final class Ticket implements Comparable<Ticket> {
+        private final Priority priority;
+        private final long sequence;
+        private final long deadline;
+        private final Runnable callback;
+        private boolean logged;
+
+        private Ticket(Priority priority, long sequence, long deadline, Runnable callback) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.deadline = deadline;
+            this.callback = callback;
+        }
+
+        @Override
+        public int compareTo(Ticket other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
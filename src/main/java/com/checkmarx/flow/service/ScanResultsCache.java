@@ -0,0 +1,148 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.utils.JsonFileStore;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Results of finished scans, keyed by scan ID and a hash of the filter configuration. A finished scan never changes,
+ * so entries don't expire; the least recently used ones are evicted beyond cx-flow.results-cache.size.
+ * <p>
+ * Entries are kept as JSON and every caller gets its own copy, because results are modified while they are
+ * published. With cx-flow.results-cache.dir set, entries are also written to one file per key and read back after
+ * a restart or an eviction from memory. Concurrent requests for the same key wait for a single load.
+ */
+@Service
+@Slf4j
+public class ScanResultsCache {
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final JsonFileStore store;
+    private final Map<String, CompletableFuture<byte[]>> loading = new ConcurrentHashMap<>();
+
+    public ScanResultsCache(FlowProperties flowProperties) {
+        FlowProperties.ResultsCache properties = flowProperties.getResultsCache();
+        this.store = new JsonFileStore("cached scan results", properties.getSize(), properties.getDir(),
+                properties.getDiskSize(), 0);
+    }
+
+    /**
+     * @param loader loads the results on a miss; null results are not cached
+     * @return cached or loaded results
+     */
+    public ScanResults get(Integer scanId, FilterConfiguration filter, Supplier<ScanResults> loader) {
+        String key = getKey(scanId, filter);
+        if (key == null || !store.isEnabled()) {
+            return loader.get();
+        }
+        ScanResults cached = lookup(key);
+        if (cached != null) {
+            log.debug("Results of scan {} served from cache", scanId);
+            return cached;
+        }
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            log.debug("Waiting for the results of scan {} loaded by another request", scanId);
+            byte[] loaded = inFlight.join();
+            try {
+                return read(loaded);
+            } catch (IOException e) {
+                log.warn("Unable to copy the results of scan {}, loading them again", scanId, e);
+                return loader.get();
+            }
+        }
+        try {
+            // Another request may have stored the entry between the lookup and putIfAbsent
+            cached = lookup(key);
+            if (cached != null) {
+                load.complete(write(cached));
+                return cached;
+            }
+            ScanResults results = loader.get();
+            byte[] json = results == null ? null : write(results);
+            if (json != null) {
+                store.put(key, json);
+            }
+            load.complete(json);
+            return results;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * @return scanId-sha256 of the filters, or null if the filter configuration can't be identified
+     */
+    static String getKey(Integer scanId, FilterConfiguration filter) {
+        if (scanId == null) {
+            return null;
+        }
+        StringBuilder description = new StringBuilder();
+        if (filter != null) {
+            if (filter.getSimpleFilters() != null) {
+                filter.getSimpleFilters().stream()
+                        .map(f -> f.getType() + "=" + f.getValue())
+                        .sorted()
+                        .forEach(f -> description.append(f).append('\n'));
+            }
+            if (filter.getScriptedFilter() != null && filter.getScriptedFilter().getScript() != null) {
+                String scriptText = FilterFactory.getScriptText(filter.getScriptedFilter().getScript());
+                if (scriptText == null) {
+                    return null;
+                }
+                description.append("script=").append(scriptText);
+            }
+        }
+        return scanId + "-" + DigestUtils.sha256Hex(description.toString());
+    }
+
+    /**
+     * @return copy of the cached results, or null if there is no readable entry
+     */
+    private ScanResults lookup(String key) {
+        try {
+            return read(store.get(key));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached scan results {}", key, e);
+            store.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * @return independent copy of the results, for a consumer that modifies them
+     */
+    static ScanResults copy(ScanResults results) throws IOException {
+        return mapper.readValue(mapper.writeValueAsBytes(results), ScanResults.class);
+    }
+
+    private static byte[] write(ScanResults results) {
+        try {
+            return mapper.writeValueAsBytes(results);
+        } catch (IOException e) {
+            log.warn("Unable to cache scan results", e);
+            return null;
+        }
+    }
+
+    private static ScanResults read(byte[] json) throws IOException {
+        return json == null ? null : mapper.readValue(json, ScanResults.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.checkmarx.flow.service;
+
+import java.util.*;
+
+/**
+ * Scan request metadata whose large values live in a {@link MetadataBlobStore}.
+ * <p>
+ * Spilled values are read from disk on every access and never cached, so a queued request only keeps the blob ids
+ * on the heap. Once {@link #release()} is called (the job is complete), spilled keys are gone.
+ */
+class SpilledMetadata extends AbstractMap<String, String> {
+
+    private final Map<String, String> inline;
+    private final Map<String, String> blobIds;
+    private final MetadataBlobStore store;
+
+    SpilledMetadata(Map<String, String> inline, Map<String, String> blobIds, MetadataBlobStore store) {
+        this.inline = new HashMap<>(inline);
+        this.blobIds = new HashMap<>(blobIds);
+        this.store = store;
+    }
+
+    @Override
+    public synchronized String get(Object key) {
+        if (inline.containsKey(key)) {
+            return inline.get(key);
+        }
+        String blobId = blobIds.get(key);
+        return blobId == null ? null : store.load(blobId);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return inline.containsKey(key) || blobIds.containsKey(key);
+    }
+
+    @Override
+    public synchronized String put(String key, String value) {
+        String previous = remove(key);
+        inline.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public synchronized String remove(Object key) {
+        if (inline.containsKey(key)) {
+            return inline.remove(key);
+        }
+        String blobId = blobIds.remove(key);
+        if (blobId == null) {
+            return null;
+        }
+        String previous = store.load(blobId);
+        store.delete(blobId);
+        return previous;
+    }
+
+    @Override
+    public synchronized int size() {
+        return inline.size() + blobIds.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        release();
+        inline.clear();
+    }
+
+    /**
+     * Entries are backed by the map: spilled values are loaded when {@link Map.Entry#getValue()} is called.
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                Iterator<String> keys = keys().iterator();
+                return new Iterator<Entry<String, String>>() {
+                    private String current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        current = keys.next();
+                        return new LazyEntry(current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        SpilledMetadata.this.remove(current);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SpilledMetadata.this.size();
+            }
+        };
+    }
+
+    synchronized Map<String, String> getInline() {
+        return new HashMap<>(inline);
+    }
+
+    synchronized Map<String, String> getBlobIds() {
+        return new HashMap<>(blobIds);
+    }
+
+    /**
+     * Deletes the spilled values.
+     */
+    synchronized void release() {
+        blobIds.values().forEach(store::delete);
+        blobIds.clear();
+    }
+
+    private synchronized List<String> keys() {
+        List<String> keys = new ArrayList<>(inline.keySet());
+        keys.addAll(blobIds.keySet());
+        return keys;
+    }
+
+    private class LazyEntry implements Entry<String, String> {
+        private final String key;
+
+        LazyEntry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return get(key);
+        }
+
+        @Override
+        public String setValue(String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return Objects.equals(key, other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Publishes one result set to several bug trackers at the same time. Every bug tracker has its own bounded executor
+ * (cx-flow.publish-concurrency threads, cx-flow.publish-queue-size waiting publishes), shared by all requests, so that
+ * a slow or failing tracker neither delays nor fails the others. When the executor of a tracker is saturated, the
+ * publish runs on the calling thread. The executors are stopped with the application context.
+ */
+@Component
+@Slf4j
+public class TrackerDispatcher {
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private final int concurrency;
+    private final int queueSize;
+
+    @Autowired
+    public TrackerDispatcher(FlowProperties flowProperties) {
+        this(flowProperties.getPublishConcurrency(), flowProperties.getPublishQueueSize());
+    }
+
+    /**
+     * @param concurrency publishes running at the same time for each bug tracker
+     * @param queueSize   publishes waiting for a thread of each bug tracker
+     */
+    TrackerDispatcher(int concurrency, int queueSize) {
+        this.concurrency = Math.max(concurrency, 1);
+        this.queueSize = Math.max(queueSize, 1);
+    }
+
+    /**
+     * Runs the publish of every tracker and waits for all of them, also if some fail.
+     *
+     * @param publishes publish by tracker name
+     * @return outcome by tracker name, in the order of the publishes
+     */
+    Map<String, Outcome> publish(Map<String, Publish> publishes) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Publish> publish : publishes.entrySet()) {
+            String tracker = publish.getKey();
+            futures.put(tracker, getExecutor(tracker).submit(() -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    publish.getValue().run();
+                    return null;
+                } finally {
+                    // Restores the context of the caller, when the executor was saturated
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    } else {
+                        MDC.clear();
+                    }
+                }
+            }));
+        }
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+            Outcome outcome = await(future.getValue());
+            outcomes.put(future.getKey(), outcome);
+            if (!outcome.isSuccess()) {
+                failed.add(future.getKey());
+            }
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Results could not be published to {} of {} bug tracker(s): {}", failed.size(), publishes.size(), failed);
+        }
+        return outcomes;
+    }
+
+    private static Outcome await(Future<?> future) {
+        try {
+            future.get();
+            return new Outcome(null);
+        } catch (ExecutionException e) {
+            return new Outcome(e.getCause());
+        } catch (CancellationException e) {
+            return new Outcome(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(e);
+        }
+    }
+
+    /**
+     * Stops the executors; publishes already started are completed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    private ExecutorService getExecutor(String tracker) {
+        return executors.computeIfAbsent(tracker, t -> {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("publish-" + t + "-");
+            threadFactory.setDaemon(true);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
+    @FunctionalInterface
+    interface Publish {
+        void run() throws Exception;
+    }
+
+    /**
+     * Result of the publish to one bug tracker.
+     */
+    static final class Outcome {
+        private final Throwable error;
+
+        private Outcome(Throwable error) {
+            this.error = error;
+        }
+
+        boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * @return cause of the failure, or null if the results were published
+         */
+        Throwable getError() {
+            return error;
+        }
+    }
+}
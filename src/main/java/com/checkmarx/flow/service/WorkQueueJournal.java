@@ -0,0 +1,286 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.utils.JsonFileStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only, memory-mapped journal of work queue jobs.
+ * <p>
+ * Record layout: int length (of the rest of the record), byte stage, long job id, payload bytes. The payload of a
+ * queued record is the request, the one of a publishing record the SAST scan ID if there is one.
+ * The length is written last, so a record torn by a crash is never visible on replay. The journal is compacted
+ * (live jobs rewritten to a new file that replaces the old one) when it runs out of space or when most of
+ * its records belong to finished jobs.
+ * <p>
+ * Writes only reach the mapped file; {@link #sync(long)} forces them to disk. Writers record {@link #getWriteCount()}
+ * under their lock and sync after releasing it, so that a single force covers the records of all writers waiting
+ * for it.
+ * <p>
+ * Not thread-safe except for {@link #sync(long)}, callers must synchronize.
+ */
+@Slf4j
+class WorkQueueJournal implements Closeable {
+    private static final String FILE_NAME = "work-queue.journal";
+    private static final String COMPACTION_FILE_NAME = "work-queue.journal.compact";
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int RECORD_BODY_OFFSET = Integer.BYTES;
+
+    enum Stage {
+        QUEUED((byte) 1),
+        PUBLISHING((byte) 2),
+        COMPLETED((byte) 3);
+
+        private final byte code;
+
+        Stage(byte code) {
+            this.code = code;
+        }
+
+        static Stage of(byte code) {
+            for (Stage stage : values()) {
+                if (stage.code == code) {
+                    return stage;
+                }
+            }
+            return null;
+        }
+    }
+
+    static class Job {
+        private final long id;
+        private final byte[] payload;
+        private Stage stage;
+        private Integer scanId;
+
+        Job(long id, byte[] payload, Stage stage) {
+            this.id = id;
+            this.payload = payload;
+            this.stage = stage;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        byte[] getPayload() {
+            return payload;
+        }
+
+        Stage getStage() {
+            return stage;
+        }
+
+        /**
+         * @return SAST scan whose results were being published, or null if unknown
+         */
+        Integer getScanId() {
+            return scanId;
+        }
+    }
+
+    private final Path file;
+    private final int capacity;
+    private final Map<Long, Job> liveJobs = new LinkedHashMap<>();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int recordCount;
+    private long nextId = 1;
+    private volatile long writeCount;
+    private long syncedCount;
+
+    WorkQueueJournal(Path directory, int capacity) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.capacity = capacity;
+        open();
+        replay();
+    }
+
+    /**
+     * @return unfinished jobs in the order they were queued
+     */
+    Map<Long, Job> getLiveJobs() {
+        return Collections.unmodifiableMap(liveJobs);
+    }
+
+    long append(byte[] payload) throws IOException {
+        long id = nextId++;
+        write(Stage.QUEUED, id, payload);
+        liveJobs.put(id, new Job(id, payload, Stage.QUEUED));
+        return id;
+    }
+
+    /**
+     * @param scanId SAST scan whose results are published, null if there is none
+     */
+    void markPublishing(long id, Integer scanId) throws IOException {
+        Job job = liveJobs.get(id);
+        if (job != null) {
+            write(Stage.PUBLISHING, id, toPayload(scanId));
+            job.stage = Stage.PUBLISHING;
+            job.scanId = scanId;
+        }
+    }
+
+    void complete(long id) throws IOException {
+        if (liveJobs.remove(id) != null) {
+            write(Stage.COMPLETED, id, new byte[0]);
+            if (recordCount > 64 && recordCount > liveJobs.size() * 4) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * @return number of records written so far, to pass to {@link #sync(long)}
+     */
+    long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Forces the records written so far to disk, unless a force of another caller already covered the first
+     * writeCount records. May be called without the caller's lock.
+     */
+    void sync(long writeCount) {
+        synchronized (syncLock) {
+            if (syncedCount >= writeCount) {
+                return;
+            }
+            long written = this.writeCount;
+            buffer.force();
+            syncedCount = written;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void write(Stage stage, long id, byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (buffer.remaining() < recordSize + Integer.BYTES) {
+            compact();
+            if (buffer.remaining() < recordSize + Integer.BYTES) {
+                throw new IOException("Work queue journal is full: " + file);
+            }
+        }
+        int start = buffer.position();
+        buffer.position(start + RECORD_BODY_OFFSET);
+        buffer.put(stage.code);
+        buffer.putLong(id);
+        buffer.put(payload);
+        int end = buffer.position();
+        buffer.putInt(start, recordSize - Integer.BYTES);
+        buffer.position(end);
+        recordCount++;
+        writeCount++;
+    }
+
+    private void replay() {
+        buffer.position(0);
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < HEADER_SIZE - Integer.BYTES || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            Stage stage = Stage.of(buffer.get());
+            long id = buffer.getLong();
+            byte[] payload = new byte[length - Byte.BYTES - Long.BYTES];
+            buffer.get(payload);
+            apply(stage, id, payload);
+            recordCount++;
+            nextId = Math.max(nextId, id + 1);
+        }
+        log.info("Work queue journal {} replayed: {} unfinished job(s)", file, liveJobs.size());
+    }
+
+    private void apply(Stage stage, long id, byte[] payload) {
+        if (stage == Stage.QUEUED) {
+            liveJobs.put(id, new Job(id, payload, Stage.QUEUED));
+        } else if (stage == Stage.PUBLISHING && liveJobs.containsKey(id)) {
+            Job job = liveJobs.get(id);
+            job.stage = Stage.PUBLISHING;
+            job.scanId = payload.length == Integer.BYTES ? ByteBuffer.wrap(payload).getInt() : null;
+        } else if (stage == Stage.COMPLETED) {
+            liveJobs.remove(id);
+        }
+    }
+
+    private void compact() throws IOException {
+        Path compactionFile = file.resolveSibling(COMPACTION_FILE_NAME);
+        Files.deleteIfExists(compactionFile);
+        int liveRecords = 0;
+        try (FileChannel compactionChannel = FileChannel.open(compactionFile, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = compactionChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            for (Job job : liveJobs.values()) {
+                writeJob(target, job.id, Stage.QUEUED, job.payload);
+                liveRecords++;
+                if (job.stage == Stage.PUBLISHING) {
+                    writeJob(target, job.id, Stage.PUBLISHING, toPayload(job.scanId));
+                    liveRecords++;
+                }
+            }
+            target.force();
+        }
+        // The compacted file is forced already; the lock keeps sync() off the mapping being replaced
+        synchronized (syncLock) {
+            channel.close();
+            JsonFileStore.replace(compactionFile, file);
+            open();
+            syncedCount = writeCount;
+        }
+        skipRecords(liveRecords);
+        recordCount = liveRecords;
+        log.debug("Work queue journal compacted, {} unfinished job(s) kept", liveJobs.size());
+    }
+
+    private static byte[] toPayload(Integer scanId) {
+        return scanId == null ? new byte[0] : ByteBuffer.allocate(Integer.BYTES).putInt(scanId).array();
+    }
+
+    private static void writeJob(MappedByteBuffer target, long id, Stage stage, byte[] payload) throws IOException {
+        if (target.remaining() < HEADER_SIZE + payload.length + Integer.BYTES) {
+            throw new IOException("Unfinished jobs do not fit into the work queue journal");
+        }
+        target.putInt(HEADER_SIZE - Integer.BYTES + payload.length);
+        target.put(stage.code);
+        target.putLong(id);
+        target.put(payload);
+    }
+
+    private void skipRecords(int count) {
+        buffer.position(0);
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+}
@@ -0,0 +1,444 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.WorkQueueFullException;
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.checkmarx.sdk.dto.filtering.ScriptedFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded queue of scan requests accepted from webhooks and not yet published.
+ * <p>
+ * Admission is limited by cx-flow.work-queue.capacity: once it is reached, new requests are rejected with
+ * {@link WorkQueueFullException} instead of piling up in the executor queue. When cx-flow.work-queue.journal-dir
+ * is set, every accepted request is written to a {@link WorkQueueJournal} together with its stage (queued or
+ * publishing, with the SAST scan ID), so that unfinished requests survive a restart and can be resumed by
+ * {@link FlowService}. Journal writes are forced to disk after the queue lock is released, so concurrent webhooks
+ * share a single disk sync instead of queueing behind one sync each.
+ * <p>
+ * The journal keeps a JSON snapshot of the scan request. The filter configuration is stored as simple filters plus
+ * the script text, and scanners as class names. SCM credentials (the clone URL with the token) are not stored. Per-request SCA configuration is not persisted; resumed requests
+ * use the global SCA settings.
+ * <p>
+ * Queued requests are kept compact: repeated strings (team, branch, repository...) are interned, and the largest
+ * metadata values are moved to a {@link MetadataBlobStore} until the request fits cx-flow.work-queue.job-memory-budget-kb.
+ * Moved values are read back from disk when accessed, and deleted when the job is complete.
+ * <p>
+ * The number of unfinished requests and the capacity are exposed as cxflow.workqueue.* gauges.
+ */
+@Service
+@Slf4j
+public class WorkQueueService implements MeterBinder {
+
+    private static final Interner<String> strings = Interners.newWeakInterner();
+    /**
+     * Smaller values stay on the heap even if the request is over budget: blob ids are not much shorter.
+     */
+    private static final int MIN_SPILL_CHARS = 1024;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .addMixIn(ScanRequest.class, ScanRequestMixin.class)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final FlowProperties.WorkQueue properties;
+    private final Set<Long> activeJobs = new LinkedHashSet<>();
+    private final Map<Long, WorkQueueJournal.Job> recoveredJobs = new LinkedHashMap<>();
+    private final Map<Long, SpilledMetadata> spilledMetadata = new HashMap<>();
+    private final WorkQueueJournal journal;
+    private final MetadataBlobStore blobStore;
+    private long nextInMemoryId = 1;
+
+    public WorkQueueService(FlowProperties flowProperties) {
+        this.properties = flowProperties.getWorkQueue();
+        if (StringUtils.isNotEmpty(properties.getJournalDir())) {
+            try {
+                journal = new WorkQueueJournal(Paths.get(properties.getJournalDir()),
+                        properties.getJournalSizeMb() * 1024L * 1024);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to open the work queue journal in " + properties.getJournalDir(), e);
+            }
+            recoveredJobs.putAll(journal.getLiveJobs());
+            activeJobs.addAll(recoveredJobs.keySet());
+        } else {
+            journal = null;
+        }
+        blobStore = createBlobStore(properties);
+    }
+
+    /**
+     * @return job id to pass to {@link #markPublishing(long, Integer)} and {@link #complete(long)}
+     * @throws WorkQueueFullException if the queue is at capacity or the request cannot be journaled
+     */
+    public long enqueue(ScanRequest request) {
+        long id;
+        long writeCount;
+        synchronized (this) {
+            id = add(request);
+            writeCount = journal == null ? 0 : journal.getWriteCount();
+        }
+        sync(writeCount);
+        return id;
+    }
+
+    private long add(ScanRequest request) {
+        if (activeJobs.size() >= properties.getCapacity()) {
+            throw new WorkQueueFullException(String.format("Work queue is full (%d requests)", activeJobs.size()));
+        }
+        Map<String, String> originalMetadata = request.getAdditionalMetadata();
+        SpilledMetadata metadata = compact(request);
+        long id;
+        if (journal != null) {
+            try {
+                id = journal.append(mapper.writeValueAsBytes(toSnapshot(request)));
+            } catch (IOException e) {
+                if (metadata != null) {
+                    metadata.release();
+                    request.setAdditionalMetadata(originalMetadata);
+                }
+                throw new WorkQueueFullException("Unable to journal the scan request", e);
+            }
+        } else {
+            id = nextInMemoryId++;
+        }
+        activeJobs.add(id);
+        if (metadata != null) {
+            spilledMetadata.put(id, metadata);
+        }
+        log.debug("Scan request queued as job {}, {} job(s) in the work queue", id, activeJobs.size());
+        return id;
+    }
+
+    /**
+     * Scan results are available for the job, a resumed job is published without submitting a new scan.
+     *
+     * @param scanId SAST scan whose results are published, used again by a resumed job; null if there is none
+     */
+    public void markPublishing(long jobId, Integer scanId) {
+        if (journal == null) {
+            return;
+        }
+        long writeCount;
+        synchronized (this) {
+            try {
+                journal.markPublishing(jobId, scanId);
+            } catch (IOException e) {
+                log.warn("Unable to journal the publishing stage of job {}", jobId, e);
+            }
+            writeCount = journal.getWriteCount();
+        }
+        sync(writeCount);
+    }
+
+    public void complete(long jobId) {
+        long writeCount;
+        synchronized (this) {
+            activeJobs.remove(jobId);
+            SpilledMetadata metadata = spilledMetadata.remove(jobId);
+            if (metadata != null) {
+                metadata.release();
+            }
+            if (journal == null) {
+                return;
+            }
+            try {
+                journal.complete(jobId);
+            } catch (IOException e) {
+                log.warn("Unable to journal the completion of job {}, it may be resumed after a restart", jobId, e);
+            }
+            writeCount = journal.getWriteCount();
+        }
+        sync(writeCount);
+    }
+
+    private void sync(long writeCount) {
+        if (journal != null) {
+            journal.sync(writeCount);
+        }
+    }
+
+    public synchronized int size() {
+        return activeJobs.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cxflow.workqueue.size", this, WorkQueueService::size)
+                .description("Scan requests admitted and not yet published").register(registry);
+        Gauge.builder("cxflow.workqueue.capacity", properties, FlowProperties.WorkQueue::getCapacity)
+                .description("Maximal number of unfinished scan requests").register(registry);
+    }
+
+    public int getRetryAfterSeconds() {
+        return properties.getRetryAfterSeconds();
+    }
+
+    /**
+     * Returns jobs left unfinished by the previous run, once. Jobs that can no longer be read are dropped.
+     *
+     * @param scanners all scanner beans, used to restore the scanners selected for a request
+     */
+    public synchronized List<PendingJob> takeRecoveredJobs(List<VulnerabilityScanner> scanners) {
+        List<PendingJob> result = new ArrayList<>();
+        for (WorkQueueJournal.Job job : recoveredJobs.values()) {
+            try {
+                Snapshot snapshot = mapper.readValue(job.getPayload(), Snapshot.class);
+                ScanRequest request = fromSnapshot(snapshot, scanners);
+                if (request.getAdditionalMetadata() instanceof SpilledMetadata) {
+                    spilledMetadata.put(job.getId(), (SpilledMetadata) request.getAdditionalMetadata());
+                }
+                result.add(new PendingJob(job.getId(), request, job.getStage() == WorkQueueJournal.Stage.PUBLISHING,
+                        job.getScanId()));
+            } catch (IOException | RuntimeException e) {
+                log.error("Dropping unreadable work queue job {}", job.getId(), e);
+                complete(job.getId());
+            }
+        }
+        recoveredJobs.clear();
+        return result;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        blobStore.close();
+    }
+
+    private static MetadataBlobStore createBlobStore(FlowProperties.WorkQueue properties) {
+        if (StringUtils.isNotEmpty(properties.getMetadataDir())) {
+            return new MetadataBlobStore(Paths.get(properties.getMetadataDir()));
+        } else if (StringUtils.isNotEmpty(properties.getJournalDir())) {
+            return new MetadataBlobStore(Paths.get(properties.getJournalDir(), "metadata"));
+        } else {
+            return new MetadataBlobStore(null);
+        }
+    }
+
+    /**
+     * Interns common strings of the request and moves the largest metadata values to the blob store while the
+     * request is over budget.
+     *
+     * @return spilled metadata now referenced by the request, or null if nothing was moved
+     */
+    private SpilledMetadata compact(ScanRequest request) {
+        request.setNamespace(intern(request.getNamespace()));
+        request.setApplication(intern(request.getApplication()));
+        request.setOrg(intern(request.getOrg()));
+        request.setTeam(intern(request.getTeam()));
+        request.setSite(intern(request.getSite()));
+        request.setRepoUrl(intern(request.getRepoUrl()));
+        request.setRepoName(intern(request.getRepoName()));
+        request.setBranch(intern(request.getBranch()));
+        request.setDefaultBranch(intern(request.getDefaultBranch()));
+        request.setMergeTargetBranch(intern(request.getMergeTargetBranch()));
+        request.setScanPreset(intern(request.getScanPreset()));
+        request.setScanConfiguration(intern(request.getScanConfiguration()));
+        request.setScmInstance(intern(request.getScmInstance()));
+
+        Map<String, String> metadata = request.getAdditionalMetadata();
+        if (metadata == null || metadata.isEmpty()) {
+            return null;
+        }
+        long budget = properties.getJobMemoryBudgetKb() * 1024L;
+        long size = estimateSize(request);
+        Map<String, String> inline = new HashMap<>();
+        metadata.forEach((key, value) -> inline.put(intern(key), value));
+        Map<String, String> blobIds = new HashMap<>();
+        List<Map.Entry<String, String>> largestFirst = inline.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && entry.getValue().length() >= MIN_SPILL_CHARS)
+                .sorted(Comparator.comparingInt((Map.Entry<String, String> entry) -> entry.getValue().length()).reversed())
+                .collect(Collectors.toList());
+        for (Map.Entry<String, String> entry : largestFirst) {
+            if (size <= budget) {
+                break;
+            }
+            try {
+                blobIds.put(entry.getKey(), blobStore.store(entry.getValue()));
+                size -= estimateSize(entry.getValue());
+            } catch (IOException e) {
+                log.warn("Unable to move metadata '{}' of request {} to disk", entry.getKey(), request.getId(), e);
+                break;
+            }
+        }
+        if (size > budget) {
+            log.debug("Request {} takes ~{} KB in the work queue, over the {} KB budget", request.getId(),
+                    size / 1024, properties.getJobMemoryBudgetKb());
+        }
+        if (blobIds.isEmpty()) {
+            request.setAdditionalMetadata(inline);
+            return null;
+        }
+        inline.keySet().removeAll(blobIds.keySet());
+        SpilledMetadata spilled = new SpilledMetadata(inline, blobIds, blobStore);
+        request.setAdditionalMetadata(spilled);
+        return spilled;
+    }
+
+    private static long estimateSize(ScanRequest request) {
+        long size = 0;
+        for (String value : Arrays.asList(request.getId(), request.getNamespace(), request.getApplication(),
+                request.getOrg(), request.getTeam(), request.getProject(), request.getSite(), request.getHash(),
+                request.getRepoUrl(), request.getRepoUrlWithAuth(), request.getRepoName(), request.getBranch(),
+                request.getDefaultBranch(), request.getMergeTargetBranch(), request.getMergeNoteUri(),
+                request.getRefs())) {
+            size += estimateSize(value);
+        }
+        if (request.getCxFields() != null) {
+            for (Map.Entry<String, String> entry : request.getCxFields().entrySet()) {
+                size += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : request.getAdditionalMetadata().entrySet()) {
+            size += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long estimateSize(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : strings.intern(value);
+    }
+
+    private static Snapshot toSnapshot(ScanRequest request) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setRequest(request);
+        if (request.getAdditionalMetadata() instanceof SpilledMetadata) {
+            SpilledMetadata metadata = (SpilledMetadata) request.getAdditionalMetadata();
+            snapshot.setMetadata(metadata.getInline());
+            snapshot.setMetadataBlobIds(metadata.getBlobIds());
+        } else {
+            snapshot.setMetadata(request.getAdditionalMetadata());
+        }
+        FilterConfiguration filter = request.getFilter();
+        if (filter != null) {
+            if (CollectionUtils.isNotEmpty(filter.getSimpleFilters())) {
+                snapshot.setFilters(filter.getSimpleFilters().stream()
+                        .map(f -> new SimpleFilter(f.getType(), f.getValue()))
+                        .collect(Collectors.toList()));
+            }
+            if (filter.getScriptedFilter() != null) {
+                snapshot.setFilterScript(FilterFactory.getScriptText(filter.getScriptedFilter().getScript()));
+            }
+        }
+        if (CollectionUtils.isNotEmpty(request.getVulnerabilityScanners())) {
+            snapshot.setScanners(request.getVulnerabilityScanners().stream()
+                    .map(scanner -> ClassUtils.getUserClass(scanner).getName())
+                    .collect(Collectors.toList()));
+        }
+        return snapshot;
+    }
+
+    private ScanRequest fromSnapshot(Snapshot snapshot, List<VulnerabilityScanner> scanners) {
+        ScanRequest request = snapshot.getRequest();
+        if (snapshot.getMetadataBlobIds() != null && !snapshot.getMetadataBlobIds().isEmpty()) {
+            request.setAdditionalMetadata(new SpilledMetadata(
+                    Optional.ofNullable(snapshot.getMetadata()).orElseGet(HashMap::new),
+                    snapshot.getMetadataBlobIds(), blobStore));
+        } else if (snapshot.getMetadata() != null) {
+            request.setAdditionalMetadata(snapshot.getMetadata());
+        }
+        List<Filter> simpleFilters = new ArrayList<>();
+        if (snapshot.getFilters() != null) {
+            snapshot.getFilters().forEach(f -> simpleFilters.add(new Filter(f.getType(), f.getValue())));
+        }
+        request.setFilter(FilterConfiguration.builder()
+                .simpleFilters(simpleFilters)
+                .scriptedFilter(ScriptedFilter.builder()
+                        .script(FilterFactory.parseScriptText(snapshot.getFilterScript()))
+                        .build())
+                .build());
+        if (snapshot.getScanners() != null) {
+            request.setVulnerabilityScanners(scanners.stream()
+                    .filter(scanner -> snapshot.getScanners().contains(ClassUtils.getUserClass(scanner).getName()))
+                    .collect(Collectors.toList()));
+        }
+        return request;
+    }
+
+    /**
+     * Unfinished job restored from the journal.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class PendingJob {
+        private final long id;
+        private final ScanRequest request;
+        /**
+         * True if the scan had finished and only publishing of its results was pending.
+         */
+        private final boolean publishing;
+        /**
+         * SAST scan whose results were being published, null if unknown or the request had no SAST scan.
+         */
+        private final Integer scanId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class Snapshot {
+        private ScanRequest request;
+        private List<SimpleFilter> filters;
+        private String filterScript;
+        private List<String> scanners;
+        private Map<String, String> metadata;
+        /**
+         * Metadata keys moved to the blob store.
+         */
+        private Map<String, String> metadataBlobIds;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class SimpleFilter {
+        private Filter.Type type;
+        private String value;
+    }
+
+    /**
+     * Keeps the ScanRequest fields that are not plain data out of the snapshot and stores altFields as is
+     * (its getter returns a parsed map). Metadata is stored next to the request, so that spilled values are
+     * journaled as blob ids. The clone URL with credentials is not journaled, it is rebuilt when the job is resumed.
+     */
+    @JsonIgnoreProperties({"filter", "vulnerabilityScanners", "scaConfig", "filename", "additionalMetadata",
+            "repoUrlWithAuth"})
+    abstract static class ScanRequestMixin {
+        @JsonProperty("altFields")
+        private String altFields;
+
+        @JsonIgnore
+        abstract Map<String, String> getAltFields();
+    }
+}
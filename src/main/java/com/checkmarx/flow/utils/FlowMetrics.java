@@ -0,0 +1,137 @@
+package com.checkmarx.flow.utils;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the CxFlow pipeline stages: webhook admission, time spent in the work queue, scan submission, scan
+ * duration, report retrieval, publishing per bug tracker type and every issue tracker call.
+ * <p>
+ * Timers are recorded in the global Micrometer registry, which Spring Boot adds the actuator registry to
+ * (management.metrics.use-global-registry), so that services built without Spring (CLI, tests) don't need a
+ * registry. Without a registry the timers are no-ops. Timed calls are tagged with their outcome: success, or
+ * failure if the call threw.
+ */
+public class FlowMetrics {
+
+    /** FlowService.initiateAutomation: the webhook request is admitted to the work queue and handed to the executor. */
+    public static final String WEBHOOK_ADMISSION = "cxflow.webhook.admission";
+    /** From webhook admission until a webHook executor thread picks up the request. */
+    public static final String JOB_QUEUED = "cxflow.job.queued";
+    /** A scan of one engine, from submission until its results are available, tagged with the engine. */
+    public static final String SCAN = "cxflow.scan";
+    /** Scan creation in Checkmarx, including source upload. */
+    public static final String SCAN_SUBMIT = "cxflow.scan.submit";
+    /** From scan creation until Checkmarx reports the scan finished. */
+    public static final String SCAN_WAIT = "cxflow.scan.wait";
+    /** Report generation and download of a finished scan, tagged with the engine. */
+    public static final String REPORT_FETCH = "cxflow.report.fetch";
+    /** Publishing results of a request, tagged with the bug tracker type; pull request types post a comment. */
+    public static final String PUBLISH = "cxflow.publish";
+    /** A single issue tracker call, tagged with the tracker and the operation. */
+    public static final String TRACKER_OPERATION = "cxflow.tracker.operation";
+
+    public static final String TAG_ENGINE = "engine";
+    public static final String TAG_TRACKER = "tracker";
+    public static final String TAG_OPERATION = "operation";
+    public static final String TAG_OUTCOME = "outcome";
+
+    public static final String OPERATION_GET_ISSUES = "getIssues";
+    public static final String OPERATION_CREATE = "create";
+    public static final String OPERATION_UPDATE = "update";
+    public static final String OPERATION_CLOSE = "close";
+
+    public static final String ENGINE_SAST = "sast";
+    public static final String ENGINE_OSA = "osa";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private static final String SCANNER_SUFFIX = "Scanner";
+
+    private FlowMetrics() {
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Times a call and records it with the outcome tag added. Exceptions are rethrown unchanged.
+     */
+    public static <T, E extends Exception> T time(String name, Tags tags, Call<T, E> call) throws E {
+        long start = System.nanoTime();
+        String outcome = FAILURE;
+        try {
+            T result = call.call();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            record(name, tags.and(TAG_OUTCOME, outcome), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Same as {@link #time(String, Tags, Call)} for calls without a result.
+     */
+    public static <E extends Exception> void timeVoid(String name, Tags tags, Action<E> action) throws E {
+        time(name, tags, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Times a single issue tracker call.
+     */
+    public static <T, E extends Exception> T timeTracker(String tracker, String operation, Call<T, E> call) throws E {
+        return time(TRACKER_OPERATION, Tags.of(TAG_TRACKER, String.valueOf(tracker), TAG_OPERATION, operation), call);
+    }
+
+    public static <E extends Exception> void timeTrackerVoid(String tracker, String operation, Action<E> action) throws E {
+        timeTracker(tracker, operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static void record(String name, Tags tags, long durationNanos) {
+        Timer.builder(name)
+                .tags(tags)
+                .register(Metrics.globalRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static Tags engine(String engine) {
+        return Tags.of(TAG_ENGINE, engine);
+    }
+
+    /**
+     * @return engine tag of a scanner bean, e.g. sast for SastScanner
+     */
+    public static Tags engineOf(Object scanner) {
+        return engine(engineName(scanner));
+    }
+
+    /**
+     * @return engine name of a scanner bean, e.g. sast for SastScanner
+     */
+    public static String engineName(Object scanner) {
+        String name = ClassUtils.getUserClass(scanner).getSimpleName();
+        if (name.endsWith(SCANNER_SUFFIX)) {
+            name = name.substring(0, name.length() - SCANNER_SUFFIX.length());
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
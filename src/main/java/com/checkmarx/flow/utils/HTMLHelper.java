@@ -76,6 +76,11 @@ public class HTMLHelper {
      * @return string with the HTML message
      */
     public static String getHTMLBody(ScanResults.XIssue issue, ScanRequest request, FlowProperties flowProperties) {
+        return IssueBodyMemo.get(issue, request, IssueBodyMemo.FORMAT_HTML, null,
+                () -> renderHTMLBody(issue, request, flowProperties));
+    }
+
+    private static String renderHTMLBody(ScanResults.XIssue issue, ScanRequest request, FlowProperties flowProperties) {
         String branch = request.getBranch();
         StringBuilder body = new StringBuilder();
         body.append("<div>");
@@ -175,6 +180,11 @@ public class HTMLHelper {
 
 
     public static String getMDBody(ScanResults.XIssue issue, String branch, String fileUrl, FlowProperties flowProperties) {
+        return IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, branch + "\n" + fileUrl,
+                () -> renderMDBody(issue, branch, fileUrl, flowProperties));
+    }
+
+    private static String renderMDBody(ScanResults.XIssue issue, String branch, String fileUrl, FlowProperties flowProperties) {
         StringBuilder body = new StringBuilder();
 
         List<ScanResults.ScaDetails> scaDetails = issue.getScaDetails();
@@ -482,6 +492,11 @@ public class HTMLHelper {
      * @return string with the HTML message
      */
     public static String getTextBody(ScanResults.XIssue issue, ScanRequest request, FlowProperties flowProperties) {
+        return IssueBodyMemo.get(issue, request, IssueBodyMemo.FORMAT_TEXT, null,
+                () -> renderTextBody(issue, request, flowProperties));
+    }
+
+    private static String renderTextBody(ScanResults.XIssue issue, ScanRequest request, FlowProperties flowProperties) {
         String branch = request.getBranch();
         StringBuilder body = new StringBuilder();
         body.append(String.format(ISSUE_BODY_TEXT, issue.getVulnerability(), issue.getFilename(), branch)).append(CRLF);
@@ -0,0 +1,122 @@
+package com.checkmarx.flow.utils;
+
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.ScanResults;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Rendered issue bodies of the findings being published, per finding and format. A finding is rendered several times
+ * while it is published (digest comparison, update or create, comments); with the memo the body is built once.
+ * <p>
+ * Bodies are only kept within a {@link Scope} opened for the publish of one result set to one bug tracker, on the
+ * publishing thread; outside a scope every body is rendered. Findings and requests are matched by identity: comparing
+ * them by value would cost as much as rendering. The least recently used bodies are evicted beyond
+ * {@link #MAX_ENTRIES}.
+ */
+public final class IssueBodyMemo {
+    public static final String FORMAT_MD = "md";
+    public static final String FORMAT_HTML = "html";
+    public static final String FORMAT_TEXT = "text";
+    public static final String FORMAT_JIRA = "jira";
+    static final int MAX_ENTRIES = 512;
+
+    private static final ThreadLocal<IssueBodyMemo> current = new ThreadLocal<>();
+
+    private final Map<Key, String> bodies = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private IssueBodyMemo() {
+    }
+
+    /**
+     * Starts memoizing the bodies rendered on this thread until the scope is closed.
+     */
+    public static Scope open() {
+        IssueBodyMemo previous = current.get();
+        current.set(new IssueBodyMemo());
+        return new Scope(previous);
+    }
+
+    /**
+     * @param request request the body is rendered for, null if the body only depends on the variant
+     * @param variant other rendering inputs, such as the branch or file URL
+     * @param render  renders the body on a miss
+     * @return memoized or rendered body
+     */
+    public static String get(ScanResults.XIssue issue, ScanRequest request, String format, String variant,
+                             Supplier<String> render) {
+        IssueBodyMemo memo = current.get();
+        if (memo == null) {
+            return render.get();
+        }
+        Key key = new Key(issue, request, format, variant);
+        String body = memo.bodies.get(key);
+        if (body == null) {
+            body = render.get();
+            if (body != null) {
+                memo.bodies.put(key, body);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Memoization of one publish, restores the scope of the caller when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final IssueBodyMemo previous;
+
+        private Scope(IssueBodyMemo previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final ScanResults.XIssue issue;
+        private final ScanRequest request;
+        private final String format;
+        private final String variant;
+
+        private Key(ScanResults.XIssue issue, ScanRequest request, String format, String variant) {
+            this.issue = issue;
+            this.request = request;
+            this.format = format;
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return issue == other.issue && request == other.request
+                    && format.equals(other.format) && Objects.equals(variant, other.variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(issue), System.identityHashCode(request), format, variant);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.checkmarx.flow.utils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Digest of the content CxFlow writes to a bug tracker issue, stored with the issue so that an unchanged finding
+ * doesn't need to be written again on the next scan.
+ * <p>
+ * Markdown trackers keep the digest in a hidden comment at the end of the issue body.
+ */
+public final class IssueDigest {
+    private static final String MARKER = "<!-- cx-flow-digest:%s -->";
+    private static final Pattern MARKER_PATTERN = Pattern.compile("<!-- cx-flow-digest:([0-9a-f]{64}) -->");
+    /**
+     * Scan and result path IDs of the Checkmarx viewer link, which change with every scan of an unchanged finding.
+     */
+    private static final Pattern SCAN_PARAMETERS = Pattern.compile("(?i)\\b(scanid|pathid)=\\d+");
+
+    private IssueDigest() {
+    }
+
+    /**
+     * The scan and path IDs of Checkmarx links are left out, so that the digest of a finding is the same in the next
+     * scan unless the finding itself changed; the issue then keeps the link to the scan that last changed it.
+     *
+     * @param parts rendered content of the issue (title, body, labels, fields...); null parts are allowed
+     * @return sha256 hex of the parts
+     */
+    public static String of(String... parts) {
+        StringBuilder content = new StringBuilder();
+        for (String part : parts) {
+            // Separator that doesn't occur in rendered content, so that ("ab", "c") and ("a", "bc") differ
+            content.append(part == null ? "" : withoutScanParameters(part)).append('\u0000');
+        }
+        return DigestUtils.sha256Hex(content.toString());
+    }
+
+    private static String withoutScanParameters(String part) {
+        return SCAN_PARAMETERS.matcher(part).replaceAll("$1=");
+    }
+
+    /**
+     * @return body followed by a hidden marker holding the digest
+     */
+    public static String mark(String body, String digest) {
+        String marker = String.format(MARKER, digest);
+        return body == null ? marker : body.concat(HTMLHelper.CRLF).concat(marker);
+    }
+
+    /**
+     * @return digest of the marker added by {@link #mark(String, String)}, or null if the body has none
+     */
+    public static String read(String body) {
+        if (body == null) {
+            return null;
+        }
+        Matcher matcher = MARKER_PATTERN.matcher(body);
+        String digest = null;
+        while (matcher.find()) {
+            digest = matcher.group(1);
+        }
+        return digest;
+    }
+}
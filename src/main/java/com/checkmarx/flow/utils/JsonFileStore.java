@@ -0,0 +1,234 @@
+package com.checkmarx.flow.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * JSON documents by key, kept in a bounded LRU map in memory and, with a directory set, in one file per key that
+ * survives restarts and evictions from memory. Files are replaced atomically, so a reader never sees a partial
+ * document and a failed write leaves the previous one.
+ * <p>
+ * Keys are used as file names, callers pass hashes or other file name safe keys. Thread-safe.
+ */
+@Slf4j
+public class JsonFileStore {
+    private static final String EXTENSION = ".json";
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000;
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String description;
+    private final int maxEntries;
+    private final Path directory;
+    private final int maxFiles;
+    private final long maxFileAgeMillis;
+    private final long pruneIntervalMillis;
+    private final Map<String, byte[]> entries;
+    private long lastPrunedAt;
+
+    public JsonFileStore(String description, int maxEntries, String directory) {
+        this(description, maxEntries, directory, 0, 0);
+    }
+
+    /**
+     * The file limits are applied after a write, at most once a minute.
+     *
+     * @param description      what is stored, for log messages
+     * @param maxEntries       documents kept in memory, the least recently used ones are evicted first; 0 for none
+     * @param directory        directory of the files, null or empty to keep documents in memory only
+     * @param maxFiles         files kept, the least recently used ones are deleted first; 0 for no limit
+     * @param maxFileAgeMillis files not used for longer are deleted; 0 for no limit
+     */
+    public JsonFileStore(String description, int maxEntries, String directory, int maxFiles, long maxFileAgeMillis) {
+        this(description, maxEntries, directory, maxFiles, maxFileAgeMillis, PRUNE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param pruneIntervalMillis minimal time between two walks over the directory to delete files over the limits,
+     *                            the limits may be exceeded in between
+     */
+    JsonFileStore(String description, int maxEntries, String directory, int maxFiles, long maxFileAgeMillis,
+                  long pruneIntervalMillis) {
+        this.description = description;
+        this.maxEntries = Math.max(maxEntries, 0);
+        this.directory = StringUtils.isEmpty(directory) ? null : Paths.get(directory);
+        this.maxFiles = Math.max(maxFiles, 0);
+        this.maxFileAgeMillis = Math.max(maxFileAgeMillis, 0);
+        this.pruneIntervalMillis = pruneIntervalMillis;
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > JsonFileStore.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return false if documents are neither kept in memory nor in files
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0 || directory != null;
+    }
+
+    /**
+     * @return the document, or null if there is none or its file can't be read
+     */
+    public byte[] get(String key) {
+        byte[] json;
+        synchronized (entries) {
+            json = entries.get(key);
+        }
+        if (json != null || directory == null) {
+            return json;
+        }
+        Path file = directory.resolve(key + EXTENSION);
+        try {
+            json = Files.readAllBytes(file);
+            if (maxFiles > 0 || maxFileAgeMillis > 0) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable {} {}", description, key, e);
+            return null;
+        }
+        putInMemory(key, json);
+        return json;
+    }
+
+    /**
+     * @return the document read as the type, or null if there is none; an unreadable document is removed
+     */
+    public <T> T read(String key, Class<T> type) {
+        byte[] json = get(key);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(json, type);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable {} {}", description, key, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] json) {
+        putInMemory(key, json);
+        if (directory == null) {
+            return;
+        }
+        try {
+            writeAtomically(directory.resolve(key + EXTENSION), json);
+            deleteUnusedFiles();
+        } catch (IOException e) {
+            log.warn("Unable to write {} to directory {}", description, directory, e);
+        }
+    }
+
+    /**
+     * Stores the value as JSON; a value that can't be serialized is logged and not stored.
+     */
+    public void write(String key, Object value) {
+        try {
+            put(key, mapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            log.warn("Unable to store {} {}", description, key, e);
+        }
+    }
+
+    /**
+     * Stores the result of the function applied to the current value of the key, or null if there is none. Updates
+     * through this method don't overwrite each other.
+     *
+     * @return the new value
+     */
+    public synchronized <T> T compute(String key, Class<T> type, UnaryOperator<T> update) {
+        T value = update.apply(read(key, type));
+        write(key, value);
+        return value;
+    }
+
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory.resolve(key + EXTENSION));
+            } catch (IOException e) {
+                log.warn("Unable to delete {} {}", description, key, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the file through a temporary file in the same directory, creating the directory if needed.
+     */
+    public static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Atomically replaces the file with a completely written one of the same file system.
+     */
+    public static void replace(Path source, Path file) throws IOException {
+        Files.move(source, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void putInMemory(String key, byte[] json) {
+        if (maxEntries > 0) {
+            synchronized (entries) {
+                entries.put(key, json);
+            }
+        }
+    }
+
+    /**
+     * Lists the whole directory, so it runs at most once per prune interval and not with every write.
+     */
+    private synchronized void deleteUnusedFiles() throws IOException {
+        long now = System.currentTimeMillis();
+        if ((maxFiles == 0 && maxFileAgeMillis == 0) || now - lastPrunedAt < pruneIntervalMillis) {
+            return;
+        }
+        lastPrunedAt = now;
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .collect(Collectors.toList());
+        }
+        Map<Path, Long> lastUsed = new HashMap<>();
+        for (Path file : files) {
+            lastUsed.put(file, file.toFile().lastModified());
+        }
+        files.sort(Comparator.comparing(lastUsed::get));
+        int excess = maxFiles == 0 ? 0 : files.size() - maxFiles;
+        long oldest = now - maxFileAgeMillis;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            if (i < excess || (maxFileAgeMillis > 0 && lastUsed.get(file) < oldest)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.checkmarx.flow.utils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Digest over the dependency manifests and lock files of a repository. Dependency (SCA) scan results only depend on
+ * these files, so a repository with the same fingerprint yields the same findings.
+ */
+public final class ManifestFingerprint {
+    private static final Set<String> MANIFESTS = new HashSet<>(Arrays.asList(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "gradle.lockfile", "ivy.xml", "build.sbt",
+            "package.json", "package-lock.json", "npm-shrinkwrap.json", "yarn.lock", "bower.json",
+            "go.mod", "go.sum", "Gopkg.lock",
+            "requirements.txt", "setup.py", "Pipfile", "Pipfile.lock", "pyproject.toml", "poetry.lock",
+            "Gemfile", "Gemfile.lock", "composer.json", "composer.lock",
+            "packages.config", "paket.lock", "Cargo.toml", "Cargo.lock"));
+    private static final Set<String> MANIFEST_EXTENSIONS = new HashSet<>(Arrays.asList(".csproj", ".gemspec"));
+    /**
+     * Directories holding installed dependencies rather than the repository's own manifests.
+     */
+    private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(
+            ".git", "node_modules", "bower_components"));
+
+    private ManifestFingerprint() {
+    }
+
+    public static boolean isManifest(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (MANIFESTS.contains(name)) {
+            return true;
+        }
+        int extension = name.lastIndexOf('.');
+        return extension > 0 && MANIFEST_EXTENSIONS.contains(name.substring(extension));
+    }
+
+    /**
+     * @param fileDigests digest of the content by path relative to the repository root, '/' separated; files that
+     *                    are not manifests are ignored
+     * @return sha256 hex over the manifests
+     */
+    public static String of(Map<String, String> fileDigests) {
+        StringBuilder content = new StringBuilder();
+        new TreeMap<>(fileDigests).forEach((path, digest) -> {
+            if (isManifest(path)) {
+                content.append(path).append('\u0000').append(digest).append('\n');
+            }
+        });
+        return DigestUtils.sha256Hex(content.toString());
+    }
+
+    /**
+     * @return fingerprint of the manifests found under a local directory
+     */
+    public static String of(Path root) throws IOException {
+        Map<String, String> fileDigests = new HashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return SKIPPED_DIRECTORIES.contains(String.valueOf(dir.getFileName()))
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String path = root.relativize(file).toString().replace('\\', '/');
+                if (attrs.isRegularFile() && isManifest(path)) {
+                    try (InputStream content = Files.newInputStream(file)) {
+                        fileDigests.put(path, DigestUtils.sha256Hex(content));
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return of(fileDigests);
+    }
+}
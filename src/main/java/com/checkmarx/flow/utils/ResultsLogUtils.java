@@ -0,0 +1,87 @@
+package com.checkmarx.flow.utils;
+
+import com.checkmarx.flow.dto.ScanDetails;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.cx.CxScanSummary;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Logging helpers for scan results.
+ * <p>
+ * ScanResults.toString() includes every issue with its details and code snippets, so it must never be
+ * logged as is above TRACE. The summaries built here have a constant size regardless of the number of findings.
+ */
+public class ResultsLogUtils {
+
+    private ResultsLogUtils() {
+    }
+
+    /**
+     * @return request identifiers, e.g. "id=..., team=..., project=..., branch=..., bugTracker=JIRA"
+     */
+    public static String summarize(ScanRequest request) {
+        if (request == null) {
+            return "none";
+        }
+        String bugTracker = request.getBugTracker() == null || request.getBugTracker().getType() == null
+                ? null : request.getBugTracker().getType().toString();
+        return String.format("id=%s, team=%s, project=%s, branch=%s, bugTracker=%s",
+                request.getId(), request.getTeam(), request.getProject(), request.getBranch(), bugTracker);
+    }
+
+    /**
+     * @return scan identifiers, issue count and finding counts per severity
+     */
+    public static String summarize(ScanResults results) {
+        if (results == null) {
+            return "none";
+        }
+        List<ScanResults.XIssue> issues = results.getXIssues();
+        Object scanId = results.getAdditionalDetails() == null ? null : results.getAdditionalDetails().get("scanId");
+        return String.format("projectId=%s, scanId=%s, issues=%d, findings=%s",
+                results.getProjectId(), scanId, issues == null ? 0 : issues.size(), countBySeverity(results));
+    }
+
+    public static String summarize(ScanDetails scanDetails) {
+        if (scanDetails == null) {
+            return "none";
+        }
+        return String.format("projectId=%s, scanId=%s, osaScanId=%s",
+                scanDetails.getProjectId(), scanDetails.getScanId(), scanDetails.getOsaScanId());
+    }
+
+    /**
+     * Logs the full value at TRACE. The supplier is only called if TRACE is enabled for the logger.
+     */
+    public static void trace(Logger log, String message, Supplier<?> value) {
+        if (log.isTraceEnabled()) {
+            log.trace(message, value.get());
+        }
+    }
+
+    private static Map<String, Integer> countBySeverity(ScanResults results) {
+        Map<String, Integer> counts = new TreeMap<>();
+        CxScanSummary summary = results.getScanSummary();
+        if (summary != null) {
+            counts.put("High", nullToZero(summary.getHighSeverity()));
+            counts.put("Medium", nullToZero(summary.getMediumSeverity()));
+            counts.put("Low", nullToZero(summary.getLowSeverity()));
+            counts.put("Info", nullToZero(summary.getInfoSeverity()));
+        } else if (results.getXIssues() != null) {
+            for (ScanResults.XIssue issue : results.getXIssues()) {
+                counts.merge(String.valueOf(issue.getSeverity()), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static int nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
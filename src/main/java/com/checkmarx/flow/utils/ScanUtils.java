@@ -3,7 +3,6 @@ package com.checkmarx.flow.utils;
 import com.checkmarx.flow.config.JiraProperties;
 import com.checkmarx.flow.constants.SCATicketingConstants;
 import com.checkmarx.flow.dto.*;
-import com.checkmarx.flow.exception.MachinaRuntimeException;
 import com.checkmarx.sdk.dto.Filter;
 import com.checkmarx.sdk.dto.ScanResults;
 import com.checkmarx.sdk.dto.ast.SCAResults;
@@ -11,7 +10,6 @@ import com.cx.restclient.ast.dto.sast.report.FindingNode;
 import com.checkmarx.sdk.dto.cx.CxScanSummary;
 import com.cx.restclient.ast.dto.sca.report.Finding;
 import com.cx.restclient.ast.dto.sca.report.Package;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
@@ -388,28 +386,6 @@ public class ScanUtils {
         return repoUrl.concat("/blob/").concat(request.getBranch()).concat("/").concat(filename);
     }
 
-    public static FlowOverride getMachinaOverride(@RequestParam(value = "override", required = false) String override) {
-        FlowOverride o = null;
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            //if override is provided, check if chars are more than 20 in length, implying base64 encoded json
-            if(!ScanUtils.empty(override)){
-                if(override.length() > 20){
-                    String oJson = new String(Base64.getDecoder().decode(override));
-                    o = mapper.readValue(oJson, FlowOverride.class);
-                    log.info("Overriding attributes with Base64 encoded String");
-                }
-                else{
-                    //TODO download file
-                }
-            }
-        } catch (IOException e) {
-            log.error("Error occurred", e);
-            throw new MachinaRuntimeException();
-        }
-        return o;
-    }
-
     /**
      * Creates a map of GitLab Issues
      *
@@ -0,0 +1,50 @@
+package com.checkmarx.flow.config;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FlowConfigTest {
+
+    @Test
+    void newConnectionManager_configuredPool_limitsApplied() {
+        FlowProperties.HttpPool pool = new FlowProperties.HttpPool();
+        pool.setMaxTotal(50);
+        pool.setMaxPerRoute(5);
+        pool.setValidateAfterInactivityMs(500);
+        pool.setMaxPerHost(Collections.singletonMap("https://api.github.com", 30));
+
+        PoolingHttpClientConnectionManager connectionManager = FlowConfig.newConnectionManager(pool);
+        try {
+            assertEquals(50, connectionManager.getMaxTotal());
+            assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+            assertEquals(500, connectionManager.getValidateAfterInactivity());
+            assertEquals(30, connectionManager.getMaxPerRoute(FlowConfig.toRoute("https://api.github.com")));
+            assertEquals(5, connectionManager.getMaxPerRoute(FlowConfig.toRoute("https://gitlab.com")));
+        } finally {
+            connectionManager.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getRestTemplate_customRequestFactory_pooledClientNotCreated() {
+        FlowProperties properties = new FlowProperties();
+        ObjectProvider<CloseableHttpClient> httpClient = mock(ObjectProvider.class);
+        ClientHttpRequestFactory customRequestFactory = new SimpleClientHttpRequestFactory();
+
+        new FlowConfig(properties).getRestTemplate(Optional.of(customRequestFactory), httpClient,
+                new RateLimitInterceptor(properties));
+
+        verify(httpClient, never()).getObject();
+    }
+}
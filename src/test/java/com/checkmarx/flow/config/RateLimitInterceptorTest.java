@@ -0,0 +1,99 @@
+package com.checkmarx.flow.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    @Test
+    void tryAcquire_lowBudget_reserveKeptForPriorityRequests() {
+        long now = System.currentTimeMillis();
+        RateLimitInterceptor.Bucket bucket = new RateLimitInterceptor.Bucket("api.github.com", "anonymous");
+        bucket.update(rateLimitHeaders("X-RateLimit-", 100, 10, TimeUnit.MILLISECONDS.toSeconds(now) + 600), now);
+
+        assertTrue(bucket.tryAcquire(false, 10, now) > 0, "Bulk requests must wait when only the reserve is left");
+        assertEquals(0, bucket.tryAcquire(true, 10, now));
+    }
+
+    @Test
+    void tryAcquire_gitLabHeadersWithEpochReset_waitsUntilReset() {
+        long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long now = TimeUnit.SECONDS.toMillis(nowSeconds);
+        RateLimitInterceptor.Bucket bucket = new RateLimitInterceptor.Bucket("gitlab.com", "anonymous");
+        bucket.update(rateLimitHeaders("RateLimit-", 600, 0, nowSeconds + 30), now);
+
+        long wait = bucket.tryAcquire(true, 10, now);
+        assertEquals(TimeUnit.SECONDS.toMillis(30), wait);
+        assertEquals(0, bucket.tryAcquire(false, 10, now + wait), "Budget is unknown again after the reset");
+    }
+
+    @Test
+    void tryAcquire_noRateLimitHeaders_neverWaits() {
+        RateLimitInterceptor.Bucket bucket = new RateLimitInterceptor.Bucket("dev.azure.com", "anonymous");
+        bucket.update(new HttpHeaders(), System.currentTimeMillis());
+        assertEquals(0, bucket.tryAcquire(false, 10, System.currentTimeMillis()));
+    }
+
+    @Test
+    void intercept_waitingForRetry_releasesConcurrencyPermit() throws IOException {
+        FlowProperties properties = new FlowProperties();
+        properties.setDownstreamConcurrency(Collections.singletonMap("api.github.com", 1));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties);
+        ClientHttpRequestExecution otherExecution = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        CompletableFuture<Void> other = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean otherDoneBeforeRetry = new AtomicBoolean();
+
+        ClientHttpResponse response = interceptor.intercept(githubRequest("/repos/org/repo/issues"), new byte[0],
+                (request, body) -> {
+                    if (attempts.getAndIncrement() > 0) {
+                        otherDoneBeforeRetry.set(other.isDone());
+                        return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+                    }
+                    new Thread(() -> {
+                        try {
+                            interceptor.intercept(githubRequest("/repos/org/repo"), new byte[0], otherExecution);
+                            other.complete(null);
+                        } catch (IOException e) {
+                            other.completeExceptionally(e);
+                        }
+                    }).start();
+                    MockClientHttpResponse tooManyRequests = new MockClientHttpResponse(new byte[0],
+                            HttpStatus.TOO_MANY_REQUESTS);
+                    tooManyRequests.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    return tooManyRequests;
+                });
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, attempts.get());
+        assertTrue(otherDoneBeforeRetry.get(), "Requests to the host must not wait for another request's retry");
+    }
+
+    private static MockClientHttpRequest githubRequest(String path) {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.github.com" + path));
+    }
+
+    private static HttpHeaders rateLimitHeaders(String prefix, long limit, long remaining, long reset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(prefix + "Limit", String.valueOf(limit));
+        headers.set(prefix + "Remaining", String.valueOf(remaining));
+        headers.set(prefix + "Reset", String.valueOf(reset));
+        return headers;
+    }
+}
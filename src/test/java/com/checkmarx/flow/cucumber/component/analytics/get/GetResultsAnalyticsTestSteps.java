@@ -10,6 +10,7 @@ import com.checkmarx.flow.dto.report.ScanResultsReport;
 import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.service.EmailService;
 import com.checkmarx.flow.service.ResultsService;
+import com.checkmarx.flow.service.TrackerDispatcher;
 import com.checkmarx.jira.PublishUtils;
 import com.checkmarx.sdk.config.Constants;
 import com.checkmarx.sdk.config.CxProperties;
@@ -83,7 +84,10 @@ public class GetResultsAnalyticsTestSteps {
                 null,
                 null,
                 emailService,
-                cxProperties);
+                cxProperties,
+                new FlowProperties(),
+                Runnable::run,
+                new TrackerDispatcher(new FlowProperties()));
     }
 
 
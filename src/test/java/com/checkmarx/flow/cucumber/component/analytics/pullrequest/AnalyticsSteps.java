@@ -13,6 +13,7 @@ import com.checkmarx.flow.exception.MachinaException;
 import com.checkmarx.flow.service.GitHubService;
 import com.checkmarx.flow.service.ThresholdValidator;
 import com.checkmarx.flow.service.ResultsService;
+import com.checkmarx.flow.service.TrackerDispatcher;
 import com.checkmarx.flow.utils.AesEncryptionUtils;
 import com.checkmarx.sdk.config.Constants;
 import com.checkmarx.sdk.config.CxProperties;
@@ -243,7 +244,10 @@ public class AnalyticsSteps {
                 null,
                 null,
                 null,
-                cxProperties);
+                cxProperties,
+                flowProperties,
+                Runnable::run,
+                new TrackerDispatcher(flowProperties));
     }
 
     private static ScanResults createFakeSASTScanResults(Map<FindingSeverity, Integer> findingsPerSeverity) {
@@ -135,7 +135,10 @@ public class GitHubCommentsASTSteps {
                     null,
                     null,
                     null, emailService,
-                    cxProperties);
+                    cxProperties,
+                    flowProperties,
+                    Runnable::run,
+                    new TrackerDispatcher(flowProperties));
         }
         
         throw new UnsupportedOperationException();
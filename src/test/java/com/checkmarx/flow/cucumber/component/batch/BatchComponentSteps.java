@@ -16,7 +16,7 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -38,11 +38,12 @@ public class BatchComponentSteps {
     private final FlowService flowService;
     private final HelperService helperService;
     private final CxClient cxClient;
-    private final List<ThreadPoolTaskExecutor> executors;
+    private final List<AsyncListenableTaskExecutor> executors;
     private final ResultsService resultsService;
     private final OsaScannerService osaScannerService;
     private final FilterFactory filterFactory;
     private final ConfigurationOverrider configOverrider;
+    private final FlowOverrideResolver overrideResolver;
 
     private CxFlowRunner cxFlowRunner;
     private String projectName;
@@ -69,6 +70,7 @@ public class BatchComponentSteps {
                 osaScannerService,
                 filterFactory,
                 configOverrider,
+                overrideResolver,
                 scanners);
     }
 
@@ -5,6 +5,7 @@ import com.checkmarx.flow.config.FlowProperties;
 import com.checkmarx.flow.config.GitHubProperties;
 import com.checkmarx.flow.controller.GitHubController;
 import com.checkmarx.flow.dto.github.*;
+import com.checkmarx.flow.sastscanning.IncrementalScanSelector;
 import com.checkmarx.flow.sastscanning.ScanRequestConverter;
 import com.checkmarx.flow.service.*;
 import com.checkmarx.sdk.config.Constants;
@@ -222,11 +223,13 @@ public class DeleteBranchSteps {
             initProjectNameGeneratorSpy(projectNameGeneratorSpy);
         
         ScanRequestConverter scanRequestConverter = new ScanRequestConverter(helperService, cxProperties, cxClientMock, flowProperties, gitHubService, null, null, null);
-        SastScanner sastScanner = new SastScanner(null, cxClientMock, helperService, cxProperties, flowProperties, null, null, scanRequestConverter, null, projectNameGeneratorSpy);
+        SastScanner sastScanner = new SastScanner(null, cxClientMock, helperService, cxProperties, flowProperties, null, null, scanRequestConverter, null, projectNameGeneratorSpy,
+                new ScanResultsCache(flowProperties), new CommitScanIndex(flowProperties),
+                new IncrementalScanSelector(flowProperties, gitHubService, null), null);
         List<VulnerabilityScanner> scanners= new LinkedList<>();
         scanners.add(sastScanner);
         
-        FlowService flowServiceSpy = spy(new FlowService(scanners, projectNameGeneratorSpy, null));
+        FlowService flowServiceSpy = spy(FlowServiceTestUtils.createFlowService(scanners, projectNameGeneratorSpy, null));
         
         //gitHubControllerSpy is a spy which will run real methods.
         //It will connect to a real github repository to read a real cx.config file
@@ -0,0 +1,104 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Exchange;
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+/**
+ * Azure DevOps work item API (as used by the Azure bug tracker): WIQL search, work item reads and JSON patch
+ * creates and updates. Work items are kept per organization (the flow's namespace) and project.
+ */
+class AdoStandIn {
+    private static final String PROJECT = "/([^/]+)/([^/]+)/_apis/wit";
+    private static final String FIELDS_PREFIX = "/fields/";
+
+    @Getter
+    private final StandInServer server;
+    private final FlowRecorder recorder;
+    private final String openState;
+    private final Map<String, List<ObjectNode>> itemsByProject = new ConcurrentHashMap<>();
+    private final Map<Integer, ObjectNode> itemsById = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    AdoStandIn(StandInServer.Settings settings, FlowRecorder recorder, String openState) {
+        this.recorder = recorder;
+        this.openState = openState;
+        server = new StandInServer("Azure DevOps", settings, StandInServer.RateLimitStyle.AZURE)
+                .route("POST", PROJECT + "/wiql", this::query)
+                .route("POST", PROJECT + "/workitems/\\$[^/]+", this::createWorkItem)
+                .route("GET", PROJECT + "/workitems/(\\d+)", this::getWorkItem)
+                .route("PATCH", PROJECT + "/workitems/(\\d+)", this::updateWorkItem);
+    }
+
+    String getUrl() {
+        return server.getBaseUrl() + "/";
+    }
+
+    /**
+     * Every work item of the organization and project matches, as the flows do not share either.
+     */
+    private Response query(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode result = StandInServer.mapper.createObjectNode();
+        ArrayNode workItems = result.putArray("workItems");
+        for (ObjectNode item : projectItems(path)) {
+            workItems.addObject()
+                    .put("id", item.get("id").asInt())
+                    .put("url", item.get("url").asText());
+        }
+        return Response.json(result);
+    }
+
+    private Response createWorkItem(Exchange exchange, Matcher path) throws IOException {
+        int id = lastId.incrementAndGet();
+        String url = String.format("%s/%s/%s/_apis/wit/workitems/%d", server.getBaseUrl(), path.group(1), path.group(2), id);
+        ObjectNode item = StandInServer.mapper.createObjectNode();
+        item.put("id", id);
+        item.put("url", url);
+        item.putObject("fields").put("System.State", openState);
+        item.putObject("_links").putObject("self").put("href", url);
+        apply(item, StandInServer.mapper.readTree(exchange.getBody()));
+        itemsById.put(id, item);
+        projectItems(path).add(item);
+        recorder.issueCreated(FlowRecorder.flowOf(path.group(1)));
+        return Response.json(item);
+    }
+
+    private Response getWorkItem(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode item = itemsById.get(Integer.valueOf(path.group(3)));
+        return item == null ? Response.status(404) : Response.json(item);
+    }
+
+    private Response updateWorkItem(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode item = itemsById.get(Integer.valueOf(path.group(3)));
+        if (item == null) {
+            return Response.status(404);
+        }
+        apply(item, StandInServer.mapper.readTree(exchange.getBody()));
+        return Response.json(item);
+    }
+
+    private static void apply(ObjectNode item, JsonNode patch) {
+        ObjectNode fields = (ObjectNode) item.get("fields");
+        for (JsonNode operation : patch) {
+            String field = operation.path("path").asText();
+            if (field.startsWith(FIELDS_PREFIX)) {
+                fields.set(field.substring(FIELDS_PREFIX.length()), operation.get("value"));
+            }
+        }
+    }
+
+    private List<ObjectNode> projectItems(Matcher path) {
+        return itemsByProject.computeIfAbsent(path.group(1) + "/" + path.group(2), key -> new CopyOnWriteArrayList<>());
+    }
+}
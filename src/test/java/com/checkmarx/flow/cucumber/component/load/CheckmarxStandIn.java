@@ -0,0 +1,242 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Exchange;
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+/**
+ * Checkmarx SAST REST API (/cxrestapi) as called by the SDK for a webhook scan: login, team and project lookup,
+ * project creation and settings, scan creation and status, and XML report generation and download.
+ * <p>
+ * A scan finishes scanDurationMs after it was created, and every report is the same sample report. Project, scan
+ * and report IDs are mapped back to the flow whose project name they were created for.
+ */
+class CheckmarxStandIn {
+    private static final String API = "/cxrestapi";
+    private static final int FINISHED = 7;
+    private static final int SCANNING = 3;
+
+    @Getter
+    private final StandInServer server;
+    private final FlowRecorder recorder;
+    private final byte[] report;
+    private final long scanDurationMs;
+    private final Map<String, Integer> projectIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> projectNames = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> scanProjects = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> scanStarts = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> reportScans = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger(1000);
+
+    CheckmarxStandIn(StandInServer.Settings settings, FlowRecorder recorder, byte[] report, long scanDurationMs) {
+        this.recorder = recorder;
+        this.report = report;
+        this.scanDurationMs = scanDurationMs;
+        server = new StandInServer("Checkmarx", settings, StandInServer.RateLimitStyle.PLAIN)
+                .route("POST", API + "/auth/identity/connect/token", this::token)
+                .route("GET", API + "/auth/teams", this::teams)
+                .route("GET", API + "/system/version", this::version)
+                .route("GET", API + "/projects", this::findProject)
+                .route("POST", API + "/projects", this::createProject)
+                .route("GET", API + "/projects/(\\d+)", this::getProject)
+                .route("POST", API + "/projects/(\\d+)/sourceCode/.*", (exchange, path) -> Response.status(204))
+                .route("PUT", API + "/projects/(\\d+)/sourceCode/.*", (exchange, path) -> Response.status(204))
+                .route("PATCH", API + "/projects/(\\d+)", (exchange, path) -> Response.status(204))
+                .route("GET", API + "/sast/scanSettings/(\\d+)", this::scanSettings)
+                .route("POST", API + "/sast/scanSettings", this::saveScanSettings)
+                .route("PUT", API + "/sast/scanSettings", this::saveScanSettings)
+                .route("GET", API + "/sast/presets", this::presets)
+                .route("GET", API + "/sast/engineConfigurations", this::engineConfigurations)
+                .route("GET", API + "/sast/scansQueue", (exchange, path) -> Response.json(new Object[0]))
+                .route("GET", API + "/sast/scans", (exchange, path) -> Response.json(new Object[0]))
+                .route("POST", API + "/sast/scans", this::createScan)
+                .route("GET", API + "/sast/scans/(\\d+)", this::getScan)
+                .route("GET", API + "/sast/scans/(\\d+)/resultsStatistics", this::statistics)
+                .route("POST", API + "/reports/sastScan", this::createReport)
+                .route("GET", API + "/reports/sastScan/(\\d+)/status", this::reportStatus)
+                .route("GET", API + "/reports/sastScan/(\\d+)", this::downloadReport);
+    }
+
+    String getBaseUrl() {
+        return server.getBaseUrl();
+    }
+
+    private Response token(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode token = StandInServer.mapper.createObjectNode();
+        token.put("access_token", "load-test");
+        token.put("token_type", "Bearer");
+        token.put("expires_in", 3600);
+        return Response.json(token);
+    }
+
+    private Response teams(Exchange exchange, Matcher path) throws IOException {
+        ArrayNode teams = StandInServer.mapper.createArrayNode();
+        teams.addObject().put("id", "1").put("name", "CxServer").put("fullName", "/CxServer").put("parentId", "0");
+        teams.addObject().put("id", "2").put("name", "SP").put("fullName", "/CxServer/SP").put("parentId", "1");
+        teams.addObject().put("id", "3").put("name", "Checkmarx").put("fullName", "/CxServer/SP/Checkmarx")
+                .put("parentId", "2");
+        return Response.json(teams);
+    }
+
+    private Response version(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode version = StandInServer.mapper.createObjectNode();
+        version.put("version", "8.9.0");
+        version.put("hotFix", "0");
+        version.put("enginePackVersion", "8.9.0");
+        return Response.json(version);
+    }
+
+    /**
+     * The first lookup of a flow's project marks the scan request as taken from the CxFlow queue.
+     */
+    private Response findProject(Exchange exchange, Matcher path) throws IOException {
+        String rawName = exchange.query("projectName");
+        ArrayNode result = StandInServer.mapper.createArrayNode();
+        if (rawName == null) {
+            projectIds.values().forEach(id -> result.add(project(id)));
+            return Response.json(result);
+        }
+        String name = URLDecoder.decode(rawName, StandardCharsets.UTF_8.name());
+        recorder.scanStarted(FlowRecorder.flowOf(name));
+        Integer id = projectIds.get(name);
+        if (id == null) {
+            ObjectNode error = StandInServer.mapper.createObjectNode();
+            error.put("messageCode", 42203);
+            error.put("messageDetails", "Project not found");
+            return Response.json(404, error);
+        }
+        result.add(project(id));
+        return Response.json(result);
+    }
+
+    private Response createProject(Exchange exchange, Matcher path) throws IOException {
+        String name = StandInServer.mapper.readTree(exchange.getBody()).path("name").asText();
+        recorder.scanStarted(FlowRecorder.flowOf(name));
+        Integer id = projectIds.computeIfAbsent(name, key -> lastId.incrementAndGet());
+        projectNames.put(id, name);
+        return Response.json(201, idAndLink(id, "/projects/" + id));
+    }
+
+    private Response getProject(Exchange exchange, Matcher path) throws IOException {
+        Integer id = Integer.valueOf(path.group(1));
+        return projectNames.containsKey(id) ? Response.json(project(id)) : Response.status(404);
+    }
+
+    private ObjectNode project(Integer id) {
+        ObjectNode project = StandInServer.mapper.createObjectNode();
+        project.put("id", id);
+        project.put("teamId", "1");
+        project.put("name", projectNames.get(id));
+        project.put("isPublic", true);
+        project.putArray("customFields");
+        project.putArray("links");
+        return project;
+    }
+
+    private Response scanSettings(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode settings = StandInServer.mapper.createObjectNode();
+        settings.putObject("project").put("id", Integer.parseInt(path.group(1)));
+        settings.putObject("preset").put("id", 36);
+        settings.putObject("engineConfiguration").put("id", 1);
+        return Response.json(settings);
+    }
+
+    private Response saveScanSettings(Exchange exchange, Matcher path) throws IOException {
+        int projectId = StandInServer.mapper.readTree(exchange.getBody()).path("projectId").asInt();
+        return Response.json(200, idAndLink(projectId, "/sast/scanSettings/" + projectId));
+    }
+
+    private Response presets(Exchange exchange, Matcher path) throws IOException {
+        ArrayNode presets = StandInServer.mapper.createArrayNode();
+        presets.addObject().put("id", 36).put("name", "Checkmarx Default").put("ownerName", "Checkmarx");
+        return Response.json(presets);
+    }
+
+    private Response engineConfigurations(Exchange exchange, Matcher path) throws IOException {
+        ArrayNode configurations = StandInServer.mapper.createArrayNode();
+        configurations.addObject().put("id", 1).put("name", "Default Configuration");
+        return Response.json(configurations);
+    }
+
+    private Response createScan(Exchange exchange, Matcher path) throws IOException {
+        JsonNode request = StandInServer.mapper.readTree(exchange.getBody());
+        int scanId = lastId.incrementAndGet();
+        scanProjects.put(scanId, request.path("projectId").asInt());
+        scanStarts.put(scanId, System.nanoTime());
+        return Response.json(201, idAndLink(scanId, "/sast/scans/" + scanId));
+    }
+
+    private Response getScan(Exchange exchange, Matcher path) throws IOException {
+        Integer scanId = Integer.valueOf(path.group(1));
+        Long start = scanStarts.get(scanId);
+        if (start == null) {
+            return Response.status(404);
+        }
+        boolean finished = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= scanDurationMs;
+        ObjectNode scan = StandInServer.mapper.createObjectNode();
+        scan.put("id", scanId);
+        scan.putObject("project").put("id", scanProjects.get(scanId)).put("name", projectNames.get(scanProjects.get(scanId)));
+        scan.putObject("status").put("id", finished ? FINISHED : SCANNING).put("name", finished ? "Finished" : "Scanning");
+        scan.putObject("scanType").put("id", 1).put("value", "Regular");
+        scan.put("isIncremental", false);
+        scan.putObject("dateAndTime").put("startedOn", Instant.now().toString());
+        return Response.json(scan);
+    }
+
+    private Response statistics(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode statistics = StandInServer.mapper.createObjectNode();
+        statistics.put("highSeverity", 0);
+        statistics.put("mediumSeverity", 0);
+        statistics.put("lowSeverity", 0);
+        statistics.put("infoSeverity", 0);
+        statistics.put("statisticsCalculationDate", Instant.now().toString());
+        return Response.json(statistics);
+    }
+
+    private Response createReport(Exchange exchange, Matcher path) throws IOException {
+        int scanId = StandInServer.mapper.readTree(exchange.getBody()).path("scanId").asInt();
+        int reportId = lastId.incrementAndGet();
+        reportScans.put(reportId, scanId);
+        ObjectNode result = StandInServer.mapper.createObjectNode();
+        result.put("reportId", reportId);
+        result.putObject("links").putObject("report").put("rel", "content").put("uri", "/reports/sastScan/" + reportId);
+        return Response.json(202, result);
+    }
+
+    private Response reportStatus(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode status = StandInServer.mapper.createObjectNode();
+        status.put("contentType", "application/xml");
+        status.putObject("status").put("id", 2).put("value", "Created");
+        return Response.json(status);
+    }
+
+    private Response downloadReport(Exchange exchange, Matcher path) {
+        Integer scanId = reportScans.get(Integer.valueOf(path.group(1)));
+        Integer projectId = scanId == null ? null : scanProjects.get(scanId);
+        if (projectId == null) {
+            return Response.status(404);
+        }
+        recorder.reportDownloaded(FlowRecorder.flowOf(projectNames.get(projectId)));
+        return Response.status(200).header("Content-Type", "application/xml").body(report);
+    }
+
+    private static ObjectNode idAndLink(int id, String uri) {
+        ObjectNode result = StandInServer.mapper.createObjectNode();
+        result.put("id", id);
+        result.putObject("link").put("rel", "self").put("uri", uri);
+        return result;
+    }
+}
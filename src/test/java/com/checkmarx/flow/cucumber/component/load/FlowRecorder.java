@@ -0,0 +1,135 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Timeline of every replayed flow, filled in by the webhook replayer and the stand-ins.
+ * <p>
+ * Each flow pushes to its own repository, named cx-load-&lt;flow&gt;, so that stand-ins can tell flows apart by the
+ * repository name in the request and CxFlow never closes the issues of another flow.
+ */
+class FlowRecorder {
+    static final Pattern FLOW_NAME = Pattern.compile("cx-load-(\\d+)");
+
+    private final Map<Integer, Flow> flows = new ConcurrentHashMap<>();
+
+    static String repoName(int flow) {
+        return "cx-load-" + flow;
+    }
+
+    /**
+     * @return the flow named in the text, or null
+     */
+    static Integer flowOf(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = FLOW_NAME.matcher(text);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    static long now() {
+        return System.nanoTime();
+    }
+
+    void register(int flow, String bugTracker, int expectedIssues) {
+        flows.put(flow, new Flow(flow, bugTracker, expectedIssues));
+    }
+
+    void webhookSent(int flow, long sentAt, long answeredAt, int status) {
+        Flow f = flows.get(flow);
+        f.sentAt = sentAt;
+        f.answeredAt = answeredAt;
+        f.webhookStatus = status;
+    }
+
+    /**
+     * First request of the flow to the Checkmarx API, the scan request left the CxFlow queue.
+     */
+    void scanStarted(Integer flow) {
+        Flow f = get(flow);
+        if (f != null) {
+            synchronized (f) {
+                if (f.scanStartedAt == 0) {
+                    f.scanStartedAt = now();
+                }
+            }
+        }
+    }
+
+    void reportDownloaded(Integer flow) {
+        Flow f = get(flow);
+        if (f != null) {
+            f.reportDownloadedAt = now();
+        }
+    }
+
+    void issueCreated(Integer flow) {
+        Flow f = get(flow);
+        if (f != null) {
+            f.lastIssueAt = now();
+            f.issues.incrementAndGet();
+        }
+    }
+
+    List<Flow> getFlows() {
+        return new ArrayList<>(flows.values());
+    }
+
+    long getCompletedCount() {
+        return flows.values().stream().filter(Flow::isCompleted).count();
+    }
+
+    private Flow get(Integer flow) {
+        return flow == null ? null : flows.get(flow);
+    }
+
+    @Getter
+    static class Flow {
+        private final int id;
+        private final String bugTracker;
+        private final int expectedIssues;
+        private final AtomicInteger issues = new AtomicInteger();
+        private volatile int webhookStatus;
+        private volatile long sentAt;
+        private volatile long answeredAt;
+        private volatile long scanStartedAt;
+        private volatile long reportDownloadedAt;
+        private volatile long lastIssueAt;
+
+        private Flow(int id, String bugTracker, int expectedIssues) {
+            this.id = id;
+            this.bugTracker = bugTracker;
+            this.expectedIssues = expectedIssues;
+        }
+
+        boolean isCompleted() {
+            return issues.get() >= expectedIssues && reportDownloadedAt != 0;
+        }
+
+        long getQueueMs() {
+            return millis(answeredAt, scanStartedAt);
+        }
+
+        long getPublishMs() {
+            return millis(reportDownloadedAt, lastIssueAt);
+        }
+
+        long getEndToEndMs() {
+            return millis(sentAt, lastIssueAt);
+        }
+
+        private static long millis(long from, long to) {
+            return TimeUnit.NANOSECONDS.toMillis(to - from);
+        }
+    }
+}
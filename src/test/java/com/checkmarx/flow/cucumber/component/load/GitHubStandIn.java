@@ -0,0 +1,115 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Exchange;
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+/**
+ * GitHub issues API (as used by the GitHub bug tracker), served under /repos.
+ * Config as code is answered with 404, so that the repository settings are used.
+ */
+class GitHubStandIn {
+    private static final String REPO = "/repos/([^/]+)/([^/]+)";
+
+    @Getter
+    private final StandInServer server;
+    private final FlowRecorder recorder;
+    private final Map<String, List<ObjectNode>> issuesByRepo = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    GitHubStandIn(StandInServer.Settings settings, FlowRecorder recorder) {
+        this.recorder = recorder;
+        server = new StandInServer("GitHub", settings, StandInServer.RateLimitStyle.GITHUB)
+                .route("GET", REPO + "/contents/.*", (exchange, path) -> Response.status(404))
+                .route("GET", REPO + "/issues", this::listIssues)
+                .route("POST", REPO + "/issues", this::createIssue)
+                .route("GET", REPO + "/issues/(\\d+)", (exchange, path) -> Response.json(findIssue(path)))
+                .route("POST", REPO + "/issues/(\\d+)", this::updateIssue)
+                .route("POST", REPO + "/issues/(\\d+)/comments", (exchange, path) -> Response.status(201));
+    }
+
+    String getApiUrl() {
+        return server.getBaseUrl() + "/repos/";
+    }
+
+    private Response listIssues(Exchange exchange, Matcher path) throws IOException {
+        return server.page(exchange, updatedSince(repoIssues(path), exchange.query("since")));
+    }
+
+    private Response createIssue(Exchange exchange, Matcher path) throws IOException {
+        JsonNode request = StandInServer.mapper.readTree(exchange.getBody());
+        int number = lastId.incrementAndGet();
+        ObjectNode issue = StandInServer.mapper.createObjectNode();
+        issue.put("id", number);
+        issue.put("number", number);
+        issue.put("url", String.format("%s/repos/%s/%s/issues/%d", server.getBaseUrl(), path.group(1), path.group(2), number));
+        issue.put("state", "open");
+        issue.putArray("labels");
+        apply(issue, request);
+        repoIssues(path).add(issue);
+        recorder.issueCreated(FlowRecorder.flowOf(path.group(2)));
+        return Response.json(201, issue);
+    }
+
+    private Response updateIssue(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode issue = findIssue(path);
+        if (issue == null) {
+            return Response.status(404);
+        }
+        apply(issue, StandInServer.mapper.readTree(exchange.getBody()));
+        return Response.json(issue);
+    }
+
+    private static void apply(ObjectNode issue, JsonNode request) {
+        for (String field : new String[]{"title", "body", "state"}) {
+            if (request.hasNonNull(field)) {
+                issue.put(field, request.get(field).asText());
+            }
+        }
+        if (request.has("labels")) {
+            List<String> labels = new ArrayList<>();
+            request.get("labels").forEach(label -> labels.add(label.asText()));
+            issue.putArray("labels").addAll(labels.stream()
+                    .map(label -> StandInServer.mapper.createObjectNode().put("name", label))
+                    .collect(Collectors.toList()));
+        }
+        issue.put("updated_at", Instant.now().toString());
+    }
+
+    private ObjectNode findIssue(Matcher path) {
+        int number = Integer.parseInt(path.group(3));
+        return repoIssues(path).stream()
+                .filter(issue -> issue.get("number").asInt() == number)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private List<ObjectNode> repoIssues(Matcher path) {
+        return issuesByRepo.computeIfAbsent(path.group(1) + "/" + path.group(2), key -> new CopyOnWriteArrayList<>());
+    }
+
+    static List<ObjectNode> updatedSince(List<ObjectNode> issues, String since) throws IOException {
+        if (since == null) {
+            return issues;
+        }
+        Instant from = Instant.parse(URLDecoder.decode(since, StandardCharsets.UTF_8.name()));
+        return issues.stream()
+                .filter(issue -> !Instant.parse(issue.get("updated_at").asText()).isBefore(from))
+                .collect(Collectors.toList());
+    }
+}
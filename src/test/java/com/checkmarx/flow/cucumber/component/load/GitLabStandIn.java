@@ -0,0 +1,121 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Exchange;
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+
+/**
+ * GitLab v4 project and issues API (as used by the GitLab bug tracker), served under /api/v4.
+ * The project ID of a flow's repository is the flow number.
+ */
+class GitLabStandIn {
+    private static final String PROJECT = "/api/v4/projects/(\\d+)";
+
+    @Getter
+    private final StandInServer server;
+    private final FlowRecorder recorder;
+    private final Map<Integer, List<ObjectNode>> issuesByProject = new ConcurrentHashMap<>();
+
+    GitLabStandIn(StandInServer.Settings settings, FlowRecorder recorder) {
+        this.recorder = recorder;
+        server = new StandInServer("GitLab", settings, StandInServer.RateLimitStyle.GITLAB)
+                .route("GET", "/api/v4/projects/([^/]+(?i:%2F)[^/]+)", this::getProject)
+                .route("GET", PROJECT + "/issues", this::listIssues)
+                .route("POST", PROJECT + "/issues", this::createIssue)
+                .route("GET", PROJECT + "/issues/(\\d+)", (exchange, path) -> Response.json(findIssue(path)))
+                .route("PUT", PROJECT + "/issues/(\\d+)", this::updateIssue)
+                .route("POST", PROJECT + "/issues/(\\d+)/notes", (exchange, path) -> Response.status(201));
+    }
+
+    String getApiUrl() {
+        return server.getBaseUrl() + "/api/v4";
+    }
+
+    private Response getProject(Exchange exchange, Matcher path) throws IOException {
+        String fullPath = URLDecoder.decode(path.group(1), StandardCharsets.UTF_8.name());
+        Integer flow = FlowRecorder.flowOf(fullPath);
+        if (flow == null) {
+            return Response.status(404);
+        }
+        ObjectNode project = StandInServer.mapper.createObjectNode();
+        project.put("id", flow);
+        project.put("path_with_namespace", fullPath);
+        return Response.json(project);
+    }
+
+    private Response listIssues(Exchange exchange, Matcher path) throws IOException {
+        return server.page(exchange, GitHubStandIn.updatedSince(projectIssues(path), exchange.query("updated_after")));
+    }
+
+    private Response createIssue(Exchange exchange, Matcher path) throws IOException {
+        List<ObjectNode> issues = projectIssues(path);
+        ObjectNode issue = StandInServer.mapper.createObjectNode();
+        synchronized (issues) {
+            int iid = issues.size() + 1;
+            issue.put("id", iid);
+            issue.put("iid", iid);
+            issue.put("project_id", Integer.parseInt(path.group(1)));
+            issue.put("state", "opened");
+            issue.put("web_url", String.format("%s/issues/%d", exchange.getBaseUrl(), iid));
+            issue.putArray("labels");
+            apply(issue, StandInServer.mapper.readTree(exchange.getBody()));
+            issues.add(issue);
+        }
+        recorder.issueCreated(Integer.valueOf(path.group(1)));
+        return Response.json(201, issue);
+    }
+
+    private Response updateIssue(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode issue = findIssue(path);
+        if (issue == null) {
+            return Response.status(404);
+        }
+        apply(issue, StandInServer.mapper.readTree(exchange.getBody()));
+        return Response.json(issue);
+    }
+
+    private static void apply(ObjectNode issue, JsonNode request) {
+        for (String field : new String[]{"title", "description"}) {
+            if (request.hasNonNull(field)) {
+                issue.put(field, request.get(field).asText());
+            }
+        }
+        if (request.hasNonNull("state_event")) {
+            issue.put("state", "close".equals(request.get("state_event").asText()) ? "closed" : "opened");
+        }
+        if (request.hasNonNull("labels")) {
+            ArrayNode labels = issue.putArray("labels");
+            for (String label : request.get("labels").asText().split(",")) {
+                if (!label.trim().isEmpty()) {
+                    labels.add(label.trim());
+                }
+            }
+        }
+        issue.put("updated_at", Instant.now().toString());
+    }
+
+    private ObjectNode findIssue(Matcher path) {
+        int iid = Integer.parseInt(path.group(2));
+        return projectIssues(path).stream()
+                .filter(issue -> issue.get("iid").asInt() == iid)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private List<ObjectNode> projectIssues(Matcher path) {
+        return issuesByProject.computeIfAbsent(Integer.valueOf(path.group(1)), key -> new CopyOnWriteArrayList<>());
+    }
+}
@@ -0,0 +1,83 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Exchange;
+import com.checkmarx.flow.cucumber.component.load.StandInServer.Response;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+/**
+ * Jira REST API v2 as used by the Jira bug tracker without custom fields: project lookup, JQL search and issue
+ * creation.
+ * <p>
+ * Search always answers with no issues. Every flow pushes to a new repository, so its JQL could not match an
+ * issue of another flow anyway, and the Jira client does not read back the issues it creates.
+ */
+class JiraStandIn {
+    private static final String API = "/rest/api/2";
+
+    @Getter
+    private final StandInServer server;
+    private final FlowRecorder recorder;
+    private final String issueType;
+    private final AtomicInteger lastId = new AtomicInteger(10000);
+
+    JiraStandIn(StandInServer.Settings settings, FlowRecorder recorder, String issueType) {
+        this.recorder = recorder;
+        this.issueType = issueType;
+        server = new StandInServer("Jira", settings, StandInServer.RateLimitStyle.PLAIN)
+                .route("GET", API + "/project/([^/]+)", this::getProject)
+                .route("GET", API + "/search", this::search)
+                .route("POST", API + "/search", this::search)
+                .route("POST", API + "/issue", this::createIssue);
+    }
+
+    String getUrl() {
+        return server.getBaseUrl();
+    }
+
+    private Response getProject(Exchange exchange, Matcher path) throws IOException {
+        String base = server.getBaseUrl() + API;
+        String key = path.group(1);
+        ObjectNode project = StandInServer.mapper.createObjectNode();
+        project.put("self", base + "/project/" + key);
+        project.put("id", "10000");
+        project.put("key", key);
+        project.put("name", key);
+        project.putObject("lead")
+                .put("self", base + "/user?username=cxflow")
+                .put("name", "cxflow")
+                .put("displayName", "CxFlow");
+        project.putArray("components");
+        project.putArray("versions");
+        project.putArray("issueTypes").addObject()
+                .put("self", base + "/issuetype/1")
+                .put("id", 1)
+                .put("name", issueType)
+                .put("subtask", false)
+                .put("iconUrl", server.getBaseUrl() + "/images/icons/bug.png");
+        return Response.json(project);
+    }
+
+    private Response search(Exchange exchange, Matcher path) throws IOException {
+        ObjectNode result = StandInServer.mapper.createObjectNode();
+        result.put("startAt", 0);
+        result.put("maxResults", 50);
+        result.put("total", 0);
+        result.putArray("issues");
+        return Response.json(result);
+    }
+
+    private Response createIssue(Exchange exchange, Matcher path) throws IOException {
+        int id = lastId.incrementAndGet();
+        ObjectNode issue = StandInServer.mapper.createObjectNode();
+        issue.put("id", String.valueOf(id));
+        issue.put("key", "LOAD-" + id);
+        issue.put("self", server.getBaseUrl() + API + "/issue/" + id);
+        recorder.issueCreated(FlowRecorder.flowOf(exchange.getBody()));
+        return Response.json(201, issue);
+    }
+}
@@ -0,0 +1,43 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nearest-rank percentiles of a set of durations, in milliseconds.
+ */
+@Getter
+class LatencyStats {
+    private final int count;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long max;
+
+    LatencyStats(Collection<Long> durationsMs) {
+        List<Long> sorted = new ArrayList<>(durationsMs);
+        Collections.sort(sorted);
+        count = sorted.size();
+        p50 = percentile(sorted, 50);
+        p95 = percentile(sorted, 95);
+        p99 = percentile(sorted, 99);
+        max = count == 0 ? 0 : sorted.get(count - 1);
+    }
+
+    static long percentile(List<Long> sorted, int percent) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d/%d ms", p50, p95, p99);
+    }
+}
@@ -0,0 +1,104 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Per bug tracker results of a load run: throughput of completed flows, queue time (webhook answered until the
+ * first Checkmarx request of the flow), publish latency (report downloaded until the last issue is created) and
+ * end-to-end time, plus request, rate limit and unmatched route counts of every stand-in.
+ */
+@Slf4j
+class LoadReport {
+    private final Map<String, List<FlowRecorder.Flow>> flowsByTracker;
+    private final List<StandInServer> standIns;
+
+    LoadReport(List<FlowRecorder.Flow> flows, List<StandInServer> standIns) {
+        this.flowsByTracker = new TreeMap<>(flows.stream()
+                .collect(Collectors.groupingBy(FlowRecorder.Flow::getBugTracker)));
+        this.standIns = standIns;
+    }
+
+    void logSummary() {
+        log.info(String.format("%-8s %6s %10s %22s %22s %22s", "tracker", "flows", "flows/s",
+                "queue p50/p95/p99", "publish p50/p95/p99", "end-to-end p50/p95/p99"));
+        flowsByTracker.forEach((tracker, flows) -> {
+            List<FlowRecorder.Flow> completed = completed(flows);
+            log.info(String.format("%-8s %3d/%-3d %9.2f %22s %22s %22s", tracker, completed.size(), flows.size(),
+                    throughput(completed),
+                    stats(completed, FlowRecorder.Flow::getQueueMs),
+                    stats(completed, FlowRecorder.Flow::getPublishMs),
+                    stats(completed, FlowRecorder.Flow::getEndToEndMs)));
+        });
+        for (StandInServer standIn : standIns) {
+            log.info("{}: {} requests, {} rate limited, unmatched: {}", standIn.getName(), standIn.getRequestCount(),
+                    standIn.getRateLimitedCount(), standIn.getUnmatched());
+        }
+    }
+
+    void write(Path file) throws IOException {
+        ObjectNode report = StandInServer.mapper.createObjectNode();
+        ObjectNode trackers = report.putObject("bugTrackers");
+        flowsByTracker.forEach((tracker, flows) -> {
+            List<FlowRecorder.Flow> completed = completed(flows);
+            ObjectNode node = trackers.putObject(tracker);
+            node.put("flows", flows.size());
+            node.put("completed", completed.size());
+            node.put("flowsPerSecond", throughput(completed));
+            putStats(node.putObject("queueMs"), stats(completed, FlowRecorder.Flow::getQueueMs));
+            putStats(node.putObject("publishMs"), stats(completed, FlowRecorder.Flow::getPublishMs));
+            putStats(node.putObject("endToEndMs"), stats(completed, FlowRecorder.Flow::getEndToEndMs));
+        });
+        ArrayNode servers = report.putArray("standIns");
+        for (StandInServer standIn : standIns) {
+            ObjectNode node = servers.addObject();
+            node.put("name", standIn.getName());
+            node.put("requests", standIn.getRequestCount());
+            node.put("rateLimited", standIn.getRateLimitedCount());
+            node.set("unmatched", StandInServer.mapper.valueToTree(standIn.getUnmatched()));
+        }
+        Files.createDirectories(file.getParent());
+        StandInServer.mapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        log.info("Load report written to {}", file.toAbsolutePath());
+    }
+
+    private static List<FlowRecorder.Flow> completed(List<FlowRecorder.Flow> flows) {
+        return flows.stream().filter(FlowRecorder.Flow::isCompleted).collect(Collectors.toList());
+    }
+
+    /**
+     * Completed flows per second, from the first webhook sent until the last issue created.
+     */
+    private static double throughput(List<FlowRecorder.Flow> completed) {
+        if (completed.isEmpty()) {
+            return 0;
+        }
+        long start = completed.stream().mapToLong(FlowRecorder.Flow::getSentAt).min().getAsLong();
+        long end = completed.stream().mapToLong(FlowRecorder.Flow::getLastIssueAt).max().getAsLong();
+        double seconds = Math.max(end - start, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        return completed.size() / seconds;
+    }
+
+    private static LatencyStats stats(List<FlowRecorder.Flow> flows, ToLongFunction<FlowRecorder.Flow> duration) {
+        return new LatencyStats(flows.stream().map(duration::applyAsLong).collect(Collectors.toList()));
+    }
+
+    private static void putStats(ObjectNode node, LatencyStats stats) {
+        node.put("p50", stats.getP50());
+        node.put("p95", stats.getP95());
+        node.put("p99", stats.getP99());
+        node.put("max", stats.getMax());
+    }
+}
@@ -0,0 +1,12 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import io.cucumber.junit.Cucumber;
+import io.cucumber.junit.CucumberOptions;
+import org.junit.runner.RunWith;
+
+@RunWith(Cucumber.class)
+@CucumberOptions(
+        features = "src/test/resources/cucumber/features/componentTests/load/load.feature",
+        tags = "@LoadTest and not @Skip")
+public class LoadTestRunner {
+}
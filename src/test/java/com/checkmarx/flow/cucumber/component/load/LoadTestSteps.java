@@ -0,0 +1,173 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.checkmarx.flow.CxFlowApplication;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.cucumber.common.Constants;
+import com.checkmarx.flow.cucumber.common.utils.TestUtils;
+import com.checkmarx.flow.dto.ControllerRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.flow.service.FilterFactory;
+import com.checkmarx.flow.service.SastReportReader;
+import com.checkmarx.sdk.dto.ScanResults;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Runs CxFlow as a service against local stand-ins for Checkmarx and the bug trackers, replays GitHub push
+ * webhooks at a fixed rate and reports throughput, queue time and publish latency per bug tracker.
+ * No network access is needed. Latency, rate limits and page sizes of the stand-ins are set in load.properties.
+ */
+@Slf4j
+public class LoadTestSteps {
+    private static final String PROPERTIES_FILE = "cucumber/features/componentTests/load/load.properties";
+
+    private final FlowRecorder recorder = new FlowRecorder();
+    private Properties properties;
+    private CheckmarxStandIn checkmarx;
+    private GitHubStandIn gitHub;
+    private GitLabStandIn gitLab;
+    private AdoStandIn azure;
+    private JiraStandIn jira;
+    private ConfigurableApplicationContext cxFlow;
+    private WebhookReplayer replayer;
+    private int flowCount;
+
+    @Before("@LoadTest")
+    public void loadProperties() throws IOException {
+        properties = TestUtils.getPropertiesFromResource(PROPERTIES_FILE);
+    }
+
+    @Given("the Checkmarx, GitHub, GitLab, Azure DevOps and Jira stand-ins are running")
+    public void startStandIns() throws IOException {
+        byte[] report = readReport();
+        long scanDurationMs = Long.parseLong(properties.getProperty("checkmarx.scanDurationMs"));
+        checkmarx = new CheckmarxStandIn(settings("checkmarx"), recorder, report, scanDurationMs);
+        gitHub = new GitHubStandIn(settings("github"), recorder);
+        gitLab = new GitLabStandIn(settings("gitlab"), recorder);
+        azure = new AdoStandIn(settings("azure"), recorder, properties.getProperty("azure.openState"));
+        jira = new JiraStandIn(settings("jira"), recorder, properties.getProperty("jira.issueType"));
+        standIns().forEach(StandInServer::start);
+    }
+
+    @And("CxFlow is running against the stand-ins")
+    public void startCxFlow() {
+        SpringApplication application = new SpringApplication(CxFlowApplication.class);
+        application.setAdditionalProfiles("load");
+        cxFlow = application.run("--web",
+                "--server.port=0",
+                "--checkmarx.base-url=" + checkmarx.getBaseUrl(),
+                "--github.api-url=" + gitHub.getApiUrl(),
+                "--gitlab.api-url=" + gitLab.getApiUrl(),
+                "--azure.url=" + azure.getUrl(),
+                "--jira.url=" + jira.getUrl());
+    }
+
+    @When("GitHub push webhooks are replayed at {int} requests per second, round-robin to {string}")
+    public void replayWebhooks(int requestsPerSecond, String bugTrackers) throws IOException, MachinaException {
+        flowCount = Integer.parseInt(properties.getProperty("flowCount"));
+        String pushEvent = TestUtils.getResourceAsString(
+                Paths.get(Constants.WEBHOOK_REQUEST_DIR, "github-push.json").toString());
+        String cxFlowUrl = "http://127.0.0.1:" + cxFlow.getEnvironment().getProperty("local.server.port") + "/";
+        String webhookToken = cxFlow.getBean(GitHubProperties.class).getWebhookToken();
+        List<String> trackers = Arrays.stream(bugTrackers.split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+
+        replayer = new WebhookReplayer(pushEvent, cxFlowUrl, webhookToken, recorder);
+        replayer.replay(flowCount, requestsPerSecond, trackers, countExpectedIssues(readReport()));
+    }
+
+    @Then("every flow publishes all of its issues")
+    public void everyFlowPublishesItsIssues() {
+        Duration timeout = Duration.parse(properties.getProperty("maxRunDuration"));
+        try {
+            Awaitility.await()
+                    .atMost(timeout)
+                    .pollInterval(Duration.ofMillis(500))
+                    .until(() -> recorder.getCompletedCount() == flowCount);
+        } finally {
+            new LoadReport(recorder.getFlows(), standIns()).logSummary();
+        }
+        List<Integer> failedWebhooks = recorder.getFlows().stream()
+                .filter(flow -> flow.getWebhookStatus() != 200)
+                .map(FlowRecorder.Flow::getId)
+                .collect(Collectors.toList());
+        Assert.assertTrue("Webhooks not accepted for flows " + failedWebhooks, failedWebhooks.isEmpty());
+    }
+
+    @And("throughput, queue time and publish latency are reported per bug tracker")
+    public void writeReport() throws IOException {
+        new LoadReport(recorder.getFlows(), standIns()).write(Paths.get(properties.getProperty("reportFile")));
+    }
+
+    @After("@LoadTest")
+    public void stop() {
+        if (replayer != null) {
+            replayer.stop();
+        }
+        if (cxFlow != null) {
+            TestUtils.exitCxFlowService(cxFlow);
+        }
+        if (checkmarx != null) {
+            standIns().forEach(StandInServer::stop);
+        }
+    }
+
+    private List<StandInServer> standIns() {
+        return Arrays.asList(checkmarx.getServer(), gitHub.getServer(), gitLab.getServer(), azure.getServer(),
+                jira.getServer());
+    }
+
+    private StandInServer.Settings settings(String standIn) {
+        return new StandInServer.Settings(properties, standIn);
+    }
+
+    private byte[] readReport() throws IOException {
+        String report = Paths.get(Constants.SAMPLE_SAST_RESULTS_DIR, properties.getProperty("checkmarx.report")).toString();
+        try (InputStream stream = TestUtils.getResourceAsStream(report)) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    /**
+     * Issues each flow creates: the findings of the served report that pass the filter, merged by vulnerability
+     * and file as CxFlow does.
+     */
+    private int countExpectedIssues(byte[] report) throws MachinaException {
+        List<String> severity = Arrays.asList(properties.getProperty("filterSeverity").split(","));
+        ControllerRequest request = new ControllerRequest(severity, null, null, null);
+        SastReportReader reader = new SastReportReader(new FilterFactory().getFilter(request, null));
+        reader.read(new ByteArrayInputStream(report), new SastReportReader.Listener() {
+            @Override
+            public void start(ScanResults scanDetails) {
+                // Only the issue count is needed.
+            }
+
+            @Override
+            public void issue(ScanResults.XIssue issue) {
+                // Only the issue count is needed.
+            }
+        });
+        int expected = reader.getIssueCount();
+        Assert.assertTrue("The served report has no issues that pass the filter", expected > 0);
+        return expected;
+    }
+}
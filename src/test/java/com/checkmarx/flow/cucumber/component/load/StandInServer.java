@@ -0,0 +1,386 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP server that stands in for a remote API during a load run.
+ * <p>
+ * Requests are answered from a route table after a simulated latency. A fixed window rate limit answers like the
+ * product does (status code and rate limit headers), and list routes are paginated with Link and ETag headers.
+ * Requests that match no route are answered with 404 and counted, so that drift from the real API is visible in the
+ * load report.
+ */
+@Slf4j
+class StandInServer {
+    static final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * How a product tells the client that it is over its rate limit.
+     */
+    enum RateLimitStyle {
+        GITHUB(403, "X-RateLimit-", false),
+        GITLAB(429, "RateLimit-", true),
+        AZURE(429, "X-RateLimit-", true),
+        PLAIN(429, null, true);
+
+        private final int status;
+        private final String headerPrefix;
+        private final boolean retryAfter;
+
+        RateLimitStyle(int status, String headerPrefix, boolean retryAfter) {
+            this.status = status;
+            this.headerPrefix = headerPrefix;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Response handle(Exchange exchange, Matcher path) throws IOException;
+    }
+
+    @Getter
+    private final String name;
+    private final Settings settings;
+    private final RateLimitStyle rateLimitStyle;
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, AtomicInteger> unmatched = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger rateLimitedCount = new AtomicInteger();
+    private long windowStart;
+    private int windowCount;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    StandInServer(String name, Settings settings, RateLimitStyle rateLimitStyle) {
+        this.name = name;
+        this.settings = settings;
+        this.rateLimitStyle = rateLimitStyle;
+    }
+
+    StandInServer route(String method, String pathRegex, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(pathRegex), handler));
+        return this;
+    }
+
+    void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the " + name + " stand-in", e);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::serve);
+        server.start();
+        log.info("{} stand-in listening on {}", name, getBaseUrl());
+    }
+
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    int getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    Map<String, Integer> getUnmatched() {
+        Map<String, Integer> result = new TreeMap<>();
+        unmatched.forEach((request, count) -> result.put(request, count.get()));
+        return result;
+    }
+
+    /**
+     * Answers one page of a listing, honoring per_page (capped by the configured page size) and page. A Link
+     * rel="next" header points to the following page, and an ETag matching If-None-Match gives 304.
+     */
+    Response page(Exchange exchange, List<?> items) throws IOException {
+        int perPage = settings.getPageSize();
+        String requested = exchange.query("per_page");
+        if (requested != null) {
+            perPage = Math.min(perPage, Integer.parseInt(requested));
+        }
+        String pageParam = exchange.query("page");
+        int page = pageParam == null ? 1 : Integer.parseInt(pageParam);
+        int from = Math.min((page - 1) * perPage, items.size());
+        int to = Math.min(from + perPage, items.size());
+
+        byte[] body = mapper.writeValueAsBytes(items.subList(from, to));
+        String etag = "\"" + DigestUtils.md5Hex(body) + "\"";
+        if (etag.equals(exchange.header("If-None-Match"))) {
+            return Response.status(304).header("ETag", etag);
+        }
+        Response response = Response.json(body).header("ETag", etag);
+        if (to < items.size()) {
+            response.header("Link", String.format("<%s>; rel=\"next\"", exchange.urlWithQuery("page", page + 1)));
+        }
+        return response;
+    }
+
+    private void serve(HttpExchange httpExchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            Exchange exchange = new Exchange(httpExchange, getBaseUrl());
+            simulateLatency();
+            Response response = rateLimit();
+            if (response == null) {
+                response = dispatch(exchange);
+                addRateLimitHeaders(response);
+            }
+            send(httpExchange, response);
+        } catch (IOException | RuntimeException e) {
+            log.error("{} stand-in failed to answer {} {}", name, httpExchange.getRequestMethod(),
+                    httpExchange.getRequestURI(), e);
+            send(httpExchange, Response.status(500));
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private Response dispatch(Exchange exchange) throws IOException {
+        for (Route route : routes) {
+            if (route.method.equals(exchange.getMethod())) {
+                Matcher matcher = route.path.matcher(exchange.getPath());
+                if (matcher.matches()) {
+                    return route.handler.handle(exchange, matcher);
+                }
+            }
+        }
+        // Flow specific names and IDs are masked, so that each missing route is counted once.
+        String request = exchange.getMethod() + " " + exchange.getPath()
+                .replaceAll(FlowRecorder.FLOW_NAME.pattern(), "cx-load-N")
+                .replaceAll("/\\d+(?=/|$)", "/{id}");
+        unmatched.computeIfAbsent(request, key -> new AtomicInteger()).incrementAndGet();
+        log.debug("{} stand-in has no route for {}", name, request);
+        return Response.status(404);
+    }
+
+    private void simulateLatency() {
+        long latencyMs = settings.getLatencyMs();
+        if (settings.getJitterMs() > 0) {
+            latencyMs += ThreadLocalRandom.current().nextLong(settings.getJitterMs() + 1L);
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the rate limit response, or null if the request is within the limit
+     */
+    private synchronized Response rateLimit() {
+        if (settings.getRateLimit() <= 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= settings.getRateLimitWindowMs()) {
+            windowStart = now;
+            windowCount = 0;
+        }
+        windowCount++;
+        if (windowCount <= settings.getRateLimit()) {
+            return null;
+        }
+        rateLimitedCount.incrementAndGet();
+        Response response = Response.status(rateLimitStyle.status)
+                .body("{\"message\":\"API rate limit exceeded\"}".getBytes(StandardCharsets.UTF_8));
+        if (rateLimitStyle.retryAfter) {
+            long waitMs = windowStart + settings.getRateLimitWindowMs() - now;
+            response.header("Retry-After", String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999))));
+        }
+        addRateLimitHeaders(response);
+        return response;
+    }
+
+    private synchronized void addRateLimitHeaders(Response response) {
+        String prefix = rateLimitStyle.headerPrefix;
+        if (settings.getRateLimit() <= 0 || prefix == null) {
+            return;
+        }
+        long resetSeconds = TimeUnit.MILLISECONDS.toSeconds(windowStart + settings.getRateLimitWindowMs() + 999);
+        response.header(prefix + "Limit", String.valueOf(settings.getRateLimit()))
+                .header(prefix + "Remaining", String.valueOf(Math.max(0, settings.getRateLimit() - windowCount)))
+                .header(prefix + "Reset", String.valueOf(resetSeconds));
+    }
+
+    private static void send(HttpExchange httpExchange, Response response) throws IOException {
+        response.headers.forEach((header, value) -> httpExchange.getResponseHeaders().set(header, value));
+        boolean empty = response.body == null || response.body.length == 0;
+        httpExchange.sendResponseHeaders(response.status, empty ? -1 : response.body.length);
+        if (!empty) {
+            try (OutputStream output = httpExchange.getResponseBody()) {
+                output.write(response.body);
+            }
+        }
+    }
+
+    private static class Route {
+        private final String method;
+        private final Pattern path;
+        private final Handler handler;
+
+        private Route(String method, Pattern path, Handler handler) {
+            this.method = method;
+            this.path = path;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * Latency, rate limit and page size of one stand-in, read from the load test properties as
+     * &lt;prefix&gt;.latencyMs, .jitterMs, .rateLimit (requests per window, 0 for none), .rateLimitWindowMs and .pageSize.
+     */
+    @Getter
+    static class Settings {
+        private final long latencyMs;
+        private final long jitterMs;
+        private final int rateLimit;
+        private final long rateLimitWindowMs;
+        private final int pageSize;
+
+        Settings(Properties properties, String prefix) {
+            latencyMs = Long.parseLong(properties.getProperty(prefix + ".latencyMs", "0"));
+            jitterMs = Long.parseLong(properties.getProperty(prefix + ".jitterMs", "0"));
+            rateLimit = Integer.parseInt(properties.getProperty(prefix + ".rateLimit", "0"));
+            rateLimitWindowMs = Long.parseLong(properties.getProperty(prefix + ".rateLimitWindowMs", "1000"));
+            pageSize = Integer.parseInt(properties.getProperty(prefix + ".pageSize", "100"));
+        }
+    }
+
+    /**
+     * A received request. The path and the query values are kept URL encoded, and repeated slashes in the path are
+     * collapsed.
+     */
+    @Getter
+    static class Exchange {
+        private final String method;
+        private final String path;
+        private final String rawQuery;
+        private final Map<String, String> query;
+        private final String body;
+        private final String baseUrl;
+        private final HttpExchange httpExchange;
+
+        private Exchange(HttpExchange httpExchange, String baseUrl) throws IOException {
+            this.httpExchange = httpExchange;
+            this.baseUrl = baseUrl;
+            method = httpExchange.getRequestMethod();
+            path = httpExchange.getRequestURI().getRawPath().replaceAll("/{2,}", "/");
+            rawQuery = httpExchange.getRequestURI().getRawQuery();
+            query = parseQuery(rawQuery);
+            body = IOUtils.toString(httpExchange.getRequestBody(), StandardCharsets.UTF_8);
+        }
+
+        String query(String name) {
+            return query.get(name);
+        }
+
+        String header(String name) {
+            return httpExchange.getRequestHeaders().getFirst(name);
+        }
+
+        /**
+         * Path, query and body, for correlating the request with a flow.
+         */
+        String text() {
+            return path + "?" + rawQuery + "\n" + body;
+        }
+
+        String urlWithQuery(String name, Object value) {
+            Map<String, String> params = new LinkedHashMap<>(query);
+            params.put(name, String.valueOf(value));
+            StringJoiner joiner = new StringJoiner("&");
+            params.forEach((key, param) -> joiner.add(key + "=" + param));
+            return baseUrl + path + "?" + joiner;
+        }
+
+        private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+            Map<String, String> result = new LinkedHashMap<>();
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return result;
+            }
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = separator < 0 ? pair : pair.substring(0, separator);
+                String value = separator < 0 ? "" : pair.substring(separator + 1);
+                result.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8.name()), value);
+            }
+            return result;
+        }
+    }
+
+    static class Response {
+        private final int status;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private byte[] body;
+
+        private Response(int status) {
+            this.status = status;
+        }
+
+        static Response status(int status) {
+            return new Response(status);
+        }
+
+        static Response json(Object value) throws IOException {
+            return json(mapper.writeValueAsBytes(value));
+        }
+
+        static Response json(int status, Object value) throws IOException {
+            return status(status).header("Content-Type", "application/json")
+                    .body(mapper.writeValueAsBytes(value));
+        }
+
+        static Response json(byte[] body) {
+            return status(200).header("Content-Type", "application/json").body(body);
+        }
+
+        Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        Response body(byte[] body) {
+            this.body = body;
+            return this;
+        }
+    }
+}
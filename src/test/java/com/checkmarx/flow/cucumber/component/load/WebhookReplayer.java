@@ -0,0 +1,112 @@
+package com.checkmarx.flow.cucumber.component.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the sample GitHub push webhook to the CxFlow GitHub controller at a fixed rate, without waiting for earlier
+ * requests to be answered. Every request is signed with the webhook token and pushes to the flow's own repository;
+ * the bug trackers are assigned round-robin through the bug query parameter.
+ */
+@Slf4j
+class WebhookReplayer {
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+    private static final int SENDER_THREADS = 16;
+
+    private final JsonNode pushEvent;
+    private final String cxFlowUrl;
+    private final String webhookToken;
+    private final FlowRecorder recorder;
+    private final RestTemplate client = new RestTemplate();
+    private ScheduledExecutorService scheduler;
+
+    WebhookReplayer(String pushEvent, String cxFlowUrl, String webhookToken, FlowRecorder recorder) throws IOException {
+        this.pushEvent = StandInServer.mapper.readTree(pushEvent);
+        this.cxFlowUrl = cxFlowUrl;
+        this.webhookToken = webhookToken;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Schedules flowCount requests and returns at once; flows are registered with the recorder before sending.
+     */
+    void replay(int flowCount, int requestsPerSecond, List<String> bugTrackers, int expectedIssues) {
+        scheduler = Executors.newScheduledThreadPool(SENDER_THREADS);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        log.info("Replaying {} push webhooks at {} per second to {}", flowCount, requestsPerSecond, bugTrackers);
+        for (int flow = 1; flow <= flowCount; flow++) {
+            String bugTracker = bugTrackers.get((flow - 1) % bugTrackers.size());
+            recorder.register(flow, bugTracker, expectedIssues);
+            int current = flow;
+            scheduler.schedule(() -> send(current, bugTracker), (flow - 1) * intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void send(int flow, String bugTracker) {
+        String body = pushEventOf(flow);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add("X-GitHub-Event", "push");
+        headers.add("X-Hub-Signature", sign(body));
+        int status;
+        long sentAt = FlowRecorder.now();
+        try {
+            ResponseEntity<String> response = client.postForEntity(cxFlowUrl + "?bug=" + bugTracker,
+                    new HttpEntity<>(body, headers), String.class);
+            status = response.getStatusCodeValue();
+        } catch (HttpStatusCodeException e) {
+            status = e.getRawStatusCode();
+        } catch (RuntimeException e) {
+            log.error("Webhook of flow {} failed", flow, e);
+            status = -1;
+        }
+        recorder.webhookSent(flow, sentAt, FlowRecorder.now(), status);
+    }
+
+    private String pushEventOf(int flow) {
+        String repoName = FlowRecorder.repoName(flow);
+        ObjectNode event = pushEvent.deepCopy();
+        ObjectNode repository = (ObjectNode) event.get("repository");
+        repository.put("name", repoName);
+        repository.put("full_name", repoName + "/" + repoName);
+        repository.put("clone_url", String.format("https://github.com/%s/%s.git", repoName, repoName));
+        ObjectNode owner = (ObjectNode) repository.get("owner");
+        owner.put("name", repoName);
+        owner.put("login", repoName);
+        return event.toString();
+    }
+
+    private String sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(webhookToken.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return "sha1=" + DatatypeConverter.printHexBinary(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign the webhook", e);
+        }
+    }
+}
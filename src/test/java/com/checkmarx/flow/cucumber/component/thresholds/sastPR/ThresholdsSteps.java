@@ -283,7 +283,10 @@ public class ThresholdsSteps {
                 null,
                 adoService,
                 emailService,
-                cxProperties);
+                cxProperties,
+                flowProperties,
+                Runnable::run,
+                new TrackerDispatcher(flowProperties));
     }
 
     private static ScanResults createFakeScanResults() {
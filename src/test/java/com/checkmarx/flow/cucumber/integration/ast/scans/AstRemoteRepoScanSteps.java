@@ -205,7 +205,7 @@ public class AstRemoteRepoScanSteps extends AstCommonSteps {
         HelperService helperService = new HelperService(flowProperties, cxProperties, scriptService);
      
         ProjectNameGenerator projectNameGenerator = new ProjectNameGenerator(helperService, cxProperties, scriptService);
-        FlowService flowService = new FlowService(new ArrayList<>(), projectNameGenerator, resultsService);
+        FlowService flowService = FlowServiceTestUtils.createFlowService(new ArrayList<>(), projectNameGenerator, resultsService);
 
         scanRequest = getBasicScanRequest(PUBLIC_PROJECT_NAME, PUBLIC_REPO);
 
@@ -307,7 +307,10 @@ public class Github2AdoSteps {
                 null,
                 null,
                 emailService,
-                cxProperties));
+                cxProperties,
+                flowProperties,
+                Runnable::run,
+                new TrackerDispatcher(flowProperties)));
     }
 
     private ScanResults createFakeResults() {
@@ -141,7 +141,7 @@ public class PublishingSteps extends PublishingStepsBase {
 
     private GitHubController getGitHubControllerInstance() {
         List<VulnerabilityScanner> vulnerabilityScannerList = Collections.singletonList(sastScanner);
-        FlowService flowService = new FlowService(vulnerabilityScannerList, projectNameGenerator, resultsService);
+        FlowService flowService = FlowServiceTestUtils.createFlowService(vulnerabilityScannerList, projectNameGenerator, resultsService);
 
         return new GitHubController(gitHubProperties, flowProperties, cxProperties,
                 null, flowService, helperService, gitHubService, null, filterFactory, configOverrider, scmConfigOverrider);
@@ -560,7 +560,10 @@ public class CxConfigSteps {
                 null,
                 null,
                 emailService,
-                cxProperties);
+                cxProperties,
+                flowProperties,
+                Runnable::run,
+                new TrackerDispatcher(flowProperties));
     }
 
     private static ScanResults createFakeScanResults() {
@@ -0,0 +1,51 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.config.GitLabProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitLabProjectIdCacheTest {
+    private static final String API_URL = "https://gitlab.com/api/v4";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void get_afterPutInAnotherRun_readsFile() {
+        GitLabProperties properties = new GitLabProperties();
+        properties.setProjectIdCacheFile(cacheDir.resolve("projects.json").toString());
+
+        new GitLabProjectIdCache(properties).put(API_URL, "group/sub-group/repo", 42);
+        GitLabProjectIdCache nextRun = new GitLabProjectIdCache(properties);
+
+        assertEquals(Integer.valueOf(42), nextRun.get(API_URL, "group/sub-group/repo"));
+        assertNull(nextRun.get(API_URL, "group/other-repo"));
+        assertNull(nextRun.get("https://gitlab.example.com/api/v4", "group/sub-group/repo"));
+    }
+
+    @Test
+    void get_defaultProperties_notPersisted() {
+        GitLabProperties properties = new GitLabProperties();
+
+        new GitLabProjectIdCache(properties).put(API_URL, "group/repo", 42);
+
+        assertNull(properties.getProjectIdCacheFile());
+        assertNull(new GitLabProjectIdCache(properties).get(API_URL, "group/repo"));
+    }
+
+    @Test
+    void get_expiredEntry_returnsNull() {
+        GitLabProperties properties = new GitLabProperties();
+        properties.setProjectIdCacheFile("");
+        properties.setProjectIdCacheTtlMinutes(-1);
+        GitLabProjectIdCache cache = new GitLabProjectIdCache(properties);
+
+        cache.put(API_URL, "group/repo", 42);
+
+        assertNull(cache.get(API_URL, "group/repo"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.utils.IssueDigest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueIndexTest {
+    private static final String LIST_URL = "https://api.example.com/repos/org/repo/issues?state=all";
+    private static final String KEY = "GitHub|CX|" + LIST_URL;
+
+    @TempDir
+    Path indexDir;
+
+    private final List<String> requestedUrls = new ArrayList<>();
+    private final List<String> sentEtags = new ArrayList<>();
+
+    @Test
+    void sync_unchangedRepo_usesConditionalRequest() {
+        IssueIndex index = new IssueIndex(new FlowProperties());
+
+        List<Issue> first = sync(index, respond(HttpStatus.OK, null, issue("1", "CX SQL_Injection @ a.java"), issue("2", "Unrelated")));
+        assertEquals(1, first.size());
+
+        // No changes since the first sync: empty page, its ETag is remembered.
+        sync(index, respond(HttpStatus.OK, "\"etag-1\""));
+        List<Issue> third = sync(index, respond(HttpStatus.NOT_MODIFIED, null));
+
+        assertEquals(1, third.size());
+        assertEquals("CX SQL_Injection @ a.java", third.get(0).getTitle());
+        assertEquals(LIST_URL, requestedUrls.get(0));
+        assertTrue(requestedUrls.get(1).startsWith(LIST_URL + "&since="));
+        assertEquals(requestedUrls.get(1), requestedUrls.get(2), "'since' must not move when nothing changed");
+        assertEquals("\"etag-1\"", sentEtags.get(2));
+    }
+
+    @Test
+    void sync_changedIssues_mergedIntoIndex() {
+        IssueIndex index = new IssueIndex(new FlowProperties());
+        sync(index, respond(HttpStatus.OK, null, issue("1", "CX XSS @ a.java"), issue("2", "CX XSS @ b.java")));
+
+        List<Issue> issues = sync(index, respond(HttpStatus.OK, null, issue("2", "Renamed by a user"), issue("3", "CX XSS @ c.java")));
+
+        assertEquals(2, issues.size());
+        assertEquals("1", issues.get(0).getId());
+        assertEquals("3", issues.get(1).getId());
+    }
+
+    @Test
+    void sync_persistedIndex_survivesRestart() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.setIssueIndexDir(indexDir.toString());
+        sync(new IssueIndex(flowProperties), respond(HttpStatus.OK, null, issue("1", "CX XSS @ a.java")));
+
+        List<Issue> issues = sync(new IssueIndex(flowProperties), respond(HttpStatus.NOT_MODIFIED, null));
+
+        assertEquals(1, issues.size());
+        assertTrue(requestedUrls.get(1).contains("&since="));
+    }
+
+    @Test
+    void sync_issueWithDigest_bodyDroppedAndDigestKept() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.setIssueIndexDir(indexDir.toString());
+        String digest = IssueDigest.of("CX XSS @ a.java", "details");
+        Issue tracked = issue("1", "CX XSS @ a.java");
+        tracked.setBody(IssueDigest.mark("details", digest));
+        sync(new IssueIndex(flowProperties), respond(HttpStatus.OK, null, tracked));
+
+        List<Issue> issues = sync(new IssueIndex(flowProperties), respond(HttpStatus.NOT_MODIFIED, null));
+
+        assertNull(issues.get(0).getBody());
+        assertEquals(digest, IssueIndex.getDigest(issues.get(0)));
+        assertEquals("open", issues.get(0).getState());
+    }
+
+    @Test
+    void encodeQueryValue_labelWithReservedCharacters_encoded() {
+        assertEquals("CX+%26+security%2Cfalse-positive", IssueIndex.encodeQueryValue("CX & security,false-positive"));
+    }
+
+    private List<Issue> sync(IssueIndex index, BiFunction<String, String, ResponseEntity<Issue[]>> fetchPage) {
+        return index.sync(KEY, LIST_URL, "since", fetchPage,
+                issue -> issue,
+                issue -> issue.getTitle().startsWith("CX"));
+    }
+
+    private BiFunction<String, String, ResponseEntity<Issue[]>> respond(HttpStatus status, String etag, Issue... issues) {
+        return (url, ifNoneMatch) -> {
+            requestedUrls.add(url);
+            sentEtags.add(ifNoneMatch);
+            HttpHeaders headers = new HttpHeaders();
+            if (etag != null) {
+                headers.setETag(etag);
+            }
+            return new ResponseEntity<>(status == HttpStatus.NOT_MODIFIED ? null : issues, headers, status);
+        };
+    }
+
+    private static Issue issue(String id, String title) {
+        return Issue.builder().id(id).title(title).state("open").build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.checkmarx.flow.custom;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.RallyProperties;
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RallyIssueTrackerTest {
+    private static final String API_URL = "https://rally.example.com/slm/webservice/v2.0";
+
+    private MockRestServiceServer server;
+    private RallyIssueTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        RallyProperties properties = new RallyProperties();
+        properties.setApiUrl(API_URL);
+        properties.setBatchSize(2);
+        tracker = new RallyIssueTracker(restTemplate, properties, new FlowProperties());
+    }
+
+    @Test
+    void getIssues_severalPages_everyPageReadWithReconciliationFieldsOnly() throws MachinaException {
+        expectPage("1", page(450, "A", "B"));
+        expectPage("201", page(450, "C"));
+        expectPage("401", page(450, "D"));
+
+        List<Issue> issues = tracker.getIssues(request());
+
+        List<String> titles = new ArrayList<>();
+        issues.forEach(issue -> titles.add(issue.getTitle()));
+        assertEquals(Arrays.asList("A", "B", "C", "D"), titles);
+        server.verify();
+    }
+
+    @Test
+    void getIssues_pageFails_thrownInsteadOfPartialList() {
+        expectPage("1", page(250, "A"));
+        server.expect(once(), requestTo(startsWith(API_URL + "/defect")))
+                .andExpect(queryParam("start", "201"))
+                .andRespond(withServerError());
+
+        assertThrows(MachinaException.class, () -> tracker.getIssues(request()));
+    }
+
+    @Test
+    void closeIssues_failedEntry_leftOutOfClosedIssues() throws MachinaException {
+        server.expect(once(), requestTo(API_URL + "/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.Batch[0].Entry.Path").value("/defect/1"))
+                .andExpect(jsonPath("$.Batch[1].Entry.Body.Defect.State").value("Closed"))
+                .andRespond(withSuccess(batchResult("{\"Object\":{}}", "{\"Object\":{}}"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API_URL + "/batch"))
+                .andExpect(jsonPath("$.Batch[0].Entry.Path").value("/defect/3"))
+                .andRespond(withSuccess(batchResult("{\"Errors\":[\"Concurrency conflict\"]}"), MediaType.APPLICATION_JSON));
+
+        List<Issue> closed = tracker.closeIssues(Arrays.asList(issue("1"), issue("2"), issue("3")), request());
+
+        assertEquals(2, closed.size());
+        assertEquals("1", closed.get(0).getId());
+        assertEquals("2", closed.get(1).getId());
+        server.verify();
+    }
+
+    private void expectPage(String start, String body) {
+        server.expect(once(), requestTo(startsWith(API_URL + "/defect")))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(queryParam("start", start))
+                .andExpect(queryParam("fetch", "Name,State"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+
+    private static String page(int totalResultCount, String... names) {
+        StringBuilder results = new StringBuilder();
+        for (String name : names) {
+            if (results.length() > 0) {
+                results.append(',');
+            }
+            results.append(String.format("{\"_ref\":\"%s/defect/%s\",\"_refObjectUUID\":\"%s\",\"_refObjectName\":\"%s\",\"State\":\"Open\"}",
+                    API_URL, name, name, name));
+        }
+        return String.format("{\"QueryResult\":{\"Errors\":[],\"TotalResultCount\":%d,\"PageSize\":200,\"Results\":[%s]}}",
+                totalResultCount, results);
+    }
+
+    private static String batchResult(String... results) {
+        return String.format("{\"BatchResult\":{\"Errors\":[],\"Results\":[%s]}}", String.join(",", results));
+    }
+
+    private static Issue issue(String id) {
+        Issue issue = new Issue();
+        issue.setId(id);
+        issue.setUrl(API_URL + "/defect/" + id);
+        return issue;
+    }
+
+    private static ScanRequest request() {
+        return ScanRequest.builder()
+                .namespace("checkmarx")
+                .repoName("cx-flow")
+                .branch("master")
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.checkmarx.flow.sastscanning;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ChangedFiles;
+import com.checkmarx.flow.dto.ScanRequest;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalScanSelectorTest {
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void select_localRepository_fullThenIncrementalForSmallChange() throws IOException, GitAPIException {
+        FlowProperties properties = new FlowProperties();
+        properties.getIncrementalSelection().setEnabled(true);
+        IncrementalScanSelector selector = new IncrementalScanSelector(properties, null, null);
+        try (Git git = Git.init().setDirectory(sources.toFile()).call()) {
+            commitFiles(git, 20, "v1");
+            ScanRequest request = ScanRequest.builder().branch("master").incremental(true).build();
+            selector.record(selector.select(request, sources.toFile()));
+            assertFalse(request.isIncremental());
+
+            commitFiles(git, 1, "v2");
+            selector.record(selector.select(request, sources.toFile()));
+            assertTrue(request.isIncremental());
+
+            commitFiles(git, 10, "v3");
+            selector.select(request, sources.toFile());
+            assertFalse(request.isIncremental());
+        }
+    }
+
+    @Test
+    void select_fullScanEveryReached_fullScanForced() throws IOException, GitAPIException {
+        FlowProperties properties = new FlowProperties();
+        properties.getIncrementalSelection().setEnabled(true);
+        properties.getIncrementalSelection().setFullScanEvery(1);
+        IncrementalScanSelector selector = new IncrementalScanSelector(properties, null, null);
+        try (Git git = Git.init().setDirectory(sources.toFile()).call()) {
+            commitFiles(git, 20, "v1");
+            ScanRequest request = ScanRequest.builder().branch("master").build();
+            selector.record(selector.select(request, sources.toFile()));
+            commitFiles(git, 1, "v2");
+            selector.record(selector.select(request, sources.toFile()));
+            assertTrue(request.isIncremental());
+
+            commitFiles(git, 1, "v3");
+            selector.select(request, sources.toFile());
+            assertFalse(request.isIncremental());
+        }
+    }
+
+    @Test
+    void select_disabled_configuredScanTypeKept() {
+        IncrementalScanSelector selector = new IncrementalScanSelector(new FlowProperties(), null, null);
+        ScanRequest request = ScanRequest.builder().hash("abc123").repoUrl("https://github.com/org/repo.git")
+                .incremental(true).build();
+
+        assertNull(selector.select(request, null));
+        assertTrue(request.isIncremental());
+    }
+
+    @Test
+    void isIncremental_unknownTotal_changedFilesLimitUsed() {
+        FlowProperties.IncrementalSelection properties = new FlowProperties.IncrementalSelection();
+
+        assertTrue(IncrementalScanSelector.isIncremental(new ChangedFiles(50, ChangedFiles.UNKNOWN_TOTAL), properties));
+        assertFalse(IncrementalScanSelector.isIncremental(new ChangedFiles(51, ChangedFiles.UNKNOWN_TOTAL), properties));
+        assertFalse(IncrementalScanSelector.isIncremental(null, properties));
+    }
+
+    private void commitFiles(Git git, int count, String content) throws IOException, GitAPIException {
+        for (int i = 0; i < count; i++) {
+            Files.write(sources.resolve("File" + i + ".java"), content.getBytes());
+        }
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(content).setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com").call();
+    }
+}
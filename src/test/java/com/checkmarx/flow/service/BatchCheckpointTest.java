@@ -0,0 +1,64 @@
+package com.checkmarx.flow.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCheckpointTest {
+
+    @TempDir
+    Path checkpointDir;
+
+    @Test
+    void open_afterUnfinishedRun_keepsPublishedProjects() throws IOException {
+        Path file = checkpointDir.resolve("batch.checkpoint");
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, false)) {
+            checkpoint.recordPublished(1, 100);
+            checkpoint.recordPublished(2, 200);
+        }
+
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, false)) {
+            assertTrue(checkpoint.isPublished(1, 100));
+            assertTrue(checkpoint.isPublished(2, 200));
+            assertFalse(checkpoint.isPublished(2, 201), "A newer scan of the project must be published");
+            assertFalse(checkpoint.isPublished(3, 300));
+        }
+    }
+
+    @Test
+    void open_afterCompleteRun_startsOver() throws IOException {
+        Path file = checkpointDir.resolve("batch.checkpoint");
+        completeRun(file);
+
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, false)) {
+            assertFalse(checkpoint.isPublished(1, 100));
+        }
+    }
+
+    @Test
+    void open_afterCompleteRunInChangedOnlyMode_skipsUnchangedProjects() throws IOException {
+        Path file = checkpointDir.resolve("batch.checkpoint");
+        completeRun(file);
+
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, true)) {
+            assertTrue(checkpoint.isPublished(1, 100));
+            assertFalse(checkpoint.isPublished(1, 101));
+            checkpoint.recordPublished(1, 101);
+        }
+
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, false)) {
+            assertTrue(checkpoint.isPublished(1, 101), "The unfinished changed-only run must be resumed");
+        }
+    }
+
+    private static void completeRun(Path file) throws IOException {
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(file, false)) {
+            checkpoint.recordPublished(1, 100);
+            checkpoint.complete();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunTest {
+
+    @Test
+    void submit_windowFull_waitsForAProjectToComplete() throws Exception {
+        FlowProperties.Batch properties = new FlowProperties.Batch();
+        properties.setConcurrency(2);
+        List<CompletableFuture<Object>> processing = Arrays.asList(
+                new CompletableFuture<>(), new CompletableFuture<>(), new CompletableFuture<>());
+        CountDownLatch thirdStarted = new CountDownLatch(1);
+
+        try (BatchRun run = new BatchRun(properties, BatchCheckpoint.none(), 3)) {
+            run.submit(1, 100, Collections.emptyList(), () -> processing.get(0));
+            run.submit(2, 200, Collections.emptyList(), () -> processing.get(1));
+            Thread submitter = new Thread(() -> run.submit(3, 300, Collections.emptyList(), () -> {
+                thirdStarted.countDown();
+                return processing.get(2);
+            }));
+            submitter.start();
+
+            assertFalse(thirdStarted.await(200, TimeUnit.MILLISECONDS), "Only 2 projects may be in flight");
+            processing.get(0).complete(null);
+            assertTrue(thirdStarted.await(5, TimeUnit.SECONDS));
+            submitter.join();
+
+            processing.get(1).complete(null);
+            processing.get(2).completeExceptionally(new IllegalStateException("Publishing failed"));
+            assertEquals(Collections.singletonList(3), run.awaitCompletion());
+        }
+    }
+
+    @Test
+    void submit_rateLimitedDownstream_startsSpacedEvenly() throws IOException {
+        FlowProperties.Batch properties = new FlowProperties.Batch();
+        properties.setConcurrency(10);
+        properties.setRateLimits(Collections.singletonMap("jira", 600));
+        List<Long> starts = new ArrayList<>();
+
+        try (BatchRun run = new BatchRun(properties, BatchCheckpoint.none(), 4)) {
+            for (int projectId = 1; projectId <= 3; projectId++) {
+                run.submit(projectId, projectId * 100, Collections.singletonList("JIRA"), () -> {
+                    starts.add(System.nanoTime());
+                    return CompletableFuture.completedFuture(null);
+                });
+            }
+            run.submit(4, 400, Collections.singletonList("github"), () -> CompletableFuture.completedFuture(null));
+
+            assertTrue(run.awaitCompletion().isEmpty());
+        }
+
+        for (int i = 1; i < starts.size(); i++) {
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(starts.get(i) - starts.get(i - 1));
+            assertTrue(gapMillis >= 90, "Starts must be 100 ms apart at 600 per minute, gap was " + gapMillis);
+        }
+    }
+
+    @Test
+    void estimateRemaining_processedProjects_averageAppliedToRemaining() {
+        assertEquals(Duration.ofSeconds(30), BatchRun.estimateRemaining(TimeUnit.SECONDS.toNanos(10), 2, 6));
+        assertEquals(Duration.ZERO, BatchRun.estimateRemaining(TimeUnit.SECONDS.toNanos(10), 2, 0));
+        assertNull(BatchRun.estimateRemaining(TimeUnit.SECONDS.toNanos(10), 0, 6), "Skipped projects take no time");
+        assertEquals("1:02:05", BatchRun.format(Duration.ofSeconds(3725)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static com.checkmarx.sdk.config.Constants.UNKNOWN_INT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitScanIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    @Test
+    void find_recordedCommit_returnsScanId() {
+        CommitScanIndex index = new CommitScanIndex(properties(60, null));
+        String key = CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), 7);
+
+        index.record(key, 1001, 7);
+
+        assertEquals(1001, index.find(key));
+    }
+
+    @Test
+    void getKey_otherCommitPresetOrProject_differentKeys() {
+        String key = CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), 7);
+
+        assertNotEquals(key, CommitScanIndex.getKey(request("def456", "Checkmarx Default"), 7));
+        assertNotEquals(key, CommitScanIndex.getKey(request("abc123", "All"), 7));
+        assertNotEquals(key, CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), 8));
+        assertNull(CommitScanIndex.getKey(request(null, "Checkmarx Default"), 7));
+        assertNull(CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), UNKNOWN_INT));
+    }
+
+    @Test
+    void find_disabledByDefault_returnsNull() {
+        CommitScanIndex index = new CommitScanIndex(new FlowProperties());
+        String key = CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), 7);
+
+        index.record(key, 1001, 7);
+
+        assertNull(index.find(key));
+    }
+
+    @Test
+    void find_afterRestart_readFromDirectory() {
+        FlowProperties properties = properties(60, indexDir.toString());
+        String key = CommitScanIndex.getKey(request("abc123", "Checkmarx Default"), 7);
+        new CommitScanIndex(properties).record(key, 1001, 7);
+
+        CommitScanIndex restarted = new CommitScanIndex(properties);
+
+        assertEquals(1001, restarted.find(key));
+        restarted.remove(key);
+        assertNull(new CommitScanIndex(properties).find(key));
+    }
+
+    private static FlowProperties properties(int maxAgeMinutes, String dir) {
+        FlowProperties properties = new FlowProperties();
+        properties.getCommitIndex().setMaxAgeMinutes(maxAgeMinutes);
+        properties.getCommitIndex().setDir(dir);
+        return properties;
+    }
+
+    private static ScanRequest request(String hash, String preset) {
+        return ScanRequest.builder()
+                .repoUrl("https://github.com/org/repo.git")
+                .hash(hash)
+                .scanPreset(preset)
+                .build();
+    }
+}
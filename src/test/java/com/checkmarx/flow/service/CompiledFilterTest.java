@@ -0,0 +1,57 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ControllerRequest;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledFilterTest {
+    private final FilterFactory filterFactory = new FilterFactory();
+
+    @Test
+    void accepts_simpleFilters_sameTypeOrDifferentTypesAnd() {
+        ControllerRequest request = new ControllerRequest(Arrays.asList("High", "Medium"),
+                Collections.singletonList("79"),
+                null,
+                Collections.singletonList("New"));
+        CompiledFilter filter = CompiledFilter.compile(filterFactory.getFilter(request, null));
+
+        assertTrue(filter.accepts("High", "79", "Reflected_XSS_All_Clients", "New", "To Verify"));
+        assertTrue(filter.accepts("medium", "79", "Stored_XSS", "NEW", "Urgent"));
+        assertFalse(filter.accepts("Low", "79", "Reflected_XSS_All_Clients", "New", "To Verify"));
+        assertFalse(filter.accepts("High", "89", "SQL_Injection", "New", "To Verify"));
+        assertFalse(filter.accepts("High", "79", "Reflected_XSS_All_Clients", "Recurrent", "To Verify"));
+        assertFalse(filter.acceptsQuery("Information", "79", "Reflected_XSS_All_Clients"));
+    }
+
+    @Test
+    void accepts_noFilters_everythingPasses() {
+        CompiledFilter filter = CompiledFilter.compile(FilterConfiguration.builder().build());
+        assertTrue(filter.accepts("Low", null, "Any_Query", null, null));
+        assertFalse(filter.hasResultLevelFilters());
+    }
+
+    @Test
+    void accepts_script_evaluatedPerFinding() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.setFilterScript("finding.severity == 'HIGH' || (finding.severity == 'MEDIUM' && finding.state == 'URGENT')");
+        CompiledFilter filter = CompiledFilter.compile(filterFactory.getFilter(null, flowProperties));
+
+        assertTrue(filter.hasResultLevelFilters());
+        assertTrue(filter.accepts("High", "79", "Reflected_XSS_All_Clients", "ReOccured", "To Verify"));
+        assertTrue(filter.accepts("Medium", "79", "Reflected_XSS_All_Clients", "New", "Urgent"));
+        assertFalse(filter.accepts("Low", "79", "Reflected_XSS_All_Clients", "New", "To Verify"));
+    }
+
+    @Test
+    void parseScriptText_sameText_returnsSeparateInstancesOfOneClass() {
+        String script = "finding.status == 'NEW'";
+        assertNotSame(FilterFactory.parseScriptText(script), FilterFactory.parseScriptText(script));
+        assertSame(FilterFactory.parseScriptText(script).getClass(), FilterFactory.parseScriptText(script).getClass());
+    }
+}
@@ -0,0 +1,96 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowAsyncConfig;
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.exception.MachinaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentEnginesTest {
+
+    private final AsyncListenableTaskExecutor executor = newEngineExecutor(4);
+
+    @AfterEach
+    void shutdownExecutor() {
+        FlowAsyncConfig.shutdown(executor);
+    }
+
+    @Test
+    void await_enginesWaitingForEachOther_bothComplete() throws MachinaException {
+        CountDownLatch sastStarted = new CountDownLatch(1);
+        ConcurrentEngines engines = new ConcurrentEngines(executor, null);
+
+        ConcurrentEngines.Engine<String> sast = engines.start("sast", () -> {
+            sastStarted.countDown();
+            return "sast";
+        });
+        // Completes only if the engines run at the same time
+        ConcurrentEngines.Engine<String> osa = engines.start("osa",
+                () -> sastStarted.await(10, TimeUnit.SECONDS) ? "osa" : "timeout");
+
+        assertEquals("sast", engines.await(sast));
+        assertEquals("osa", engines.await(osa));
+    }
+
+    @Test
+    void await_engineExceedsTimeout_failsAndCancelsOtherEngines() {
+        CountDownLatch never = new CountDownLatch(1);
+        ConcurrentEngines engines = new ConcurrentEngines(executor, Collections.singletonMap("osa", 1));
+        ConcurrentEngines.Engine<String> osa = engines.start("osa", () -> {
+            never.await();
+            return "osa";
+        });
+        ConcurrentEngines.Engine<String> sast = engines.start("sast", () -> {
+            never.await();
+            return "sast";
+        });
+
+        MachinaException e = assertThrows(MachinaException.class, () -> engines.await(osa));
+        assertTrue(e.getMessage().contains("osa"));
+        assertThrows(MachinaException.class, () -> engines.await(sast), "Cancelled engines must not be published");
+    }
+
+    @Test
+    void await_engineThrowsRuntimeException_rethrownUnchanged() {
+        ConcurrentEngines engines = new ConcurrentEngines(executor, null);
+        ConcurrentEngines.Engine<String> sca = engines.start("sca", () -> {
+            throw new IllegalStateException("SCA unavailable");
+        });
+
+        assertThrows(IllegalStateException.class, () -> engines.await(sca));
+    }
+
+    @Test
+    void start_allEngineThreadsBusy_runsOnCallingThread() throws MachinaException {
+        AsyncListenableTaskExecutor singleThread = newEngineExecutor(1);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            ConcurrentEngines engines = new ConcurrentEngines(singleThread, null);
+            ConcurrentEngines.Engine<String> busy = engines.start("sast", () -> {
+                release.await(10, TimeUnit.SECONDS);
+                return "sast";
+            });
+            Thread caller = Thread.currentThread();
+            ConcurrentEngines.Engine<Boolean> osa = engines.start("osa", () -> Thread.currentThread() == caller);
+            release.countDown();
+
+            assertTrue(engines.await(osa));
+            assertEquals("sast", engines.await(busy));
+        } finally {
+            FlowAsyncConfig.shutdown(singleThread);
+        }
+    }
+
+    private static AsyncListenableTaskExecutor newEngineExecutor(int threads) {
+        FlowProperties properties = new FlowProperties();
+        properties.setEngineThreads(threads);
+        return new FlowAsyncConfig(properties).engineResultsTaskExecutor();
+    }
+}
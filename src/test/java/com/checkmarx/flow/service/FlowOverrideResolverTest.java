@@ -0,0 +1,48 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.FlowOverride;
+import com.checkmarx.flow.exception.MachinaRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowOverrideResolverTest {
+    private static final String OVERRIDE_JSON = "{\"application\":\"test-app\",\"branches\":[\"master\",\"develop\"]," +
+            "\"emails\":[\"someone@example.com\"]}";
+
+    @Test
+    void resolve_sameBlobTwice_returnsIndependentCopies() {
+        FlowOverrideResolver resolver = new FlowOverrideResolver(new FlowProperties());
+        String encoded = encode(OVERRIDE_JSON);
+
+        FlowOverride first = resolver.resolve(encoded);
+        first.getBranches().add("feature");
+        FlowOverride second = resolver.resolve(encoded);
+
+        assertNotSame(first, second);
+        assertEquals("test-app", second.getApplication());
+        assertEquals(2, second.getBranches().size(), "Changes to a resolved override must not leak into the cache.");
+    }
+
+    @Test
+    void resolve_shortValue_returnsNull() {
+        FlowOverrideResolver resolver = new FlowOverrideResolver(new FlowProperties());
+        assertNull(resolver.resolve("short"));
+        assertNull(resolver.resolve((String) null));
+    }
+
+    @Test
+    void resolve_invalidJson_throws() {
+        FlowOverrideResolver resolver = new FlowOverrideResolver(new FlowProperties());
+        String encoded = encode("[\"this is not an override object\"]");
+        assertThrows(MachinaRuntimeException.class, () -> resolver.resolve(encoded));
+    }
+
+    private static String encode(String json) {
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
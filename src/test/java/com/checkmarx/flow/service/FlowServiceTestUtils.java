@@ -0,0 +1,31 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.ADOProperties;
+import com.checkmarx.flow.config.BitBucketProperties;
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.GitLabProperties;
+import com.checkmarx.flow.config.ScmConfigOverrider;
+
+import java.util.List;
+
+public class FlowServiceTestUtils {
+
+    private FlowServiceTestUtils() {
+        // Instances should not be created.
+    }
+
+    /**
+     * @return a flow service that runs the automation in the calling thread, without a journal or admission control
+     */
+    public static FlowService createFlowService(List<VulnerabilityScanner> scanners,
+                                                ProjectNameGenerator projectNameGenerator,
+                                                ResultsService resultsService) {
+        GitAuthUrlBuilder gitAuthUrlBuilder = new GitAuthUrlBuilder(new GitHubProperties(), new GitLabProperties(),
+                new BitBucketProperties(), new ADOProperties(), new ScmConfigOverrider());
+        return new FlowService(scanners, projectNameGenerator, resultsService,
+                new WorkQueueService(new FlowProperties()),
+                new ScanAdmission(new FlowProperties.Admission(), () -> 0),
+                gitAuthUrlBuilder, Runnable::run);
+    }
+}
@@ -0,0 +1,125 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.ScmConfigOverrider;
+import com.checkmarx.flow.custom.GitHubIssueTracker;
+import com.checkmarx.flow.custom.IssueIndex;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.Issue;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.sdk.dto.ScanResults;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class IssueServiceTest {
+    private static final String API_URL = "https://api.github.com/repos";
+    private static final String ISSUE_URL = API_URL + "/org/repo/issues/1";
+
+    private final List<Issue> trackedIssues = new ArrayList<>();
+    private MockRestServiceServer server;
+    private IssueService issueService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.setApiUrl(API_URL);
+        gitHubProperties.setToken("token");
+        IssueIndex issueIndex = mock(IssueIndex.class);
+        when(issueIndex.sync(anyString(), anyString(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(trackedIssues));
+        GitHubIssueTracker tracker = new GitHubIssueTracker(restTemplate, gitHubProperties, new FlowProperties(),
+                new ScmConfigOverrider(), issueIndex);
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean("GitHub")).thenReturn(tracker);
+        issueService = new IssueService(new FlowProperties());
+        issueService.setApplicationContext(context);
+    }
+
+    @Test
+    void process_unchangedFindingOfAnotherScan_notUpdated() throws MachinaException {
+        server.expect(once(), requestTo(API_URL + "/org/repo/issues"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(request -> {
+                    JSONObject sent = new JSONObject(((MockClientHttpRequest) request).getBodyAsString());
+                    Issue created = new Issue();
+                    created.setId("1");
+                    created.setTitle(sent.getString("title"));
+                    created.setBody(sent.getString("body"));
+                    created.setState("open");
+                    created.setLabels(new ArrayList<>());
+                    created.setUrl(ISSUE_URL);
+                    trackedIssues.add(created);
+                    String response = new JSONObject()
+                            .put("id", 1)
+                            .put("title", created.getTitle())
+                            .put("body", created.getBody())
+                            .put("state", "open")
+                            .put("labels", new JSONArray())
+                            .put("url", ISSUE_URL)
+                            .toString();
+                    return withSuccess(response, MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        Map<String, List<String>> first = issueService.process(results(1001, 3), request());
+        Map<String, List<String>> second = issueService.process(results(1002, 5), request());
+
+        server.verify();
+        assertEquals(Collections.singletonList("1"), first.get("new"));
+        assertTrue(second.get("new").isEmpty());
+        assertEquals(Collections.singletonList("1"), second.get("updated"));
+    }
+
+    private static ScanResults results(int scanId, int pathId) {
+        Map<Integer, ScanResults.IssueDetails> details = new HashMap<>();
+        details.put(22, new ScanResults.IssueDetails().codeSnippet("query(input)").comment("").falsePositive(false));
+        ScanResults.XIssue issue = ScanResults.XIssue.builder()
+                .vulnerability("SQL_Injection")
+                .filename("src/Login.java")
+                .severity("High")
+                .cwe("89")
+                .description("Method query at line 22 of src/Login.java")
+                .link(String.format("https://cx.example.com/CxWebClient/ViewerMain.aspx?scanid=%d&projectid=7&pathid=%d",
+                        scanId, pathId))
+                .details(details)
+                .build();
+        return ScanResults.builder()
+                .xIssues(new ArrayList<>(Collections.singletonList(issue)))
+                .build();
+    }
+
+    private static ScanRequest request() {
+        return ScanRequest.builder()
+                .namespace("org")
+                .repoName("repo")
+                .repoUrl("https://github.com/org/repo.git")
+                .repoType(ScanRequest.Repository.GITHUB)
+                .branch("master")
+                .product(ScanRequest.Product.CX)
+                .bugTracker(BugTracker.builder().type(BugTracker.Type.CUSTOM).customBean("GitHub").build())
+                .build();
+    }
+}
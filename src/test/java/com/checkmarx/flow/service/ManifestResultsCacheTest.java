@@ -0,0 +1,122 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.ast.SCAResults;
+import com.checkmarx.sdk.dto.ast.Summary;
+import com.cx.restclient.ast.dto.sca.report.Finding;
+import com.cx.restclient.ast.dto.sca.report.Package;
+import com.cx.restclient.dto.scansummary.Severity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManifestResultsCacheTest {
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void find_manifestsUnchanged_storedResultsReturned() throws IOException {
+        ManifestResultsCache cache = new ManifestResultsCache(properties(60), null);
+        Files.write(sources.resolve("go.sum"), "v1".getBytes());
+        ScanRequest request = ScanRequest.builder().project("api").build();
+        cache.record(cache.getKey(request, sources.toString()), ScanResults.builder().project("api").build());
+
+        Files.write(sources.resolve("main.go"), "package main".getBytes());
+
+        ScanResults reused = cache.find(cache.getKey(request, sources.toString()));
+        assertNotNull(reused);
+        assertEquals("api", reused.getProject());
+    }
+
+    @Test
+    void find_manifestChanged_noResults() throws IOException {
+        ManifestResultsCache cache = new ManifestResultsCache(properties(60), null);
+        Files.write(sources.resolve("go.sum"), "v1".getBytes());
+        ScanRequest request = ScanRequest.builder().project("api").build();
+        cache.record(cache.getKey(request, sources.toString()), ScanResults.builder().project("api").build());
+
+        Files.write(sources.resolve("go.sum"), "v2".getBytes());
+
+        assertNull(cache.find(cache.getKey(request, sources.toString())));
+    }
+
+    @Test
+    void find_resultsWithFindingsAndPackages_restoredCompletely() throws IOException {
+        ManifestResultsCache cache = new ManifestResultsCache(properties(60), null);
+        Files.write(sources.resolve("go.sum"), "v1".getBytes());
+        String key = cache.getKey(ScanRequest.builder().project("api").build(), sources.toString());
+        cache.record(key, ScanResults.builder().project("api").scaResults(scaResults()).build());
+
+        SCAResults restored = cache.find(key).getScaResults();
+
+        assertEquals("scan-1", restored.getScanId());
+        assertEquals(1, restored.getFindings().size());
+        Finding finding = restored.getFindings().get(0);
+        assertEquals("CVE-2020-1234", finding.getId());
+        assertEquals(Severity.HIGH, finding.getSeverity());
+        assertEquals("CVE-2020-1234", finding.getCveName());
+        assertEquals("Remote code execution", finding.getDescription());
+        assertEquals("Go-golang.org/x/text-0.3.2", finding.getPackageId());
+        assertEquals(1, restored.getPackages().size());
+        Package restoredPackage = restored.getPackages().get(0);
+        assertEquals("Go-golang.org/x/text-0.3.2", restoredPackage.getId());
+        assertEquals("golang.org/x/text", restoredPackage.getName());
+        assertEquals("0.3.2", restoredPackage.getVersion());
+        assertEquals(Integer.valueOf(1), restored.getSummary().getFindingCounts().get(Filter.Severity.HIGH));
+    }
+
+    @Test
+    void getKey_sameRepositoryInAnotherDirectory_sameKey() throws IOException {
+        ManifestResultsCache cache = new ManifestResultsCache(properties(60), null);
+        Path otherClone = Files.createDirectory(sources.resolve("clone"));
+        Files.write(sources.resolve("go.sum"), "v1".getBytes());
+        Files.write(otherClone.resolve("go.sum"), "v1".getBytes());
+        ScanRequest request = ScanRequest.builder().project("api").repoUrl("https://github.com/org/api.git").build();
+
+        assertEquals(cache.getKey(request, sources.toString()), cache.getKey(request, otherClone.toString()));
+    }
+
+    @Test
+    void getKey_disabledByDefault_returnsNull() {
+        ManifestResultsCache cache = new ManifestResultsCache(new FlowProperties(), null);
+
+        assertNull(cache.getKey(ScanRequest.builder().project("api").build(), sources.toString()));
+    }
+
+    private static SCAResults scaResults() {
+        Finding finding = new Finding();
+        finding.setId("CVE-2020-1234");
+        finding.setSeverity(Severity.HIGH);
+        finding.setCveName("CVE-2020-1234");
+        finding.setDescription("Remote code execution");
+        finding.setPackageId("Go-golang.org/x/text-0.3.2");
+        Package vulnerablePackage = new Package();
+        vulnerablePackage.setId("Go-golang.org/x/text-0.3.2");
+        vulnerablePackage.setName("golang.org/x/text");
+        vulnerablePackage.setVersion("0.3.2");
+        Summary summary = new Summary();
+        summary.setFindingCounts(Collections.singletonMap(Filter.Severity.HIGH, 1));
+        SCAResults results = new SCAResults();
+        results.setScanId("scan-1");
+        results.setFindings(Collections.singletonList(finding));
+        results.setPackages(Collections.singletonList(vulnerablePackage));
+        results.setSummary(summary);
+        return results;
+    }
+
+    private static FlowProperties properties(int maxAgeMinutes) {
+        FlowProperties properties = new FlowProperties();
+        properties.getScaReuse().setMaxAgeMinutes(maxAgeMinutes);
+        return properties;
+    }
+}
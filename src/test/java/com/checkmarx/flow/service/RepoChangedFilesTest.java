@@ -0,0 +1,121 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.config.GitHubProperties;
+import com.checkmarx.flow.config.GitLabProperties;
+import com.checkmarx.flow.config.ScmConfigOverrider;
+import com.checkmarx.flow.dto.ChangedFiles;
+import com.checkmarx.flow.dto.ScanRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RepoChangedFilesTest {
+    private static final String GITHUB_API_URL = "https://api.github.com/repos";
+    private static final String GITLAB_API_URL = "https://gitlab.example.com/api/v4";
+
+    private MockRestServiceServer server;
+    private GitHubService gitHubService;
+    private GitLabService gitLabService;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.setApiUrl(GITHUB_API_URL);
+        gitHubProperties.setToken("token");
+        gitHubService = new GitHubService(restTemplate, gitHubProperties, new FlowProperties(), null,
+                new ScmConfigOverrider());
+        GitLabProperties gitLabProperties = new GitLabProperties();
+        gitLabProperties.setApiUrl(GITLAB_API_URL);
+        gitLabProperties.setToken("token");
+        gitLabService = new GitLabService(restTemplate, gitLabProperties);
+    }
+
+    @Test
+    void getChangedFiles_gitHubComparison_changedAndTreeFilesCounted() {
+        server.expect(once(), requestTo(GITHUB_API_URL + "/org/repo/compare/base...head"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(comparisonFiles(2), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(GITHUB_API_URL + "/org/repo/git/trees/head?recursive=1"))
+                .andRespond(withSuccess("{\"truncated\":false,\"tree\":["
+                        + "{\"path\":\"src\",\"type\":\"tree\",\"sha\":\"1\"},"
+                        + "{\"path\":\"src/A.java\",\"type\":\"blob\",\"sha\":\"2\"},"
+                        + "{\"path\":\"src/B.java\",\"type\":\"blob\",\"sha\":\"3\"},"
+                        + "{\"path\":\"pom.xml\",\"type\":\"blob\",\"sha\":\"4\"}]}", MediaType.APPLICATION_JSON));
+
+        ChangedFiles changes = gitHubService.getChangedFiles(gitHubRequest(), "base");
+
+        assertEquals(2, changes.getChanged());
+        assertEquals(3, changes.getTotal());
+        server.verify();
+    }
+
+    @Test
+    void getChangedFiles_gitHubComparisonAtFileLimit_unknown() {
+        server.expect(once(), requestTo(GITHUB_API_URL + "/org/repo/compare/base...head"))
+                .andRespond(withSuccess(comparisonFiles(300), MediaType.APPLICATION_JSON));
+
+        assertNull(gitHubService.getChangedFiles(gitHubRequest(), "base"));
+        server.verify();
+    }
+
+    @Test
+    void getChangedFiles_gitLabComparison_changedAndTreeSizeCounted() {
+        HttpHeaders treeHeaders = new HttpHeaders();
+        treeHeaders.set("X-Total", "40");
+        server.expect(once(), requestTo(GITLAB_API_URL + "/projects/7/repository/compare?from=base&to=head"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"diffs\":[{\"new_path\":\"a\"},{\"new_path\":\"b\"}]}",
+                        MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(GITLAB_API_URL + "/projects/7/repository/tree?ref=head&recursive=true&per_page=1"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).headers(treeHeaders));
+
+        ChangedFiles changes = gitLabService.getChangedFiles(gitLabRequest(), "base");
+
+        assertEquals(2, changes.getChanged());
+        assertEquals(40, changes.getTotal());
+        server.verify();
+    }
+
+    @Test
+    void getChangedFiles_gitLabComparisonOverflow_unknown() {
+        server.expect(once(), requestTo(GITLAB_API_URL + "/projects/7/repository/compare?from=base&to=head"))
+                .andRespond(withSuccess("{\"overflow\":true,\"diffs\":[{\"new_path\":\"a\"}]}",
+                        MediaType.APPLICATION_JSON));
+
+        assertNull(gitLabService.getChangedFiles(gitLabRequest(), "base"));
+        server.verify();
+    }
+
+    private static ScanRequest gitHubRequest() {
+        return ScanRequest.builder().namespace("org").repoName("repo").hash("head").build();
+    }
+
+    private static ScanRequest gitLabRequest() {
+        ScanRequest request = ScanRequest.builder().hash("head").build();
+        request.setRepoProjectId(7);
+        return request;
+    }
+
+    private static String comparisonFiles(int count) {
+        StringJoiner files = new StringJoiner(",", "{\"files\":[", "]}");
+        for (int i = 0; i < count; i++) {
+            files.add("{\"filename\":\"File" + i + ".java\",\"status\":\"modified\"}");
+        }
+        return files.toString();
+    }
+}
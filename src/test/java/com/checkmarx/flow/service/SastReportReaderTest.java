@@ -0,0 +1,156 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.dto.ControllerRequest;
+import com.checkmarx.flow.exception.MachinaException;
+import com.checkmarx.sdk.config.Constants;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.checkmarx.sdk.service.CxClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SastReportReaderTest {
+    private static final String SAMPLE_DIR = "cucumber/data/sample-sast-results/";
+
+    private static final List<String> ALL_SEVERITIES = Arrays.asList("High", "Medium", "Low", "Info");
+
+    private final FilterFactory filterFactory = new FilterFactory();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "1-finding.xml",
+            "2-findings-same-vuln-type-same-file.xml",
+            "2-findings-same-vuln-type-different-files.xml",
+            "2-findings-different-severity.xml",
+            "2-findings-same-vuln-type-same-file-false-positive.xml",
+            "3-findings-5-nodes-different-files.xml",
+            "4-low-3-medium-2-high-unique.xml",
+            "11-findings.xml",
+            "100-findings.xml",
+            "empty-results.xml"})
+    void read_sampleReport_sameIssuesAsSdk(String report) throws Exception {
+        FilterConfiguration filter = getFilter(ALL_SEVERITIES);
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        read(report, filter, issues);
+
+        CxClient cxClient = mock(CxClient.class);
+        File reportFile = getReportFile(report);
+        when(cxClient.getReportContent(reportFile, filter)).thenCallRealMethod();
+        List<ScanResults.XIssue> sdkIssues = cxClient.getReportContent(reportFile, filter).getXIssues();
+
+        assertEquals(describe(sdkIssues), describe(issues));
+    }
+
+
+    @Test
+    void read_sameVulnerabilitySameFile_findingsMergedIntoOneIssue() throws Exception {
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        ScanResults header = read("2-findings-same-vuln-type-same-file.xml", "High", issues);
+
+        assertEquals(1, issues.size());
+        ScanResults.XIssue issue = issues.get(0);
+        assertEquals("SQL_Injection", issue.getVulnerability());
+        assertEquals("DOS_Login.java", issue.getFilename());
+        assertEquals("TO VERIFY", issue.getVulnerabilityStatus());
+        assertTrue(issue.getDetails().containsKey(88));
+        assertTrue(issue.getDetails().containsKey(89));
+        assertEquals(2, ((List<?>) issue.getAdditionalDetails().get("results")).size());
+        assertEquals(2, getSummary(header).get("High"));
+        assertEquals("1000026", header.getAdditionalDetails().get("scanId"));
+    }
+
+    @Test
+    void read_differentResultSeverity_summaryCountsResultSeverity() throws Exception {
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        ScanResults header = read("2-findings-different-severity.xml", "High", issues);
+
+        Map<?, ?> summary = getSummary(header);
+        assertEquals(1, summary.get("High"));
+        assertEquals(1, summary.get("Medium"));
+    }
+
+    @Test
+    void read_queryRejectedByFilter_noIssues() throws Exception {
+        List<ScanResults.XIssue> issues = new ArrayList<>();
+        ScanResults header = read("2-findings-same-vuln-type-same-file.xml", "Low", issues);
+
+        assertTrue(issues.isEmpty());
+        assertTrue(getSummary(header).isEmpty());
+        assertNotNull(header.getProject());
+    }
+
+    private ScanResults read(String report, String severity, List<ScanResults.XIssue> issues)
+            throws IOException, MachinaException {
+        return read(report, getFilter(Collections.singletonList(severity)), issues);
+    }
+
+    private ScanResults read(String report, FilterConfiguration filter, List<ScanResults.XIssue> issues)
+            throws IOException, MachinaException {
+        SastReportReader reader = new SastReportReader(filter);
+        try (InputStream stream = getClass().getClassLoader().getResourceAsStream(SAMPLE_DIR + report)) {
+            assertNotNull(stream, "Missing sample report " + report);
+            ScanResults header = reader.read(stream, new SastReportReader.Listener() {
+                @Override
+                public void start(ScanResults scanDetails) {
+                    assertTrue(issues.isEmpty());
+                }
+
+                @Override
+                public void issue(ScanResults.XIssue issue) {
+                    issues.add(issue);
+                }
+            });
+            assertEquals(issues.size(), reader.getIssueCount());
+            return header;
+        }
+    }
+
+    private FilterConfiguration getFilter(List<String> severities) {
+        ControllerRequest request = new ControllerRequest(severities, null, null, null);
+        return filterFactory.getFilter(request, null);
+    }
+
+    private File getReportFile(String report) throws URISyntaxException {
+        URL url = getClass().getClassLoader().getResource(SAMPLE_DIR + report);
+        assertNotNull(url, "Missing sample report " + report);
+        return Paths.get(url.toURI()).toFile();
+    }
+
+    /**
+     * @return the fields file based trackers use, per vulnerability and file; findings are merged by both
+     */
+    private static Map<String, String> describe(List<ScanResults.XIssue> issues) {
+        Map<String, String> descriptions = new TreeMap<>();
+        for (ScanResults.XIssue issue : issues) {
+            descriptions.put(issue.getVulnerability() + "|" + issue.getFilename(), String.join("|",
+                    issue.getSeverity(),
+                    String.valueOf(issue.getCwe()),
+                    String.valueOf(issue.getVulnerabilityStatus()),
+                    String.valueOf(issue.getSimilarityId()),
+                    String.valueOf(issue.getFalsePositiveCount()),
+                    new TreeSet<>(issue.getDetails().keySet()).toString(),
+                    issue.getDetails().values().stream()
+                            .map(details -> details.getCodeSnippet() + "/" + details.isFalsePositive())
+                            .sorted()
+                            .collect(Collectors.joining(","))));
+        }
+        return descriptions;
+    }
+
+    private static Map<?, ?> getSummary(ScanResults header) {
+        return (Map<?, ?>) header.getAdditionalDetails().get(Constants.SUMMARY_KEY);
+    }
+}
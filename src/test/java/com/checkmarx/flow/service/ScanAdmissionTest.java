@@ -0,0 +1,109 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanAdmissionTest {
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final List<ScanAdmission.Priority> admitted = new CopyOnWriteArrayList<>();
+
+    @Test
+    void admit_disabled_queueNotRead() {
+        ScanAdmission admission = new ScanAdmission(new FlowProperties.Admission(), () -> {
+            throw new IllegalStateException("Queue read");
+        });
+
+        admission.admit(ScanAdmission.Priority.PUSH);
+    }
+
+    @Test
+    void admit_queueFull_pullRequestReleasedBeforeEarlierPush() throws Exception {
+        // Checkmarx sees the admitted scans in its queue
+        ScanAdmission admission = new ScanAdmission(properties(), () -> queueDepth.get() + admitted.size());
+        queueDepth.set(5);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> push = executor.submit(() -> admit(admission, ScanAdmission.Priority.PUSH));
+            awaitHeld(admission, 1);
+            Future<?> pullRequest = executor.submit(() -> admit(admission, ScanAdmission.Priority.PULL_REQUEST));
+            awaitHeld(admission, 2);
+
+            queueDepth.set(4);
+            pullRequest.get(10, TimeUnit.SECONDS);
+            assertFalse(push.isDone());
+
+            queueDepth.set(3);
+            push.get(10, TimeUnit.SECONDS);
+            assertEquals(ScanAdmission.Priority.PULL_REQUEST, admitted.get(0));
+            assertEquals(ScanAdmission.Priority.PUSH, admitted.get(1));
+        } finally {
+            executor.shutdownNow();
+            admission.shutdown();
+        }
+    }
+
+    @Test
+    void submit_queueFull_callerNotBlockedUntilCapacity() throws Exception {
+        ScanAdmission admission = new ScanAdmission(properties(), queueDepth::get);
+        queueDepth.set(5);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            admission.submit(ScanAdmission.Priority.PUSH, started::countDown);
+            awaitHeld(admission, 1);
+            assertFalse(started.await(1500, TimeUnit.MILLISECONDS));
+
+            queueDepth.set(4);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(0, admission.getHeld());
+        } finally {
+            admission.shutdown();
+        }
+    }
+
+    @Test
+    void submit_queueUnreadable_lastDepthKept() throws Exception {
+        ScanAdmission admission = new ScanAdmission(properties(), queueDepth::get);
+        queueDepth.set(5);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            admission.submit(ScanAdmission.Priority.PULL_REQUEST, started::countDown);
+            awaitHeld(admission, 1);
+
+            queueDepth.set(ScanAdmission.UNKNOWN_DEPTH);
+            assertFalse(started.await(2500, TimeUnit.MILLISECONDS), "An unreadable queue must not release scans");
+
+            queueDepth.set(0);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+        } finally {
+            admission.shutdown();
+        }
+    }
+
+    private static FlowProperties.Admission properties() {
+        FlowProperties.Admission properties = new FlowProperties.Admission();
+        properties.setHighWaterMark(5);
+        properties.setPollSeconds(1);
+        properties.setMaxWaitMinutes(0);
+        return properties;
+    }
+
+    private void admit(ScanAdmission admission, ScanAdmission.Priority priority) {
+        admission.admit(priority);
+        admitted.add(priority);
+    }
+
+    private static void awaitHeld(ScanAdmission admission, int held) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (admission.getHeld() < held && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(held, admission.getHeld());
+    }
+}
@@ -0,0 +1,183 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.ScanResults;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanResultsCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_sameScanAndFilter_loadedOnceAndCopied() {
+        ScanResultsCache cache = new ScanResultsCache(new FlowProperties());
+
+        ScanResults first = cache.get(1, severity("High"), loader("project"));
+        ScanResults second = cache.get(1, severity("High"), loader("project"));
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertEquals("project", second.getProject());
+    }
+
+    @Test
+    void get_otherFilterOrNewerScan_loadedAgain() {
+        ScanResultsCache cache = new ScanResultsCache(new FlowProperties());
+
+        cache.get(1, severity("High"), loader("project"));
+        cache.get(1, severity("Medium"), loader("project"));
+        cache.get(2, severity("High"), loader("project"));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getKey_filtersInAnotherOrder_sameKey() {
+        FilterConfiguration highAndMedium = FilterConfiguration.builder()
+                .simpleFilters(Arrays.asList(new Filter(Filter.Type.SEVERITY, "High"), new Filter(Filter.Type.SEVERITY, "Medium")))
+                .build();
+        FilterConfiguration mediumAndHigh = FilterConfiguration.builder()
+                .simpleFilters(Arrays.asList(new Filter(Filter.Type.SEVERITY, "Medium"), new Filter(Filter.Type.SEVERITY, "High")))
+                .build();
+
+        assertEquals(ScanResultsCache.getKey(1, highAndMedium), ScanResultsCache.getKey(1, mediumAndHigh));
+    }
+
+    @Test
+    void get_withDirectory_entriesSurviveRestart() {
+        FlowProperties properties = new FlowProperties();
+        properties.getResultsCache().setDir(cacheDir.toString());
+
+        new ScanResultsCache(properties).get(1, null, loader("project"));
+        ScanResults results = new ScanResultsCache(properties).get(1, null, loader("project"));
+
+        assertEquals(1, loads.get());
+        assertEquals("project", results.getProject());
+    }
+
+    @Test
+    void get_resultsWithIssuesFromDirectory_issuesRestored() {
+        FlowProperties properties = new FlowProperties();
+        properties.getResultsCache().setDir(cacheDir.toString());
+
+        new ScanResultsCache(properties).get(1, null, () -> resultsWithIssues());
+        ScanResults results = new ScanResultsCache(properties).get(1, null, loader("other"));
+
+        assertEquals(0, loads.get());
+        assertEquals(Integer.valueOf(1), results.getSastScanId());
+        assertEquals(1, results.getXIssues().size());
+        ScanResults.XIssue issue = results.getXIssues().get(0);
+        assertEquals("SQL_Injection", issue.getVulnerability());
+        assertEquals("src/Login.java", issue.getFilename());
+        assertEquals("High", issue.getSeverity());
+        assertEquals("89", issue.getCwe());
+        assertEquals("-1234", issue.getSimilarityId());
+        assertEquals(1, issue.getFalsePositiveCount());
+        assertEquals(new HashSet<>(Arrays.asList(10, 20)), issue.getDetails().keySet());
+        assertEquals("query(input)", issue.getDetails().get(10).getCodeSnippet());
+        assertTrue(issue.getDetails().get(20).isFalsePositive());
+        assertEquals(2, ((List<?>) issue.getAdditionalDetails().get("results")).size());
+    }
+
+    @Test
+    void copy_resultsWithIssues_independentOfOriginal() throws Exception {
+        ScanResults original = resultsWithIssues();
+
+        ScanResults copy = ScanResultsCache.copy(original);
+        copy.getXIssues().get(0).getDetails().remove(10);
+        copy.getXIssues().get(0).setSeverity("Low");
+
+        assertNotSame(original.getXIssues().get(0), copy.getXIssues().get(0));
+        assertEquals("src/Login.java", copy.getXIssues().get(0).getFilename());
+        assertEquals(Integer.valueOf(1), copy.getSastScanId());
+        assertEquals("High", original.getXIssues().get(0).getSeverity());
+        assertEquals(2, original.getXIssues().get(0).getDetails().size());
+    }
+
+    @Test
+    void get_concurrentRequests_shareOneLoad() throws Exception {
+        ScanResultsCache cache = new ScanResultsCache(new FlowProperties());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ScanResults> first = executor.submit(() -> cache.get(1, null, () -> {
+                loading.countDown();
+                await(release);
+                return loader("project").get();
+            }));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<ScanResults> second = executor.submit(() -> cache.get(1, null, loader("other")));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("project", first.get(10, TimeUnit.SECONDS).getProject());
+            assertEquals("project", second.get(10, TimeUnit.SECONDS).getProject());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Supplier<ScanResults> loader(String project) {
+        return () -> {
+            loads.incrementAndGet();
+            ScanResults results = new ScanResults();
+            results.setProject(project);
+            return results;
+        };
+    }
+
+    static ScanResults resultsWithIssues() {
+        Map<Integer, ScanResults.IssueDetails> details = new HashMap<>();
+        details.put(10, new ScanResults.IssueDetails().codeSnippet("query(input)").comment("").falsePositive(false));
+        details.put(20, new ScanResults.IssueDetails().codeSnippet("query(name)").comment("").falsePositive(true));
+        Map<String, Object> additionalDetails = new HashMap<>();
+        additionalDetails.put("results", Arrays.asList(Collections.singletonMap("state", "0"),
+                Collections.singletonMap("state", "1")));
+        ScanResults.XIssue issue = ScanResults.XIssue.builder()
+                .vulnerability("SQL_Injection")
+                .file("src/Login.java")
+                .severity("High")
+                .cwe("89")
+                .similarityId("-1234")
+                .details(details)
+                .additionalDetails(additionalDetails)
+                .build();
+        issue.setFalsePositiveCount(1);
+
+        ScanResults results = new ScanResults();
+        results.setProject("project");
+        results.setSastScanId(1);
+        results.setXIssues(new ArrayList<>(Collections.singletonList(issue)));
+        return results;
+    }
+
+    private static FilterConfiguration severity(String severity) {
+        return FilterConfiguration.builder()
+                .simpleFilters(Collections.singletonList(new Filter(Filter.Type.SEVERITY, severity)))
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
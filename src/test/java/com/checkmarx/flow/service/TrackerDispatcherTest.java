@@ -0,0 +1,44 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.exception.MachinaException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackerDispatcherTest {
+
+    @Test
+    void publish_trackersWaitingForEachOther_allPublished() {
+        // Each publish completes only if the other one runs at the same time
+        CyclicBarrier bothStarted = new CyclicBarrier(2);
+        Map<String, TrackerDispatcher.Publish> publishes = new LinkedHashMap<>();
+        publishes.put("JIRA", () -> bothStarted.await(10, TimeUnit.SECONDS));
+        publishes.put("Sarif", () -> bothStarted.await(10, TimeUnit.SECONDS));
+
+        Map<String, TrackerDispatcher.Outcome> outcomes = new TrackerDispatcher(2, 10).publish(publishes);
+
+        assertTrue(outcomes.get("JIRA").isSuccess());
+        assertTrue(outcomes.get("Sarif").isSuccess());
+    }
+
+    @Test
+    void publish_oneTrackerFails_othersPublishedWithOwnStatus() {
+        Map<String, TrackerDispatcher.Publish> publishes = new LinkedHashMap<>();
+        publishes.put("Json", () -> {
+            throw new MachinaException("Json unavailable");
+        });
+        publishes.put("Csv", () -> {
+        });
+
+        Map<String, TrackerDispatcher.Outcome> outcomes = new TrackerDispatcher(1, 10).publish(publishes);
+
+        assertFalse(outcomes.get("Json").isSuccess());
+        assertEquals("Json unavailable", outcomes.get("Json").getError().getMessage());
+        assertTrue(outcomes.get("Csv").isSuccess());
+    }
+}
@@ -0,0 +1,186 @@
+package com.checkmarx.flow.service;
+
+import com.checkmarx.flow.config.FlowProperties;
+import com.checkmarx.flow.dto.BugTracker;
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.flow.exception.WorkQueueFullException;
+import com.checkmarx.flow.utils.HTMLHelper;
+import com.checkmarx.sdk.dto.Filter;
+import com.checkmarx.sdk.dto.filtering.FilterConfiguration;
+import com.checkmarx.sdk.dto.filtering.ScriptedFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkQueueServiceTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void enqueue_atCapacity_throws() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.getWorkQueue().setCapacity(1);
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+
+        long id = queue.enqueue(ScanRequest.builder().build());
+        assertThrows(WorkQueueFullException.class, () -> queue.enqueue(ScanRequest.builder().build()));
+
+        queue.complete(id);
+        queue.enqueue(ScanRequest.builder().build());
+    }
+
+    @Test
+    void takeRecoveredJobs_afterRestart_returnsUnfinishedJobsWithStage() throws IOException {
+        FlowProperties flowProperties = journaledProperties();
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+        long completed = queue.enqueue(request("completed"));
+        long queued = queue.enqueue(request("queued"));
+        long publishing = queue.enqueue(request("publishing"));
+        queue.markPublishing(publishing, 1001);
+        queue.complete(completed);
+        queue.close();
+
+        List<WorkQueueService.PendingJob> jobs = new WorkQueueService(flowProperties)
+                .takeRecoveredJobs(Collections.emptyList());
+
+        assertEquals(2, jobs.size());
+        assertEquals(queued, jobs.get(0).getId());
+        assertFalse(jobs.get(0).isPublishing());
+        assertTrue(jobs.get(1).isPublishing());
+        assertNull(jobs.get(0).getScanId());
+        assertEquals(Integer.valueOf(1001), jobs.get(1).getScanId());
+
+        ScanRequest restored = jobs.get(0).getRequest();
+        assertEquals("queued", restored.getRepoName());
+        assertEquals("JIRA-KEY", restored.getBugTracker().getProjectKey());
+        assertEquals("value", restored.getAltFields().get("field"));
+        assertEquals(1, restored.getFilter().getSimpleFilters().size());
+        assertEquals(Filter.Type.SEVERITY, restored.getFilter().getSimpleFilters().get(0).getType());
+        assertEquals("finding.severity == 'HIGH'",
+                FilterFactory.getScriptText(restored.getFilter().getScriptedFilter().getScript()));
+    }
+
+    @Test
+    void enqueue_afterRestart_countsRecoveredJobs() throws IOException {
+        FlowProperties flowProperties = journaledProperties();
+        flowProperties.getWorkQueue().setCapacity(1);
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+        queue.enqueue(request("queued"));
+        queue.close();
+
+        WorkQueueService restarted = new WorkQueueService(flowProperties);
+        assertThrows(WorkQueueFullException.class, () -> restarted.enqueue(request("another")));
+    }
+
+    @Test
+    void takeRecoveredJobs_afterCompaction_keepsScanId() throws IOException {
+        FlowProperties flowProperties = journaledProperties();
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+        long publishing = queue.enqueue(request("publishing"));
+        queue.markPublishing(publishing, 1001);
+        for (int i = 0; i < 100; i++) {
+            queue.complete(queue.enqueue(request("completed" + i)));
+        }
+        queue.close();
+
+        List<WorkQueueService.PendingJob> jobs = new WorkQueueService(flowProperties)
+                .takeRecoveredJobs(Collections.emptyList());
+
+        assertEquals(1, jobs.size());
+        assertTrue(jobs.get(0).isPublishing());
+        assertEquals(Integer.valueOf(1001), jobs.get(0).getScanId());
+    }
+
+    @Test
+    void enqueue_largeMetadata_spilledToDiskAndLoadedLazily() throws IOException {
+        FlowProperties flowProperties = journaledProperties();
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+        String payload = StringUtils.repeat("{\"commits\":[]}", 10000);
+        ScanRequest request = request("spilled");
+        request.putAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD, payload);
+        request.putAdditionalMetadata("result_url", "https://example.com/results");
+
+        long id = queue.enqueue(request);
+
+        assertTrue(request.getAdditionalMetadata() instanceof SpilledMetadata);
+        assertEquals(payload, request.getAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD));
+        assertEquals("https://example.com/results", request.getAdditionalMetadata("result_url"));
+        queue.close();
+
+        WorkQueueService restarted = new WorkQueueService(flowProperties);
+        ScanRequest restored = restarted.takeRecoveredJobs(Collections.emptyList()).get(0).getRequest();
+        assertEquals(payload, restored.getAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD));
+        assertEquals("https://example.com/results", restored.getAdditionalMetadata("result_url"));
+
+        restarted.complete(id);
+        assertNull(restored.getAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD));
+        try (Stream<Path> blobs = Files.list(journalDir.resolve("metadata"))) {
+            assertEquals(0, blobs.count());
+        }
+    }
+
+    @Test
+    void enqueue_smallMetadata_keptOnHeap() {
+        WorkQueueService queue = new WorkQueueService(new FlowProperties());
+        ScanRequest request = request("small");
+        request.putAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD, "{}");
+
+        queue.enqueue(request);
+
+        assertFalse(request.getAdditionalMetadata() instanceof SpilledMetadata);
+        assertEquals("{}", request.getAdditionalMetadata(HTMLHelper.WEB_HOOK_PAYLOAD));
+    }
+
+    @Test
+    void enqueue_repoUrlWithToken_tokenNotJournaled() throws IOException {
+        FlowProperties flowProperties = journaledProperties();
+        WorkQueueService queue = new WorkQueueService(flowProperties);
+        ScanRequest request = request("authenticated");
+        request.setRepoUrl("https://github.com/org/authenticated.git");
+        request.setRepoUrlWithAuth("https://secret-token@github.com/org/authenticated.git");
+        queue.enqueue(request);
+        queue.close();
+
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                assertFalse(new String(Files.readAllBytes(file)).contains("secret-token"), file.toString());
+            }
+        }
+        ScanRequest restored = new WorkQueueService(flowProperties).takeRecoveredJobs(Collections.emptyList())
+                .get(0).getRequest();
+        assertEquals("https://github.com/org/authenticated.git", restored.getRepoUrl());
+        assertNull(restored.getRepoUrlWithAuth());
+    }
+
+    private FlowProperties journaledProperties() {
+        FlowProperties flowProperties = new FlowProperties();
+        flowProperties.getWorkQueue().setJournalDir(journalDir.toString());
+        flowProperties.getWorkQueue().setJournalSizeMb(1);
+        return flowProperties;
+    }
+
+    private static ScanRequest request(String repoName) {
+        return ScanRequest.builder()
+                .repoName(repoName)
+                .altFields("field:value")
+                .branch("master")
+                .bugTracker(BugTracker.builder().type(BugTracker.Type.JIRA).projectKey("JIRA-KEY").build())
+                .filter(FilterConfiguration.builder()
+                        .simpleFilters(Collections.singletonList(new Filter(Filter.Type.SEVERITY, "High")))
+                        .scriptedFilter(ScriptedFilter.builder()
+                                .script(FilterFactory.parseScriptText("finding.severity == 'HIGH'"))
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.checkmarx.flow.utils;
+
+import com.checkmarx.flow.exception.MachinaException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void addRegistry() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void removeRegistry() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void timeTracker_successfulCall_recordedWithTrackerOperationAndOutcome() {
+        String result = FlowMetrics.timeTracker("GitHub", FlowMetrics.OPERATION_CREATE, () -> "42");
+
+        assertEquals("42", result);
+        assertEquals(1, trackerTimer("GitHub", FlowMetrics.OPERATION_CREATE, FlowMetrics.SUCCESS).count());
+    }
+
+    @Test
+    void timeTracker_failingCall_rethrownAndRecordedAsFailure() {
+        assertThrows(MachinaException.class, () -> FlowMetrics.timeTrackerVoid("GitHub", FlowMetrics.OPERATION_CLOSE,
+                () -> {
+                    throw new MachinaException("closing failed");
+                }));
+
+        assertEquals(1, trackerTimer("GitHub", FlowMetrics.OPERATION_CLOSE, FlowMetrics.FAILURE).count());
+        assertNull(registry.find(FlowMetrics.TRACKER_OPERATION)
+                .tags(FlowMetrics.TAG_OPERATION, FlowMetrics.OPERATION_CLOSE, FlowMetrics.TAG_OUTCOME, FlowMetrics.SUCCESS)
+                .timer());
+    }
+
+    @Test
+    void engineOf_scannerBean_scannerSuffixRemoved() {
+        assertEquals("sast", FlowMetrics.engineOf(new SastScanner()).stream()
+                .filter(tag -> tag.getKey().equals(FlowMetrics.TAG_ENGINE))
+                .findFirst().get().getValue());
+    }
+
+    private Timer trackerTimer(String tracker, String operation, String outcome) {
+        return registry.get(FlowMetrics.TRACKER_OPERATION)
+                .tags(FlowMetrics.TAG_TRACKER, tracker, FlowMetrics.TAG_OPERATION, operation, FlowMetrics.TAG_OUTCOME, outcome)
+                .timer();
+    }
+
+    private static class SastScanner {
+    }
+}
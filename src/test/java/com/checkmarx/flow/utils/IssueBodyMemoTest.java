@@ -0,0 +1,67 @@
+package com.checkmarx.flow.utils;
+
+import com.checkmarx.flow.dto.ScanRequest;
+import com.checkmarx.sdk.dto.ScanResults;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueBodyMemoTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void get_sameIssueAndFormat_renderedOnce() {
+        ScanResults.XIssue issue = ScanResults.XIssue.builder().vulnerability("SQL_Injection").build();
+        ScanRequest request = ScanRequest.builder().branch("master").build();
+
+        try (IssueBodyMemo.Scope ignored = IssueBodyMemo.open()) {
+            String first = IssueBodyMemo.get(issue, request, IssueBodyMemo.FORMAT_JIRA, "url", render("body"));
+            String second = IssueBodyMemo.get(issue, request, IssueBodyMemo.FORMAT_JIRA, "url", render("other"));
+
+            assertEquals("body", first);
+            assertEquals("body", second);
+        }
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void get_otherFormatVariantOrEqualIssue_renderedAgain() {
+        ScanResults.XIssue issue = ScanResults.XIssue.builder().vulnerability("SQL_Injection").build();
+        ScanResults.XIssue equalIssue = ScanResults.XIssue.builder().vulnerability("SQL_Injection").build();
+
+        try (IssueBodyMemo.Scope ignored = IssueBodyMemo.open()) {
+            IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "master", render("md"));
+            IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_HTML, "master", render("html"));
+            IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "develop", render("md"));
+            IssueBodyMemo.get(equalIssue, null, IssueBodyMemo.FORMAT_MD, "master", render("md"));
+        }
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void get_outsideOrAfterScope_renderedEveryTime() {
+        ScanResults.XIssue issue = ScanResults.XIssue.builder().vulnerability("SQL_Injection").build();
+
+        try (IssueBodyMemo.Scope ignored = IssueBodyMemo.open()) {
+            IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "master", render("md"));
+        }
+        IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "master", render("md"));
+        IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "master", render("md"));
+        try (IssueBodyMemo.Scope ignored = IssueBodyMemo.open()) {
+            assertEquals("next", IssueBodyMemo.get(issue, null, IssueBodyMemo.FORMAT_MD, "master", render("next")));
+        }
+
+        assertEquals(4, renders.get());
+    }
+
+    private Supplier<String> render(String body) {
+        return () -> {
+            renders.incrementAndGet();
+            return body;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.checkmarx.flow.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueDigestTest {
+
+    @Test
+    void read_markedBody_returnsDigest() {
+        String digest = IssueDigest.of("title", "body");
+
+        String body = IssueDigest.mark("**SQL_Injection** issue exists", digest);
+
+        assertTrue(body.startsWith("**SQL_Injection** issue exists"));
+        assertEquals(digest, IssueDigest.read(body));
+    }
+
+    @Test
+    void read_bodyWithoutMarker_returnsNull() {
+        assertNull(IssueDigest.read("**SQL_Injection** issue exists"));
+        assertNull(IssueDigest.read(null));
+    }
+
+    @Test
+    void of_samePartsSplitDifferently_differentDigests() {
+        assertNotEquals(IssueDigest.of("ab", "c"), IssueDigest.of("a", "bc"));
+        assertEquals(IssueDigest.of("a", null), IssueDigest.of("a", ""));
+    }
+
+    @Test
+    void of_linkOfAnotherScan_sameDigest() {
+        String link = "[Checkmarx](https://cx/CxWebClient/ViewerMain.aspx?scanid=%d&projectid=7&pathid=%d)";
+
+        assertEquals(IssueDigest.of("title", String.format(link, 1001, 3)),
+                IssueDigest.of("title", String.format(link, 1002, 5)));
+        assertNotEquals(IssueDigest.of("title", String.format(link, 1001, 3)),
+                IssueDigest.of("title", String.format(link, 1001, 3).replace("projectid=7", "projectid=8")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.checkmarx.flow.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFileStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_afterRestart_restoredFromFile() {
+        new JsonFileStore("test entry", 1, directory.toString())
+                .write("key", Collections.singletonMap("scanId", 1001));
+
+        Map<?, ?> restored = new JsonFileStore("test entry", 1, directory.toString()).read("key", Map.class);
+
+        assertEquals(1001, restored.get("scanId"));
+    }
+
+    @Test
+    void get_evictedFromMemoryWithoutDirectory_returnsNull() {
+        JsonFileStore store = new JsonFileStore("test entry", 1, null);
+        store.put("first", "{}".getBytes());
+        store.put("second", "{}".getBytes());
+
+        assertNull(store.get("first"));
+        assertNotNull(store.get("second"));
+    }
+
+    @Test
+    void read_unreadableFile_removed() throws IOException {
+        Files.write(directory.resolve("key.json"), "{not json".getBytes());
+        JsonFileStore store = new JsonFileStore("test entry", 0, directory.toString());
+
+        assertNull(store.read("key", Map.class));
+        assertFalse(Files.exists(directory.resolve("key.json")));
+    }
+
+    @Test
+    void put_beyondMaxFiles_leastRecentlyUsedDeleted() throws IOException {
+        JsonFileStore store = new JsonFileStore("test entry", 0, directory.toString(), 2, 0, 0);
+        store.put("first", "{}".getBytes());
+        store.put("second", "{}".getBytes());
+        Files.setLastModifiedTime(directory.resolve("first.json"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("second.json"), FileTime.fromMillis(2000));
+        store.get("first");
+
+        store.put("third", "{}".getBytes());
+
+        assertNotNull(store.get("first"));
+        assertNull(store.get("second"));
+        assertNotNull(store.get("third"));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count(), "No temporary file is left behind");
+        }
+    }
+
+    @Test
+    void put_withinPruneInterval_directoryNotListedAgain() throws IOException {
+        JsonFileStore store = new JsonFileStore("test entry", 0, directory.toString(), 1, 0, 60_000);
+        store.put("first", "{}".getBytes());
+        store.put("second", "{}".getBytes());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+}
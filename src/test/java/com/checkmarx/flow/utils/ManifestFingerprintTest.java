@@ -0,0 +1,52 @@
+package com.checkmarx.flow.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManifestFingerprintTest {
+
+    @TempDir
+    Path sources;
+
+    @Test
+    void of_sourceFileChanged_sameFingerprint() throws IOException {
+        write("pom.xml", "<project/>");
+        write("src/main/java/App.java", "class App {}");
+        String before = ManifestFingerprint.of(sources);
+
+        write("src/main/java/App.java", "class App { }");
+        write("node_modules/left-pad/package.json", "{}");
+
+        assertEquals(before, ManifestFingerprint.of(sources));
+    }
+
+    @Test
+    void of_manifestChanged_differentFingerprint() throws IOException {
+        write("web/package-lock.json", "{\"lockfileVersion\": 1}");
+        String before = ManifestFingerprint.of(sources);
+
+        write("web/package-lock.json", "{\"lockfileVersion\": 2}");
+
+        assertNotEquals(before, ManifestFingerprint.of(sources));
+    }
+
+    @Test
+    void isManifest_lockFilesAndProjectFiles_recognised() {
+        assertTrue(ManifestFingerprint.isManifest("go.sum"));
+        assertTrue(ManifestFingerprint.isManifest("src/Api/Api.csproj"));
+        assertFalse(ManifestFingerprint.isManifest("src/pom.xml.bak"));
+        assertFalse(ManifestFingerprint.isManifest("README.md"));
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = sources.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes());
+    }
+}
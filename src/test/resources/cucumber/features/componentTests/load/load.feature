@@ -0,0 +1,9 @@
+@LoadTest @ComponentTest
+Feature: CxFlow under load, with local stand-ins for Checkmarx, the SCM and the bug trackers
+
+  Scenario: Push webhooks published to GitHub, GitLab, Azure DevOps and Jira
+    Given the Checkmarx, GitHub, GitLab, Azure DevOps and Jira stand-ins are running
+    And CxFlow is running against the stand-ins
+    When GitHub push webhooks are replayed at 5 requests per second, round-robin to "GitHub,GitLab,Azure,JIRA"
+    Then every flow publishes all of its issues
+    And throughput, queue time and publish latency are reported per bug tracker